@@ -0,0 +1,53 @@
+package com.example.pkveksamen.config;
+
+import com.example.pkveksamen.repository.OutboxRepository;
+import com.example.pkveksamen.repository.SchedulerLockRepository;
+import com.example.pkveksamen.service.ArchiveService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+
+// Kører arkiveringen om natten (archive.cron). Slås fra med archive.enabled=false.
+// Alle noder har planen, men kun den node der får låsen i scheduler_lock, arkiverer; låsen holdes højst
+// archive.lock-minutes, så en node der går ned midt i kørslen ikke blokerer den næste nat. En hurtig kørsel
+// beholder låsen mindst MIN_HOLD_MILLIS, så en node hvis ur går lidt efter, ikke kører den igen bagefter
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "archive.enabled", havingValue = "true")
+public class ArchiveScheduler {
+
+    static final String LOCK_NAME = "archive";
+    private static final long MIN_HOLD_MILLIS = 5 * 60_000;
+
+    private final ArchiveService archiveService;
+    private final SchedulerLockRepository schedulerLockRepository;
+    private final String nodeId;
+    private final long lockMillis;
+
+    public ArchiveScheduler(ArchiveService archiveService,
+                            SchedulerLockRepository schedulerLockRepository,
+                            OutboxRepository outboxRepository,
+                            @Value("${archive.lock-minutes:60}") long lockMinutes) {
+        this.archiveService = archiveService;
+        this.schedulerLockRepository = schedulerLockRepository;
+        this.nodeId = outboxRepository.getNodeId();
+        this.lockMillis = lockMinutes * 60_000;
+    }
+
+    @Scheduled(cron = "${archive.cron:0 30 3 * * *}")
+    public void archiveCompletedProjects() {
+        long started = System.currentTimeMillis();
+        if (!schedulerLockRepository.tryLock(LOCK_NAME, nodeId, Math.max(lockMillis, MIN_HOLD_MILLIS))) {
+            System.out.println("Arkivering springes over: en anden node kører den");
+            return;
+        }
+        try {
+            archiveService.archiveCompletedProjects();
+        } finally {
+            schedulerLockRepository.unlock(LOCK_NAME, nodeId,
+                    Math.max(System.currentTimeMillis(), started + MIN_HOLD_MILLIS));
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.pkveksamen.config;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Build-trin der køres af Maven (exec-maven-plugin i process-classes) på target/classes/static:
+ * hvert stylesheet minificeres på stedet og får en forkomprimeret .gz-udgave ved siden af.
+ * Content-hash i filnavnet og Cache-Control sættes af {@link StaticResourceConfig} når filerne serveres.
+ */
+public final class AssetPipeline {
+
+    private AssetPipeline() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path staticDir = Paths.get(args.length > 0 ? args[0] : "target/classes/static");
+        if (!Files.isDirectory(staticDir)) {
+            System.out.println("AssetPipeline: " + staticDir + " findes ikke, springer over");
+            return;
+        }
+        int files = process(staticDir);
+        System.out.println("AssetPipeline: " + files + " stylesheets minificeret og gzip'et i " + staticDir);
+    }
+
+    public static int process(Path staticDir) throws IOException {
+        List<Path> stylesheets;
+        try (Stream<Path> paths = Files.walk(staticDir)) {
+            stylesheets = paths.filter(p -> p.getFileName().toString().endsWith(".css"))
+                    .collect(Collectors.toList());
+        }
+        for (Path css : stylesheets) {
+            byte[] minified = minifyCss(Files.readString(css, StandardCharsets.UTF_8)).getBytes(StandardCharsets.UTF_8);
+            Files.write(css, minified);
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(css.resolveSibling(css.getFileName() + ".gz")))) {
+                out.write(minified);
+            }
+        }
+        return stylesheets.size();
+    }
+
+    // Fjerner kommentarer og overflødigt whitespace. Tekst i anførselstegn røres ikke, og whitespace
+    // foran ':' bevares, da "a :hover" og "a:hover" er forskellige selektorer.
+    public static String minifyCss(String css) {
+        StringBuilder out = new StringBuilder(css.length());
+        int i = 0;
+        boolean pendingSpace = false;
+        while (i < css.length()) {
+            char c = css.charAt(i);
+
+            if (c == '/' && i + 1 < css.length() && css.charAt(i + 1) == '*') {
+                int end = css.indexOf("*/", i + 2);
+                i = end < 0 ? css.length() : end + 2;
+                continue;
+            }
+
+            if (c == '"' || c == '\'') {
+                int end = i + 1;
+                while (end < css.length() && css.charAt(end) != c) {
+                    end += css.charAt(end) == '\\' ? 2 : 1;
+                }
+                end = Math.min(end + 1, css.length());
+                if (pendingSpace && needsSpaceBefore(out)) {
+                    out.append(' ');
+                }
+                pendingSpace = false;
+                out.append(css, i, end);
+                i = end;
+                continue;
+            }
+
+            if (Character.isWhitespace(c)) {
+                pendingSpace = true;
+                i++;
+                continue;
+            }
+
+            if (c == '{' || c == '}' || c == ';' || c == ',' || c == '>') {
+                if (c == '}' && out.length() > 0 && out.charAt(out.length() - 1) == ';') {
+                    out.setLength(out.length() - 1);
+                }
+                out.append(c);
+            } else {
+                if (pendingSpace && needsSpaceBefore(out)) {
+                    out.append(' ');
+                }
+                out.append(c);
+            }
+            pendingSpace = false;
+            i++;
+        }
+        return out.toString();
+    }
+
+    private static boolean needsSpaceBefore(StringBuilder out) {
+        if (out.length() == 0) {
+            return false;
+        }
+        char last = out.charAt(out.length() - 1);
+        return last != '{' && last != '}' && last != ';' && last != ',' && last != '>' && last != ':';
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.pkveksamen.config;
+
+import com.example.pkveksamen.service.DataGeneratorService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+/**
+ * Kører datageneratoren ved opstart når profilen "datagen" er aktiv, fx:
+ * <pre>
+ * java -jar app.jar --spring.profiles.active=h2,datagen --datagen.employees=10000 --datagen.tasks=100000 --datagen.sub-tasks=1000000
+ * </pre>
+ * Med --datagen.exit=true lukker applikationen efter genereringen (CLI-brug mod en fil-baseret H2-database).
+ */
+@Component
+@Profile("datagen")
+public class DataGeneratorRunner implements CommandLineRunner {
+
+    private final DataGeneratorService dataGeneratorService;
+    private final ConfigurableApplicationContext context;
+
+    @Value("${datagen.employees:1000}")
+    private int employees;
+    @Value("${datagen.projects:200}")
+    private int projects;
+    @Value("${datagen.sub-projects-per-project:5}")
+    private int subProjectsPerProject;
+    @Value("${datagen.members-per-project:8}")
+    private int membersPerProject;
+    @Value("${datagen.tasks:10000}")
+    private int tasks;
+    @Value("${datagen.sub-tasks:50000}")
+    private int subTasks;
+    @Value("${datagen.batch-size:5000}")
+    private int batchSize;
+    @Value("${datagen.seed:42}")
+    private long seed;
+    @Value("${datagen.exit:false}")
+    private boolean exitAfterGeneration;
+
+    public DataGeneratorRunner(DataGeneratorService dataGeneratorService, ConfigurableApplicationContext context) {
+        this.dataGeneratorService = dataGeneratorService;
+        this.context = context;
+    }
+
+    @Override
+    public void run(String... args) {
+        DataGeneratorService.Settings settings = new DataGeneratorService.Settings();
+        settings.setEmployees(employees);
+        settings.setProjects(projects);
+        settings.setSubProjectsPerProject(subProjectsPerProject);
+        settings.setMembersPerProject(membersPerProject);
+        settings.setTasks(tasks);
+        settings.setSubTasks(subTasks);
+        settings.setBatchSize(batchSize);
+        settings.setSeed(seed);
+
+        dataGeneratorService.generate(settings);
+
+        if (exitAfterGeneration) {
+            System.exit(SpringApplication.exit(context, () -> 0));
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.pkveksamen.config;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// En læsning der skal se primærens data (fx login eller et tjek lige før en skrivning), men ikke er en skrivning.
+// Svarer til load*-præfikset for metoder der ikke hedder load* (se ReplicaRoutingInterceptor).
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface PrimaryRead {
+}
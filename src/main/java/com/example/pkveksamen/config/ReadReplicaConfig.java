@@ -0,0 +1,114 @@
+package com.example.pkveksamen.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.aop.framework.AbstractAdvisingBeanPostProcessor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Slås til ved at angive en eller flere replika-URL'er, fx:
+ * <pre>
+ * datasource.replicas.urls=jdbc:mysql://replica-1/calculationstool,jdbc:mysql://replica-2/calculationstool
+ * </pre>
+ * Replikaerne bruger samme brugernavn/password som spring.datasource med mindre andet angives.
+ * Uden replikaer bruger applikationen Spring Boots almindelige DataSource.
+ */
+@Configuration
+@ConditionalOnExpression("!'${datasource.replicas.urls:}'.isBlank()")
+public class ReadReplicaConfig implements DisposableBean {
+
+    @Value("${datasource.replicas.urls}")
+    private List<String> replicaUrls;
+    @Value("${datasource.replicas.username:${spring.datasource.username:}}")
+    private String replicaUsername;
+    @Value("${datasource.replicas.password:${spring.datasource.password:}}")
+    private String replicaPassword;
+    @Value("${datasource.replicas.max-lag-ms:2000}")
+    private long maxLagMillis;
+    @Value("${datasource.replicas.heartbeat-ms:1000}")
+    private long heartbeatMillis;
+
+    private DataSource primaryDataSource;
+    private List<DataSource> replicaDataSources;
+
+    @Bean(destroyMethod = "close")
+    public ReplicaLagMonitor replicaLagMonitor(DataSourceProperties properties) {
+        return new ReplicaLagMonitor(primaryDataSource(properties), replicaDataSources(properties), maxLagMillis, heartbeatMillis);
+    }
+
+    // Lazy-proxyen henter først forbindelsen ved første statement, dvs. efter interceptoren har valgt mål
+    @Bean
+    @Primary
+    public DataSource dataSource(DataSourceProperties properties, ReplicaLagMonitor replicaLagMonitor) {
+        return new LazyConnectionDataSourceProxy(new ReadReplicaRoutingDataSource(
+                primaryDataSource(properties), replicaDataSources(properties), replicaLagMonitor));
+    }
+
+    @Bean
+    public static ReplicaRoutingPostProcessor replicaRoutingPostProcessor(
+            @Value("${datasource.replicas.sticky-ms:5000}") long stickyMillis) {
+        return new ReplicaRoutingPostProcessor(new ReplicaRoutingInterceptor(stickyMillis));
+    }
+
+    private synchronized DataSource primaryDataSource(DataSourceProperties properties) {
+        if (primaryDataSource == null) {
+            HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+            primary.setPoolName("primary");
+            primaryDataSource = primary;
+        }
+        return primaryDataSource;
+    }
+
+    private synchronized List<DataSource> replicaDataSources(DataSourceProperties properties) {
+        if (replicaDataSources == null) {
+            replicaDataSources = new ArrayList<>();
+            for (int i = 0; i < replicaUrls.size(); i++) {
+                HikariDataSource replica = DataSourceBuilder.create()
+                        .type(HikariDataSource.class)
+                        .driverClassName(properties.determineDriverClassName())
+                        .url(replicaUrls.get(i).trim())
+                        .username(replicaUsername)
+                        .password(replicaPassword)
+                        .build();
+                replica.setPoolName(ReadReplicaRoutingDataSource.replicaKey(i));
+                replica.setReadOnly(true);
+                replicaDataSources.add(replica);
+            }
+        }
+        return replicaDataSources;
+    }
+
+    // Forbindelsespuljerne er ikke selv beans, så de lukkes her
+    @Override
+    public synchronized void destroy() {
+        if (primaryDataSource != null) {
+            ((HikariDataSource) primaryDataSource).close();
+        }
+        if (replicaDataSources != null) {
+            replicaDataSources.forEach(replica -> ((HikariDataSource) replica).close());
+        }
+    }
+
+    // Tilføjer ReplicaRoutingInterceptor til alle @Repository-beans (også dem der allerede er proxies)
+    public static class ReplicaRoutingPostProcessor extends AbstractAdvisingBeanPostProcessor {
+
+        public ReplicaRoutingPostProcessor(ReplicaRoutingInterceptor interceptor) {
+            this.advisor = new DefaultPointcutAdvisor(new AnnotationMatchingPointcut(Repository.class, true), interceptor);
+            setBeforeExistingAdvisors(true);
+        }
+    }
+}
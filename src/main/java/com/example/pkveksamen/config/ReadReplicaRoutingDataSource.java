@@ -0,0 +1,64 @@
+package com.example.pkveksamen.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Vælger forbindelse pr. kald: læsninger markeret af ReplicaRoutingInterceptor går til en sund replika
+// (round-robin), alt andet - og læsninger når ingen replika er sund - går til primæren.
+public class ReadReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    static final String PRIMARY = "primary";
+
+    private static final ThreadLocal<Boolean> READ_FROM_REPLICA = new ThreadLocal<>();
+
+    private final ReplicaLagMonitor lagMonitor;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    public ReadReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, ReplicaLagMonitor lagMonitor) {
+        this.lagMonitor = lagMonitor;
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            targets.put(replicaKey(i), replicas.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!Boolean.TRUE.equals(READ_FROM_REPLICA.get())) {
+            return PRIMARY;
+        }
+        int replicaCount = lagMonitor.getReplicaCount();
+        int start = Math.floorMod(nextReplica.getAndIncrement(), replicaCount);
+        for (int i = 0; i < replicaCount; i++) {
+            int candidate = (start + i) % replicaCount;
+            if (lagMonitor.isHealthy(candidate)) {
+                return replicaKey(candidate);
+            }
+        }
+        return PRIMARY;
+    }
+
+    // Returnerer den tidligere værdi, så kaldet kan genskabes bagefter
+    static Boolean setReadFromReplica(Boolean readFromReplica) {
+        Boolean previous = READ_FROM_REPLICA.get();
+        if (readFromReplica == null) {
+            READ_FROM_REPLICA.remove();
+        } else {
+            READ_FROM_REPLICA.set(readFromReplica);
+        }
+        return previous;
+    }
+
+    static String replicaKey(int index) {
+        return "replica-" + index;
+    }
+}
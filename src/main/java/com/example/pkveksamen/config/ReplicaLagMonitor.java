@@ -0,0 +1,88 @@
+package com.example.pkveksamen.config;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Måler replika-forsinkelse med en heartbeat-række: primæren får skrevet et tidsstempel i replica_heartbeat
+// hvert interval, og hver replika er "sund" så længe dens kopi højst er maxLagMillis bagefter den seneste
+// heartbeat. En replika der ikke kan nås, eller mangler tabellen, regnes som usund, så læsninger går til primæren.
+public class ReplicaLagMonitor implements AutoCloseable {
+
+    private final JdbcTemplate primary;
+    private final List<JdbcTemplate> replicas = new ArrayList<>();
+    private final long maxLagMillis;
+    // Skrives af monitor-tråden og læses af request-trådene
+    private final List<AtomicBoolean> healthy = new ArrayList<>();
+    private final ScheduledExecutorService scheduler;
+
+    private volatile long lastHeartbeat;
+
+    public ReplicaLagMonitor(DataSource primary, List<DataSource> replicas, long maxLagMillis, long heartbeatMillis) {
+        this.primary = new JdbcTemplate(primary);
+        for (DataSource replica : replicas) {
+            this.replicas.add(new JdbcTemplate(replica));
+        }
+        this.maxLagMillis = maxLagMillis;
+        for (int i = 0; i < replicas.size(); i++) {
+            this.healthy.add(new AtomicBoolean());
+        }
+
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-lag-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::check, 0, heartbeatMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // Replikaerne læses før der skrives en ny heartbeat, så en replika der er fuldt med har lag 0
+    public synchronized void check() {
+        long reference = lastHeartbeat > 0 ? lastHeartbeat : System.currentTimeMillis();
+        for (int i = 0; i < replicas.size(); i++) {
+            boolean nowHealthy;
+            try {
+                Timestamp beat = replicas.get(i).queryForObject(
+                        "SELECT beat_at FROM replica_heartbeat WHERE heartbeat_id = 1", Timestamp.class);
+                nowHealthy = beat != null && reference - beat.getTime() <= maxLagMillis;
+            } catch (DataAccessException e) {
+                nowHealthy = false;
+            }
+            if (healthy.get(i).getAndSet(nowHealthy) != nowHealthy) {
+                System.out.println("Replika " + i + (nowHealthy ? " er sund igen" : " er bagud eller utilgængelig - læser fra primæren"));
+            }
+        }
+
+        long now = System.currentTimeMillis();
+        try {
+            Timestamp beat = new Timestamp(now);
+            if (primary.update("UPDATE replica_heartbeat SET beat_at = ? WHERE heartbeat_id = 1", beat) == 0) {
+                primary.update("INSERT INTO replica_heartbeat (heartbeat_id, beat_at) VALUES (1, ?)", beat);
+            }
+            lastHeartbeat = now;
+        } catch (DataAccessException e) {
+            System.out.println("Kunne ikke skrive replika-heartbeat: " + e.getMessage());
+        }
+    }
+
+    public boolean isHealthy(int replica) {
+        return healthy.get(replica).get();
+    }
+
+    public int getReplicaCount() {
+        return replicas.size();
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+}
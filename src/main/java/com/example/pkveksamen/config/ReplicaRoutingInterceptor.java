@@ -0,0 +1,130 @@
+package com.example.pkveksamen.config;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.lang.reflect.Method;
+
+// Lægger sig om alle @Repository-metoder. show*/get*/find*/stream* må læse fra en replika. load* og metoder
+// med @PrimaryRead læser fra primæren uden at tælle som skrivning; alle andre metoder regnes som skrivninger
+// og går til primæren. Efter en skrivning læser samme bruger fra primæren
+// i stickyMillis, så brugeren altid ser sine egne ændringer selvom replikaen ikke er nået dertil endnu.
+// Login bruger ingen HttpSession, så tidspunktet følger med til næste request (fx GET efter redirect) i en
+// kortlivet cookie.
+public class ReplicaRoutingInterceptor implements MethodInterceptor {
+
+    static final String PRIMARY_UNTIL_ATTRIBUTE = ReplicaRoutingInterceptor.class.getName() + ".primaryUntil";
+    public static final String PRIMARY_UNTIL_COOKIE = "PCT_PRIMARY_UNTIL";
+
+    private static final String COOKIE_WRITTEN_ATTRIBUTE = ReplicaRoutingInterceptor.class.getName() + ".cookieWritten";
+
+    private static final String[] READ_PREFIXES = {"show", "get", "find", "stream"};
+    private static final String PRIMARY_READ_PREFIX = "load";
+
+    private final long stickyMillis;
+
+    public ReplicaRoutingInterceptor(long stickyMillis) {
+        this.stickyMillis = stickyMillis;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Method method = invocation.getMethod();
+        boolean read = isReadMethod(method.getName());
+        boolean write = !read && !isPrimaryRead(method);
+        boolean useReplica = read && !inWriteTransaction() && !recentlyWrote();
+
+        Boolean previous = ReadReplicaRoutingDataSource.setReadFromReplica(useReplica);
+        try {
+            return invocation.proceed();
+        } finally {
+            ReadReplicaRoutingDataSource.setReadFromReplica(previous);
+            if (write) {
+                markWrite();
+            }
+        }
+    }
+
+    static boolean isReadMethod(String name) {
+        for (String prefix : READ_PREFIXES) {
+            if (name.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static boolean isPrimaryRead(Method method) {
+        return method.getName().startsWith(PRIMARY_READ_PREFIX) || method.isAnnotationPresent(PrimaryRead.class);
+    }
+
+    private static boolean inWriteTransaction() {
+        return TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    private boolean recentlyWrote() {
+        HttpServletRequest request = currentRequest();
+        if (request == null) {
+            return false;
+        }
+        Object until = request.getAttribute(PRIMARY_UNTIL_ATTRIBUTE);
+        if (until == null) {
+            until = cookieValue(request);
+        }
+        long now = System.currentTimeMillis();
+        // Et tidspunkt længere ude end stickyMillis kan ikke komme fra os og ignoreres
+        return until instanceof Long && now < (Long) until && (Long) until <= now + stickyMillis;
+    }
+
+    // Gemmes på requesten og i en cookie, så næste request fra samme browser også ser det
+    private void markWrite() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes servletAttributes)) {
+            return;
+        }
+        HttpServletRequest request = servletAttributes.getRequest();
+        Long until = System.currentTimeMillis() + stickyMillis;
+        request.setAttribute(PRIMARY_UNTIL_ATTRIBUTE, until);
+
+        HttpServletResponse response = servletAttributes.getResponse();
+        if (response == null || response.isCommitted() || request.getAttribute(COOKIE_WRITTEN_ATTRIBUTE) != null) {
+            return;
+        }
+        Cookie cookie = new Cookie(PRIMARY_UNTIL_COOKIE, String.valueOf(until));
+        cookie.setPath("/");
+        cookie.setHttpOnly(true);
+        cookie.setMaxAge((int) Math.max(1, (stickyMillis + 999) / 1000));
+        response.addCookie(cookie);
+        request.setAttribute(COOKIE_WRITTEN_ATTRIBUTE, Boolean.TRUE);
+    }
+
+    private static Long cookieValue(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return null;
+        }
+        for (Cookie cookie : cookies) {
+            if (PRIMARY_UNTIL_COOKIE.equals(cookie.getName())) {
+                try {
+                    return Long.parseLong(cookie.getValue());
+                } catch (NumberFormatException e) {
+                    return null;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static HttpServletRequest currentRequest() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        return attributes instanceof ServletRequestAttributes ? ((ServletRequestAttributes) attributes).getRequest() : null;
+    }
+}
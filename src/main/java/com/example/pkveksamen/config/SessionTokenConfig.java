@@ -0,0 +1,31 @@
+package com.example.pkveksamen.config;
+
+import com.example.pkveksamen.service.SessionTokenService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+// Alle sider kræver login-token når auth.token.required=true (sat i prod-profilen) - også ruter uden for
+// /project som TaskControllers /save og /task/delete. Kun forside, login, oprettelse af bruger, fejlsiden
+// og statiske filer er åbne.
+@Configuration
+public class SessionTokenConfig implements WebMvcConfigurer {
+
+    private final SessionTokenService sessionTokenService;
+
+    @Value("${auth.token.required:false}")
+    private boolean required;
+
+    public SessionTokenConfig(SessionTokenService sessionTokenService) {
+        this.sessionTokenService = sessionTokenService;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new SessionTokenInterceptor(sessionTokenService, required))
+                .addPathPatterns("/**")
+                .excludePathPatterns("/", "/login", "/validate-login", "/create-employee", "/logout", "/error",
+                        "/*.css", "/*.css.gz", "/*.js", "/*.ico", "/*.png", "/*.svg");
+    }
+}
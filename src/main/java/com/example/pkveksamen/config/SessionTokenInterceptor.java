@@ -0,0 +1,59 @@
+package com.example.pkveksamen.config;
+
+import com.example.pkveksamen.model.SessionToken;
+import com.example.pkveksamen.service.SessionTokenService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+
+// Læser login-tokenet på hver request og lægger det på requesten som AUTHENTICATED_ATTRIBUTE.
+// Med auth.token.required=true afvises requests uden gyldigt token (401 for /api, ellers redirect til login),
+// og en {employeeId} i stien skal være den indloggede medarbejder (403).
+public class SessionTokenInterceptor implements HandlerInterceptor {
+
+    public static final String AUTHENTICATED_ATTRIBUTE = SessionTokenInterceptor.class.getName() + ".token";
+
+    private final SessionTokenService sessionTokenService;
+    private final boolean required;
+
+    public SessionTokenInterceptor(SessionTokenService sessionTokenService, boolean required) {
+        this.sessionTokenService = sessionTokenService;
+        this.required = required;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        SessionToken token = sessionTokenService.verify(request);
+        if (token != null) {
+            request.setAttribute(AUTHENTICATED_ATTRIBUTE, token);
+            if (sessionTokenService.shouldRenew(token)) {
+                sessionTokenService.writeCookie(response, token.getEmployeeId(), token.getRole());
+            }
+        }
+        if (!required) {
+            return true;
+        }
+
+        if (token == null) {
+            if (request.getRequestURI().startsWith(request.getContextPath() + "/api/")) {
+                response.sendError(HttpServletResponse.SC_UNAUTHORIZED);
+            } else {
+                response.sendRedirect(request.getContextPath() + "/login");
+            }
+            return false;
+        }
+
+        @SuppressWarnings("unchecked")
+        Map<String, String> pathVariables =
+                (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        String employeeId = pathVariables == null ? null : pathVariables.get("employeeId");
+        if (employeeId != null && !employeeId.equals(String.valueOf(token.getEmployeeId()))) {
+            response.sendError(HttpServletResponse.SC_FORBIDDEN);
+            return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.pkveksamen.config;
+
+import com.example.pkveksamen.service.SnapshotService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.LocalDate;
+
+// Tager dagens projekt-snapshot sidst på dagen (snapshot.cron). Slås fra med snapshot.enabled=false
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "snapshot.enabled", havingValue = "true")
+public class SnapshotScheduler {
+
+    private final SnapshotService snapshotService;
+
+    public SnapshotScheduler(SnapshotService snapshotService) {
+        this.snapshotService = snapshotService;
+    }
+
+    @Scheduled(cron = "${snapshot.cron:0 50 23 * * *}")
+    public void takeDailySnapshot() {
+        snapshotService.takeSnapshot(LocalDate.now());
+    }
+}
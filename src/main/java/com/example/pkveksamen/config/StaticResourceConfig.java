@@ -0,0 +1,38 @@
+package com.example.pkveksamen.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+import org.springframework.web.servlet.resource.ResourceUrlEncodingFilter;
+import org.springframework.web.servlet.resource.VersionResourceResolver;
+
+import java.time.Duration;
+
+// Stylesheets serveres under et navn med content-hash (task-<md5>.css). ResourceUrlEncodingFilter
+// omskriver @{/task.css} i templates til den hashede sti, så filerne kan caches som immutable i et år.
+// Findes der en forkomprimeret .gz (fra AssetPipeline) sendes den direkte til klienter der accepterer gzip.
+@Configuration
+public class StaticResourceConfig implements WebMvcConfigurer {
+
+    @Value("${assets.cache-days:365}")
+    private long cacheDays;
+
+    @Override
+    public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        registry.addResourceHandler("/**")
+                .addResourceLocations("classpath:/static/")
+                .setCacheControl(CacheControl.maxAge(Duration.ofDays(cacheDays)).cachePublic().immutable())
+                .resourceChain(true)
+                .addResolver(new EncodedResourceResolver())
+                .addResolver(new VersionResourceResolver().addContentVersionStrategy("/**"));
+    }
+
+    @Bean
+    public ResourceUrlEncodingFilter resourceUrlEncodingFilter() {
+        return new ResourceUrlEncodingFilter();
+    }
+}
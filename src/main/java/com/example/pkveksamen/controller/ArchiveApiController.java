@@ -0,0 +1,80 @@
+package com.example.pkveksamen.controller;
+
+import com.example.pkveksamen.model.ApiPage;
+import com.example.pkveksamen.repository.ApiResource;
+import com.example.pkveksamen.service.ApiService;
+import com.example.pkveksamen.service.ArchiveService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+// Læsning, gendannelse og manuel kørsel af arkivet. Læsningerne understøtter ?fields=, ?cursor= og ?limit=
+// præcis som de levende ressourcer.
+@RestController
+@RequestMapping("/api/v1")
+public class ArchiveApiController {
+
+    private final ApiService apiService;
+    private final ArchiveService archiveService;
+
+    public ArchiveApiController(ApiService apiService, ArchiveService archiveService) {
+        this.apiService = apiService;
+        this.archiveService = archiveService;
+    }
+
+    @GetMapping("/employees/{employeeId}/archived-projects")
+    public ApiPage getArchivedProjects(@PathVariable int employeeId,
+                                       @RequestParam(required = false) String fields,
+                                       @RequestParam(required = false) String cursor,
+                                       @RequestParam(required = false) Integer limit) {
+        return apiService.getArchivedProjectsByEmployeeId(employeeId, fields, cursor, limit);
+    }
+
+    @GetMapping("/archived-projects/{projectId}")
+    public ResponseEntity<Map<String, Object>> getArchivedProject(@PathVariable long projectId,
+                                                                  @RequestParam(required = false) String fields) {
+        return ProjectApiController.found(apiService.getById(ApiResource.ARCHIVED_PROJECT, projectId, fields));
+    }
+
+    @GetMapping("/archived-projects/{projectId}/subprojects")
+    public ApiPage getArchivedSubProjects(@PathVariable long projectId,
+                                          @RequestParam(required = false) String fields,
+                                          @RequestParam(required = false) String cursor,
+                                          @RequestParam(required = false) Integer limit) {
+        return apiService.getArchivedSubProjectsByProjectId(projectId, fields, cursor, limit);
+    }
+
+    @GetMapping("/archived-subprojects/{subProjectId}/tasks")
+    public ApiPage getArchivedTasks(@PathVariable long subProjectId,
+                                    @RequestParam(required = false) String fields,
+                                    @RequestParam(required = false) String cursor,
+                                    @RequestParam(required = false) Integer limit) {
+        return apiService.getArchivedTasksBySubProjectId(subProjectId, fields, cursor, limit);
+    }
+
+    @GetMapping("/archived-tasks/{taskId}/subtasks")
+    public ApiPage getArchivedSubTasks(@PathVariable long taskId,
+                                       @RequestParam(required = false) String fields,
+                                       @RequestParam(required = false) String cursor,
+                                       @RequestParam(required = false) Integer limit) {
+        return apiService.getArchivedSubTasksByTaskId(taskId, fields, cursor, limit);
+    }
+
+    @PostMapping("/archived-projects/{projectId}/restore")
+    public ResponseEntity<Void> restoreProject(@PathVariable long projectId) {
+        return archiveService.restoreProject(projectId)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+
+    @PostMapping("/archive/run")
+    public Map<String, Integer> runArchive() {
+        return Map.of("archivedProjects", archiveService.archiveCompletedProjects());
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> badRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
+}
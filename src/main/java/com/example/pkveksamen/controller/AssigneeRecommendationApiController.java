@@ -0,0 +1,32 @@
+package com.example.pkveksamen.controller;
+
+import com.example.pkveksamen.model.AlphaRole;
+import com.example.pkveksamen.model.AssigneeRecommendation;
+import com.example.pkveksamen.service.AssigneeRecommender;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Forslag til hvem en ny task kan tildeles, ud fra projektmedlemmernes roller og belastning.
+@RestController
+@RequestMapping("/api/v1")
+public class AssigneeRecommendationApiController {
+
+    private final AssigneeRecommender assigneeRecommender;
+
+    public AssigneeRecommendationApiController(AssigneeRecommender assigneeRecommender) {
+        this.assigneeRecommender = assigneeRecommender;
+    }
+
+    // Kortliste over hvem en ny task kan tildeles: ?skills=Tester&skills=Developer&start=2025-01-01&deadline=2025-01-14
+    @GetMapping("/projects/{projectId}/assignee-recommendations")
+    public List<AssigneeRecommendation> recommendAssignees(@PathVariable long projectId,
+                                                           @RequestParam(required = false) List<AlphaRole> skills,
+                                                           @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
+                                                           @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate deadline,
+                                                           @RequestParam(required = false) Integer limit) {
+        return assigneeRecommender.recommend(projectId, skills, start, deadline, limit);
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.pkveksamen.controller;
+
+import com.example.pkveksamen.model.JournalRecord;
+import com.example.pkveksamen.repository.JournalCompactor;
+import com.example.pkveksamen.service.AuditJournal;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+// Læsning og komprimering af nodens lokale audit-journal. Svarer 404 når journalen ikke er slået til, og 409 på
+// /compact mens en komprimering allerede kører
+@RestController
+@RequestMapping("/api/v1/audit-journal")
+public class AuditJournalApiController {
+
+    private static final int DEFAULT_LIMIT = 100;
+    private static final int MAX_LIMIT = 1000;
+
+    private final AuditJournal auditJournal;
+
+    public AuditJournalApiController(AuditJournal auditJournal) {
+        this.auditJournal = auditJournal;
+    }
+
+    // Poster fra og med ?from= (sekvensnummer); næste side begynder ved sidste sekvens + 1
+    @GetMapping
+    public ResponseEntity<List<JournalRecord>> read(@RequestParam(defaultValue = "1") long from,
+                                                    @RequestParam(required = false) Integer limit) throws IOException {
+        if (!auditJournal.isEnabled()) {
+            return ResponseEntity.notFound().build();
+        }
+        int pageSize = limit == null ? DEFAULT_LIMIT : Math.max(1, Math.min(limit, MAX_LIMIT));
+        return ResponseEntity.ok(auditJournal.read(from, pageSize));
+    }
+
+    @PostMapping("/compact")
+    public ResponseEntity<JournalCompactor.Result> compact() throws IOException {
+        if (!auditJournal.isEnabled()) {
+            return ResponseEntity.notFound().build();
+        }
+        JournalCompactor.Result result = auditJournal.compact();
+        if (result == null) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        return ResponseEntity.ok(result);
+    }
+
+    @ExceptionHandler(IOException.class)
+    public ResponseEntity<Map<String, String>> journalError(IOException e) {
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", e.getMessage()));
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.pkveksamen.controller;
+
+import com.example.pkveksamen.model.AlphaRole;
+import com.example.pkveksamen.model.EmployeeSuggestion;
+import com.example.pkveksamen.service.EmployeeDirectory;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+// Typeahead over medarbejdere der kan tilføjes et projekt. Svarer fra EmployeeDirectory i hukommelsen.
+@RestController
+@RequestMapping("/api/v1")
+public class AvailableEmployeeApiController {
+
+    private final EmployeeDirectory employeeDirectory;
+
+    public AvailableEmployeeApiController(EmployeeDirectory employeeDirectory) {
+        this.employeeDirectory = employeeDirectory;
+    }
+
+    // Typeahead på siden med projektmedlemmer: ?q= er begyndelsen af brugernavn eller email
+    @GetMapping("/projects/{projectId}/available-employees")
+    public List<EmployeeSuggestion> suggestAvailableEmployees(@PathVariable long projectId,
+                                                              @RequestParam(required = false) String q,
+                                                              @RequestParam(required = false) AlphaRole alphaRole,
+                                                              @RequestParam(required = false) Integer limit) {
+        return employeeDirectory.suggestAvailableEmployees(projectId, q, alphaRole, limit);
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.pkveksamen.controller;
+
+import com.example.pkveksamen.model.BurndownPoint;
+import com.example.pkveksamen.service.SnapshotService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+// Burndown fra de daglige snapshots i project_snapshot, og manuel kørsel af snapshottet.
+@RestController
+@RequestMapping("/api/v1")
+public class BurndownApiController {
+
+    private final SnapshotService snapshotService;
+
+    public BurndownApiController(SnapshotService snapshotService) {
+        this.snapshotService = snapshotService;
+    }
+
+    // Burndown fra de daglige snapshots: ?from=&to= (standard de sidste 90 dage), ?subProjectId= for ét subprojekt
+    @GetMapping("/projects/{projectId}/burndown")
+    public List<BurndownPoint> getBurndown(@PathVariable long projectId,
+                                           @RequestParam(required = false) Long subProjectId,
+                                           @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                           @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return snapshotService.getBurndown(projectId, subProjectId, from, to);
+    }
+
+    // Tager dagens snapshot nu i stedet for at vente på snapshot.cron
+    @PostMapping("/project-snapshots/run")
+    public Map<String, Integer> takeSnapshot() {
+        return Map.of("rows", snapshotService.takeSnapshot(LocalDate.now()));
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> badRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.pkveksamen.controller;
+
+import com.example.pkveksamen.model.EarnedValuePoint;
+import com.example.pkveksamen.service.SnapshotService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+// Earned value (BAC, PV og EV) fra de samme daglige snapshots som burndown.
+@RestController
+@RequestMapping("/api/v1")
+public class EarnedValueApiController {
+
+    private final SnapshotService snapshotService;
+
+    public EarnedValueApiController(SnapshotService snapshotService) {
+        this.snapshotService = snapshotService;
+    }
+
+    // Samme parametre som burndown: ?from=&to= og ?subProjectId=
+    @GetMapping("/projects/{projectId}/earned-value")
+    public List<EarnedValuePoint> getEarnedValue(@PathVariable long projectId,
+                                                 @RequestParam(required = false) Long subProjectId,
+                                                 @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                 @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return snapshotService.getEarnedValue(projectId, subProjectId, from, to);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> badRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
+}
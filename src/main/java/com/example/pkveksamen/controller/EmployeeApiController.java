@@ -0,0 +1,25 @@
+package com.example.pkveksamen.controller;
+
+import com.example.pkveksamen.model.ProvisioningReport;
+import com.example.pkveksamen.service.EmployeeProvisioningService;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+// Masseoprettelse af medarbejdere. Body er CSV: username,password,email,role,alphaRoles (alphaRoles adskilt med ';')
+@RestController
+@RequestMapping("/api/v1")
+public class EmployeeApiController {
+
+    private final EmployeeProvisioningService employeeProvisioningService;
+
+    public EmployeeApiController(EmployeeProvisioningService employeeProvisioningService) {
+        this.employeeProvisioningService = employeeProvisioningService;
+    }
+
+    @PostMapping(value = "/employees/import", consumes = {"text/csv", "text/plain"})
+    public ProvisioningReport importEmployees(@RequestBody String csv) {
+        return employeeProvisioningService.provisionCsv(csv);
+    }
+}
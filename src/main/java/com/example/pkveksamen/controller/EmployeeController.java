@@ -4,6 +4,9 @@ import com.example.pkveksamen.model.AlphaRole;
 import com.example.pkveksamen.model.Employee;
 import com.example.pkveksamen.model.EmployeeRole;
 import com.example.pkveksamen.service.EmployeeService;
+import com.example.pkveksamen.service.SessionTokenService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.servlet.http.HttpSession;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -14,9 +17,11 @@ import org.springframework.web.bind.annotation.*;
 public class EmployeeController {
 
     private final EmployeeService employeeService;
+    private final SessionTokenService sessionTokenService;
 
-    public EmployeeController(EmployeeService employeeService) {
+    public EmployeeController(EmployeeService employeeService, SessionTokenService sessionTokenService) {
         this.employeeService = employeeService;
+        this.sessionTokenService = sessionTokenService;
     }
 
     @GetMapping("/")
@@ -69,10 +74,14 @@ public class EmployeeController {
     @PostMapping("/validate-login")
     public String validateLogin(@RequestParam("username") String username,
                                 @RequestParam("password") String password,
-                                Model model) {
+                                Model model,
+                                HttpServletResponse response) {
         Integer id = employeeService.validateLogin(username, password);
 
         if (id != null && id > 0) {
+            // Login gemmes i et signeret token-cookie i stedet for i HttpSession
+            Employee employee = employeeService.getEmployeeById(id);
+            sessionTokenService.writeCookie(response, id, employee != null ? employee.getRole() : null);
             return "redirect:/project/list/" + id;
         } else {
             model.addAttribute("error", "Brugernavn eller adgangskoden er forkert. Prøv igen!");
@@ -81,8 +90,12 @@ public class EmployeeController {
     }
 
     @PostMapping("/logout")
-    public String logout(HttpSession session) {
-        session.invalidate();
+    public String logout(HttpServletRequest request, HttpServletResponse response) {
+        sessionTokenService.clearCookie(response);
+        HttpSession session = request.getSession(false);
+        if (session != null) {
+            session.invalidate();
+        }
         return "redirect:/login";
     }
 }
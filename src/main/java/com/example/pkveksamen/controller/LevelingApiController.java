@@ -0,0 +1,47 @@
+package com.example.pkveksamen.controller;
+
+import com.example.pkveksamen.model.LevelingJob;
+import com.example.pkveksamen.service.ResourceLevelingService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+
+// Ressourceudjævning som asynkront job: start, følg og gennemfør de foreslåede flytninger.
+@RestController
+@RequestMapping("/api/v1")
+public class LevelingApiController {
+
+    private final ResourceLevelingService resourceLevelingService;
+
+    public LevelingApiController(ResourceLevelingService resourceLevelingService) {
+        this.resourceLevelingService = resourceLevelingService;
+    }
+
+    // Starter ressourceudjævning; jobbet følges på Location indtil state er READY
+    @PostMapping("/projects/{projectId}/leveling-jobs")
+    public ResponseEntity<LevelingJob> startLeveling(@PathVariable long projectId) {
+        LevelingJob job = resourceLevelingService.start(projectId);
+        return ResponseEntity.accepted().location(URI.create("/api/v1/leveling-jobs/" + job.getJobId())).body(job);
+    }
+
+    @GetMapping("/leveling-jobs/{jobId}")
+    public ResponseEntity<LevelingJob> getLevelingJob(@PathVariable String jobId) {
+        LevelingJob job = resourceLevelingService.getJob(jobId);
+        return job == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(job);
+    }
+
+    // Body (valgfri): {"taskIds": [1, 2]} - uden body gennemføres alle foreslåede flytninger
+    @PostMapping("/leveling-jobs/{jobId}/apply")
+    public LevelingJob applyLeveling(@PathVariable String jobId,
+                                     @RequestBody(required = false) Map<String, List<Long>> body) {
+        return resourceLevelingService.apply(jobId, body == null ? null : body.get("taskIds"));
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> badRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
+}
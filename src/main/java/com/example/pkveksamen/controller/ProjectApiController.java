@@ -0,0 +1,108 @@
+package com.example.pkveksamen.controller;
+
+import com.example.pkveksamen.model.ApiPage;
+import com.example.pkveksamen.model.Project;
+import com.example.pkveksamen.model.SubProject;
+import com.example.pkveksamen.repository.ApiResource;
+import com.example.pkveksamen.service.ApiService;
+import com.example.pkveksamen.service.ProjectService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+// JSON-API v1 for projekter og subprojekter. Læsninger understøtter ?fields=, ?cursor= og ?limit=,
+// skrivninger går gennem ProjectService ligesom de HTML-baserede sider. Funktionerne oven på et projekt
+// (tidslinje, udjævning, burndown osv.) har hver sin controller ved siden af.
+@RestController
+@RequestMapping("/api/v1")
+public class ProjectApiController {
+
+    private final ApiService apiService;
+    private final ProjectService projectService;
+
+    public ProjectApiController(ApiService apiService, ProjectService projectService) {
+        this.apiService = apiService;
+        this.projectService = projectService;
+    }
+
+    @GetMapping("/employees/{employeeId}/projects")
+    public ApiPage getProjects(@PathVariable int employeeId,
+                               @RequestParam(required = false) String fields,
+                               @RequestParam(required = false) String cursor,
+                               @RequestParam(required = false) Integer limit) {
+        return apiService.getProjectsByEmployeeId(employeeId, fields, cursor, limit);
+    }
+
+    @GetMapping("/projects/{projectId}")
+    public ResponseEntity<Map<String, Object>> getProject(@PathVariable long projectId,
+                                                          @RequestParam(required = false) String fields) {
+        return found(apiService.getById(ApiResource.PROJECT, projectId, fields));
+    }
+
+    @PostMapping("/employees/{employeeId}/projects")
+    public ResponseEntity<Void> createProject(@PathVariable int employeeId, @RequestBody Project project) {
+        projectService.createProject(project.getProjectName(), project.getProjectDescription(),
+                project.getProjectStartDate(), project.getProjectDeadline(), project.getProjectCustomer(), employeeId);
+        return ResponseEntity.status(HttpStatus.CREATED).build();
+    }
+
+    @PutMapping("/projects/{projectId}")
+    public ResponseEntity<Void> editProject(@PathVariable long projectId, @RequestBody Project project) {
+        project.setProjectID(projectId);
+        project.recalculateDuration();
+        projectService.editProject(project);
+        return ResponseEntity.noContent().build();
+    }
+
+    @DeleteMapping("/projects/{projectId}")
+    public ResponseEntity<Void> deleteProject(@PathVariable long projectId) {
+        projectService.deleteProject(projectId);
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/projects/{projectId}/subprojects")
+    public ApiPage getSubProjects(@PathVariable long projectId,
+                                  @RequestParam(required = false) String fields,
+                                  @RequestParam(required = false) String cursor,
+                                  @RequestParam(required = false) Integer limit) {
+        return apiService.getSubProjectsByProjectId(projectId, fields, cursor, limit);
+    }
+
+    @GetMapping("/subprojects/{subProjectId}")
+    public ResponseEntity<Map<String, Object>> getSubProject(@PathVariable long subProjectId,
+                                                             @RequestParam(required = false) String fields) {
+        return found(apiService.getById(ApiResource.SUB_PROJECT, subProjectId, fields));
+    }
+
+    @PostMapping("/projects/{projectId}/subprojects")
+    public ResponseEntity<Void> createSubProject(@PathVariable long projectId, @RequestBody SubProject subProject) {
+        subProject.recalculateDuration();
+        projectService.saveSubProject(subProject, projectId);
+        return ResponseEntity.status(HttpStatus.CREATED).build();
+    }
+
+    @PutMapping("/subprojects/{subProjectId}")
+    public ResponseEntity<Void> editSubProject(@PathVariable long subProjectId, @RequestBody SubProject subProject) {
+        subProject.setSubProjectID(subProjectId);
+        subProject.recalculateDuration();
+        projectService.editSubProject(subProject);
+        return ResponseEntity.noContent().build();
+    }
+
+    @DeleteMapping("/subprojects/{subProjectId}")
+    public ResponseEntity<Void> deleteSubProject(@PathVariable long subProjectId) {
+        projectService.deleteSubProject(subProjectId);
+        return ResponseEntity.noContent().build();
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> badRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
+
+    static ResponseEntity<Map<String, Object>> found(Map<String, Object> row) {
+        return row == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(row);
+    }
+}
@@ -1,24 +1,50 @@
 package com.example.pkveksamen.controller;
 
 import com.example.pkveksamen.model.*;
+import com.example.pkveksamen.service.DashboardService;
 import com.example.pkveksamen.service.ProjectService;
 import com.example.pkveksamen.service.EmployeeService;
+import com.example.pkveksamen.service.HeaderFragmentCache;
+import com.example.pkveksamen.service.ResourceLevelingService;
+import com.example.pkveksamen.service.TaskHistoryService;
+import com.example.pkveksamen.service.WorkItemService;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.ui.Model;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 @Controller
 @RequestMapping("project")
 public class ProjectController {
     private final ProjectService projectService;
     private final EmployeeService employeeService;
-
-    public ProjectController(ProjectService projectService, EmployeeService employeeService) {
+    private final HeaderFragmentCache headerFragmentCache;
+    private final WorkItemService workItemService;
+    private final DashboardService dashboardService;
+    private final ResourceLevelingService resourceLevelingService;
+    private final TaskHistoryService taskHistoryService;
+
+    @Value("${streaming.enabled:false}")
+    private boolean streamingEnabled;
+
+    public ProjectController(ProjectService projectService, EmployeeService employeeService,
+                             HeaderFragmentCache headerFragmentCache, WorkItemService workItemService,
+                             DashboardService dashboardService, ResourceLevelingService resourceLevelingService,
+                             TaskHistoryService taskHistoryService) {
         this.projectService = projectService;
         this.employeeService = employeeService;
+        this.headerFragmentCache = headerFragmentCache;
+        this.workItemService = workItemService;
+        this.dashboardService = dashboardService;
+        this.resourceLevelingService = resourceLevelingService;
+        this.taskHistoryService = taskHistoryService;
     }
 
     /* VI BRUGER DEN IKKE
@@ -35,22 +61,26 @@ public class ProjectController {
     @GetMapping("/employees/{employeeId}/{projectId}")
     public String showProjectMembers(@PathVariable int employeeId,
                                      @PathVariable long projectId,
+                                     @RequestParam(value = "q", required = false) String query,
+                                     @RequestParam(required = false) AlphaRole alphaRole,
+                                     @RequestParam(required = false) String cursor,
                                      Model model) {
         Project project = projectService.getProjectById(projectId);
         List<Employee> projectMembers = projectService.getProjectMembers(projectId);
-        List<Employee> availableEmployees = projectService.getAvailableEmployeesToAdd(projectId);
+        // Kun én side af dem der kan tilføjes; resten findes via søgefeltet eller "Next page"
+        EmployeePage availableEmployees = projectService.getAvailableEmployeesToAdd(projectId, query, alphaRole, cursor);
 
         model.addAttribute("project", project);
         model.addAttribute("projectMembers", projectMembers);
-        model.addAttribute("availableEmployees", availableEmployees);
+        model.addAttribute("availableEmployees", availableEmployees.getEmployees());
+        model.addAttribute("nextCursor", availableEmployees.getNextCursor());
+        model.addAttribute("query", query);
+        model.addAttribute("selectedAlphaRole", alphaRole);
+        model.addAttribute("alphaRoles", AlphaRole.values());
         model.addAttribute("currentEmployeeId", employeeId);
         model.addAttribute("currentProjectId", projectId);
 
-        Employee employee = employeeService.getEmployeeById(employeeId);
-        if (employee != null) {
-            model.addAttribute("username", employee.getUsername());
-            model.addAttribute("employeeRole", employee.getRole());
-        }
+        headerFragmentCache.addHeader(model, employeeId);
 
         return "view-project-members";
     }
@@ -72,32 +102,107 @@ public class ProjectController {
     }
 
 
+    // Starter udjævningen på en baggrundstråd; siden viser fremdriften og derefter forslaget
+    @PostMapping("/leveling/{employeeId}/{projectId}")
+    public String startLeveling(@PathVariable int employeeId, @PathVariable long projectId) {
+        LevelingJob job = resourceLevelingService.start(projectId);
+        return "redirect:/project/leveling/" + employeeId + "/" + projectId + "/" + job.getJobId();
+    }
+
+    @GetMapping("/leveling/{employeeId}/{projectId}/{jobId}")
+    public String showLeveling(@PathVariable int employeeId,
+                               @PathVariable long projectId,
+                               @PathVariable String jobId,
+                               Model model,
+                               HttpServletResponse response) {
+        LevelingJob job = resourceLevelingService.getJob(jobId);
+        if (job == null || job.getProjectId() != projectId) {
+            return levelingJobMissing(employeeId, projectId, model, response);
+        }
+        model.addAttribute("job", job);
+        model.addAttribute("project", projectService.getProjectById(projectId));
+        model.addAttribute("currentEmployeeId", employeeId);
+        model.addAttribute("currentProjectId", projectId);
+
+        headerFragmentCache.addHeader(model, employeeId);
+        return "leveling";
+    }
+
+    @PostMapping("/leveling/{employeeId}/{projectId}/{jobId}/apply")
+    public String applyLeveling(@PathVariable int employeeId,
+                                @PathVariable long projectId,
+                                @PathVariable String jobId,
+                                @RequestParam(value = "taskIds", required = false) List<Long> taskIds,
+                                Model model,
+                                HttpServletResponse response) {
+        LevelingJob job = resourceLevelingService.getJob(jobId);
+        if (job == null || job.getProjectId() != projectId) {
+            return levelingJobMissing(employeeId, projectId, model, response);
+        }
+        try {
+            // Ingen afkrydsede flytninger betyder ingen, ikke alle
+            resourceLevelingService.apply(jobId, taskIds == null ? List.of() : taskIds);
+        } catch (IllegalArgumentException e) {
+            // Allerede gennemført (fx dobbeltklik) eller glemt imens; siden viser jobbets aktuelle tilstand
+        }
+        return "redirect:/project/leveling/" + employeeId + "/" + projectId + "/" + jobId;
+    }
+
+    // Jobbet er slettet efter leveling.job-minutes eller har aldrig fandtes; det siges direkte i stedet for at
+    // sende brugeren tilbage til projektlisten
+    private String levelingJobMissing(int employeeId, long projectId, Model model, HttpServletResponse response) {
+        response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+        model.addAttribute("project", projectService.getProjectById(projectId));
+        model.addAttribute("currentEmployeeId", employeeId);
+        model.addAttribute("currentProjectId", projectId);
+
+        headerFragmentCache.addHeader(model, employeeId);
+        return "leveling";
+    }
+
+    // Projektet som det så ud ved slutningen af en given dag, genskabt fra task_history
+    @GetMapping("/history/{employeeId}/{projectId}")
+    public String showProjectHistory(@PathVariable int employeeId,
+                                     @PathVariable long projectId,
+                                     @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+                                     Model model) {
+        LocalDate asOf = date == null ? LocalDate.now() : date;
+        model.addAttribute("history", taskHistoryService.getProjectAsOf(projectId, asOf.atTime(23, 59, 59)));
+        model.addAttribute("project", projectService.getProjectById(projectId));
+        model.addAttribute("date", asOf);
+        model.addAttribute("currentEmployeeId", employeeId);
+        model.addAttribute("currentProjectId", projectId);
+
+        headerFragmentCache.addHeader(model, employeeId);
+        return "projecthistory";
+    }
+
     @GetMapping("/all-employees")
     public String showAllEmployees(@RequestParam("employeeId") int employeeId, Model model) {
-        List<Employee> employeeList = employeeService.getAllEmployees();
+        Iterable<Employee> employeeList = streamingEnabled
+                ? StreamingSupport.forCurrentRequest(employeeService.streamAllEmployees())
+                : employeeService.getAllEmployees();
         model.addAttribute("employees", employeeList);
         model.addAttribute("currentEmployeeId", employeeId);
 
-        Employee employee = employeeService.getEmployeeById(employeeId);
-        if (employee != null) {
-            model.addAttribute("username", employee.getUsername());
-            model.addAttribute("employeeRole", employee.getRole());
-        }
+        headerFragmentCache.addHeader(model, employeeId);
 
         return "view-all-employees";
     }
 
     @GetMapping("/list/{employeeId}")
     public String showProjectsByEmployeeId(@PathVariable int employeeId, Model model) {
-        List<Project> projectList = projectService.showProjectsByEmployeeId(employeeId);
-        model.addAttribute("projectList", projectList);
+        // Projekterne med task-nøgletal fra én grupperet forespørgsel, cachet pr. medarbejder
+        List<ProjectDashboard> dashboard = dashboardService.getDashboard(employeeId);
+        model.addAttribute("dashboard", dashboard);
         model.addAttribute("currentEmployeeId", employeeId);
 
-        Employee employee = employeeService.getEmployeeById(employeeId);
-        if (employee != null) {
-            model.addAttribute("username", employee.getUsername());
-            model.addAttribute("employeeRole", employee.getRole());
-        }
+        // Badge til "My work": antal åbne tasks og subtasks, talt på indekset i work_item
+        Map<Status, Integer> statusCounts = workItemService.getStatusCounts(employeeId);
+        model.addAttribute("openWorkItems", statusCounts.getOrDefault(Status.NOT_STARTED, 0)
+                + statusCounts.getOrDefault(Status.IN_PROGRESS, 0));
+
+        headerFragmentCache.addHeader(model, employeeId);
         return "project";
     }
 
@@ -111,11 +216,7 @@ public class ProjectController {
         model.addAttribute("currentEmployeeId", employeeId);
 
         // Add employee details for the header
-        Employee employee = employeeService.getEmployeeById(employeeId);
-        if (employee != null) {
-            model.addAttribute("username", employee.getUsername());
-            model.addAttribute("employeeRole", employee.getRole());
-        }
+        headerFragmentCache.addHeader(model, employeeId);
 
         return "subproject";
     }
@@ -195,6 +296,7 @@ public class ProjectController {
                 project.getProjectCustomer(),
                 employeeId
         );
+        dashboardService.evict(employeeId);
 
         return "redirect:/project/list/" + employeeId;
     }
@@ -273,11 +375,7 @@ public class ProjectController {
         model.addAttribute("project", project);
         model.addAttribute("currentEmployeeId", employeeId);
 
-        Employee employee = employeeService.getEmployeeById(employeeId);
-        if (employee != null) {
-            model.addAttribute("username", employee.getUsername());
-            model.addAttribute("employeeRole", employee.getRole());
-        }
+        headerFragmentCache.addHeader(model, employeeId);
         return "edit-project";
     }
 
@@ -291,11 +389,7 @@ public class ProjectController {
         model.addAttribute("currentEmployeeId", employeeId);
         model.addAttribute("currentProjectId", projectId);
 
-        Employee employee = employeeService.getEmployeeById(employeeId);
-        if (employee != null) {
-            model.addAttribute("username", employee.getUsername());
-            model.addAttribute("employeeRole", employee.getRole());
-        }
+        headerFragmentCache.addHeader(model, employeeId);
 
         return "edit-subproject";
     }
@@ -326,11 +420,7 @@ public class ProjectController {
             model.addAttribute("subProject", subProject);
             model.addAttribute("currentEmployeeId", employeeId);
             model.addAttribute("currentProjectId", projectId);
-            Employee employee = employeeService.getEmployeeById(employeeId);
-            if (employee != null) {
-                model.addAttribute("username", employee.getUsername());
-                model.addAttribute("employeeRole", employee.getRole());
-            }
+            headerFragmentCache.addHeader(model, employeeId);
             return "edit-subproject";
         }
         if (project.getProjectDeadline() != null && subProject.getSubProjectDeadline() != null &&
@@ -339,11 +429,7 @@ public class ProjectController {
             model.addAttribute("subProject", subProject);
             model.addAttribute("currentEmployeeId", employeeId);
             model.addAttribute("currentProjectId", projectId);
-            Employee employee = employeeService.getEmployeeById(employeeId);
-            if (employee != null) {
-                model.addAttribute("username", employee.getUsername());
-                model.addAttribute("employeeRole", employee.getRole());
-            }
+            headerFragmentCache.addHeader(model, employeeId);
             return "edit-subproject";
         }
         if (subProject.getSubProjectStartDate() != null && subProject.getSubProjectDeadline() != null &&
@@ -352,11 +438,7 @@ public class ProjectController {
             model.addAttribute("subProject", subProject);
             model.addAttribute("currentEmployeeId", employeeId);
             model.addAttribute("currentProjectId", projectId);
-            Employee employee = employeeService.getEmployeeById(employeeId);
-            if (employee != null) {
-                model.addAttribute("username", employee.getUsername());
-                model.addAttribute("employeeRole", employee.getRole());
-            }
+            headerFragmentCache.addHeader(model, employeeId);
             return "edit-subproject";
         }
 
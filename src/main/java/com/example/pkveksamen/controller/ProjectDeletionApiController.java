@@ -0,0 +1,36 @@
+package com.example.pkveksamen.controller;
+
+import com.example.pkveksamen.model.DeletionReport;
+import com.example.pkveksamen.service.ProjectDeletionService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+// Bulk-sletning af projekter. Enkelte projekter slettes via ProjectApiController.
+@RestController
+@RequestMapping("/api/v1")
+public class ProjectDeletionApiController {
+
+    private final ProjectDeletionService projectDeletionService;
+
+    public ProjectDeletionApiController(ProjectDeletionService projectDeletionService) {
+        this.projectDeletionService = projectDeletionService;
+    }
+
+    // Sletter mange projekter i små transaktioner; body: {"projectIds": [1, 2, 3]}
+    @PostMapping("/projects/bulk-delete")
+    public DeletionReport deleteProjects(@RequestBody Map<String, List<Long>> body) {
+        List<Long> projectIds = body.get("projectIds");
+        if (projectIds == null || projectIds.isEmpty()) {
+            throw new IllegalArgumentException("Feltet 'projectIds' mangler");
+        }
+        return projectDeletionService.deleteProjects(projectIds);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> badRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.pkveksamen.controller;
+
+import com.example.pkveksamen.model.ProjectHistory;
+import com.example.pkveksamen.service.TaskHistoryService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// Projektet som det så ud på et tidspunkt, genafspillet fra task_history.
+@RestController
+@RequestMapping("/api/v1")
+public class ProjectHistoryApiController {
+
+    private final TaskHistoryService taskHistoryService;
+
+    public ProjectHistoryApiController(TaskHistoryService taskHistoryService) {
+        this.taskHistoryService = taskHistoryService;
+    }
+
+    // Projektets tasks som de var på et tidspunkt: ?at=2025-03-01T12:00 eller ?date=2025-03-01 (dagens slutning).
+    // Uden tidspunkt er det nu
+    @GetMapping("/projects/{projectId}/history")
+    public ProjectHistory getProjectAsOf(@PathVariable long projectId,
+                                         @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at,
+                                         @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        LocalDateTime asOf = at != null ? at : date != null ? date.atTime(23, 59, 59) : LocalDateTime.now();
+        return taskHistoryService.getProjectAsOf(projectId, asOf);
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.pkveksamen.controller;
+
+import com.example.pkveksamen.model.TimelineLayout;
+import com.example.pkveksamen.service.TimelineService;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+// Projektets tidslinje (Gantt) som JSON. Layoutet beregnes og caches af TimelineService.
+@RestController
+@RequestMapping("/api/v1")
+public class ProjectTimelineApiController {
+
+    private final TimelineService timelineService;
+
+    public ProjectTimelineApiController(TimelineService timelineService) {
+        this.timelineService = timelineService;
+    }
+
+    // Gantt-layout for hele projektet. ETag'en er layoutets version, så If-None-Match giver 304 når intet er ændret
+    @GetMapping("/projects/{projectId}/timeline")
+    public ResponseEntity<TimelineLayout> getTimeline(@PathVariable long projectId) {
+        TimelineLayout layout = timelineService.getTimeline(projectId);
+        if (layout == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok()
+                .eTag(layout.getVersion())
+                .cacheControl(CacheControl.noCache())
+                .body(layout);
+    }
+}
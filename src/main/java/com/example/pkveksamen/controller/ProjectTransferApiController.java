@@ -0,0 +1,53 @@
+package com.example.pkveksamen.controller;
+
+import com.example.pkveksamen.model.ProjectTransferReport;
+import com.example.pkveksamen.service.ProjectTransferService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.util.Map;
+
+// Binær eksport og import af et helt projekt (se ProjectTransferService). Filen kan importeres i en anden
+// database med: curl --data-binary @project-42.pkpt -H 'Content-Type: application/octet-stream' \
+//     'http://host/api/v1/projects/import?employeeId=1'
+@RestController
+@RequestMapping("/api/v1/projects")
+public class ProjectTransferApiController {
+
+    private final ProjectTransferService projectTransferService;
+
+    public ProjectTransferApiController(ProjectTransferService projectTransferService) {
+        this.projectTransferService = projectTransferService;
+    }
+
+    @GetMapping("/{projectId}/export")
+    public ResponseEntity<StreamingResponseBody> exportProject(@PathVariable long projectId) {
+        if (!projectTransferService.projectExists(projectId)) {
+            return ResponseEntity.notFound().build();
+        }
+        StreamingResponseBody body = out -> projectTransferService.exportProject(projectId, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"project-" + projectId + ".pkpt\"")
+                .body(body);
+    }
+
+    // Kroppen læses direkte fra requestet, så en stor eksport aldrig ligger i hukommelsen på én gang
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<ProjectTransferReport> importProject(@RequestParam long employeeId,
+                                                               HttpServletRequest request) throws IOException {
+        ProjectTransferReport report = projectTransferService.importProject(request.getInputStream(), employeeId);
+        return ResponseEntity.status(HttpStatus.CREATED).body(report);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> badRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.pkveksamen.controller;
+
+import com.example.pkveksamen.model.ScheduleRisk;
+import com.example.pkveksamen.service.ScheduleSimulator;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+// Risiko for projektets færdigdato, beregnet af ScheduleSimulator.
+@RestController
+@RequestMapping("/api/v1")
+public class ScheduleRiskApiController {
+
+    private final ScheduleSimulator scheduleSimulator;
+
+    public ScheduleRiskApiController(ScheduleSimulator scheduleSimulator) {
+        this.scheduleSimulator = scheduleSimulator;
+    }
+
+    // Monte Carlo-simulering af færdigdatoer (P50/P80/P95). ?seed= giver samme resultat hver gang
+    @GetMapping("/projects/{projectId}/schedule-risk")
+    public ResponseEntity<ScheduleRisk> getScheduleRisk(@PathVariable long projectId,
+                                                        @RequestParam(required = false) Integer iterations,
+                                                        @RequestParam(required = false) Long seed) {
+        ScheduleRisk risk = scheduleSimulator.simulate(projectId, iterations, seed);
+        return risk == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(risk);
+    }
+}
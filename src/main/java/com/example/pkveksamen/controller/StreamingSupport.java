@@ -0,0 +1,45 @@
+package com.example.pkveksamen.controller;
+
+import com.example.pkveksamen.repository.StreamingRows;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+// Kobler StreamingRows til det aktuelle request: svaret flushes for hver FLUSH_EVERY_ROWS rækker,
+// så browseren kan begynde at vise tabellen, og rækkerne lukkes senest når requestet er færdigt
+// (også hvis templaten fejler undervejs).
+final class StreamingSupport {
+
+    static final int FLUSH_EVERY_ROWS = 200;
+
+    private StreamingSupport() {
+    }
+
+    static <T> StreamingRows<T> forCurrentRequest(StreamingRows<T> rows) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes servletAttributes)
+                || servletAttributes.getResponse() == null) {
+            return rows;
+        }
+
+        HttpServletResponse response = servletAttributes.getResponse();
+        int[] rowCount = {0};
+        StreamingRows<T> flushing = rows.map(row -> {
+            if (++rowCount[0] % FLUSH_EVERY_ROWS == 0) {
+                try {
+                    response.flushBuffer();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            return row;
+        });
+        attributes.registerDestructionCallback("streamingRows." + System.identityHashCode(flushing),
+                flushing::close, RequestAttributes.SCOPE_REQUEST);
+        return flushing;
+    }
+}
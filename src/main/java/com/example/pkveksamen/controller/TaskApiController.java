@@ -0,0 +1,177 @@
+package com.example.pkveksamen.controller;
+
+import com.example.pkveksamen.model.ApiPage;
+import com.example.pkveksamen.model.Priority;
+import com.example.pkveksamen.model.Status;
+import com.example.pkveksamen.model.SubTask;
+import com.example.pkveksamen.model.Task;
+import com.example.pkveksamen.model.TaskHistoryEntry;
+import com.example.pkveksamen.repository.ApiResource;
+import com.example.pkveksamen.service.ApiService;
+import com.example.pkveksamen.service.TaskHistoryService;
+import com.example.pkveksamen.service.TaskService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+// JSON-API v1 for tasks og subtasks. Status og prioritet angives som enum-navne (fx IN_PROGRESS, HIGH).
+@RestController
+@RequestMapping("/api/v1")
+public class TaskApiController {
+
+    private final ApiService apiService;
+    private final TaskService taskService;
+    private final TaskHistoryService taskHistoryService;
+
+    public TaskApiController(ApiService apiService, TaskService taskService, TaskHistoryService taskHistoryService) {
+        this.apiService = apiService;
+        this.taskService = taskService;
+        this.taskHistoryService = taskHistoryService;
+    }
+
+    @GetMapping("/subprojects/{subProjectId}/tasks")
+    public ApiPage getTasksBySubProject(@PathVariable long subProjectId,
+                                        @RequestParam(required = false) String fields,
+                                        @RequestParam(required = false) String cursor,
+                                        @RequestParam(required = false) Integer limit) {
+        return apiService.getTasksBySubProjectId(subProjectId, fields, cursor, limit);
+    }
+
+    @GetMapping("/employees/{employeeId}/tasks")
+    public ApiPage getTasksByEmployee(@PathVariable int employeeId,
+                                      @RequestParam(required = false) String fields,
+                                      @RequestParam(required = false) String cursor,
+                                      @RequestParam(required = false) Integer limit) {
+        return apiService.getTasksByEmployeeId(employeeId, fields, cursor, limit);
+    }
+
+    @GetMapping("/tasks/{taskId}")
+    public ResponseEntity<Map<String, Object>> getTask(@PathVariable long taskId,
+                                                       @RequestParam(required = false) String fields) {
+        return ProjectApiController.found(apiService.getById(ApiResource.TASK, taskId, fields));
+    }
+
+    // Alle registrerede tilstande for tasken og dens subtasks, ældste først
+    @GetMapping("/tasks/{taskId}/history")
+    public List<TaskHistoryEntry> getTaskHistory(@PathVariable long taskId) {
+        return taskHistoryService.getTaskHistory(taskId);
+    }
+
+    // employeeId er den tildelte medarbejder (valgfri)
+    @PostMapping("/subprojects/{subProjectId}/tasks")
+    public ResponseEntity<Void> createTask(@PathVariable long subProjectId,
+                                           @RequestParam(value = "employeeId", required = false) Integer employeeId,
+                                           @RequestBody Task task) {
+        task.recalculateDuration();
+        taskService.createTask(employeeId, subProjectId, task.getTaskName(), task.getTaskDescription(),
+                task.getTaskStatus() != null ? task.getTaskStatus() : Status.NOT_STARTED,
+                task.getTaskStartDate(), task.getTaskDeadline(), task.getTaskDuration(),
+                task.getTaskPriority() != null ? task.getTaskPriority() : Priority.MEDIUM,
+                task.getTaskNote());
+        return ResponseEntity.status(HttpStatus.CREATED).build();
+    }
+
+    @PutMapping("/tasks/{taskId}")
+    public ResponseEntity<Void> editTask(@PathVariable int taskId, @RequestBody Task task) {
+        task.setTaskID(taskId);
+        if (task.getTaskStatus() == null) {
+            task.setTaskStatus(Status.NOT_STARTED);
+        }
+        if (task.getTaskPriority() == null) {
+            task.setTaskPriority(Priority.MEDIUM);
+        }
+        task.recalculateDuration();
+        taskService.editTask(task);
+        return ResponseEntity.noContent().build();
+    }
+
+    @PatchMapping("/tasks/{taskId}/status")
+    public ResponseEntity<Void> updateTaskStatus(@PathVariable long taskId, @RequestBody Map<String, String> body) {
+        taskService.updateTaskStatus(taskId, Status.fromDisplayName(required(body, "status")));
+        return ResponseEntity.noContent().build();
+    }
+
+    @PatchMapping("/tasks/{taskId}/priority")
+    public ResponseEntity<Void> updateTaskPriority(@PathVariable long taskId, @RequestBody Map<String, String> body) {
+        taskService.updateTaskPriority(taskId, Priority.fromDisplayName(required(body, "priority")));
+        return ResponseEntity.noContent().build();
+    }
+
+    @PatchMapping("/tasks/{taskId}/note")
+    public ResponseEntity<Void> updateTaskNote(@PathVariable long taskId, @RequestBody Map<String, String> body) {
+        taskService.updateTaskNote(taskId, body.get("note"));
+        return ResponseEntity.noContent().build();
+    }
+
+    @DeleteMapping("/tasks/{taskId}")
+    public ResponseEntity<Void> deleteTask(@PathVariable long taskId) {
+        taskService.deleteTask(taskId);
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/tasks/{taskId}/subtasks")
+    public ApiPage getSubTasks(@PathVariable long taskId,
+                               @RequestParam(required = false) String fields,
+                               @RequestParam(required = false) String cursor,
+                               @RequestParam(required = false) Integer limit) {
+        return apiService.getSubTasksByTaskId(taskId, fields, cursor, limit);
+    }
+
+    @GetMapping("/subtasks/{subTaskId}")
+    public ResponseEntity<Map<String, Object>> getSubTask(@PathVariable long subTaskId,
+                                                          @RequestParam(required = false) String fields) {
+        return ProjectApiController.found(apiService.getById(ApiResource.SUB_TASK, subTaskId, fields));
+    }
+
+    @PostMapping("/tasks/{taskId}/subtasks")
+    public ResponseEntity<Void> createSubTask(@PathVariable long taskId, @RequestBody SubTask subTask) {
+        subTask.recalculateDuration();
+        Status status = subTask.getSubTaskStatus() != null ? subTask.getSubTaskStatus() : Status.NOT_STARTED;
+        Priority priority = subTask.getSubTaskPriority() != null ? subTask.getSubTaskPriority() : Priority.MEDIUM;
+        taskService.createSubTask(taskId, subTask.getSubTaskName(), subTask.getSubTaskDescription(), status.name(),
+                subTask.getSubTaskStartDate(), subTask.getSubTaskDeadline(), subTask.getSubTaskDuration(),
+                priority.name(), subTask.getSubTaskNote());
+        return ResponseEntity.status(HttpStatus.CREATED).build();
+    }
+
+    @PutMapping("/subtasks/{subTaskId}")
+    public ResponseEntity<Void> editSubTask(@PathVariable long subTaskId, @RequestBody SubTask subTask) {
+        subTask.setSubTaskId(subTaskId);
+        if (subTask.getSubTaskStatus() == null) {
+            subTask.setSubTaskStatus(Status.NOT_STARTED);
+        }
+        if (subTask.getSubTaskPriority() == null) {
+            subTask.setSubTaskPriority(Priority.MEDIUM);
+        }
+        taskService.editSubTask(subTask);
+        return ResponseEntity.noContent().build();
+    }
+
+    @PatchMapping("/subtasks/{subTaskId}/status")
+    public ResponseEntity<Void> updateSubTaskStatus(@PathVariable long subTaskId, @RequestBody Map<String, String> body) {
+        taskService.updateSubTaskStatus(subTaskId, Status.fromDisplayName(required(body, "status")));
+        return ResponseEntity.noContent().build();
+    }
+
+    @DeleteMapping("/subtasks/{subTaskId}")
+    public ResponseEntity<Void> deleteSubTask(@PathVariable long subTaskId) {
+        taskService.deleteSubTask(subTaskId);
+        return ResponseEntity.noContent().build();
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> badRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
+
+    private static String required(Map<String, String> body, String key) {
+        String value = body.get(key);
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException("Feltet '" + key + "' mangler");
+        }
+        return value;
+    }
+}
@@ -2,14 +2,18 @@ package com.example.pkveksamen.controller;
 
 import com.example.pkveksamen.model.*;
 import com.example.pkveksamen.repository.TaskRepository;
+import com.example.pkveksamen.service.AssigneeRecommender;
 import com.example.pkveksamen.service.EmployeeService;
+import com.example.pkveksamen.service.HeaderFragmentCache;
+import com.example.pkveksamen.service.NoteChangeTracker;
 import com.example.pkveksamen.service.ProjectService;
 import com.example.pkveksamen.service.TaskService;
+import com.example.pkveksamen.service.WorkItemService;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
-import jakarta.servlet.http.HttpSession;
 import jakarta.annotation.PostConstruct;
 
 import java.util.HashMap;
@@ -17,7 +21,6 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
 import java.time.temporal.ChronoUnit;
 
 @Controller
@@ -27,24 +30,26 @@ public class TaskController {
     private final EmployeeService employeeService;
     private final ProjectService projectService;
     private final TaskRepository taskRepository;
-    
-    // Shared cache for updated notes across all sessions
-    private static final Set<Long> updatedTaskNotes = ConcurrentHashMap.newKeySet();
-    private static final Set<Long> updatedSubTaskNotes = ConcurrentHashMap.newKeySet();
-
-    public TaskController(TaskService taskService, EmployeeService employeeService, ProjectService projectService, TaskRepository taskRepository) {
+    private final HeaderFragmentCache headerFragmentCache;
+    private final NoteChangeTracker noteChangeTracker;
+    private final WorkItemService workItemService;
+    private final AssigneeRecommender assigneeRecommender;
+
+    @Value("${streaming.enabled:false}")
+    private boolean streamingEnabled;
+
+    public TaskController(TaskService taskService, EmployeeService employeeService, ProjectService projectService,
+                          TaskRepository taskRepository, HeaderFragmentCache headerFragmentCache,
+                          NoteChangeTracker noteChangeTracker, WorkItemService workItemService,
+                          AssigneeRecommender assigneeRecommender) {
         this.taskService = taskService;
         this.employeeService = employeeService;
         this.projectService = projectService;
         this.taskRepository = taskRepository;
-    }
-
-    private void addEmployeeHeader(Model model, int employeeId) {
-        Employee employee = employeeService.getEmployeeById(employeeId);
-        if (employee != null) {
-            model.addAttribute("username", employee.getUsername());
-            model.addAttribute("employeeRole", employee.getRole());
-        }
+        this.headerFragmentCache = headerFragmentCache;
+        this.noteChangeTracker = noteChangeTracker;
+        this.workItemService = workItemService;
+        this.assigneeRecommender = assigneeRecommender;
     }
 
     // her laver vi metoderene på hvad de forskellig bruger skal kunne.
@@ -60,25 +65,24 @@ public class TaskController {
     public String showTaskByEmployeeId(@PathVariable int employeeId,
                                        @PathVariable long projectId,
                                        @PathVariable long subProjectId,
-                                       Model model,
-                                       HttpSession session) {
+                                       @ModelAttribute("filter") TaskFilter filter,
+                                       Model model) {
         Employee currentEmployee = employeeService.getEmployeeById(employeeId);
-        List<Task> taskList;
-        
-        if (isManager(currentEmployee)) {
-            taskList = taskService.showTasksBySubProjectId(subProjectId);
+        Iterable<Task> taskList;
+
+        // Filtrering og sortering sker i databasen, så kun de matchende rækker sendes til browseren
+        if (streamingEnabled) {
+            taskList = streamTasks(currentEmployee, employeeId, subProjectId, filter);
+        } else if (isManager(currentEmployee)) {
+            List<Task> managerTasks = taskService.showTasksBySubProjectId(subProjectId, filter);
             
             // Check for updated notes in shared cache and refresh those tasks
-            // Store which notes we've seen in this session
-            @SuppressWarnings("unchecked")
-            Set<Long> seenTaskNotes = (Set<Long>) session.getAttribute("seenTaskNotes");
-            if (seenTaskNotes == null) {
-                seenTaskNotes = new HashSet<>();
-                session.setAttribute("seenTaskNotes", seenTaskNotes);
-            }
+            // Kun noterne set i denne request fjernes, så der ikke skal gemmes noget i en HttpSession
+            Set<Long> seenTaskNotes = new HashSet<>();
             
             // Refresh tasks that have been updated
-            for (Task task : taskList) {
+            Set<Long> updatedTaskNotes = noteChangeTracker.getUpdatedTaskNotes();
+            for (Task task : managerTasks) {
                 long taskId = task.getTaskID();
                 if (updatedTaskNotes.contains(taskId)) {
                     // Refresh task from database to get latest note – beskyttelse mod null
@@ -92,24 +96,60 @@ public class TaskController {
             
             // Remove seen notes from the shared cache
             updatedTaskNotes.removeAll(seenTaskNotes);
+            taskList = managerTasks;
         } else {
-            taskList = taskService.showTaskByEmployeeId(employeeId);
+            taskList = taskService.showTaskByEmployeeId(employeeId, filter);
         }
         
+        if (isManager(currentEmployee)) {
+            model.addAttribute("projectMembers", projectService.getProjectMembers(projectId));
+        }
         model.addAttribute("taskList", taskList);
         model.addAttribute("currentProjectId", projectId);
         model.addAttribute("currentSubProjectId", subProjectId);
         model.addAttribute("currentEmployeeId", employeeId);
 
-        addEmployeeHeader(model, employeeId);
+        headerFragmentCache.addHeader(model, employeeId);
 
         return "task";
     }
 
+    // Streaming-udgave: rækkerne læses mens task.html renderes. Noter markeres som set undervejs
+    // og fjernes fra den delte cache når listen er læst færdig.
+    private Iterable<Task> streamTasks(Employee currentEmployee, int employeeId, long subProjectId, TaskFilter filter) {
+        if (!isManager(currentEmployee)) {
+            return StreamingSupport.forCurrentRequest(taskService.streamTasksByEmployeeId(employeeId, filter));
+        }
+
+        Set<Long> seen = new HashSet<>();
+        Set<Long> updatedTaskNotes = noteChangeTracker.getUpdatedTaskNotes();
+        return StreamingSupport.forCurrentRequest(taskService.streamTasksBySubProjectId(subProjectId, filter)
+                .map(task -> {
+                    long taskId = task.getTaskID();
+                    if (updatedTaskNotes.contains(taskId)) {
+                        seen.add(taskId);
+                    }
+                    return task;
+                })
+                .onClose(() -> updatedTaskNotes.removeAll(seen)));
+    }
+
+    // "My work": medarbejderens tasks og subtasks på tværs af projekter, læst fra work_item i ét opslag
+    @GetMapping("/project/mywork/{employeeId}")
+    public String showWorkItems(@PathVariable int employeeId, Model model) {
+        model.addAttribute("workItems", workItemService.getWorkItems(employeeId));
+        model.addAttribute("statusCounts", workItemService.getStatusCounts(employeeId));
+        model.addAttribute("currentEmployeeId", employeeId);
+
+        headerFragmentCache.addHeader(model, employeeId);
+        return "mywork";
+    }
+
     @GetMapping("/project/task/createtask/{employeeId}/{projectId}/{subProjectId}")
     public String showTaskCreateForm(@PathVariable int employeeId,
                                      @PathVariable long projectId,
                                      @PathVariable long subProjectId,
+                                     @RequestParam(value = "requiredSkills", required = false) List<AlphaRole> requiredSkills,
                                      Model model) {
         Employee currentEmployee = employeeService.getEmployeeById(employeeId);
 
@@ -124,10 +164,14 @@ public class TaskController {
 
         model.addAttribute("task", new Task());
         model.addAttribute("teamMembers", projectMembers);
+        // Kortliste efter kompetencer og belastning; siden henter en ny fra API'et når kompetencer eller datoer ændres
+        model.addAttribute("alphaRoles", AlphaRole.values());
+        model.addAttribute("requiredSkills", requiredSkills == null ? List.of() : requiredSkills);
+        model.addAttribute("recommendations", assigneeRecommender.recommend(projectId, requiredSkills, null, null, null));
         model.addAttribute("currentEmployeeId", employeeId);
         model.addAttribute("currentProjectId", projectId);
         model.addAttribute("currentSubProjectId", subProjectId);
-        addEmployeeHeader(model, employeeId);
+        headerFragmentCache.addHeader(model, employeeId);
 
         return "createtask";
     }
@@ -281,11 +325,7 @@ public class TaskController {
         model.addAttribute("currentProjectId", projectId);
         model.addAttribute("currentSubProjectId", subProjectId);
 
-        Employee employee = employeeService.getEmployeeById(employeeId);
-        if (employee != null) {
-            model.addAttribute("username", employee.getUsername());
-            model.addAttribute("employeeRole", employee.getRole());
-        }
+        headerFragmentCache.addHeader(model, employeeId);
 
         return "edit-task";
     }
@@ -325,7 +365,7 @@ public class TaskController {
             model.addAttribute("currentEmployeeId", employeeId);
             model.addAttribute("currentProjectId", projectId);
             model.addAttribute("currentSubProjectId", subProjectId);
-            addEmployeeHeader(model, employeeId);
+            headerFragmentCache.addHeader(model, employeeId);
             return "edit-task";
         }
         if (project != null && task.getTaskDeadline() != null && project.getProjectDeadline() != null &&
@@ -340,7 +380,7 @@ public class TaskController {
             model.addAttribute("currentEmployeeId", employeeId);
             model.addAttribute("currentProjectId", projectId);
             model.addAttribute("currentSubProjectId", subProjectId);
-            addEmployeeHeader(model, employeeId);
+            headerFragmentCache.addHeader(model, employeeId);
             return "edit-task";
         }
         if (subProject != null && task.getTaskStartDate() != null && subProject.getSubProjectStartDate() != null &&
@@ -355,7 +395,7 @@ public class TaskController {
             model.addAttribute("currentEmployeeId", employeeId);
             model.addAttribute("currentProjectId", projectId);
             model.addAttribute("currentSubProjectId", subProjectId);
-            addEmployeeHeader(model, employeeId);
+            headerFragmentCache.addHeader(model, employeeId);
             return "edit-task";
         }
         if (subProject != null && task.getTaskDeadline() != null && subProject.getSubProjectDeadline() != null &&
@@ -370,7 +410,7 @@ public class TaskController {
             model.addAttribute("currentEmployeeId", employeeId);
             model.addAttribute("currentProjectId", projectId);
             model.addAttribute("currentSubProjectId", subProjectId);
-            addEmployeeHeader(model, employeeId);
+            headerFragmentCache.addHeader(model, employeeId);
             return "edit-task";
         }
         if (task.getTaskStartDate() != null && task.getTaskDeadline() != null &&
@@ -385,7 +425,7 @@ public class TaskController {
             model.addAttribute("currentEmployeeId", employeeId);
             model.addAttribute("currentProjectId", projectId);
             model.addAttribute("currentSubProjectId", subProjectId);
-            addEmployeeHeader(model, employeeId);
+            headerFragmentCache.addHeader(model, employeeId);
             return "edit-task";
         }
 
@@ -405,11 +445,7 @@ public class TaskController {
         model.addAttribute("currentSubProjectId", subProjectId);
         model.addAttribute("currentTaskId", taskId);
 
-        Employee employee = employeeService.getEmployeeById(employeeId);
-        if (employee != null) {
-            model.addAttribute("username", employee.getUsername());
-            model.addAttribute("employeeRole", employee.getRole());
-        }
+        headerFragmentCache.addHeader(model, employeeId);
 
         return "createsubtask";
     }
@@ -419,8 +455,7 @@ public class TaskController {
                                        @PathVariable long projectId,
                                        @PathVariable long subProjectId,
                                        @PathVariable long taskId,
-                                       Model model,
-                                       HttpSession session) {
+                                       Model model) {
 
         // Ret dette: Hent subtasks for den specifikke task, ikke alle employee's subtasks
         List<SubTask> subTaskList = taskService.showSubTasksByTaskId(taskId);
@@ -428,15 +463,10 @@ public class TaskController {
         Employee employee = employeeService.getEmployeeById(employeeId);
         if (employee != null && isManager(employee)) {
             // Check for updated notes in shared cache and refresh those subtasks
-            // Store which notes we've seen in this session
-            @SuppressWarnings("unchecked")
-            Set<Long> seenSubTaskNotes = (Set<Long>) session.getAttribute("seenSubTaskNotes");
-            if (seenSubTaskNotes == null) {
-                seenSubTaskNotes = new HashSet<>();
-                session.setAttribute("seenSubTaskNotes", seenSubTaskNotes);
-            }
+            Set<Long> seenSubTaskNotes = new HashSet<>();
             
             // Refresh subtasks that have been updated
+            Set<Long> updatedSubTaskNotes = noteChangeTracker.getUpdatedSubTaskNotes();
             for (SubTask subTask : subTaskList) {
                 long subTaskId = subTask.getSubTaskId();
                 if (updatedSubTaskNotes.contains(subTaskId)) {
@@ -458,10 +488,7 @@ public class TaskController {
         model.addAttribute("currentTaskId", taskId);
 
         // Add employee details for the header
-        if (employee != null) {
-            model.addAttribute("username", employee.getUsername());
-            model.addAttribute("employeeRole", employee.getRole());
-        }
+        headerFragmentCache.addHeader(model, employeeId);
 
         return "subtask";
     }
@@ -531,11 +558,7 @@ public class TaskController {
             model.addAttribute("currentProjectId", projectId);
             model.addAttribute("currentSubProjectId", subProjectId);
             model.addAttribute("currentTaskId", taskId);
-            Employee employee = employeeService.getEmployeeById(employeeId);
-            if (employee != null) {
-                model.addAttribute("username", employee.getUsername());
-                model.addAttribute("employeeRole", employee.getRole());
-            }
+            headerFragmentCache.addHeader(model, employeeId);
             return "createsubtask";
         }
         if (parentTask != null && parentTask.getTaskDeadline() != null && subTask.getSubTaskDeadline() != null &&
@@ -546,11 +569,7 @@ public class TaskController {
             model.addAttribute("currentProjectId", projectId);
             model.addAttribute("currentSubProjectId", subProjectId);
             model.addAttribute("currentTaskId", taskId);
-            Employee employee = employeeService.getEmployeeById(employeeId);
-            if (employee != null) {
-                model.addAttribute("username", employee.getUsername());
-                model.addAttribute("employeeRole", employee.getRole());
-            }
+            headerFragmentCache.addHeader(model, employeeId);
             return "createsubtask";
         }
         if (subTask.getSubTaskStartDate() != null && subTask.getSubTaskDeadline() != null &&
@@ -561,11 +580,7 @@ public class TaskController {
             model.addAttribute("currentProjectId", projectId);
             model.addAttribute("currentSubProjectId", subProjectId);
             model.addAttribute("currentTaskId", taskId);
-            Employee employee = employeeService.getEmployeeById(employeeId);
-            if (employee != null) {
-                model.addAttribute("username", employee.getUsername());
-                model.addAttribute("employeeRole", employee.getRole());
-            }
+            headerFragmentCache.addHeader(model, employeeId);
             return "createsubtask";
         }
 
@@ -625,11 +640,7 @@ public class TaskController {
         model.addAttribute("currentSubProjectId", subProjectId);
         model.addAttribute("currentTaskId", taskId);
 
-        Employee employee = employeeService.getEmployeeById(employeeId);
-        if (employee != null) {
-            model.addAttribute("username", employee.getUsername());
-            model.addAttribute("employeeRole", employee.getRole());
-        }
+        headerFragmentCache.addHeader(model, employeeId);
 
         return "edit-subtask"; // Thymeleaf HTML-fil
     }
@@ -662,11 +673,7 @@ public class TaskController {
             model.addAttribute("currentProjectId", projectId);
             model.addAttribute("currentSubProjectId", subProjectId);
             model.addAttribute("currentTaskId", taskId);
-            Employee employee = employeeService.getEmployeeById(employeeId);
-            if (employee != null) {
-                model.addAttribute("username", employee.getUsername());
-                model.addAttribute("employeeRole", employee.getRole());
-            }
+            headerFragmentCache.addHeader(model, employeeId);
             return "edit-subtask";
         }
         if (parentTask != null && parentTask.getTaskDeadline() != null && subTask.getSubTaskDeadline() != null &&
@@ -677,11 +684,7 @@ public class TaskController {
             model.addAttribute("currentProjectId", projectId);
             model.addAttribute("currentSubProjectId", subProjectId);
             model.addAttribute("currentTaskId", taskId);
-            Employee employee = employeeService.getEmployeeById(employeeId);
-            if (employee != null) {
-                model.addAttribute("username", employee.getUsername());
-                model.addAttribute("employeeRole", employee.getRole());
-            }
+            headerFragmentCache.addHeader(model, employeeId);
             return "edit-subtask";
         }
         if (subTask.getSubTaskStartDate() != null && subTask.getSubTaskDeadline() != null &&
@@ -692,11 +695,7 @@ public class TaskController {
             model.addAttribute("currentProjectId", projectId);
             model.addAttribute("currentSubProjectId", subProjectId);
             model.addAttribute("currentTaskId", taskId);
-            Employee employee = employeeService.getEmployeeById(employeeId);
-            if (employee != null) {
-                model.addAttribute("username", employee.getUsername());
-                model.addAttribute("employeeRole", employee.getRole());
-            }
+            headerFragmentCache.addHeader(model, employeeId);
             return "edit-subtask";
         }
 
@@ -722,7 +721,7 @@ public class TaskController {
         model.addAttribute("currentSubProjectId", subProjectId);
         model.addAttribute("currentTaskId", taskId);
 
-        addEmployeeHeader(model, employeeId);
+        headerFragmentCache.addHeader(model, employeeId);
 
         return "subtask-note";
     }
@@ -737,9 +736,6 @@ public class TaskController {
 
         taskService.updateSubTaskNote(subTaskId, subTaskNote);
 
-        // Mark subtask note as updated in shared cache for all project managers to see
-        updatedSubTaskNotes.add(subTaskId);
-
         return "redirect:/project/subtask/liste/" + projectId + "/" + subProjectId + "/" + taskId + "/" + employeeId;
     }
 
@@ -757,11 +753,7 @@ public class TaskController {
         model.addAttribute("currentSubProjectId", subProjectId);
 
         // Til header
-        Employee employee = employeeService.getEmployeeById(employeeId);
-        if (employee != null) {
-            model.addAttribute("username", employee.getUsername());
-            model.addAttribute("employeeRole", employee.getRole());
-        }
+        headerFragmentCache.addHeader(model, employeeId);
 
         return "task-note"; // ny Thymeleaf-template
     }
@@ -777,9 +769,6 @@ public class TaskController {
         task.setTaskNote(taskNote);
         taskService.updateTaskNote(taskId, taskNote);
 
-        // Mark task note as updated in shared cache for all project managers to see
-        updatedTaskNotes.add(taskId);
-
         return "redirect:/project/task/liste/" + projectId + "/" + subProjectId + "/" + employeeId;
     }
 
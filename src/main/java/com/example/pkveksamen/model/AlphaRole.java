@@ -1,5 +1,9 @@
 package com.example.pkveksamen.model;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
 public enum AlphaRole {
     Developer("Developer"),
     FrontendDeveloper("Frontend Developer"),
@@ -30,6 +34,31 @@ public enum AlphaRole {
         return displayName;
     }
 
+    // Et sæt AlphaRoles som bitmaske, én bit pr. rolle (ordinal); en int har plads til 32 roller
+    public int bit() {
+        return 1 << ordinal();
+    }
+
+    public static int mask(Collection<AlphaRole> roles) {
+        int mask = 0;
+        if (roles != null) {
+            for (AlphaRole role : roles) {
+                mask |= role.bit();
+            }
+        }
+        return mask;
+    }
+
+    public static List<AlphaRole> fromMask(int mask) {
+        List<AlphaRole> roles = new ArrayList<>();
+        for (AlphaRole role : values()) {
+            if ((mask & role.bit()) != 0) {
+                roles.add(role);
+            }
+        }
+        return roles;
+    }
+
     public static AlphaRole fromDisplayName(String displayName) {
         for (AlphaRole role : AlphaRole.values()) {
             if (role.getDisplayName().equalsIgnoreCase(displayName)) {
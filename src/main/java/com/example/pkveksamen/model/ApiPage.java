@@ -0,0 +1,23 @@
+package com.example.pkveksamen.model;
+
+import java.util.List;
+import java.util.Map;
+
+// Én side fra JSON-API'et. nextCursor er null på sidste side.
+public class ApiPage {
+    private final List<Map<String, Object>> data;
+    private final String nextCursor;
+
+    public ApiPage(List<Map<String, Object>> data, String nextCursor) {
+        this.data = data;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<Map<String, Object>> getData() {
+        return data;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.pkveksamen.model;
+
+import java.util.List;
+
+// Et forslag til hvem en ny task kan tildeles: dækkede og manglende kompetencer, belastning i taskens periode og samlet score
+public class AssigneeRecommendation {
+
+    private final int employeeId;
+    private final String username;
+    private final List<AlphaRole> matchedSkills;
+    private final List<AlphaRole> missingSkills;
+    private final int openTasks;
+    private final int overlapDays;
+    private final double score;
+
+    public AssigneeRecommendation(int employeeId, String username, List<AlphaRole> matchedSkills,
+                                  List<AlphaRole> missingSkills, int openTasks, int overlapDays, double score) {
+        this.employeeId = employeeId;
+        this.username = username;
+        this.matchedSkills = matchedSkills;
+        this.missingSkills = missingSkills;
+        this.openTasks = openTasks;
+        this.overlapDays = overlapDays;
+        this.score = score;
+    }
+
+    public int getEmployeeId() {
+        return employeeId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public List<AlphaRole> getMatchedSkills() {
+        return matchedSkills;
+    }
+
+    public List<AlphaRole> getMissingSkills() {
+        return missingSkills;
+    }
+
+    public int getOpenTasks() {
+        return openTasks;
+    }
+
+    public int getOverlapDays() {
+        return overlapDays;
+    }
+
+    public double getScore() {
+        return score;
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.pkveksamen.model;
+
+import java.time.LocalDate;
+
+// Ét punkt på burndown-grafen: hvad der var tilbage den dag, og hvad planen sagde der skulle være tilbage
+public class BurndownPoint {
+
+    private final LocalDate date;
+    private final int remainingTasks;
+    private final int remainingDays;
+    private final int plannedRemainingDays;
+
+    public BurndownPoint(ProjectSnapshot snapshot) {
+        this.date = snapshot.getSnapshotDate();
+        this.remainingTasks = snapshot.getTaskCount() - snapshot.getCompletedCount();
+        this.remainingDays = snapshot.getTotalDays() - snapshot.getCompletedDays();
+        this.plannedRemainingDays = snapshot.getTotalDays() - snapshot.getDueDays();
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public int getRemainingTasks() {
+        return remainingTasks;
+    }
+
+    // Task-dage i tasks der ikke er afsluttede
+    public int getRemainingDays() {
+        return remainingDays;
+    }
+
+    // Task-dage i tasks hvis deadline ikke var nået endnu
+    public int getPlannedRemainingDays() {
+        return plannedRemainingDays;
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.pkveksamen.model;
+
+// En ændring læst fra change_outbox. Publiceres som Spring-event på hver node, så lokale caches kan ryddes.
+// originNodeId er noden der skrev ændringen (null for rækker uden)
+public class ChangeEvent {
+
+    public enum Type {
+        PROJECT_CHANGED,
+        PROJECT_DELETED,
+        PROJECT_MEMBERS_CHANGED,
+        SUB_PROJECT_CHANGED,
+        SUB_PROJECT_DELETED,
+        TASK_CHANGED,
+        TASK_NOTE_CHANGED,
+        TASK_DELETED,
+        SUB_TASK_CHANGED,
+        SUB_TASK_NOTE_CHANGED,
+        SUB_TASK_DELETED,
+        EMPLOYEE_CREATED
+    }
+
+    private final long eventId;
+    private final Type type;
+    private final long entityId;
+    private final String originNodeId;
+
+    public ChangeEvent(long eventId, Type type, long entityId) {
+        this(eventId, type, entityId, null);
+    }
+
+    public ChangeEvent(long eventId, Type type, long entityId, String originNodeId) {
+        this.eventId = eventId;
+        this.type = type;
+        this.entityId = entityId;
+        this.originNodeId = originNodeId;
+    }
+
+    public long getEventId() {
+        return eventId;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public long getEntityId() {
+        return entityId;
+    }
+
+    public String getOriginNodeId() {
+        return originNodeId;
+    }
+
+    @Override
+    public String toString() {
+        return type + "(" + entityId + ") #" + eventId;
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.pkveksamen.model;
+
+// Resultat af en sletning: antal rækker pr. tabel, antal transaktioner (chunks) og tid brugt
+public class DeletionReport {
+
+    private int projects;
+    private int subProjects;
+    private int tasks;
+    private int subTasks;
+    private int projectMembers;
+    private int chunks;
+    private long elapsedMillis;
+
+    public void addProjects(int rows) {
+        projects += rows;
+    }
+
+    public void addSubProjects(int rows) {
+        subProjects += rows;
+    }
+
+    public void addTasks(int rows) {
+        tasks += rows;
+    }
+
+    public void addSubTasks(int rows) {
+        subTasks += rows;
+    }
+
+    public void addProjectMembers(int rows) {
+        projectMembers += rows;
+    }
+
+    public void addChunk() {
+        chunks++;
+    }
+
+    public int getProjects() {
+        return projects;
+    }
+
+    public int getSubProjects() {
+        return subProjects;
+    }
+
+    public int getTasks() {
+        return tasks;
+    }
+
+    public int getSubTasks() {
+        return subTasks;
+    }
+
+    public int getProjectMembers() {
+        return projectMembers;
+    }
+
+    public int getChunks() {
+        return chunks;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public int getRowsDeleted() {
+        return projects + subProjects + tasks + subTasks + projectMembers;
+    }
+
+    public double getRowsPerSecond() {
+        return getRowsDeleted() * 1000.0 / Math.max(elapsedMillis, 1);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d rækker slettet (%d projekter, %d subprojekter, %d tasks, %d subtasks, %d medlemskaber) " +
+                        "i %d chunks på %d ms - %.0f rækker/s",
+                getRowsDeleted(), projects, subProjects, tasks, subTasks, projectMembers, chunks, elapsedMillis,
+                getRowsPerSecond());
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.pkveksamen.model;
+
+import java.time.LocalDate;
+
+// Earned value målt i task-dage i stedet for penge. Igangværende tasks tæller halvt (50/50-reglen)
+public class EarnedValuePoint {
+
+    private final LocalDate date;
+    private final int budgetAtCompletion;
+    private final int plannedValue;
+    private final double earnedValue;
+
+    public EarnedValuePoint(ProjectSnapshot snapshot) {
+        this.date = snapshot.getSnapshotDate();
+        this.budgetAtCompletion = snapshot.getTotalDays();
+        this.plannedValue = snapshot.getDueDays();
+        this.earnedValue = snapshot.getCompletedDays() + snapshot.getInProgressDays() / 2.0;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    // BAC: alle task-dage i projektet
+    public int getBudgetAtCompletion() {
+        return budgetAtCompletion;
+    }
+
+    // PV: task-dage der efter planen skulle være færdige
+    public int getPlannedValue() {
+        return plannedValue;
+    }
+
+    // EV: task-dage der faktisk er udført
+    public double getEarnedValue() {
+        return earnedValue;
+    }
+
+    // SV = EV - PV; negativ betyder bagud
+    public double getScheduleVariance() {
+        return earnedValue - plannedValue;
+    }
+
+    // SPI = EV / PV; under 1 betyder bagud. null før noget var planlagt færdigt
+    public Double getSchedulePerformanceIndex() {
+        return plannedValue == 0 ? null : Math.round(earnedValue / plannedValue * 1000) / 1000.0;
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.pkveksamen.model;
+
+import java.util.List;
+
+// Én side medarbejdere sorteret på brugernavn. nextCursor er brugernavnet siden fortsætter efter, null på sidste side.
+public class EmployeePage {
+    private final List<Employee> employees;
+    private final String nextCursor;
+
+    public EmployeePage(List<Employee> employees, String nextCursor) {
+        this.employees = employees;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<Employee> getEmployees() {
+        return employees;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
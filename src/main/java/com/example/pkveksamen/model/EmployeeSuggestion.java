@@ -0,0 +1,49 @@
+package com.example.pkveksamen.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+// Et forslag fra medarbejdersøgningen (typeahead): kun det der vises i listen, aldrig password eller rolle
+public class EmployeeSuggestion {
+
+    private final int employeeId;
+    private final String username;
+    private final String email;
+    private final Set<AlphaRole> alphaRoles = EnumSet.noneOf(AlphaRole.class);
+    // Samme roller som bitmaske (se AlphaRole.mask), så kompetencematch er én AND
+    private int skillMask;
+
+    public EmployeeSuggestion(int employeeId, String username, String email) {
+        this.employeeId = employeeId;
+        this.username = username;
+        this.email = email;
+    }
+
+    public int getEmployeeId() {
+        return employeeId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public Set<AlphaRole> getAlphaRoles() {
+        return alphaRoles;
+    }
+
+    public void addAlphaRole(AlphaRole alphaRole) {
+        alphaRoles.add(alphaRole);
+        skillMask |= alphaRole.bit();
+    }
+
+    @JsonIgnore
+    public int getSkillMask() {
+        return skillMask;
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.pkveksamen.model;
+
+import java.time.Instant;
+
+// En post i den lokale audit-journal: hvilken ændring, på hvilken entitet og hvornår. Typen gemmes som navnet
+// på ChangeEvent.Type, så journalen kan læses selvom enum'en ændrer sig
+public class JournalRecord {
+
+    private final long sequence;
+    private final long timestampMillis;
+    private final String type;
+    private final long entityId;
+
+    public JournalRecord(long sequence, long timestampMillis, String type, long entityId) {
+        this.sequence = sequence;
+        this.timestampMillis = timestampMillis;
+        this.type = type;
+        this.entityId = entityId;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public Instant getTime() {
+        return Instant.ofEpochMilli(timestampMillis);
+    }
+
+    public long getTimestampMillis() {
+        return timestampMillis;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public long getEntityId() {
+        return entityId;
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.pkveksamen.model;
+
+import java.util.List;
+import java.util.UUID;
+
+// Et udjævningsjob for ét projekt. Felterne skrives af baggrundstråden og læses af web-tråde, derfor volatile.
+// Gemmes i leveling_job og leveling_shift (se LevelingJobRepository), så alle noder ser samme job
+public class LevelingJob {
+
+    public enum State {
+        RUNNING, READY, FAILED, APPLIED
+    }
+
+    private final String jobId;
+    private final long projectId;
+    private final long createdAt;
+
+    private volatile State state = State.RUNNING;
+    private volatile int employeesDone;
+    private volatile int employeesTotal;
+    private volatile List<TaskShift> shifts = List.of();
+    private volatile int overloadDaysBefore;
+    private volatile int overloadDaysAfter;
+    private volatile int appliedCount;
+    private volatile int skippedCount;
+    private volatile String message;
+
+    public LevelingJob(long projectId) {
+        this(UUID.randomUUID().toString(), projectId, System.currentTimeMillis());
+    }
+
+    public LevelingJob(String jobId, long projectId, long createdAt) {
+        this.jobId = jobId;
+        this.projectId = projectId;
+        this.createdAt = createdAt;
+    }
+
+    public int getProgressPercent() {
+        if (state != State.RUNNING) {
+            return 100;
+        }
+        return employeesTotal == 0 ? 0 : employeesDone * 100 / employeesTotal;
+    }
+
+    public boolean isRunning() {
+        return state == State.RUNNING;
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public long getProjectId() {
+        return projectId;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public void setState(State state) {
+        this.state = state;
+    }
+
+    public int getEmployeesDone() {
+        return employeesDone;
+    }
+
+    public void setEmployeesDone(int employeesDone) {
+        this.employeesDone = employeesDone;
+    }
+
+    public int getEmployeesTotal() {
+        return employeesTotal;
+    }
+
+    public void setEmployeesTotal(int employeesTotal) {
+        this.employeesTotal = employeesTotal;
+    }
+
+    public List<TaskShift> getShifts() {
+        return shifts;
+    }
+
+    public void setShifts(List<TaskShift> shifts) {
+        this.shifts = List.copyOf(shifts);
+    }
+
+    // Medarbejder-dage med flere parallelle tasks end tilladt, talt som overskydende tasks pr. dag
+    public int getOverloadDaysBefore() {
+        return overloadDaysBefore;
+    }
+
+    public void setOverloadDaysBefore(int overloadDaysBefore) {
+        this.overloadDaysBefore = overloadDaysBefore;
+    }
+
+    public int getOverloadDaysAfter() {
+        return overloadDaysAfter;
+    }
+
+    public void setOverloadDaysAfter(int overloadDaysAfter) {
+        this.overloadDaysAfter = overloadDaysAfter;
+    }
+
+    public int getAppliedCount() {
+        return appliedCount;
+    }
+
+    public void setAppliedCount(int appliedCount) {
+        this.appliedCount = appliedCount;
+    }
+
+    // Forslag der ikke blev gennemført, fordi tasken er ændret siden jobbet kørte
+    public int getSkippedCount() {
+        return skippedCount;
+    }
+
+    public void setSkippedCount(int skippedCount) {
+        this.skippedCount = skippedCount;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.pkveksamen.model;
+
+import java.time.LocalDate;
+
+// En åben task med datoer, som udjævningen skal tage hensyn til. Kun tasks i projektet der udjævnes kan flyttes;
+// medarbejderens tasks i andre projekter ligger fast men optager stadig dagene
+public class LevelingTask {
+
+    private final long taskId;
+    private final String title;
+    private final int employeeId;
+    private final String username;
+    private final LocalDate startDate;
+    private final LocalDate deadline;
+    private final LocalDate earliestStart;
+    private final LocalDate latestDeadline;
+    private final boolean movable;
+
+    public LevelingTask(long taskId, String title, int employeeId, String username, LocalDate startDate,
+                        LocalDate deadline, LocalDate earliestStart, LocalDate latestDeadline, boolean movable) {
+        this.taskId = taskId;
+        this.title = title;
+        this.employeeId = employeeId;
+        this.username = username;
+        this.startDate = startDate;
+        this.deadline = deadline;
+        this.earliestStart = earliestStart;
+        this.latestDeadline = latestDeadline;
+        this.movable = movable;
+    }
+
+    public long getTaskId() {
+        return taskId;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public int getEmployeeId() {
+        return employeeId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public LocalDate getDeadline() {
+        return deadline;
+    }
+
+    // Subprojektets start og deadline - tasken må ikke flyttes uden for dem
+    public LocalDate getEarliestStart() {
+        return earliestStart;
+    }
+
+    public LocalDate getLatestDeadline() {
+        return latestDeadline;
+    }
+
+    // Ikke startet, ikke høj prioritet og i projektet der udjævnes
+    public boolean isMovable() {
+        return movable;
+    }
+}
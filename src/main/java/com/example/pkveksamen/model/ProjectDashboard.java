@@ -0,0 +1,97 @@
+package com.example.pkveksamen.model;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.EnumMap;
+import java.util.Map;
+
+// Et projekt på forsiden med nøgletal for dets tasks: antal pr. status, forsinkede og næste deadline
+public class ProjectDashboard {
+
+    public enum Health {
+        ON_TRACK("On track"),
+        DUE_SOON("Due soon"),
+        OVERDUE("Overdue"),
+        DONE("Done");
+
+        private final String displayName;
+
+        Health(String displayName) {
+            this.displayName = displayName;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+    }
+
+    // Næste deadline inden for så mange dage giver "Due soon"
+    public static final int DUE_SOON_DAYS = 7;
+
+    private Project project;
+    private final Map<Status, Integer> statusCounts = new EnumMap<>(Status.class);
+    private int taskCount;
+    private int overdueCount;
+    private LocalDate nextDeadline;
+
+    public Health getHealth() {
+        if (overdueCount > 0) {
+            return Health.OVERDUE;
+        }
+        if (taskCount > 0 && getStatusCount(Status.COMPLETED) == taskCount) {
+            return Health.DONE;
+        }
+        if (nextDeadline != null && ChronoUnit.DAYS.between(LocalDate.now(), nextDeadline) <= DUE_SOON_DAYS) {
+            return Health.DUE_SOON;
+        }
+        return Health.ON_TRACK;
+    }
+
+    public int getOpenCount() {
+        return taskCount - getStatusCount(Status.COMPLETED);
+    }
+
+    public int getStatusCount(Status status) {
+        return statusCounts.getOrDefault(status, 0);
+    }
+
+    public Project getProject() {
+        return project;
+    }
+
+    public void setProject(Project project) {
+        this.project = project;
+    }
+
+    public Map<Status, Integer> getStatusCounts() {
+        return statusCounts;
+    }
+
+    public void setStatusCount(Status status, int count) {
+        statusCounts.put(status, count);
+    }
+
+    public int getTaskCount() {
+        return taskCount;
+    }
+
+    public void setTaskCount(int taskCount) {
+        this.taskCount = taskCount;
+    }
+
+    public int getOverdueCount() {
+        return overdueCount;
+    }
+
+    public void setOverdueCount(int overdueCount) {
+        this.overdueCount = overdueCount;
+    }
+
+    public LocalDate getNextDeadline() {
+        return nextDeadline;
+    }
+
+    public void setNextDeadline(LocalDate nextDeadline) {
+        this.nextDeadline = nextDeadline;
+    }
+}
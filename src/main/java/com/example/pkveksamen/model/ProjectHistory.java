@@ -0,0 +1,50 @@
+package com.example.pkveksamen.model;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Et projekt som det så ud på et tidspunkt, genskabt af task_history. Tasks og subtasks der ikke fandtes
+// eller var slettet på tidspunktet er ikke med; firstRecordedAt er hvornår historikken for projektet begynder
+public class ProjectHistory {
+
+    private final long projectId;
+    private final LocalDateTime asOf;
+    private final LocalDateTime firstRecordedAt;
+    private final int replayedChanges;
+    private final long elapsedMillis;
+    private final List<TaskHistoryEntry> items;
+
+    public ProjectHistory(long projectId, LocalDateTime asOf, LocalDateTime firstRecordedAt, int replayedChanges,
+                          long elapsedMillis, List<TaskHistoryEntry> items) {
+        this.projectId = projectId;
+        this.asOf = asOf;
+        this.firstRecordedAt = firstRecordedAt;
+        this.replayedChanges = replayedChanges;
+        this.elapsedMillis = elapsedMillis;
+        this.items = items;
+    }
+
+    public long getProjectId() {
+        return projectId;
+    }
+
+    public LocalDateTime getAsOf() {
+        return asOf;
+    }
+
+    public LocalDateTime getFirstRecordedAt() {
+        return firstRecordedAt;
+    }
+
+    public int getReplayedChanges() {
+        return replayedChanges;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public List<TaskHistoryEntry> getItems() {
+        return items;
+    }
+}
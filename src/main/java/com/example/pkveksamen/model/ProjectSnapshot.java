@@ -0,0 +1,117 @@
+package com.example.pkveksamen.model;
+
+import java.time.LocalDate;
+
+// En række fra project_snapshot: tasks og task-dage for et projekt eller subprojekt som de stod en given dag
+public class ProjectSnapshot {
+
+    private long projectId;
+    private long subProjectId;
+    private LocalDate snapshotDate;
+    private int taskCount;
+    private int notStartedCount;
+    private int inProgressCount;
+    private int completedCount;
+    private int dueCount;
+    private int totalDays;
+    private int inProgressDays;
+    private int completedDays;
+    private int dueDays;
+
+    public long getProjectId() {
+        return projectId;
+    }
+
+    public void setProjectId(long projectId) {
+        this.projectId = projectId;
+    }
+
+    // 0 for hele projektet
+    public long getSubProjectId() {
+        return subProjectId;
+    }
+
+    public void setSubProjectId(long subProjectId) {
+        this.subProjectId = subProjectId;
+    }
+
+    public LocalDate getSnapshotDate() {
+        return snapshotDate;
+    }
+
+    public void setSnapshotDate(LocalDate snapshotDate) {
+        this.snapshotDate = snapshotDate;
+    }
+
+    public int getTaskCount() {
+        return taskCount;
+    }
+
+    public void setTaskCount(int taskCount) {
+        this.taskCount = taskCount;
+    }
+
+    public int getNotStartedCount() {
+        return notStartedCount;
+    }
+
+    public void setNotStartedCount(int notStartedCount) {
+        this.notStartedCount = notStartedCount;
+    }
+
+    public int getInProgressCount() {
+        return inProgressCount;
+    }
+
+    public void setInProgressCount(int inProgressCount) {
+        this.inProgressCount = inProgressCount;
+    }
+
+    public int getCompletedCount() {
+        return completedCount;
+    }
+
+    public void setCompletedCount(int completedCount) {
+        this.completedCount = completedCount;
+    }
+
+    public int getDueCount() {
+        return dueCount;
+    }
+
+    public void setDueCount(int dueCount) {
+        this.dueCount = dueCount;
+    }
+
+    public int getTotalDays() {
+        return totalDays;
+    }
+
+    public void setTotalDays(int totalDays) {
+        this.totalDays = totalDays;
+    }
+
+    public int getInProgressDays() {
+        return inProgressDays;
+    }
+
+    public void setInProgressDays(int inProgressDays) {
+        this.inProgressDays = inProgressDays;
+    }
+
+    public int getCompletedDays() {
+        return completedDays;
+    }
+
+    public void setCompletedDays(int completedDays) {
+        this.completedDays = completedDays;
+    }
+
+    public int getDueDays() {
+        return dueDays;
+    }
+
+    public void setDueDays(int dueDays) {
+        this.dueDays = dueDays;
+    }
+}
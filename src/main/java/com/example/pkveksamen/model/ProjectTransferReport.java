@@ -0,0 +1,67 @@
+package com.example.pkveksamen.model;
+
+import java.util.Set;
+import java.util.TreeSet;
+
+// Resultat af en projektimport: det nye projekt-id, antal rækker pr. tabel og de brugernavne der ikke
+// fandtes i databasen (de springes over som medlemmer, og deres tasks bliver ikke tildelt nogen)
+public class ProjectTransferReport {
+
+    private long projectId;
+    private int members;
+    private int subProjects;
+    private int tasks;
+    private int subTasks;
+    private final Set<String> unknownEmployees = new TreeSet<>();
+    private long elapsedMillis;
+
+    public long getProjectId() {
+        return projectId;
+    }
+
+    public void setProjectId(long projectId) {
+        this.projectId = projectId;
+    }
+
+    public int getMembers() {
+        return members;
+    }
+
+    public int getSubProjects() {
+        return subProjects;
+    }
+
+    public int getTasks() {
+        return tasks;
+    }
+
+    public int getSubTasks() {
+        return subTasks;
+    }
+
+    public void addRows(String table, int rows) {
+        switch (table) {
+            case "project_employee" -> members += rows;
+            case "sub_project" -> subProjects += rows;
+            case "task" -> tasks += rows;
+            case "sub_task" -> subTasks += rows;
+            default -> throw new IllegalArgumentException("Ukendt tabel " + table);
+        }
+    }
+
+    public Set<String> getUnknownEmployees() {
+        return unknownEmployees;
+    }
+
+    public void addUnknownEmployee(String username) {
+        unknownEmployees.add(username);
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.pkveksamen.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Resultat af en masseoprettelse af medarbejdere: antal oprettet, de afviste linjer med årsag og tid brugt
+public class ProvisioningReport {
+
+    private int created;
+    private final List<String> skipped = new ArrayList<>();
+    private int chunks;
+    private long elapsedMillis;
+
+    public void addCreated(int rows) {
+        created += rows;
+    }
+
+    public void skip(int line, String reason) {
+        skipped.add("Linje " + line + ": " + reason);
+    }
+
+    public void addChunk() {
+        chunks++;
+    }
+
+    public int getCreated() {
+        return created;
+    }
+
+    public List<String> getSkipped() {
+        return skipped;
+    }
+
+    public int getChunks() {
+        return chunks;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d medarbejdere oprettet, %d linjer afvist, i %d chunks på %d ms",
+                created, skipped.size(), chunks, elapsedMillis);
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.pkveksamen.model;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Resultatet af en Monte Carlo-simulering: fordelingen af færdigdatoer for projektet og hvert subprojekt
+public class ScheduleRisk {
+
+    // Færdigdato som percentiler: P80 er den dato projektet er færdigt inden for i 80 % af gennemløbene
+    public static class Forecast {
+        private final long id;
+        private final String name;
+        private final int taskCount;
+        private final LocalDate plannedDeadline;
+        private final LocalDate p50;
+        private final LocalDate p80;
+        private final LocalDate p95;
+        private final Double onTimeProbability;
+
+        public Forecast(long id, String name, int taskCount, LocalDate plannedDeadline,
+                        LocalDate p50, LocalDate p80, LocalDate p95, Double onTimeProbability) {
+            this.id = id;
+            this.name = name;
+            this.taskCount = taskCount;
+            this.plannedDeadline = plannedDeadline;
+            this.p50 = p50;
+            this.p80 = p80;
+            this.p95 = p95;
+            this.onTimeProbability = onTimeProbability;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getTaskCount() {
+            return taskCount;
+        }
+
+        public LocalDate getPlannedDeadline() {
+            return plannedDeadline;
+        }
+
+        // null når der ingen daterede tasks er
+        public LocalDate getP50() {
+            return p50;
+        }
+
+        public LocalDate getP80() {
+            return p80;
+        }
+
+        public LocalDate getP95() {
+            return p95;
+        }
+
+        // Andel af gennemløbene der blev færdige senest på den planlagte deadline (0-1); null uden deadline
+        public Double getOnTimeProbability() {
+            return onTimeProbability;
+        }
+    }
+
+    private final long projectId;
+    private final int iterations;
+    private final long elapsedMillis;
+    private final int unscheduledTasks;
+    private final Forecast project;
+    private final List<Forecast> subProjects;
+
+    public ScheduleRisk(long projectId, int iterations, long elapsedMillis, int unscheduledTasks,
+                        Forecast project, List<Forecast> subProjects) {
+        this.projectId = projectId;
+        this.iterations = iterations;
+        this.elapsedMillis = elapsedMillis;
+        this.unscheduledTasks = unscheduledTasks;
+        this.project = project;
+        this.subProjects = subProjects;
+    }
+
+    public long getProjectId() {
+        return projectId;
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    // Tasks uden start eller deadline indgår ikke i simuleringen
+    public int getUnscheduledTasks() {
+        return unscheduledTasks;
+    }
+
+    public Forecast getProject() {
+        return project;
+    }
+
+    public List<Forecast> getSubProjects() {
+        return subProjects;
+    }
+}
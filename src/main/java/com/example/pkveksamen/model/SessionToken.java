@@ -0,0 +1,27 @@
+package com.example.pkveksamen.model;
+
+// Indholdet af et verificeret login-token: hvem, hvilken rolle og hvornår det udløber (epoch-sekunder)
+public class SessionToken {
+
+    private final int employeeId;
+    private final EmployeeRole role;
+    private final long expiresAt;
+
+    public SessionToken(int employeeId, EmployeeRole role, long expiresAt) {
+        this.employeeId = employeeId;
+        this.role = role;
+        this.expiresAt = expiresAt;
+    }
+
+    public int getEmployeeId() {
+        return employeeId;
+    }
+
+    public EmployeeRole getRole() {
+        return role;
+    }
+
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+}
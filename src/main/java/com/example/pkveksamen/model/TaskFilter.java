@@ -0,0 +1,125 @@
+package com.example.pkveksamen.model;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+// Filtre og sortering fra tasklistens query-parametre, fx ?status=IN_PROGRESS&priority=HIGH&overdue=true&sort=DEADLINE.
+// TaskRepository oversætter dem til WHERE/ORDER BY med parametre, så kun de matchende rækker hentes.
+public class TaskFilter {
+
+    // Sortering er en fast liste, så brugerinput aldrig ender direkte i SQL'en
+    public enum Sort {
+        ID("Created"),
+        TITLE("Title"),
+        START_DATE("Start date"),
+        DEADLINE("Deadline"),
+        STATUS("Status"),
+        PRIORITY("Priority");
+
+        private final String displayName;
+
+        Sort(String displayName) {
+            this.displayName = displayName;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+    }
+
+    private List<Status> status = new ArrayList<>();
+    private List<Priority> priority = new ArrayList<>();
+    private Integer assigneeId;
+    private AlphaRole alphaRole;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate deadlineFrom;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate deadlineTo;
+    private boolean overdue;
+    private Sort sort = Sort.ID;
+    private boolean descending;
+
+    public static TaskFilter none() {
+        return new TaskFilter();
+    }
+
+    public boolean isActive() {
+        return !status.isEmpty() || !priority.isEmpty() || assigneeId != null || alphaRole != null
+                || deadlineFrom != null || deadlineTo != null || overdue;
+    }
+
+    public List<Status> getStatus() {
+        return status;
+    }
+
+    public void setStatus(List<Status> status) {
+        this.status = status != null ? status : new ArrayList<>();
+    }
+
+    public List<Priority> getPriority() {
+        return priority;
+    }
+
+    public void setPriority(List<Priority> priority) {
+        this.priority = priority != null ? priority : new ArrayList<>();
+    }
+
+    public Integer getAssigneeId() {
+        return assigneeId;
+    }
+
+    public void setAssigneeId(Integer assigneeId) {
+        this.assigneeId = assigneeId;
+    }
+
+    public AlphaRole getAlphaRole() {
+        return alphaRole;
+    }
+
+    public void setAlphaRole(AlphaRole alphaRole) {
+        this.alphaRole = alphaRole;
+    }
+
+    public LocalDate getDeadlineFrom() {
+        return deadlineFrom;
+    }
+
+    public void setDeadlineFrom(LocalDate deadlineFrom) {
+        this.deadlineFrom = deadlineFrom;
+    }
+
+    public LocalDate getDeadlineTo() {
+        return deadlineTo;
+    }
+
+    public void setDeadlineTo(LocalDate deadlineTo) {
+        this.deadlineTo = deadlineTo;
+    }
+
+    public boolean isOverdue() {
+        return overdue;
+    }
+
+    public void setOverdue(boolean overdue) {
+        this.overdue = overdue;
+    }
+
+    public Sort getSort() {
+        return sort;
+    }
+
+    public void setSort(Sort sort) {
+        this.sort = sort != null ? sort : Sort.ID;
+    }
+
+    public boolean isDescending() {
+        return descending;
+    }
+
+    public void setDescending(boolean descending) {
+        this.descending = descending;
+    }
+}
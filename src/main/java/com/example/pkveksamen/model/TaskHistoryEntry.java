@@ -0,0 +1,153 @@
+package com.example.pkveksamen.model;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// En række fra task_history: hele tilstanden for en task eller subtask lige efter en ændring.
+// subProjectTitle og username udfyldes først når rækken vises
+public class TaskHistoryEntry {
+
+    public enum ChangeKind {
+        CREATED, CHANGED, DELETED
+    }
+
+    private WorkItem.Type type;
+    private long itemId;
+    private long taskId;
+    private long subProjectId;
+    private String subProjectTitle;
+    private long projectId;
+    private LocalDateTime changedAt;
+    private ChangeKind changeKind;
+    private String title;
+    private Status status;
+    private Priority priority;
+    private Integer employeeId;
+    private String username;
+    private LocalDate startDate;
+    private LocalDate deadline;
+
+    public boolean isSubTask() {
+        return type == WorkItem.Type.SUB_TASK;
+    }
+
+    public WorkItem.Type getType() {
+        return type;
+    }
+
+    public void setType(WorkItem.Type type) {
+        this.type = type;
+    }
+
+    public long getItemId() {
+        return itemId;
+    }
+
+    public void setItemId(long itemId) {
+        this.itemId = itemId;
+    }
+
+    public long getTaskId() {
+        return taskId;
+    }
+
+    public void setTaskId(long taskId) {
+        this.taskId = taskId;
+    }
+
+    public long getSubProjectId() {
+        return subProjectId;
+    }
+
+    public void setSubProjectId(long subProjectId) {
+        this.subProjectId = subProjectId;
+    }
+
+    public String getSubProjectTitle() {
+        return subProjectTitle;
+    }
+
+    public void setSubProjectTitle(String subProjectTitle) {
+        this.subProjectTitle = subProjectTitle;
+    }
+
+    public long getProjectId() {
+        return projectId;
+    }
+
+    public void setProjectId(long projectId) {
+        this.projectId = projectId;
+    }
+
+    public LocalDateTime getChangedAt() {
+        return changedAt;
+    }
+
+    public void setChangedAt(LocalDateTime changedAt) {
+        this.changedAt = changedAt;
+    }
+
+    public ChangeKind getChangeKind() {
+        return changeKind;
+    }
+
+    public void setChangeKind(ChangeKind changeKind) {
+        this.changeKind = changeKind;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public Priority getPriority() {
+        return priority;
+    }
+
+    public void setPriority(Priority priority) {
+        this.priority = priority;
+    }
+
+    public Integer getEmployeeId() {
+        return employeeId;
+    }
+
+    public void setEmployeeId(Integer employeeId) {
+        this.employeeId = employeeId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public void setStartDate(LocalDate startDate) {
+        this.startDate = startDate;
+    }
+
+    public LocalDate getDeadline() {
+        return deadline;
+    }
+
+    public void setDeadline(LocalDate deadline) {
+        this.deadline = deadline;
+    }
+}
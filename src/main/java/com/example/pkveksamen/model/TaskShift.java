@@ -0,0 +1,71 @@
+package com.example.pkveksamen.model;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+// Et forslag fra udjævningen: tasken flyttes i tid, men beholder sin længde
+public class TaskShift {
+
+    private final long taskId;
+    private final String taskTitle;
+    private final int employeeId;
+    private final String username;
+    private final LocalDate oldStartDate;
+    private final LocalDate oldDeadline;
+    private final LocalDate newStartDate;
+    private final LocalDate newDeadline;
+
+    public TaskShift(LevelingTask task, LocalDate newStartDate, LocalDate newDeadline) {
+        this(task.getTaskId(), task.getTitle(), task.getEmployeeId(), task.getUsername(),
+                task.getStartDate(), task.getDeadline(), newStartDate, newDeadline);
+    }
+
+    public TaskShift(long taskId, String taskTitle, int employeeId, String username, LocalDate oldStartDate,
+                     LocalDate oldDeadline, LocalDate newStartDate, LocalDate newDeadline) {
+        this.taskId = taskId;
+        this.taskTitle = taskTitle;
+        this.employeeId = employeeId;
+        this.username = username;
+        this.oldStartDate = oldStartDate;
+        this.oldDeadline = oldDeadline;
+        this.newStartDate = newStartDate;
+        this.newDeadline = newDeadline;
+    }
+
+    // Positiv når tasken udskydes, negativ når den rykkes frem
+    public long getShiftDays() {
+        return ChronoUnit.DAYS.between(oldStartDate, newStartDate);
+    }
+
+    public long getTaskId() {
+        return taskId;
+    }
+
+    public String getTaskTitle() {
+        return taskTitle;
+    }
+
+    public int getEmployeeId() {
+        return employeeId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public LocalDate getOldStartDate() {
+        return oldStartDate;
+    }
+
+    public LocalDate getOldDeadline() {
+        return oldDeadline;
+    }
+
+    public LocalDate getNewStartDate() {
+        return newStartDate;
+    }
+
+    public LocalDate getNewDeadline() {
+        return newDeadline;
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.pkveksamen.model;
+
+import java.time.LocalDate;
+
+// Én knude i projekttræet som den læses til tidslinjen: kun navn, status og datoer
+public class TimelineItem {
+
+    public enum Kind {
+        PROJECT, SUB_PROJECT, TASK, SUB_TASK
+    }
+
+    private final Kind kind;
+    private final long id;
+    private final String name;
+    private final Status status;
+    private final LocalDate startDate;
+    private final LocalDate deadline;
+
+    public TimelineItem(Kind kind, long id, String name, Status status, LocalDate startDate, LocalDate deadline) {
+        this.kind = kind;
+        this.id = id;
+        this.name = name;
+        this.status = status;
+        this.startDate = startDate;
+        this.deadline = deadline;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public LocalDate getDeadline() {
+        return deadline;
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.pkveksamen.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+// Færdigberegnet Gantt-layout for ét projekt. Én række pr. bjælke i træets rækkefølge
+// (projekt, subprojekt, task, subtask); start og længde er dage regnet fra origin (projektets startdato).
+// Søskende der ikke overlapper i tid deler bane (lane), så klienten kan tegne en kompakt visning.
+public class TimelineLayout {
+
+    public static class Bar {
+        private final TimelineItem.Kind kind;
+        private final long id;
+        private final int parent;
+        private final int depth;
+        private final String name;
+        private final Status status;
+        private final Integer start;
+        private final Integer days;
+        private int lane;
+        private int lanes;
+
+        public Bar(TimelineItem.Kind kind, long id, int parent, int depth, String name, Status status,
+                   Integer start, Integer days) {
+            this.kind = kind;
+            this.id = id;
+            this.parent = parent;
+            this.depth = depth;
+            this.name = name;
+            this.status = status;
+            this.start = start;
+            this.days = days;
+        }
+
+        public TimelineItem.Kind getKind() {
+            return kind;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        // Rækkeindeks på forælderen; -1 for projektet
+        public int getParent() {
+            return parent;
+        }
+
+        public int getDepth() {
+            return depth;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        // Dage fra origin; null hvis bjælken ikke har en startdato
+        public Integer getStart() {
+            return start;
+        }
+
+        public Integer getDays() {
+            return days;
+        }
+
+        public int getLane() {
+            return lane;
+        }
+
+        public void setLane(int lane) {
+            this.lane = lane;
+        }
+
+        // Antal baner børnene fylder
+        public int getLanes() {
+            return lanes;
+        }
+
+        public void setLanes(int lanes) {
+            this.lanes = lanes;
+        }
+    }
+
+    private final long projectId;
+    private final LocalDate origin;
+    private final int totalDays;
+    private final List<Bar> rows;
+    private final String version;
+    private final Set<Long> subProjectIds;
+    private final Set<Long> taskIds;
+    private final Set<Long> subTaskIds;
+
+    public TimelineLayout(long projectId, LocalDate origin, int totalDays, List<Bar> rows, String version,
+                          Set<Long> subProjectIds, Set<Long> taskIds, Set<Long> subTaskIds) {
+        this.projectId = projectId;
+        this.origin = origin;
+        this.totalDays = totalDays;
+        this.rows = rows;
+        this.version = version;
+        this.subProjectIds = subProjectIds;
+        this.taskIds = taskIds;
+        this.subTaskIds = subTaskIds;
+    }
+
+    public long getProjectId() {
+        return projectId;
+    }
+
+    public LocalDate getOrigin() {
+        return origin;
+    }
+
+    public int getTotalDays() {
+        return totalDays;
+    }
+
+    public List<Bar> getRows() {
+        return rows;
+    }
+
+    // Hash af indholdet; bruges som ETag, så en uændret tidslinje kan besvares med 304
+    public String getVersion() {
+        return version;
+    }
+
+    // Om ændringen rammer en af de rækker layoutet er bygget af - så skal det ud af cachen
+    @JsonIgnore
+    public boolean isAffectedBy(ChangeEvent event) {
+        return switch (event.getType()) {
+            case PROJECT_CHANGED, PROJECT_DELETED -> event.getEntityId() == projectId;
+            case SUB_PROJECT_CHANGED, SUB_PROJECT_DELETED -> subProjectIds.contains(event.getEntityId());
+            case TASK_CHANGED, TASK_DELETED -> taskIds.contains(event.getEntityId());
+            case SUB_TASK_CHANGED, SUB_TASK_DELETED -> subTaskIds.contains(event.getEntityId());
+            default -> false;
+        };
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.pkveksamen.model;
+
+import java.time.LocalDate;
+
+// En række fra work_item: en task eller subtask som en medarbejder står for, med projekt og subprojekt i klartekst
+public class WorkItem {
+
+    public enum Type {
+        TASK, SUB_TASK
+    }
+
+    private Type type;
+    private long itemId;
+    private long projectId;
+    private String projectTitle;
+    private long subProjectId;
+    private String subProjectTitle;
+    private long taskId;
+    private String taskTitle;
+    private String title;
+    private Status status;
+    private Priority priority;
+    private LocalDate deadline;
+
+    public boolean isSubTask() {
+        return type == Type.SUB_TASK;
+    }
+
+    public boolean isOverdue() {
+        return deadline != null && deadline.isBefore(LocalDate.now()) && status != Status.COMPLETED;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public void setType(Type type) {
+        this.type = type;
+    }
+
+    public long getItemId() {
+        return itemId;
+    }
+
+    public void setItemId(long itemId) {
+        this.itemId = itemId;
+    }
+
+    public long getProjectId() {
+        return projectId;
+    }
+
+    public void setProjectId(long projectId) {
+        this.projectId = projectId;
+    }
+
+    public String getProjectTitle() {
+        return projectTitle;
+    }
+
+    public void setProjectTitle(String projectTitle) {
+        this.projectTitle = projectTitle;
+    }
+
+    public long getSubProjectId() {
+        return subProjectId;
+    }
+
+    public void setSubProjectId(long subProjectId) {
+        this.subProjectId = subProjectId;
+    }
+
+    public String getSubProjectTitle() {
+        return subProjectTitle;
+    }
+
+    public void setSubProjectTitle(String subProjectTitle) {
+        this.subProjectTitle = subProjectTitle;
+    }
+
+    public long getTaskId() {
+        return taskId;
+    }
+
+    public void setTaskId(long taskId) {
+        this.taskId = taskId;
+    }
+
+    public String getTaskTitle() {
+        return taskTitle;
+    }
+
+    public void setTaskTitle(String taskTitle) {
+        this.taskTitle = taskTitle;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public Priority getPriority() {
+        return priority;
+    }
+
+    public void setPriority(Priority priority) {
+        this.priority = priority;
+    }
+
+    public LocalDate getDeadline() {
+        return deadline;
+    }
+
+    public void setDeadline(LocalDate deadline) {
+        this.deadline = deadline;
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.pkveksamen.model;
+
+// En medarbejders åbne tasks inden for et tidsrum: antal og hvor mange task-dage der ligger i det
+public class Workload {
+
+    private int openTasks;
+    private int overlapDays;
+
+    public void add(int days) {
+        openTasks++;
+        overlapDays += days;
+    }
+
+    public int getOpenTasks() {
+        return openTasks;
+    }
+
+    public int getOverlapDays() {
+        return overlapDays;
+    }
+}
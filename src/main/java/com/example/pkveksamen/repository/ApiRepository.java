@@ -0,0 +1,111 @@
+package com.example.pkveksamen.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+
+// Læsninger til JSON-API'et. Der vælges kun de kolonner klienten har bedt om (plus id'et, som
+// bruges til cursoren), og sider hentes med "id > sidste id" i stedet for OFFSET.
+@Repository
+public class ApiRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ApiRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public List<Map<String, Object>> findProjectsByEmployeeId(List<ApiResource.Field> fields, int employeeId,
+                                                              long afterId, int limit) {
+        return findPage(ApiResource.PROJECT, fields,
+                "(employee_id = ? OR EXISTS (SELECT 1 FROM project_employee pe " +
+                        "WHERE pe.project_id = project.project_id AND pe.employee_id = ?))",
+                afterId, limit, employeeId, employeeId);
+    }
+
+    public List<Map<String, Object>> findSubProjectsByProjectId(List<ApiResource.Field> fields, long projectId,
+                                                                long afterId, int limit) {
+        return findPage(ApiResource.SUB_PROJECT, fields, "project_id = ?", afterId, limit, projectId);
+    }
+
+    public List<Map<String, Object>> findTasksBySubProjectId(List<ApiResource.Field> fields, long subProjectId,
+                                                             long afterId, int limit) {
+        return findPage(ApiResource.TASK, fields, "sub_project_id = ?", afterId, limit, subProjectId);
+    }
+
+    public List<Map<String, Object>> findTasksByEmployeeId(List<ApiResource.Field> fields, int employeeId,
+                                                           long afterId, int limit) {
+        return findPage(ApiResource.TASK, fields, "employee_id = ?", afterId, limit, employeeId);
+    }
+
+    public List<Map<String, Object>> findSubTasksByTaskId(List<ApiResource.Field> fields, long taskId,
+                                                          long afterId, int limit) {
+        return findPage(ApiResource.SUB_TASK, fields, "task_id = ?", afterId, limit, taskId);
+    }
+
+    public List<Map<String, Object>> findArchivedProjectsByEmployeeId(List<ApiResource.Field> fields, int employeeId,
+                                                                      long afterId, int limit) {
+        return findPage(ApiResource.ARCHIVED_PROJECT, fields,
+                "(employee_id = ? OR EXISTS (SELECT 1 FROM archived_project_employee ape " +
+                        "WHERE ape.project_id = archived_project.project_id AND ape.employee_id = ?))",
+                afterId, limit, employeeId, employeeId);
+    }
+
+    // Fælles for levende og arkiverede børn: resource afgør tabellen, parentColumn hvilken forælder der filtreres på
+    public List<Map<String, Object>> findChildren(ApiResource resource, String parentColumn, List<ApiResource.Field> fields,
+                                                  long parentId, long afterId, int limit) {
+        if (resource.getFields().values().stream().noneMatch(field -> field.getColumn().equals(parentColumn))) {
+            throw new IllegalArgumentException("Ukendt kolonne " + parentColumn + " for " + resource);
+        }
+        return findPage(resource, fields, parentColumn + " = ?", afterId, limit, parentId);
+    }
+
+    public Map<String, Object> findById(ApiResource resource, List<ApiResource.Field> fields, long id) {
+        String sql = "SELECT " + columnList(resource, fields) + " FROM " + resource.getTable() +
+                " WHERE " + resource.getIdColumn() + " = ?";
+        List<Map<String, Object>> rows = jdbcTemplate.query(sql, (rs, rowNum) -> readRow(rs, resource, fields), id);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    private List<Map<String, Object>> findPage(ApiResource resource, List<ApiResource.Field> fields, String filter,
+                                               long afterId, int limit, Object... filterArgs) {
+        String sql = "SELECT " + columnList(resource, fields) + " FROM " + resource.getTable() +
+                " WHERE " + filter + " AND " + resource.getIdColumn() + " > ?" +
+                " ORDER BY " + resource.getIdColumn() + " LIMIT ?";
+
+        Object[] args = new Object[filterArgs.length + 2];
+        System.arraycopy(filterArgs, 0, args, 0, filterArgs.length);
+        args[filterArgs.length] = afterId;
+        args[filterArgs.length + 1] = limit;
+
+        return jdbcTemplate.query(sql, (rs, rowNum) -> readRow(rs, resource, fields), args);
+    }
+
+    private static String columnList(ApiResource resource, List<ApiResource.Field> fields) {
+        StringJoiner columns = new StringJoiner(", ");
+        columns.add(resource.getIdColumn());
+        for (ApiResource.Field field : fields) {
+            if (!field.getColumn().equals(resource.getIdColumn())) {
+                columns.add(field.getColumn());
+            }
+        }
+        return columns.toString();
+    }
+
+    private static Map<String, Object> readRow(ResultSet rs, ApiResource resource,
+                                               List<ApiResource.Field> fields) throws SQLException {
+        Map<String, Object> row = new LinkedHashMap<>();
+        ApiResource.Field idField = resource.getIdField();
+        row.put(idField.getName(), idField.read(rs));
+        for (ApiResource.Field field : fields) {
+            row.putIfAbsent(field.getName(), field.read(rs));
+        }
+        return row;
+    }
+}
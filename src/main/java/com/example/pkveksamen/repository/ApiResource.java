@@ -0,0 +1,152 @@
+package com.example.pkveksamen.repository;
+
+import com.example.pkveksamen.model.Priority;
+import com.example.pkveksamen.model.Status;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// De felter JSON-API'et må udstille pr. ressource, og hvilken kolonne hvert felt læses fra.
+// Kun felter herfra kan komme med i en SELECT, så ?fields=... aldrig bliver til rå SQL.
+public enum ApiResource {
+
+    PROJECT("project", "project_id", "projectId",
+            new Field("projectId", "project_id", Type.LONG),
+            new Field("employeeId", "employee_id", Type.LONG),
+            new Field("projectName", "project_title", Type.STRING),
+            new Field("projectDescription", "project_description", Type.STRING),
+            new Field("projectStartDate", "project_start_date", Type.DATE),
+            new Field("projectDeadline", "project_deadline", Type.DATE),
+            new Field("projectCustomer", "project_customer", Type.STRING)),
+
+    SUB_PROJECT("sub_project", "sub_project_id", "subProjectId",
+            new Field("subProjectId", "sub_project_id", Type.LONG),
+            new Field("projectId", "project_id", Type.LONG),
+            new Field("subProjectName", "sub_project_title", Type.STRING),
+            new Field("subProjectDescription", "sub_project_description", Type.STRING),
+            new Field("subProjectStartDate", "sub_project_start_date", Type.DATE),
+            new Field("subProjectDeadline", "sub_project_deadline", Type.DATE),
+            new Field("subProjectDuration", "sub_project_duration", Type.INT)),
+
+    TASK("task", "task_id", "taskId",
+            new Field("taskId", "task_id", Type.LONG),
+            new Field("subProjectId", "sub_project_id", Type.LONG),
+            new Field("employeeId", "employee_id", Type.LONG),
+            new Field("taskName", "task_title", Type.STRING),
+            new Field("taskDescription", "task_description", Type.STRING),
+            new Field("status", "task_status", Type.STATUS),
+            new Field("priority", "task_priority", Type.PRIORITY),
+            new Field("taskStartDate", "task_start_date", Type.DATE),
+            new Field("taskDeadline", "task_deadline", Type.DATE),
+            new Field("taskDuration", "task_duration", Type.INT),
+            new Field("taskNote", "task_note", Type.STRING)),
+
+    SUB_TASK("sub_task", "sub_task_id", "subTaskId",
+            new Field("subTaskId", "sub_task_id", Type.LONG),
+            new Field("taskId", "task_id", Type.LONG),
+            new Field("subTaskName", "sub_task_title", Type.STRING),
+            new Field("subTaskDescription", "sub_task_description", Type.STRING),
+            new Field("status", "sub_task_status", Type.STATUS),
+            new Field("priority", "sub_task_priority", Type.PRIORITY),
+            new Field("subTaskStartDate", "sub_task_start_date", Type.DATE),
+            new Field("subTaskDeadline", "sub_task_deadline", Type.DATE),
+            new Field("subTaskDuration", "sub_task_duration", Type.INT),
+            new Field("subTaskNote", "sub_task_note", Type.STRING)),
+
+    // Arkiverede projekter (se ArchiveService) har samme kolonner som de levende tabeller
+    ARCHIVED_PROJECT("archived_project", PROJECT),
+    ARCHIVED_SUB_PROJECT("archived_sub_project", SUB_PROJECT),
+    ARCHIVED_TASK("archived_task", TASK),
+    ARCHIVED_SUB_TASK("archived_sub_task", SUB_TASK);
+
+    private final String table;
+    private final String idColumn;
+    private final String idField;
+    private final Map<String, Field> fields = new LinkedHashMap<>();
+
+    ApiResource(String table, String idColumn, String idField, Field... fields) {
+        this.table = table;
+        this.idColumn = idColumn;
+        this.idField = idField;
+        for (Field field : fields) {
+            this.fields.put(field.getName(), field);
+        }
+    }
+
+    ApiResource(String table, ApiResource live) {
+        this.table = table;
+        this.idColumn = live.idColumn;
+        this.idField = live.idField;
+        this.fields.putAll(live.fields);
+    }
+
+    public String getTable() {
+        return table;
+    }
+
+    public String getIdColumn() {
+        return idColumn;
+    }
+
+    public Field getIdField() {
+        return fields.get(idField);
+    }
+
+    public Field getField(String name) {
+        return fields.get(name);
+    }
+
+    public Map<String, Field> getFields() {
+        return Collections.unmodifiableMap(fields);
+    }
+
+    public enum Type {
+        LONG, INT, STRING, DATE, STATUS, PRIORITY
+    }
+
+    public static class Field {
+        private final String name;
+        private final String column;
+        private final Type type;
+
+        Field(String name, String column, Type type) {
+            this.name = name;
+            this.column = column;
+            this.type = type;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getColumn() {
+            return column;
+        }
+
+        // Status og prioritet gemmes både som displayName og enum-navn; API'et svarer altid med enum-navnet
+        Object read(ResultSet rs) throws SQLException {
+            switch (type) {
+                case LONG:
+                    long longValue = rs.getLong(column);
+                    return rs.wasNull() ? null : longValue;
+                case INT:
+                    int intValue = rs.getInt(column);
+                    return rs.wasNull() ? null : intValue;
+                case DATE:
+                    return rs.getObject(column, LocalDate.class);
+                case STATUS:
+                    String status = rs.getString(column);
+                    return status == null ? null : Status.fromDisplayName(status).name();
+                case PRIORITY:
+                    String priority = rs.getString(column);
+                    return priority == null ? null : Priority.fromDisplayName(priority).name();
+                default:
+                    return rs.getString(column);
+            }
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.pkveksamen.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+
+// Flytter projekttræer mellem de levende tabeller og archived_*-tabellerne. Rækkerne kopieres med
+// INSERT ... SELECT på id-lister og beholder deres id'er; sletningen af kilden sker via ProjectDeletionRepository.
+// Metoderne forventer at blive kaldt inde i en transaktion (se ArchiveService).
+@Repository
+public class ArchiveRepository {
+
+    private static final String PROJECT_COLUMNS =
+            "project_id, employee_id, project_title, project_description, project_start_date, project_deadline, project_customer";
+    private static final String SUB_PROJECT_COLUMNS =
+            "sub_project_id, project_id, sub_project_title, sub_project_description, sub_project_start_date, " +
+                    "sub_project_deadline, sub_project_duration";
+    private static final String TASK_COLUMNS =
+            "task_id, sub_project_id, task_title, task_description, task_status, task_start_date, task_deadline, " +
+                    "task_duration, task_priority, task_note";
+    private static final String SUB_TASK_COLUMNS =
+            "sub_task_id, task_id, sub_task_title, sub_task_description, sub_task_status, sub_task_start_date, " +
+                    "sub_task_deadline, sub_task_duration, sub_task_priority, sub_task_note";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ArchiveRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Projekter med deadline før cutoff, hvor alle tasks og subtasks er COMPLETED (gemt som enum-navn eller displayName)
+    public List<Long> findArchivableProjectIds(LocalDate cutoff, int limit) {
+        String sql = "SELECT p.project_id FROM project p " +
+                "WHERE p.project_deadline < ? " +
+                "AND NOT EXISTS (SELECT 1 FROM sub_project sp JOIN task t ON t.sub_project_id = sp.sub_project_id " +
+                "WHERE sp.project_id = p.project_id AND UPPER(t.task_status) <> 'COMPLETED') " +
+                "AND NOT EXISTS (SELECT 1 FROM sub_project sp JOIN task t ON t.sub_project_id = sp.sub_project_id " +
+                "JOIN sub_task st ON st.task_id = t.task_id " +
+                "WHERE sp.project_id = p.project_id AND UPPER(st.sub_task_status) <> 'COMPLETED') " +
+                "ORDER BY p.project_id LIMIT ?";
+        return jdbcTemplate.queryForList(sql, Long.class, cutoff, limit);
+    }
+
+    public List<Long> findArchivedSubProjectIds(List<Long> projectIds) {
+        return findIds("SELECT sub_project_id FROM archived_sub_project WHERE project_id IN ", projectIds);
+    }
+
+    public List<Long> findArchivedTaskIds(List<Long> subProjectIds) {
+        return findIds("SELECT task_id FROM archived_task WHERE sub_project_id IN ", subProjectIds);
+    }
+
+    // --- Levende -> arkiv ---
+
+    public int archiveProjects(List<Long> projectIds) {
+        return updateIn("INSERT INTO archived_project (" + PROJECT_COLUMNS + ", archived_at) " +
+                "SELECT " + PROJECT_COLUMNS + ", CURRENT_TIMESTAMP FROM project WHERE project_id IN ", projectIds);
+    }
+
+    public int archiveProjectMembers(List<Long> projectIds) {
+        return updateIn("INSERT INTO archived_project_employee (project_id, employee_id) " +
+                "SELECT project_id, employee_id FROM project_employee WHERE project_id IN ", projectIds);
+    }
+
+    public int archiveSubProjects(List<Long> subProjectIds) {
+        return updateIn("INSERT INTO archived_sub_project (" + SUB_PROJECT_COLUMNS + ") " +
+                "SELECT " + SUB_PROJECT_COLUMNS + " FROM sub_project WHERE sub_project_id IN ", subProjectIds);
+    }
+
+    public int archiveTasks(List<Long> taskIds) {
+        return updateIn("INSERT INTO archived_task (" + TASK_COLUMNS + ", employee_id) " +
+                "SELECT " + TASK_COLUMNS + ", employee_id FROM task WHERE task_id IN ", taskIds);
+    }
+
+    public int archiveSubTasks(List<Long> taskIds) {
+        return updateIn("INSERT INTO archived_sub_task (" + SUB_TASK_COLUMNS + ") " +
+                "SELECT " + SUB_TASK_COLUMNS + " FROM sub_task WHERE task_id IN ", taskIds);
+    }
+
+    // --- Arkiv -> levende. Medarbejdere der er slettet imens, falder ud af medlemslisten og task-tildelingen ---
+
+    public int restoreProjects(List<Long> projectIds) {
+        return updateIn("INSERT INTO project (" + PROJECT_COLUMNS + ") " +
+                "SELECT " + PROJECT_COLUMNS + " FROM archived_project WHERE project_id IN ", projectIds);
+    }
+
+    public int restoreProjectMembers(List<Long> projectIds) {
+        return updateIn("INSERT INTO project_employee (project_id, employee_id) " +
+                "SELECT ape.project_id, ape.employee_id FROM archived_project_employee ape " +
+                "JOIN employee e ON e.employee_id = ape.employee_id WHERE ape.project_id IN ", projectIds);
+    }
+
+    public int restoreSubProjects(List<Long> subProjectIds) {
+        return updateIn("INSERT INTO sub_project (" + SUB_PROJECT_COLUMNS + ") " +
+                "SELECT " + SUB_PROJECT_COLUMNS + " FROM archived_sub_project WHERE sub_project_id IN ", subProjectIds);
+    }
+
+    public int restoreTasks(List<Long> taskIds) {
+        return updateIn("INSERT INTO task (" + TASK_COLUMNS + ", employee_id) " +
+                "SELECT " + TASK_COLUMNS + ", e.employee_id FROM archived_task a " +
+                "LEFT JOIN employee e ON e.employee_id = a.employee_id WHERE a.task_id IN ", taskIds);
+    }
+
+    public int restoreSubTasks(List<Long> taskIds) {
+        return updateIn("INSERT INTO sub_task (" + SUB_TASK_COLUMNS + ") " +
+                "SELECT " + SUB_TASK_COLUMNS + " FROM archived_sub_task WHERE task_id IN ", taskIds);
+    }
+
+    public int deleteArchivedSubTasks(List<Long> taskIds) {
+        return updateIn("DELETE FROM archived_sub_task WHERE task_id IN ", taskIds);
+    }
+
+    public int deleteArchivedTasks(List<Long> taskIds) {
+        return updateIn("DELETE FROM archived_task WHERE task_id IN ", taskIds);
+    }
+
+    public int deleteArchivedSubProjects(List<Long> subProjectIds) {
+        return updateIn("DELETE FROM archived_sub_project WHERE sub_project_id IN ", subProjectIds);
+    }
+
+    public int deleteArchivedProjects(List<Long> projectIds) {
+        updateIn("DELETE FROM archived_project_employee WHERE project_id IN ", projectIds);
+        return updateIn("DELETE FROM archived_project WHERE project_id IN ", projectIds);
+    }
+
+    private List<Long> findIds(String sqlPrefix, List<Long> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return jdbcTemplate.queryForList(sqlPrefix + "(" + placeholders(ids.size()) + ")", Long.class, ids.toArray());
+    }
+
+    private int updateIn(String sqlPrefix, List<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return jdbcTemplate.update(sqlPrefix + "(" + placeholders(ids.size()) + ")", ids.toArray());
+    }
+
+    private static String placeholders(int count) {
+        return String.join(",", Collections.nCopies(count, "?"));
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.pkveksamen.repository;
+
+import com.example.pkveksamen.model.Project;
+import com.example.pkveksamen.model.ProjectDashboard;
+import com.example.pkveksamen.model.Status;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+
+// Forsidens projektliste med nøgletal i én grupperet forespørgsel: projekterne medarbejderen ejer eller er
+// medlem af, LEFT JOIN'et til deres tasks og talt sammen pr. projekt med betingede summer.
+// Læses fra primæren (load*), da resultatet caches og ellers kunne fastholde en forsinket replika.
+@Repository
+public class DashboardRepository {
+
+    private static final String DASHBOARD_SQL = dashboardSql();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public DashboardRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public List<ProjectDashboard> loadDashboardByEmployeeId(int employeeId) {
+        LocalDate today = LocalDate.now();
+        return jdbcTemplate.query(DASHBOARD_SQL, this::mapDashboard, today, today, employeeId, employeeId);
+    }
+
+    // Hvilket projekt en ændring hører til, så kun de berørte brugeres dashboards ryddes. null hvis rækken er væk
+    public Long loadProjectIdBySubProjectId(long subProjectId) {
+        return jdbcTemplate.query("SELECT project_id FROM sub_project WHERE sub_project_id = ?",
+                rs -> rs.next() ? rs.getLong("project_id") : null, subProjectId);
+    }
+
+    // Ejeren af et projekt, der endnu ikke står i noget dashboard (fx et nyt projekt). null hvis rækken er væk
+    public Integer loadOwnerByProjectId(long projectId) {
+        return jdbcTemplate.query("SELECT employee_id FROM project WHERE project_id = ?",
+                rs -> rs.next() ? rs.getInt("employee_id") : null, projectId);
+    }
+
+    public Long loadProjectIdByTaskId(long taskId) {
+        return jdbcTemplate.query("SELECT sp.project_id FROM task t " +
+                        "JOIN sub_project sp ON sp.sub_project_id = t.sub_project_id WHERE t.task_id = ?",
+                rs -> rs.next() ? rs.getLong("project_id") : null, taskId);
+    }
+
+    private static String dashboardSql() {
+        StringBuilder sql = new StringBuilder("SELECT p.project_id, p.project_title, p.project_description, " +
+                "p.project_start_date, p.project_deadline, p.project_customer, COUNT(t.task_id) AS task_count");
+        for (Status status : Status.values()) {
+            sql.append(", SUM(CASE WHEN ").append(statusIn(status))
+                    .append(" THEN 1 ELSE 0 END) AS status_").append(status.name().toLowerCase());
+        }
+        String open = "t.task_deadline IS NOT NULL AND NOT " + statusIn(Status.COMPLETED);
+        sql.append(", SUM(CASE WHEN ").append(open).append(" AND t.task_deadline < ? THEN 1 ELSE 0 END) AS overdue_count")
+                .append(", MIN(CASE WHEN ").append(open).append(" AND t.task_deadline >= ? THEN t.task_deadline END) AS next_deadline")
+                .append(" FROM project p")
+                .append(" LEFT JOIN sub_project sp ON sp.project_id = p.project_id")
+                .append(" LEFT JOIN task t ON t.sub_project_id = sp.sub_project_id")
+                .append(" WHERE p.employee_id = ?")
+                .append(" OR p.project_id IN (SELECT pe.project_id FROM project_employee pe WHERE pe.employee_id = ?)")
+                .append(" GROUP BY p.project_id, p.project_title, p.project_description, p.project_start_date,")
+                .append(" p.project_deadline, p.project_customer")
+                .append(" ORDER BY p.project_id");
+        return sql.toString();
+    }
+
+    // Status findes både som displayName og enum-navn i task-tabellen
+    private static String statusIn(Status status) {
+        return "t.task_status IN ('" + status.getDisplayName() + "', '" + status.name() + "')";
+    }
+
+    private ProjectDashboard mapDashboard(ResultSet rs, int rowNum) throws SQLException {
+        Project project = new Project();
+        project.setProjectID(rs.getLong("project_id"));
+        project.setProjectName(rs.getString("project_title"));
+        project.setProjectDescription(rs.getString("project_description"));
+        project.setProjectStartDate(rs.getObject("project_start_date", LocalDate.class));
+        project.setProjectDeadline(rs.getObject("project_deadline", LocalDate.class));
+        project.setProjectCustomer(rs.getString("project_customer"));
+        project.recalculateDuration();
+
+        ProjectDashboard dashboard = new ProjectDashboard();
+        dashboard.setProject(project);
+        dashboard.setTaskCount(rs.getInt("task_count"));
+        for (Status status : Status.values()) {
+            dashboard.setStatusCount(status, rs.getInt("status_" + status.name().toLowerCase()));
+        }
+        dashboard.setOverdueCount(rs.getInt("overdue_count"));
+        dashboard.setNextDeadline(rs.getObject("next_deadline", LocalDate.class));
+        return dashboard;
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.pkveksamen.repository;
+
+import com.example.pkveksamen.config.PrimaryRead;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public class DataGeneratorRepository {
+
+    public static final String INSERT_EMPLOYEE_SQL =
+            "INSERT INTO employee (employee_id, username, password, email, role) VALUES (?, ?, ?, ?, ?)";
+
+    public static final String INSERT_EMPLOYEE_ROLE_SQL =
+            "INSERT INTO employee_role (employee_id, role_id) VALUES (?, ?)";
+
+    public static final String INSERT_PROJECT_SQL =
+            "INSERT INTO project (project_id, employee_id, project_title, project_description, project_start_date, " +
+                    "project_deadline, project_customer) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    public static final String INSERT_PROJECT_EMPLOYEE_SQL =
+            "INSERT INTO project_employee (project_id, employee_id) VALUES (?, ?)";
+
+    public static final String INSERT_SUB_PROJECT_SQL =
+            "INSERT INTO sub_project (sub_project_id, project_id, sub_project_title, sub_project_description, " +
+                    "sub_project_start_date, sub_project_deadline, sub_project_duration) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    public static final String INSERT_TASK_SQL =
+            "INSERT INTO task (task_id, employee_id, sub_project_id, task_title, task_description, task_status, " +
+                    "task_start_date, task_deadline, task_duration, task_priority, task_note) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    public static final String INSERT_SUB_TASK_SQL =
+            "INSERT INTO sub_task (sub_task_id, task_id, sub_task_title, sub_task_description, sub_task_status, " +
+                    "sub_task_start_date, sub_task_deadline, sub_task_duration, sub_task_priority, sub_task_note) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public DataGeneratorRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Første ledige id i en tabel, så genererede rækker ikke kolliderer med eksisterende data
+    @PrimaryRead
+    public long nextId(String table, String idColumn) {
+        Long max = jdbcTemplate.queryForObject("SELECT MAX(" + idColumn + ") FROM " + table, Long.class);
+        return max == null ? 1 : max + 1;
+    }
+
+    // Identity-kolonnen tæller ikke selv op når vi indsætter eksplicitte id'er (H2-syntaks)
+    public void restartIdentity(String table, String idColumn, long nextValue) {
+        jdbcTemplate.execute("ALTER TABLE " + table + " ALTER COLUMN " + idColumn + " RESTART WITH " + nextValue);
+    }
+
+    // Genereringen laver selv konsistente id'er, så FK-tjek kan slås fra mens der indsættes (H2-syntaks)
+    public void setReferentialIntegrity(boolean enabled) {
+        jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY " + (enabled ? "TRUE" : "FALSE"));
+    }
+
+    public void batchInsert(String sql, List<Object[]> rows) {
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, rows);
+        }
+    }
+
+    @PrimaryRead
+    public long count(String table) {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Long.class);
+        return count == null ? 0 : count;
+    }
+}
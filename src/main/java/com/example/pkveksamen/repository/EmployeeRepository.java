@@ -1,8 +1,11 @@
 package com.example.pkveksamen.repository;
 
+import com.example.pkveksamen.config.PrimaryRead;
 import com.example.pkveksamen.model.AlphaRole;
 import com.example.pkveksamen.model.Employee;
 import com.example.pkveksamen.model.EmployeeRole;
+import com.example.pkveksamen.model.EmployeeSuggestion;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
@@ -11,18 +14,40 @@ import org.springframework.stereotype.Repository;
 
 import java.sql.PreparedStatement;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.StreamSupport;
 
 @Repository
 public class EmployeeRepository {
 
+    private static final String INSERT_EMPLOYEE_ROLE_SQL = "INSERT INTO employee_role(employee_id, role_id) VALUES (?, ?)";
+
     private final JdbcTemplate jdbcTemplate;
+    private final RoleDictionary roleDictionary;
+    private final int streamingFetchSize;
 
-    public EmployeeRepository(JdbcTemplate jdbcTemplate) {
+    public EmployeeRepository(JdbcTemplate jdbcTemplate,
+                              RoleDictionary roleDictionary,
+                              @Value("${streaming.fetch-size:500}") int streamingFetchSize) {
         this.jdbcTemplate = jdbcTemplate;
+        this.roleDictionary = roleDictionary;
+        this.streamingFetchSize = streamingFetchSize;
     }
 
-    public void createEmployee(String username, String password, String email, String role, String alphaRoleDisplayName) {
+    // Medarbejder og alphaRole i to sætninger; rolle-id'et kommer fra RoleDictionary i stedet for et opslag.
+    // Kaldes inde i en transaktion (se EmployeeService), så en halvt oprettet medarbejder aldrig bliver synlig.
+    public int createEmployee(String username, String password, String email, String role, String alphaRoleDisplayName) {
         KeyHolder keyHolder = new GeneratedKeyHolder();
         String insertEmployeeSql = "INSERT INTO employee(username, password, email, role) VALUES (?, ?, ?, ?)";
         
@@ -35,26 +60,59 @@ public class EmployeeRepository {
             return ps;
         }, keyHolder);
         
-        Integer employeeId = keyHolder.getKey().intValue();
-        
-        String getRoleIdSql = "SELECT role_id FROM role WHERE role_name = ?";
-        Integer roleId;
-        try {
-            roleId = jdbcTemplate.queryForObject(getRoleIdSql, Integer.class, alphaRoleDisplayName);
-        } catch (EmptyResultDataAccessException e) {
-            KeyHolder roleKeyHolder = new GeneratedKeyHolder();
-            String insertRoleSql = "INSERT INTO role(role_name, role_description) VALUES (?, ?)";
-            jdbcTemplate.update(connection -> {
-                PreparedStatement ps = connection.prepareStatement(insertRoleSql, Statement.RETURN_GENERATED_KEYS);
-                ps.setString(1, alphaRoleDisplayName);
-                ps.setString(2, alphaRoleDisplayName);
-                return ps;
-            }, roleKeyHolder);
-            roleId = roleKeyHolder.getKey().intValue();
+        int employeeId = keyHolder.getKey().intValue();
+        jdbcTemplate.update(INSERT_EMPLOYEE_ROLE_SQL, employeeId, roleDictionary.roleIdFor(alphaRoleDisplayName));
+        return employeeId;
+    }
+
+    // Brugernavne og emails blandt de givne der allerede findes, så dubletter afvises før der skrives
+    public Set<String> findTakenUsernamesAndEmails(Collection<String> usernames, Collection<String> emails) {
+        Set<String> taken = new HashSet<>();
+        if (usernames.isEmpty() && emails.isEmpty()) {
+            return taken;
         }
-        
-        String insertEmployeeRoleSql = "INSERT INTO employee_role(employee_id, role_id) VALUES (?, ?)";
-        jdbcTemplate.update(insertEmployeeRoleSql, employeeId, roleId);
+        String sql = "SELECT username, email FROM employee WHERE username IN (" + placeholders(usernames.size()) +
+                ") OR email IN (" + placeholders(emails.size()) + ")";
+        List<Object> args = new ArrayList<>(usernames);
+        args.addAll(emails);
+        jdbcTemplate.query(sql, rs -> {
+            taken.add(rs.getString("username").toLowerCase());
+            taken.add(rs.getString("email").toLowerCase());
+        }, args.toArray());
+        return taken;
+    }
+
+    // Masseoprettelse: én batch for employee, ét opslag af de nye id'er og én batch for employee_role.
+    // Sætter employeeId på de givne objekter.
+    public void createEmployees(List<Employee> employees) {
+        if (employees.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO employee(username, password, email, role) VALUES (?, ?, ?, ?)",
+                employees, employees.size(), (ps, employee) -> {
+                    ps.setString(1, employee.getUsername());
+                    ps.setString(2, employee.getPassword());
+                    ps.setString(3, employee.getEmail());
+                    ps.setString(4, employee.getRole().getDisplayName());
+                });
+
+        Map<String, Integer> ids = new HashMap<>();
+        List<String> usernames = employees.stream().map(Employee::getUsername).toList();
+        jdbcTemplate.query("SELECT employee_id, username FROM employee WHERE username IN (" +
+                        placeholders(usernames.size()) + ")",
+                rs -> { ids.put(rs.getString("username"), rs.getInt("employee_id")); }, usernames.toArray());
+
+        List<int[]> employeeRoles = new ArrayList<>();
+        for (Employee employee : employees) {
+            employee.setEmployeeId(ids.get(employee.getUsername()));
+            for (AlphaRole alphaRole : employee.getAlphaRoles()) {
+                employeeRoles.add(new int[]{employee.getEmployeeId(), roleDictionary.roleIdFor(alphaRole.getDisplayName())});
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_EMPLOYEE_ROLE_SQL, employeeRoles, employeeRoles.size(), (ps, pair) -> {
+            ps.setInt(1, pair[0]);
+            ps.setInt(2, pair[1]);
+        });
     }
 
     public Employee findEmployeeById(int employeeId) {
@@ -77,6 +135,7 @@ public class EmployeeRepository {
         }
     }
 
+    @PrimaryRead
     public Integer validateLogin(String username, String password) {
         try {
             String sql = "SELECT employee_id FROM employee WHERE username = ? AND password = ?";
@@ -106,6 +165,22 @@ public class EmployeeRepository {
         );
     }
 
+    // alphaRoles for alle med en task i subprojektet, i én forespørgsel. Til tasklister der streames, så opslaget
+    // ikke skal bruge en forbindelse mere mens den streamende ResultSet holder sin
+    public Map<Integer, List<AlphaRole>> findAlphaRolesForSubProjectAssignees(long subProjectId) {
+        String sql = "SELECT er.employee_id, r.role_name " +
+                "FROM employee_role er " +
+                "JOIN role r ON r.role_id = er.role_id " +
+                "WHERE er.employee_id IN (SELECT t.employee_id FROM task t WHERE t.sub_project_id = ?)";
+
+        Map<Integer, List<AlphaRole>> alphaRoles = new HashMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            alphaRoles.computeIfAbsent(rs.getInt("employee_id"), id -> new ArrayList<>())
+                    .add(AlphaRole.fromDisplayName(rs.getString("role_name")));
+        }, subProjectId);
+        return alphaRoles;
+    }
+
     public List<Employee> getAllTeamMembers() {
         String sql = "SELECT employee_id, username, password, email, role " +
                 "FROM employee WHERE role = ?";
@@ -140,4 +215,105 @@ public class EmployeeRepository {
         });
     }
 
+    // Alle medarbejdere med alphaRoles i én sorteret forespørgsel. Rækkerne for samme medarbejder
+    // ligger i forlængelse af hinanden og samles mens der læses, i stedet for et opslag pr. medarbejder.
+    public StreamingRows<Employee> streamAllEmployees() {
+        String sql = "SELECT e.employee_id, e.username, e.email, e.role, r.role_name " +
+                "FROM employee e " +
+                "LEFT JOIN employee_role er ON er.employee_id = e.employee_id " +
+                "LEFT JOIN role r ON r.role_id = er.role_id " +
+                "ORDER BY e.employee_id";
+
+        StreamingRows<Employee> rows = StreamingRows.query(jdbcTemplate, streamingFetchSize, sql, (rs, rowNum) -> {
+            Employee employee = new Employee();
+            employee.setEmployeeId(rs.getInt("employee_id"));
+            employee.setUsername(rs.getString("username"));
+            employee.setEmail(rs.getString("email"));
+            employee.setRole(EmployeeRole.fromDisplayName(rs.getString("role")));
+            List<AlphaRole> alphaRoles = new ArrayList<>();
+            String roleName = rs.getString("role_name");
+            if (roleName != null) {
+                alphaRoles.add(AlphaRole.fromDisplayName(roleName));
+            }
+            employee.setAlphaRoles(alphaRoles);
+            return employee;
+        });
+
+        Iterator<Employee> source = rows.iterator();
+        Iterator<Employee> grouped = new Iterator<>() {
+            private Employee pending;
+
+            @Override
+            public boolean hasNext() {
+                return pending != null || source.hasNext();
+            }
+
+            @Override
+            public Employee next() {
+                Employee current = pending != null ? pending : source.next();
+                pending = null;
+                while (source.hasNext()) {
+                    Employee row = source.next();
+                    if (row.getEmployeeId() != current.getEmployeeId()) {
+                        pending = row;
+                        break;
+                    }
+                    current.getAlphaRoles().addAll(row.getAlphaRoles());
+                }
+                return current;
+            }
+        };
+        return StreamingRows.of(StreamSupport.stream(Spliterators.spliteratorUnknownSize(grouped, Spliterator.ORDERED), false)
+                .onClose(rows::close));
+    }
+
+    // Søgeindekset (EmployeeDirectory): medarbejdere med id over afterId og deres alphaRoles, i id-rækkefølge.
+    // Læses fra primæren, så en netop oprettet medarbejder er med når indekset indhenter.
+    public List<EmployeeSuggestion> loadSuggestionsAfter(int afterId) {
+        return loadSuggestions("e.employee_id > ?", afterId);
+    }
+
+    // Én medarbejder til indekset uanset id, fx en der blev committet efter en med højere id. null hvis den ikke findes
+    public EmployeeSuggestion loadSuggestion(int employeeId) {
+        List<EmployeeSuggestion> suggestions = loadSuggestions("e.employee_id = ?", employeeId);
+        return suggestions.isEmpty() ? null : suggestions.get(0);
+    }
+
+    // Reserve til søgeindekset, hvis det mangler nogen: medarbejdere hvis brugernavn eller email (med små bogstaver)
+    // begynder med prefix. Højst limit medarbejdere, i id-rækkefølge
+    public List<EmployeeSuggestion> findSuggestionsByPrefix(String prefix, int limit) {
+        String like = prefix.replace("!", "!!").replace("%", "!%").replace("_", "!_") + "%";
+        // LIMIT i en IN-underforespørgsel kræver en afledt tabel i MySQL
+        return loadSuggestions("e.employee_id IN (SELECT m.employee_id FROM (SELECT employee_id FROM employee " +
+                "WHERE LOWER(username) LIKE ? ESCAPE '!' OR LOWER(email) LIKE ? ESCAPE '!' " +
+                "ORDER BY employee_id LIMIT ?) m)", like, like, limit);
+    }
+
+    private List<EmployeeSuggestion> loadSuggestions(String where, Object... args) {
+        String sql = "SELECT e.employee_id, e.username, e.email, r.role_name " +
+                "FROM employee e " +
+                "LEFT JOIN employee_role er ON er.employee_id = e.employee_id " +
+                "LEFT JOIN role r ON r.role_id = er.role_id " +
+                "WHERE " + where + " " +
+                "ORDER BY e.employee_id";
+
+        Map<Integer, EmployeeSuggestion> suggestions = new LinkedHashMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            int id = rs.getInt("employee_id");
+            EmployeeSuggestion suggestion = suggestions.get(id);
+            if (suggestion == null) {
+                suggestion = new EmployeeSuggestion(id, rs.getString("username"), rs.getString("email"));
+                suggestions.put(id, suggestion);
+            }
+            String roleName = rs.getString("role_name");
+            if (roleName != null) {
+                suggestion.addAlphaRole(AlphaRole.fromDisplayName(roleName));
+            }
+        }, args);
+        return new ArrayList<>(suggestions.values());
+    }
+
+    private static String placeholders(int count) {
+        return count == 0 ? "NULL" : String.join(",", Collections.nCopies(count, "?"));
+    }
 }
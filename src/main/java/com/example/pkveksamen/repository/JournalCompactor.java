@@ -0,0 +1,149 @@
+package com.example.pkveksamen.repository;
+
+import com.example.pkveksamen.model.JournalRecord;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Slår de forseglede segmenter i audit-journalen sammen til ét tæt segment. Poster nyere end keepAllAfterMillis
+// beholdes alle; for ældre beholdes kun den seneste pr. (type, entityId). Det aktive segment røres ikke.
+//
+// Det nye segment skrives til en midlertidig fil og flyttes atomisk ind over det ældste, før de øvrige slettes.
+// Går noget galt undervejs, ligger posterne højst to gange, og JournalReader springer gentagelserne over.
+//
+// Kan køres uden appen: java -cp <classpath> com.example.pkveksamen.repository.JournalCompactor <mappe> [dage]
+public class JournalCompactor {
+
+    private JournalCompactor() {
+    }
+
+    public static class Result {
+
+        private final int segmentsBefore;
+        private final int recordsBefore;
+        private final int recordsAfter;
+        private final long bytesBefore;
+        private final long bytesAfter;
+
+        public Result(int segmentsBefore, int recordsBefore, int recordsAfter, long bytesBefore, long bytesAfter) {
+            this.segmentsBefore = segmentsBefore;
+            this.recordsBefore = recordsBefore;
+            this.recordsAfter = recordsAfter;
+            this.bytesBefore = bytesBefore;
+            this.bytesAfter = bytesAfter;
+        }
+
+        public int getSegmentsBefore() {
+            return segmentsBefore;
+        }
+
+        public int getRecordsBefore() {
+            return recordsBefore;
+        }
+
+        public int getRecordsAfter() {
+            return recordsAfter;
+        }
+
+        public long getBytesBefore() {
+            return bytesBefore;
+        }
+
+        public long getBytesAfter() {
+            return bytesAfter;
+        }
+
+        @Override
+        public String toString() {
+            return segmentsBefore + " segmenter, " + recordsBefore + " -> " + recordsAfter + " poster, "
+                    + bytesBefore + " -> " + bytesAfter + " bytes";
+        }
+    }
+
+    // Segmenter der begynder ved activeFirstSequence eller senere anses for aktive og springes over
+    public static Result compact(Path directory, long activeFirstSequence, long keepAllAfterMillis) throws IOException {
+        List<Path> sealed = new ArrayList<>();
+        for (Path file : JournalSegment.list(directory)) {
+            if (JournalSegment.firstSequenceOf(file) < activeFirstSequence) {
+                sealed.add(file);
+            }
+        }
+        if (sealed.isEmpty()) {
+            return new Result(0, 0, 0, 0, 0);
+        }
+
+        List<JournalRecord> records = new ArrayList<>();
+        long bytesBefore = 0;
+        for (Path file : sealed) {
+            bytesBefore += Files.size(file);
+            try (JournalSegment segment = JournalSegment.open(file, false)) {
+                records.addAll(segment.readAll());
+            }
+        }
+        int recordsBefore = records.size();
+
+        // Den seneste post pr. entitet blandt de gamle; nyere poster beholdes alle
+        Map<String, Long> latestOld = new HashMap<>();
+        for (JournalRecord record : records) {
+            if (record.getTimestampMillis() <= keepAllAfterMillis) {
+                latestOld.merge(record.getType() + ":" + record.getEntityId(), record.getSequence(), Math::max);
+            }
+        }
+        List<JournalRecord> kept = new ArrayList<>();
+        long lastSequence = 0;
+        records.sort(Comparator.comparingLong(JournalRecord::getSequence));
+        for (JournalRecord record : records) {
+            boolean keep = record.getTimestampMillis() > keepAllAfterMillis
+                    || latestOld.get(record.getType() + ":" + record.getEntityId()) == record.getSequence();
+            if (keep && record.getSequence() > lastSequence) {
+                kept.add(record);
+                lastSequence = record.getSequence();
+            }
+        }
+
+        int capacity = JournalSegment.HEADER_BYTES + 4;
+        for (JournalRecord record : kept) {
+            capacity += JournalSegment.sizeOf(record);
+        }
+        Path target = sealed.get(0);
+        Path temporary = target.resolveSibling(target.getFileName() + ".compact");
+        Files.deleteIfExists(temporary);
+        try (JournalSegment compacted = JournalSegment.create(temporary, JournalSegment.firstSequenceOf(target), capacity)) {
+            for (JournalRecord record : kept) {
+                compacted.append(record.getSequence(), record.getTimestampMillis(), record.getType(), record.getEntityId());
+            }
+            compacted.force();
+        }
+        Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        for (Path file : sealed.subList(1, sealed.size())) {
+            Files.delete(file);
+        }
+        return new Result(sealed.size(), recordsBefore, kept.size(), bytesBefore, Files.size(target));
+    }
+
+    // Offline: alle segmenter undtagen det nyeste, som kan være aktivt
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Brug: JournalCompactor <mappe> [behold-alle-dage, standard 30]");
+            return;
+        }
+        Path directory = Paths.get(args[0]);
+        long keepAllDays = args.length > 1 ? Long.parseLong(args[1]) : 30;
+        List<Path> segments = JournalSegment.list(directory);
+        if (segments.size() < 2) {
+            System.out.println("Intet at komprimere i " + directory);
+            return;
+        }
+        long newest = JournalSegment.firstSequenceOf(segments.get(segments.size() - 1));
+        Result result = compact(directory, newest, System.currentTimeMillis() - keepAllDays * 86_400_000L);
+        System.out.println("Journal komprimeret: " + result);
+    }
+}
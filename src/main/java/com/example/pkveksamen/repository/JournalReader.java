@@ -0,0 +1,106 @@
+package com.example.pkveksamen.repository;
+
+import com.example.pkveksamen.model.JournalRecord;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+// Læser audit-journalen fra et sekvensnummer, på tværs af segmenter. Virker også mens der skrives, og på en kopi
+// af mappen uden appen kørende. Sekvensnumre læses kun én gang og i stigende orden, også hvis en komprimering blev
+// afbrudt og de samme poster ligger i to filer.
+public class JournalReader {
+
+    private JournalReader() {
+    }
+
+    public static List<JournalRecord> read(Path directory, long fromSequence, int limit) throws IOException {
+        try (Tailer tailer = new Tailer(directory, fromSequence)) {
+            return tailer.poll(limit);
+        }
+    }
+
+    // Følger journalen: hvert poll() giver de poster der er kommet til siden sidst
+    public static class Tailer implements Closeable {
+
+        private final Path directory;
+        private long nextSequence;
+        private JournalSegment segment;
+        private int position;
+
+        public Tailer(Path directory, long fromSequence) {
+            this.directory = directory;
+            this.nextSequence = Math.max(1, fromSequence);
+        }
+
+        public List<JournalRecord> poll(int limit) throws IOException {
+            List<JournalRecord> records = new ArrayList<>();
+            if (segment == null && !openSegmentFor(nextSequence)) {
+                return records;
+            }
+            while (drain(records, limit)) {
+                Path next = newerSegment();
+                // Poster skrevet lige før skiftet til det nye segment er synlige når det nye segment er det
+                if (next == null || !drain(records, limit)) {
+                    break;
+                }
+                close();
+                segment = JournalSegment.open(next, false);
+                position = JournalSegment.HEADER_BYTES;
+            }
+            return records;
+        }
+
+        public long getNextSequence() {
+            return nextSequence;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (segment != null) {
+                segment.close();
+                segment = null;
+            }
+        }
+
+        // Det sidste segment der begynder før eller ved sequence
+        private boolean openSegmentFor(long sequence) throws IOException {
+            Path chosen = null;
+            for (Path file : JournalSegment.list(directory)) {
+                if (chosen == null || JournalSegment.firstSequenceOf(file) <= sequence) {
+                    chosen = file;
+                }
+            }
+            if (chosen == null) {
+                return false;
+            }
+            segment = JournalSegment.open(chosen, false);
+            position = JournalSegment.HEADER_BYTES;
+            return true;
+        }
+
+        // true hvis der er plads til flere poster
+        private boolean drain(List<JournalRecord> records, int limit) {
+            position = segment.forEach(position, record -> {
+                if (record.getSequence() >= nextSequence) {
+                    records.add(record);
+                    nextSequence = record.getSequence() + 1;
+                }
+                return records.size() < limit;
+            });
+            return records.size() < limit;
+        }
+
+        private Path newerSegment() throws IOException {
+            long current = JournalSegment.firstSequenceOf(segment.getPath());
+            for (Path file : JournalSegment.list(directory)) {
+                if (JournalSegment.firstSequenceOf(file) > current) {
+                    return file;
+                }
+            }
+            return null;
+        }
+    }
+}
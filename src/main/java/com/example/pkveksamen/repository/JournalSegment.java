@@ -0,0 +1,208 @@
+package com.example.pkveksamen.repository;
+
+import com.example.pkveksamen.model.JournalRecord;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+// Én fil i audit-journalen, mappet ind i hukommelsen. Filen oprettes i fuld størrelse, så en skrivning blot er
+// nogle put'er i bufferen; operativsystemet skriver siderne ud (eller force() gør det med det samme).
+//
+// Format: header (magic, version, første sekvensnummer) efterfulgt af poster:
+//   int længde | int CRC32C af kroppen | krop: long sekvens, long tidspunkt, long entityId, byte typelængde, type
+// Længden skrives sidst, så en læser aldrig ser en halv post som gyldig; 0 betyder at der ikke er flere poster.
+// En afbrudt skrivning i halen fanges af CRC'en og skrives over ved næste opstart.
+public class JournalSegment implements Closeable {
+
+    public static final int HEADER_BYTES = 16;
+    public static final int MAX_RECORD_BYTES = 8 + 25 + 127;
+
+    private static final int MAGIC = 0x504B4A31;
+    private static final int VERSION = 1;
+    private static final String PREFIX = "journal-";
+    private static final String SUFFIX = ".log";
+
+    private final Path path;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final long firstSequence;
+    private long lastSequence;
+    private int writePosition;
+    private int forcedPosition;
+
+    private JournalSegment(Path path, FileChannel channel, MappedByteBuffer buffer, long firstSequence) {
+        this.path = path;
+        this.channel = channel;
+        this.buffer = buffer;
+        this.firstSequence = firstSequence;
+        this.lastSequence = firstSequence - 1;
+        this.writePosition = HEADER_BYTES;
+        this.forcedPosition = 0;
+    }
+
+    public static JournalSegment createIn(Path directory, long firstSequence, int capacity) throws IOException {
+        return create(fileFor(directory, firstSequence), firstSequence, capacity);
+    }
+
+    public static JournalSegment create(Path path, long firstSequence, int capacity) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putLong(8, firstSequence);
+        return new JournalSegment(path, channel, buffer, firstSequence);
+    }
+
+    // Finder enden af de gyldige poster. Åbnes segmentet til skrivning og endte det i en halv post, nulstilles resten
+    public static JournalSegment open(Path path, boolean writable) throws IOException {
+        FileChannel channel = writable
+                ? FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)
+                : FileChannel.open(path, StandardOpenOption.READ);
+        MappedByteBuffer buffer = channel.map(writable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY,
+                0, channel.size());
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            channel.close();
+            throw new IOException("Ikke et journal-segment: " + path);
+        }
+        JournalSegment segment = new JournalSegment(path, channel, buffer, buffer.getLong(8));
+        segment.writePosition = segment.forEach(HEADER_BYTES, record -> {
+            segment.lastSequence = record.getSequence();
+            return true;
+        });
+        if (writable && segment.writePosition + 4 <= buffer.capacity() && buffer.getInt(segment.writePosition) != 0) {
+            for (int i = segment.writePosition; i < buffer.capacity(); i++) {
+                buffer.put(i, (byte) 0);
+            }
+            buffer.force();
+        }
+        return segment;
+    }
+
+    // false hvis posten ikke kan være i segmentet; så skal der skiftes til et nyt
+    public boolean append(long sequence, long timestampMillis, String type, long entityId) {
+        byte[] typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+        int bodyLength = 25 + typeBytes.length;
+        int next = writePosition + 8 + bodyLength;
+        if (typeBytes.length > 127 || next + 4 > buffer.capacity()) {
+            return false;
+        }
+        int body = writePosition + 8;
+        buffer.putLong(body, sequence);
+        buffer.putLong(body + 8, timestampMillis);
+        buffer.putLong(body + 16, entityId);
+        buffer.put(body + 24, (byte) typeBytes.length);
+        buffer.put(body + 25, typeBytes);
+        buffer.putInt(writePosition + 4, crc(buffer, body, bodyLength));
+        buffer.putInt(writePosition, bodyLength);
+        writePosition = next;
+        lastSequence = sequence;
+        return true;
+    }
+
+    // Læser poster fra position indtil der ikke er flere, eller visitor svarer false.
+    // Returnerer positionen efter den sidste post der blev læst
+    public int forEach(int position, Predicate<JournalRecord> visitor) {
+        while (position + 8 <= buffer.capacity()) {
+            int bodyLength = buffer.getInt(position);
+            int body = position + 8;
+            if (bodyLength < 25 || bodyLength > MAX_RECORD_BYTES - 8 || body + bodyLength > buffer.capacity()
+                    || buffer.getInt(position + 4) != crc(buffer, body, bodyLength)) {
+                return position;
+            }
+            byte[] typeBytes = new byte[buffer.get(body + 24)];
+            buffer.get(body + 25, typeBytes);
+            JournalRecord record = new JournalRecord(buffer.getLong(body), buffer.getLong(body + 8),
+                    new String(typeBytes, StandardCharsets.US_ASCII), buffer.getLong(body + 16));
+            position = body + bodyLength;
+            if (!visitor.test(record)) {
+                return position;
+            }
+        }
+        return position;
+    }
+
+    public List<JournalRecord> readAll() {
+        List<JournalRecord> records = new ArrayList<>();
+        forEach(HEADER_BYTES, records::add);
+        return records;
+    }
+
+    // Kun det der er skrevet siden sidst tvinges til disk, ikke hele mappingen
+    public void force() {
+        force(writePosition);
+    }
+
+    // Tvinger poster op til upTo (en tidligere getWritePosition()) til disk. Må kaldes fra en anden tråd end
+    // skriveren, så længe kun én tråd ad gangen kalder force (se AuditJournal)
+    public void force(int upTo) {
+        if (upTo > forcedPosition) {
+            buffer.force(forcedPosition, upTo - forcedPosition);
+            forcedPosition = upTo;
+        }
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public long getFirstSequence() {
+        return firstSequence;
+    }
+
+    public long getLastSequence() {
+        return lastSequence;
+    }
+
+    public int getWritePosition() {
+        return writePosition;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    public static Path fileFor(Path directory, long firstSequence) {
+        return directory.resolve(String.format("%s%019d%s", PREFIX, firstSequence, SUFFIX));
+    }
+
+    // Segmenterne i mappen, ældste først (filnavnet er det første sekvensnummer, nulfyldt)
+    public static List<Path> list(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> {
+                String name = file.getFileName().toString();
+                return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+            }).sorted().toList();
+        }
+    }
+
+    public static long firstSequenceOf(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    public static int sizeOf(JournalRecord record) {
+        return 8 + 25 + record.getType().length();
+    }
+
+    private static int crc(ByteBuffer buffer, int offset, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(offset, length));
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.pkveksamen.repository;
+
+import com.example.pkveksamen.model.LevelingJob;
+import com.example.pkveksamen.model.TaskShift;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+// Udjævningsjobs og deres forslag (se ResourceLevelingService). Læses fra primæren (load*), så et job der
+// lige er startet eller gennemført på en anden node ses med det samme.
+@Repository
+public class LevelingJobRepository {
+
+    private static final int MESSAGE_LENGTH = 255;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public LevelingJobRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void createJob(LevelingJob job) {
+        jdbcTemplate.update("INSERT INTO leveling_job (job_id, project_id, state, created_at) VALUES (?, ?, ?, ?)",
+                job.getJobId(), job.getProjectId(), job.getState().name(), new Timestamp(job.getCreatedAt()));
+    }
+
+    public void saveProgress(LevelingJob job) {
+        jdbcTemplate.update("UPDATE leveling_job SET employees_done = ?, employees_total = ? " +
+                        "WHERE job_id = ? AND state = ?",
+                job.getEmployeesDone(), job.getEmployeesTotal(), job.getJobId(), LevelingJob.State.RUNNING.name());
+    }
+
+    // Kaldes inde i en transaktion, så forslaget og tilstanden READY ses samtidig
+    public void saveResult(LevelingJob job) {
+        String message = job.getMessage();
+        if (message != null && message.length() > MESSAGE_LENGTH) {
+            message = message.substring(0, MESSAGE_LENGTH);
+        }
+        jdbcTemplate.update("UPDATE leveling_job SET state = ?, employees_done = ?, employees_total = ?, " +
+                        "overload_days_before = ?, overload_days_after = ?, message = ? WHERE job_id = ?",
+                job.getState().name(), job.getEmployeesDone(), job.getEmployeesTotal(),
+                job.getOverloadDaysBefore(), job.getOverloadDaysAfter(), message, job.getJobId());
+
+        List<Object[]> rows = new ArrayList<>();
+        List<TaskShift> shifts = job.getShifts();
+        for (int i = 0; i < shifts.size(); i++) {
+            TaskShift shift = shifts.get(i);
+            rows.add(new Object[]{job.getJobId(), i, shift.getTaskId(), shift.getTaskTitle(), shift.getEmployeeId(),
+                    shift.getUsername(), Date.valueOf(shift.getOldStartDate()), Date.valueOf(shift.getOldDeadline()),
+                    Date.valueOf(shift.getNewStartDate()), Date.valueOf(shift.getNewDeadline())});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO leveling_shift (job_id, shift_no, task_id, task_title, employee_id, username, " +
+                "old_start_date, old_deadline, new_start_date, new_deadline) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", rows);
+    }
+
+    // Kun et job der står som READY kan gennemføres, så to klik (eller to noder) ikke gennemfører det to gange
+    public boolean markApplied(String jobId, int appliedCount, int skippedCount) {
+        return jdbcTemplate.update("UPDATE leveling_job SET state = ?, applied_count = ?, skipped_count = ? " +
+                        "WHERE job_id = ? AND state = ?",
+                LevelingJob.State.APPLIED.name(), appliedCount, skippedCount, jobId, LevelingJob.State.READY.name()) == 1;
+    }
+
+    public int deleteJobsCreatedBefore(Timestamp createdBefore) {
+        return jdbcTemplate.update("DELETE FROM leveling_job WHERE created_at < ?", createdBefore);
+    }
+
+    // null hvis jobbet ikke findes
+    public LevelingJob loadJob(String jobId) {
+        List<LevelingJob> jobs = jdbcTemplate.query("SELECT * FROM leveling_job WHERE job_id = ?", this::mapJob, jobId);
+        if (jobs.isEmpty()) {
+            return null;
+        }
+        LevelingJob job = jobs.get(0);
+        job.setShifts(jdbcTemplate.query("SELECT * FROM leveling_shift WHERE job_id = ? ORDER BY shift_no",
+                this::mapShift, jobId));
+        return job;
+    }
+
+    // Seneste job for projektet der stadig kører, eller null
+    public LevelingJob loadRunningJob(long projectId) {
+        List<String> jobIds = jdbcTemplate.queryForList("SELECT job_id FROM leveling_job WHERE project_id = ? AND state = ? " +
+                "ORDER BY created_at DESC", String.class, projectId, LevelingJob.State.RUNNING.name());
+        return jobIds.isEmpty() ? null : loadJob(jobIds.get(0));
+    }
+
+    private LevelingJob mapJob(ResultSet rs, int rowNum) throws SQLException {
+        LevelingJob job = new LevelingJob(rs.getString("job_id"), rs.getLong("project_id"),
+                rs.getTimestamp("created_at").getTime());
+        job.setState(LevelingJob.State.valueOf(rs.getString("state")));
+        job.setEmployeesDone(rs.getInt("employees_done"));
+        job.setEmployeesTotal(rs.getInt("employees_total"));
+        job.setOverloadDaysBefore(rs.getInt("overload_days_before"));
+        job.setOverloadDaysAfter(rs.getInt("overload_days_after"));
+        job.setAppliedCount(rs.getInt("applied_count"));
+        job.setSkippedCount(rs.getInt("skipped_count"));
+        job.setMessage(rs.getString("message"));
+        return job;
+    }
+
+    private TaskShift mapShift(ResultSet rs, int rowNum) throws SQLException {
+        return new TaskShift(rs.getLong("task_id"), rs.getString("task_title"), rs.getInt("employee_id"),
+                rs.getString("username"), rs.getObject("old_start_date", LocalDate.class),
+                rs.getObject("old_deadline", LocalDate.class), rs.getObject("new_start_date", LocalDate.class),
+                rs.getObject("new_deadline", LocalDate.class));
+    }
+}
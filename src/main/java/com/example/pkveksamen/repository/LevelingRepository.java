@@ -0,0 +1,115 @@
+package com.example.pkveksamen.repository;
+
+import com.example.pkveksamen.model.LevelingTask;
+import com.example.pkveksamen.model.Priority;
+import com.example.pkveksamen.model.Status;
+import com.example.pkveksamen.model.TaskShift;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Data til ressourceudjævning: alle åbne, daterede tasks for dem der har en task i projektet - også i andre
+// projekter, da de optager medarbejderens dage. Læses fra primæren (load*), så forslaget bygger på de
+// datoer der faktisk står i databasen når det gennemføres.
+@Repository
+public class LevelingRepository {
+
+    private static final String LEVELING_TASKS_SQL =
+            "SELECT t.task_id, t.task_title, t.employee_id, e.username, t.task_start_date, t.task_deadline, " +
+            "sp.sub_project_start_date, sp.sub_project_deadline, " +
+            "CASE WHEN sp.project_id = ? AND t.task_status IN (?, ?) " +
+            "AND (t.task_priority IS NULL OR t.task_priority NOT IN (?, ?)) THEN 1 ELSE 0 END AS movable " +
+            "FROM task t " +
+            "JOIN sub_project sp ON sp.sub_project_id = t.sub_project_id " +
+            "JOIN employee e ON e.employee_id = t.employee_id " +
+            "WHERE t.employee_id IN (SELECT pt.employee_id FROM task pt " +
+            "JOIN sub_project psp ON psp.sub_project_id = pt.sub_project_id WHERE psp.project_id = ?) " +
+            "AND t.task_start_date IS NOT NULL AND t.task_deadline IS NOT NULL AND t.task_status NOT IN (?, ?) " +
+            "ORDER BY t.employee_id, t.task_start_date, t.task_id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public LevelingRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public List<LevelingTask> loadLevelingTasks(long projectId) {
+        return jdbcTemplate.query(LEVELING_TASKS_SQL, this::mapLevelingTask, projectId,
+                Status.NOT_STARTED.getDisplayName(), Status.NOT_STARTED.name(),
+                Priority.HIGH.getDisplayName(), Priority.HIGH.name(), projectId,
+                Status.COMPLETED.getDisplayName(), Status.COMPLETED.name());
+    }
+
+    // Flytter tasks i én batch. En task opdateres kun hvis den stadig har de datoer og den medarbejder forslaget
+    // bygger på; returnerer id'erne på dem der blev flyttet
+    public Set<Long> updateTaskDates(List<TaskShift> shifts) {
+        int[][] counts = jdbcTemplate.batchUpdate("UPDATE task SET task_start_date = ?, task_deadline = ? " +
+                        "WHERE task_id = ? AND employee_id = ? AND task_start_date = ? AND task_deadline = ?",
+                shifts, shifts.size(), (ps, shift) -> {
+                    ps.setDate(1, Date.valueOf(shift.getNewStartDate()));
+                    ps.setDate(2, Date.valueOf(shift.getNewDeadline()));
+                    ps.setLong(3, shift.getTaskId());
+                    ps.setInt(4, shift.getEmployeeId());
+                    ps.setDate(5, Date.valueOf(shift.getOldStartDate()));
+                    ps.setDate(6, Date.valueOf(shift.getOldDeadline()));
+                });
+
+        Set<Long> updated = new HashSet<>();
+        List<TaskShift> unknown = new ArrayList<>();
+        int index = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                if (count > 0) {
+                    updated.add(shifts.get(index).getTaskId());
+                } else if (count == Statement.SUCCESS_NO_INFO) {
+                    unknown.add(shifts.get(index));
+                }
+                index++;
+            }
+        }
+        // Drivere der samler batchen til én sætning (MySQL med rewriteBatchedStatements) melder SUCCESS_NO_INFO i
+        // stedet for et antal. De tasks slås op igen i samme transaktion: flyttet er de, der nu har de nye datoer
+        if (!unknown.isEmpty()) {
+            updated.addAll(movedTo(unknown));
+        }
+        return updated;
+    }
+
+    private Set<Long> movedTo(List<TaskShift> shifts) {
+        Map<Long, TaskShift> byTaskId = new HashMap<>();
+        for (TaskShift shift : shifts) {
+            byTaskId.put(shift.getTaskId(), shift);
+        }
+        Set<Long> moved = new HashSet<>();
+        jdbcTemplate.query("SELECT task_id, employee_id, task_start_date, task_deadline FROM task WHERE task_id IN (" +
+                String.join(",", Collections.nCopies(byTaskId.size(), "?")) + ")", rs -> {
+            TaskShift shift = byTaskId.get(rs.getLong("task_id"));
+            if (rs.getInt("employee_id") == shift.getEmployeeId()
+                    && shift.getNewStartDate().equals(rs.getObject("task_start_date", LocalDate.class))
+                    && shift.getNewDeadline().equals(rs.getObject("task_deadline", LocalDate.class))) {
+                moved.add(shift.getTaskId());
+            }
+        }, byTaskId.keySet().toArray());
+        return moved;
+    }
+
+    private LevelingTask mapLevelingTask(ResultSet rs, int rowNum) throws SQLException {
+        return new LevelingTask(rs.getLong("task_id"), rs.getString("task_title"), rs.getInt("employee_id"),
+                rs.getString("username"), rs.getObject("task_start_date", LocalDate.class),
+                rs.getObject("task_deadline", LocalDate.class),
+                rs.getObject("sub_project_start_date", LocalDate.class),
+                rs.getObject("sub_project_deadline", LocalDate.class), rs.getInt("movable") == 1);
+    }
+}
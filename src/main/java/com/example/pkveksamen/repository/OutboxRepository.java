@@ -0,0 +1,77 @@
+package com.example.pkveksamen.repository;
+
+import com.example.pkveksamen.model.ChangeEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.UUID;
+
+// change_outbox og markørerne i outbox_cursor. Læsningerne hedder load* med vilje: de skal altid gå til
+// primæren (se ReplicaRoutingInterceptor), ellers kan en node springe over rækker en replika ikke har fået endnu.
+// Hver række får nodens id (outbox.node-id, ellers et tilfældigt pr. opstart), så en node kan kende sine egne.
+@Repository
+public class OutboxRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String nodeId;
+
+    public OutboxRepository(JdbcTemplate jdbcTemplate, @Value("${outbox.node-id:}") String nodeId) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.nodeId = nodeId.isBlank() ? UUID.randomUUID().toString() : nodeId;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    // Kaldes inde i samme transaktion som selve ændringen (se ChangeOutbox)
+    public void append(ChangeEvent.Type type, long entityId) {
+        jdbcTemplate.update("INSERT INTO change_outbox (change_type, entity_id, origin_node) VALUES (?, ?, ?)",
+                type.name(), entityId, nodeId);
+    }
+
+    public List<ChangeEvent> loadEventsAfter(long eventId, int limit) {
+        return jdbcTemplate.query("SELECT event_id, change_type, entity_id, origin_node FROM change_outbox " +
+                        "WHERE event_id > ? ORDER BY event_id LIMIT ?",
+                (rs, rowNum) -> new ChangeEvent(rs.getLong("event_id"),
+                        ChangeEvent.Type.valueOf(rs.getString("change_type")), rs.getLong("entity_id"),
+                        rs.getString("origin_node")),
+                eventId, limit);
+    }
+
+    public long loadMaxEventId() {
+        Long max = jdbcTemplate.queryForObject("SELECT MAX(event_id) FROM change_outbox", Long.class);
+        return max == null ? 0 : max;
+    }
+
+    public Long loadCursor(String nodeId) {
+        List<Long> cursor = jdbcTemplate.queryForList("SELECT last_event_id FROM outbox_cursor WHERE node_id = ?",
+                Long.class, nodeId);
+        return cursor.isEmpty() ? null : cursor.get(0);
+    }
+
+    // seen_at opdateres ved hver poll, så oprydningen kan se hvilke noder der stadig kører
+    public void saveCursor(String nodeId, long lastEventId) {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        int updated = jdbcTemplate.update("UPDATE outbox_cursor SET last_event_id = ?, seen_at = ? WHERE node_id = ?",
+                lastEventId, now, nodeId);
+        if (updated == 0) {
+            jdbcTemplate.update("INSERT INTO outbox_cursor (node_id, last_event_id, seen_at) VALUES (?, ?, ?)",
+                    nodeId, lastEventId, now);
+        }
+    }
+
+    // Sletter rækker som alle levende noder har læst, og alt ældre end retainedSince uanset markørerne
+    public int deleteConsumedEvents(Timestamp aliveSince, Timestamp retainedSince) {
+        int deleted = jdbcTemplate.update("DELETE FROM change_outbox WHERE event_id <= " +
+                "(SELECT COALESCE(MIN(last_event_id), 0) FROM outbox_cursor WHERE seen_at >= ?)", aliveSince);
+        return deleted + jdbcTemplate.update("DELETE FROM change_outbox WHERE created_at < ?", retainedSince);
+    }
+
+    public int deleteStaleCursors(Timestamp retainedSince) {
+        return jdbcTemplate.update("DELETE FROM outbox_cursor WHERE seen_at < ?", retainedSince);
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.pkveksamen.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collections;
+import java.util.List;
+
+// Sletninger af projekttræer. Der slettes altid nedefra (sub_task -> task -> sub_project -> project) med
+// id-lister, så ON DELETE CASCADE aldrig skal finde børnerækker selv, og hver sætning rammer et indeks.
+// Metoderne forventer at blive kaldt inde i en transaktion (se ProjectDeletionService).
+@Repository
+public class ProjectDeletionRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ProjectDeletionRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public List<Long> findSubProjectIds(List<Long> projectIds) {
+        if (projectIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return jdbcTemplate.queryForList("SELECT sub_project_id FROM sub_project WHERE project_id IN (" +
+                placeholders(projectIds.size()) + ")", Long.class, projectIds.toArray());
+    }
+
+    public List<Long> findTaskIds(List<Long> subProjectIds) {
+        if (subProjectIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return jdbcTemplate.queryForList("SELECT task_id FROM task WHERE sub_project_id IN (" +
+                placeholders(subProjectIds.size()) + ")", Long.class, subProjectIds.toArray());
+    }
+
+    // Til bulk-sletning: de næste højst limit sub_tasks under projekterne
+    public List<Long> findSubTaskIdChunk(List<Long> projectIds, int limit) {
+        String sql = "SELECT st.sub_task_id FROM sub_task st " +
+                "JOIN task t ON t.task_id = st.task_id " +
+                "JOIN sub_project sp ON sp.sub_project_id = t.sub_project_id " +
+                "WHERE sp.project_id IN (" + placeholders(projectIds.size()) + ") " +
+                "ORDER BY st.sub_task_id LIMIT ?";
+        return jdbcTemplate.queryForList(sql, Long.class, withLimit(projectIds, limit));
+    }
+
+    public List<Long> findTaskIdChunk(List<Long> projectIds, int limit) {
+        String sql = "SELECT t.task_id FROM task t " +
+                "JOIN sub_project sp ON sp.sub_project_id = t.sub_project_id " +
+                "WHERE sp.project_id IN (" + placeholders(projectIds.size()) + ") " +
+                "ORDER BY t.task_id LIMIT ?";
+        return jdbcTemplate.queryForList(sql, Long.class, withLimit(projectIds, limit));
+    }
+
+    public int deleteSubTasksByTaskIds(List<Long> taskIds) {
+        return deleteIn("sub_task", "task_id", taskIds);
+    }
+
+    public int deleteSubTasksByIds(List<Long> subTaskIds) {
+        return deleteIn("sub_task", "sub_task_id", subTaskIds);
+    }
+
+    public int deleteTasksByIds(List<Long> taskIds) {
+        return deleteIn("task", "task_id", taskIds);
+    }
+
+    public int deleteTasksBySubProjectIds(List<Long> subProjectIds) {
+        return deleteIn("task", "sub_project_id", subProjectIds);
+    }
+
+    public int deleteSubProjectsByIds(List<Long> subProjectIds) {
+        return deleteIn("sub_project", "sub_project_id", subProjectIds);
+    }
+
+    public int deleteProjectMembers(List<Long> projectIds) {
+        return deleteIn("project_employee", "project_id", projectIds);
+    }
+
+    // project_snapshot og task_history har ingen fremmednøgle (historikken skal overleve arkivering),
+    // så de ryddes eksplicit
+    public int deleteProjectSnapshots(List<Long> projectIds) {
+        return deleteIn("project_snapshot", "project_id", projectIds);
+    }
+
+    public int deleteProjectHistory(List<Long> projectIds) {
+        return deleteIn("task_history", "project_id", projectIds);
+    }
+
+    public int deleteProjectsByIds(List<Long> projectIds) {
+        return deleteIn("project", "project_id", projectIds);
+    }
+
+    private int deleteIn(String table, String column, List<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return jdbcTemplate.update("DELETE FROM " + table + " WHERE " + column + " IN (" +
+                placeholders(ids.size()) + ")", ids.toArray());
+    }
+
+    private static Object[] withLimit(List<Long> ids, int limit) {
+        Object[] args = new Object[ids.size() + 1];
+        for (int i = 0; i < ids.size(); i++) {
+            args[i] = ids.get(i);
+        }
+        args[ids.size()] = limit;
+        return args;
+    }
+
+    private static String placeholders(int count) {
+        return String.join(",", Collections.nCopies(count, "?"));
+    }
+}
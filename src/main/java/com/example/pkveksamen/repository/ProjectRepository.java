@@ -1,12 +1,20 @@
 package com.example.pkveksamen.repository;
 
+import java.sql.PreparedStatement;
+import java.sql.Statement;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
+import com.example.pkveksamen.model.AlphaRole;
 import com.example.pkveksamen.model.Employee;
 import com.example.pkveksamen.model.EmployeeRole;
 import com.example.pkveksamen.model.SubProject;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
 
 import com.example.pkveksamen.model.Project;
@@ -20,18 +28,25 @@ public class ProjectRepository {
         this.jdbcTemplate = jdbcTemplate;
     }
 
-    public void createProject(String projectTitle, String projectDescription, LocalDate projectStartDate,
+    // Returnerer det genererede projekt-id, så oprettelsen kan meldes til outboxen (se ProjectService)
+    public long createProject(String projectTitle, String projectDescription, LocalDate projectStartDate,
                               LocalDate projectDeadline, String projectCustomer, Integer employeeId) {
-        jdbcTemplate.update(
-                "INSERT INTO project (project_title, project_description, project_start_date, project_deadline, project_customer, employee_id) " +
-                        "VALUES (?,?,?,?,?,?)",
-                projectTitle,
-                projectDescription,
-                projectStartDate,
-                projectDeadline,
-                projectCustomer,
-                employeeId
-        );
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        String sql = "INSERT INTO project (project_title, project_description, project_start_date, project_deadline, project_customer, employee_id) " +
+                "VALUES (?,?,?,?,?,?)";
+
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+            ps.setString(1, projectTitle);
+            ps.setString(2, projectDescription);
+            ps.setObject(3, projectStartDate);
+            ps.setObject(4, projectDeadline);
+            ps.setString(5, projectCustomer);
+            ps.setObject(6, employeeId);
+            return ps;
+        }, keyHolder);
+
+        return keyHolder.getKey().longValue();
     }
 
     public List<Project> showProjectsByEmployeeId(int employeeId) {
@@ -77,18 +92,9 @@ public class ProjectRepository {
     }
 
 
-    public void saveProject(Project project, int employeeId) {
-        String sql = "INSERT INTO project (project_title, project_description, project_start_date, project_deadline, project_customer, employee_id) " +
-                "VALUES (?, ?, ?, ?, ?, ?)";
-
-        jdbcTemplate.update(sql,
-                project.getProjectName(),
-                project.getProjectDescription(),
-                project.getProjectStartDate(),
-                project.getProjectDeadline(),
-                project.getProjectCustomer(),
-                employeeId
-        );
+    public long saveProject(Project project, int employeeId) {
+        return createProject(project.getProjectName(), project.getProjectDescription(), project.getProjectStartDate(),
+                project.getProjectDeadline(), project.getProjectCustomer(), employeeId);
     }
 
     public void saveSubProject(SubProject subProject, long projectID) {
@@ -109,30 +115,6 @@ public class ProjectRepository {
         );
     }
 
-    /*
-    public void deleteProject(long projectID) {
-        jdbcTemplate.update("DELETE FROM project WHERE project_id = ?", projectID);
-    }
-    */
-
-    public void deleteProject(long projectID) {
-        // First delete all subtasks related to tasks in subprojects of this project
-        String deleteSubtasksSql = "DELETE FROM sub_task WHERE task_id IN " +
-                "(SELECT t.task_id FROM task t " +
-                "JOIN sub_project sp ON t.sub_project_id = sp.sub_project_id " +
-                "WHERE sp.project_id = ?)";
-        jdbcTemplate.update(deleteSubtasksSql, projectID);
-        // Then delete all tasks in subprojects of this project
-        String deleteTasksSql = "DELETE FROM task WHERE sub_project_id IN " +
-                "(SELECT sub_project_id FROM sub_project WHERE project_id = ?)";
-        jdbcTemplate.update(deleteTasksSql, projectID);
-        // Then delete all subprojects of this project
-        String deleteSubProjectsSql = "DELETE FROM sub_project WHERE project_id = ?";
-        jdbcTemplate.update(deleteSubProjectsSql, projectID);
-        // Finally, delete the project itself
-        jdbcTemplate.update("DELETE FROM project WHERE project_id = ?", projectID);
-    }
-
     public void editProject(Project project) {
         String sql = "UPDATE project SET " +
                 "project_title = ?, " +
@@ -210,10 +192,6 @@ public class ProjectRepository {
         }, subProjectID);
     }
 
-    public void deleteSubProject(long subProjectId) {
-        jdbcTemplate.update("DELETE FROM sub_project WHERE sub_project_id = ?", subProjectId);
-    }
-
     public List<Employee> getProjectMembers(long projectId) {
         String sql = "SELECT DISTINCT e.employee_id, e.username, e.email, e.role " +
                 "FROM employee e " +
@@ -238,26 +216,52 @@ public class ProjectRepository {
         }, projectId, projectId);
     }
 
-    public List<Employee> getAvailableEmployeesToAdd(long projectId) {
-        String sql = "SELECT e.employee_id, e.username, e.email, e.role " +
+    // Medarbejdere der hverken ejer eller er medlem af projektet, som anti-join (NOT EXISTS) mod primærnøglerne.
+    // Sorteret på brugernavn (unikt indeks) og pagineret med keyset: afterUsername er sidste brugernavn på forrige side.
+    // Henter limit + 1 rækker, så kalderen kan se om der er en side mere. Rollen vises ikke og læses derfor ikke.
+    public List<Employee> showAvailableEmployeesPage(long projectId, String usernamePrefix, AlphaRole alphaRole,
+                                                     String afterUsername, int limit) {
+        StringBuilder sql = new StringBuilder("SELECT e.employee_id, e.username, e.email " +
                 "FROM employee e " +
-                "WHERE e.employee_id NOT IN (" +
-                "    SELECT DISTINCT p.employee_id FROM project p WHERE p.project_id = ? " +
-                "    UNION " +
-                "    SELECT DISTINCT pe.employee_id FROM project_employee pe WHERE pe.project_id = ?" +
-                ")";
-
-        return jdbcTemplate.query(sql, (rs, rowNum) -> {
+                "WHERE NOT EXISTS (SELECT 1 FROM project p WHERE p.project_id = ? AND p.employee_id = e.employee_id) " +
+                "AND NOT EXISTS (SELECT 1 FROM project_employee pe WHERE pe.project_id = ? AND pe.employee_id = e.employee_id)");
+        List<Object> args = new ArrayList<>(List.of(projectId, projectId));
+        if (usernamePrefix != null && !usernamePrefix.isBlank()) {
+            sql.append(" AND e.username LIKE ?");
+            args.add(escapeLike(usernamePrefix.trim()) + "%");
+        }
+        if (alphaRole != null) {
+            sql.append(" AND EXISTS (SELECT 1 FROM employee_role er JOIN role r ON r.role_id = er.role_id " +
+                    "WHERE er.employee_id = e.employee_id AND r.role_name = ?)");
+            args.add(alphaRole.getDisplayName());
+        }
+        if (afterUsername != null) {
+            sql.append(" AND e.username > ?");
+            args.add(afterUsername);
+        }
+        sql.append(" ORDER BY e.username LIMIT ?");
+        args.add(limit + 1);
+
+        return jdbcTemplate.query(sql.toString(), (rs, rowNum) -> {
             Employee employee = new Employee();
             employee.setEmployeeId(rs.getInt("employee_id"));
             employee.setUsername(rs.getString("username"));
             employee.setEmail(rs.getString("email"));
-            String roleStr = rs.getString("role");
-            if (roleStr != null) {
-                employee.setRole(EmployeeRole.fromDisplayName(roleStr));
-            }
             return employee;
-        }, projectId, projectId);
+        }, args.toArray());
+    }
+
+    // Ejer og medlemmer, som typeahead-forslagene filtreres imod. Fra primæren, så et netop tilføjet medlem ikke foreslås igen
+    public Set<Integer> loadProjectMemberIds(long projectId) {
+        Set<Integer> memberIds = new HashSet<>();
+        jdbcTemplate.query("SELECT employee_id FROM project WHERE project_id = ? AND employee_id IS NOT NULL " +
+                        "UNION ALL SELECT employee_id FROM project_employee WHERE project_id = ?",
+                rs -> { memberIds.add(rs.getInt("employee_id")); }, projectId, projectId);
+        return memberIds;
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
     }
 
     public void addEmployeeToProject(int employeeId, long projectId) {
@@ -0,0 +1,329 @@
+package com.example.pkveksamen.repository;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Binært format til eksport og import af et projekttræ (se ProjectTransferRepository).
+// Filen består af magic "PKPT", en versionsbyte og derefter poster med en tag-byte foran; tag 0 afslutter filen.
+// Id'er og tal skrives som varints, datoer som epoch-dag, og korte strenge slås op i en ordbog, så gentagne
+// værdier (status, prioritet, brugernavne) kun fylder en eller to bytes efter første forekomst.
+// Ordbogen har et loft, så hukommelsesforbruget ikke vokser med filen i nogen af retningerne.
+public final class ProjectTransferFormat {
+
+    public static final int MAGIC = 0x504B5054; // "PKPT"
+    public static final int VERSION = 1;
+
+    private static final int BUFFER_BYTES = 64 * 1024;
+    static final int MAX_DICTIONARY_ENTRIES = 1 << 16;
+    static final int MAX_DICTIONARY_LENGTH = 64;
+
+    // Strengkoder: 0 = null, 1 = strengen skrives uden at komme i ordbogen, 2 = ny post i ordbogen, 3+ = opslag
+    private static final int TEXT_NULL = 0;
+    private static final int TEXT_INLINE = 1;
+    private static final int TEXT_NEW = 2;
+    private static final int TEXT_REF = 3;
+
+    public enum Field {
+        ID, TEXT, DATE, NUMBER
+    }
+
+    // Rækkefølgen er også rækkefølgen i filen: forældre kommer altid før deres børn
+    public enum RecordType {
+        PROJECT(Field.ID, Field.TEXT, Field.TEXT, Field.TEXT, Field.DATE, Field.DATE, Field.TEXT),
+        MEMBER(Field.TEXT),
+        SUB_PROJECT(Field.ID, Field.TEXT, Field.TEXT, Field.DATE, Field.DATE, Field.NUMBER),
+        TASK(Field.ID, Field.ID, Field.TEXT, Field.TEXT, Field.TEXT, Field.TEXT, Field.DATE, Field.DATE,
+                Field.NUMBER, Field.TEXT, Field.TEXT),
+        SUB_TASK(Field.ID, Field.ID, Field.TEXT, Field.TEXT, Field.TEXT, Field.DATE, Field.DATE,
+                Field.NUMBER, Field.TEXT, Field.TEXT);
+
+        private final Field[] fields;
+
+        RecordType(Field... fields) {
+            this.fields = fields;
+        }
+
+        public Field[] getFields() {
+            return fields;
+        }
+
+        int tag() {
+            return ordinal() + 1;
+        }
+    }
+
+    private ProjectTransferFormat() {
+    }
+
+    public static Writer writer(OutputStream out) throws IOException {
+        return new Writer(out);
+    }
+
+    public static Reader reader(InputStream in) throws IOException {
+        return new Reader(in);
+    }
+
+    public static final class Writer {
+
+        // Egen buffer i stedet for DataOutputStream, der kalder den synkroniserede stream én gang pr. byte
+        private final OutputStream out;
+        private final byte[] buffer = new byte[BUFFER_BYTES];
+        private int position;
+        private final Map<String, Integer> dictionary = new HashMap<>();
+        private long records;
+
+        private Writer(OutputStream out) throws IOException {
+            this.out = out;
+            writeByte(MAGIC >>> 24);
+            writeByte(MAGIC >>> 16);
+            writeByte(MAGIC >>> 8);
+            writeByte(MAGIC);
+            writeByte(VERSION);
+        }
+
+        // Værdierne skal stå i typens feltrækkefølge: Long/Integer for ID og NUMBER, LocalDate, String
+        public void write(RecordType type, Object... values) throws IOException {
+            Field[] fields = type.getFields();
+            if (values.length != fields.length) {
+                throw new IllegalArgumentException(type + " har " + fields.length + " felter, fik " + values.length);
+            }
+            writeByte(type.tag());
+            for (int i = 0; i < fields.length; i++) {
+                switch (fields[i]) {
+                    case ID -> writeVarLong(((Number) values[i]).longValue());
+                    case TEXT -> writeText((String) values[i]);
+                    case DATE -> writeNullable(values[i] == null ? null : ((LocalDate) values[i]).toEpochDay());
+                    case NUMBER -> writeNullable(values[i] == null ? null : ((Number) values[i]).longValue());
+                }
+            }
+            records++;
+        }
+
+        public long getRecords() {
+            return records;
+        }
+
+        // Skriver slutmærket og tømmer bufferen; selve strømmen lukkes af den der åbnede den
+        public void finish() throws IOException {
+            writeByte(0);
+            drain();
+            out.flush();
+        }
+
+        private void writeText(String value) throws IOException {
+            if (value == null) {
+                writeVarLong(TEXT_NULL);
+                return;
+            }
+            Integer index = dictionary.get(value);
+            if (index != null) {
+                writeVarLong(TEXT_REF + (long) index);
+                return;
+            }
+            if (value.length() <= MAX_DICTIONARY_LENGTH && dictionary.size() < MAX_DICTIONARY_ENTRIES) {
+                dictionary.put(value, dictionary.size());
+                writeVarLong(TEXT_NEW);
+            } else {
+                writeVarLong(TEXT_INLINE);
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(bytes.length);
+            if (bytes.length > buffer.length - position) {
+                drain();
+            }
+            if (bytes.length > buffer.length) {
+                out.write(bytes);
+            } else {
+                System.arraycopy(bytes, 0, buffer, position, bytes.length);
+                position += bytes.length;
+            }
+        }
+
+        // 0 = null, ellers zigzag-kodet værdi + 1, så små negative tal (datoer før 1970) også bliver korte
+        private void writeNullable(Long value) throws IOException {
+            writeVarLong(value == null ? 0 : ((value << 1) ^ (value >> 63)) + 1);
+        }
+
+        private void writeVarLong(long value) throws IOException {
+            if (buffer.length - position < 10) {
+                drain();
+            }
+            while ((value & ~0x7FL) != 0) {
+                buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[position++] = (byte) value;
+        }
+
+        private void writeByte(int value) throws IOException {
+            if (position == buffer.length) {
+                drain();
+            }
+            buffer[position++] = (byte) value;
+        }
+
+        private void drain() throws IOException {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+    }
+
+    public static final class Reader {
+
+        private static final RecordType[] TYPES = RecordType.values();
+
+        private final InputStream in;
+        private final byte[] buffer = new byte[BUFFER_BYTES];
+        private int position;
+        private int limit;
+        private final List<String> dictionary = new ArrayList<>();
+        private final int version;
+        private RecordType type;
+        private Object[] values;
+
+        private Reader(InputStream in) throws IOException {
+            this.in = in;
+            try {
+                int magic = readUnsignedByte() << 24 | readUnsignedByte() << 16 | readUnsignedByte() << 8 | readUnsignedByte();
+                if (magic != MAGIC) {
+                    throw new IllegalArgumentException("Filen er ikke en projekteksport");
+                }
+                version = readUnsignedByte();
+            } catch (EOFException e) {
+                throw new IllegalArgumentException("Filen er ikke en projekteksport");
+            }
+            if (version < 1 || version > VERSION) {
+                throw new IllegalArgumentException("Ukendt eksportversion " + version);
+            }
+        }
+
+        // Næste post, eller null når slutmærket er nået
+        public RecordType next() throws IOException {
+            try {
+                int tag = readUnsignedByte();
+                if (tag == 0) {
+                    type = null;
+                    values = null;
+                    return null;
+                }
+                if (tag > TYPES.length) {
+                    throw new IllegalArgumentException("Ukendt posttype " + tag);
+                }
+                type = TYPES[tag - 1];
+                Field[] fields = type.getFields();
+                values = new Object[fields.length];
+                for (int i = 0; i < fields.length; i++) {
+                    values[i] = switch (fields[i]) {
+                        case ID -> readVarLong();
+                        case TEXT -> readText();
+                        case DATE -> {
+                            Long epochDay = readNullable();
+                            yield epochDay == null ? null : LocalDate.ofEpochDay(epochDay);
+                        }
+                        case NUMBER -> {
+                            Long number = readNullable();
+                            yield number == null ? null : Math.toIntExact(number);
+                        }
+                    };
+                }
+                return type;
+            } catch (EOFException e) {
+                throw new IllegalArgumentException("Eksporten er afkortet");
+            }
+        }
+
+        public RecordType getType() {
+            return type;
+        }
+
+        // Den aktuelle posts værdier i typens feltrækkefølge; et nyt array pr. post
+        public Object[] getValues() {
+            return values;
+        }
+
+        public int getVersion() {
+            return version;
+        }
+
+        private String readText() throws IOException {
+            long code = readVarLong();
+            if (code == TEXT_NULL) {
+                return null;
+            }
+            if (code >= TEXT_REF) {
+                long index = code - TEXT_REF;
+                if (index >= dictionary.size()) {
+                    throw new IllegalArgumentException("Ugyldigt ordbogsopslag " + index);
+                }
+                return dictionary.get((int) index);
+            }
+            int length = Math.toIntExact(readVarLong());
+            String value;
+            if (length <= limit - position) {
+                value = new String(buffer, position, length, StandardCharsets.UTF_8);
+                position += length;
+            } else {
+                byte[] bytes = new byte[length];
+                for (int read = 0; read < length; ) {
+                    if (position == limit) {
+                        fill();
+                    }
+                    int chunk = Math.min(length - read, limit - position);
+                    System.arraycopy(buffer, position, bytes, read, chunk);
+                    position += chunk;
+                    read += chunk;
+                }
+                value = new String(bytes, StandardCharsets.UTF_8);
+            }
+            if (code == TEXT_NEW) {
+                dictionary.add(value);
+            }
+            return value;
+        }
+
+        private Long readNullable() throws IOException {
+            long raw = readVarLong();
+            if (raw == 0) {
+                return null;
+            }
+            long zigzag = raw - 1;
+            return (zigzag >>> 1) ^ -(zigzag & 1);
+        }
+
+        private long readVarLong() throws IOException {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readUnsignedByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Ugyldig varint");
+        }
+
+        private int readUnsignedByte() throws IOException {
+            if (position == limit) {
+                fill();
+            }
+            return buffer[position++] & 0xFF;
+        }
+
+        private void fill() throws IOException {
+            int read = in.read(buffer, 0, buffer.length);
+            if (read <= 0) {
+                throw new EOFException();
+            }
+            position = 0;
+            limit = read;
+        }
+    }
+}
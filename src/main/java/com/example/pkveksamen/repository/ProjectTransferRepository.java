@@ -0,0 +1,309 @@
+package com.example.pkveksamen.repository;
+
+import com.example.pkveksamen.config.PrimaryRead;
+import com.example.pkveksamen.model.ProjectTransferReport;
+import com.example.pkveksamen.repository.ProjectTransferFormat.RecordType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+// Læser et projekttræ række for række direkte ud i ProjectTransferFormat, og skriver en eksport tilbage med nye id'er.
+// Medarbejdere refereres med brugernavn i filen, da id'erne ikke er de samme i prod og test.
+// Importen forventes kaldt inde i en transaktion (se ProjectTransferService).
+@Repository
+public class ProjectTransferRepository {
+
+    private static final String INSERT_PROJECT_SQL =
+            "INSERT INTO project (employee_id, project_title, project_description, project_start_date, " +
+                    "project_deadline, project_customer) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_MEMBER_SQL =
+            "INSERT INTO project_employee (project_id, employee_id) VALUES (?, ?)";
+    private static final String INSERT_SUB_PROJECT_SQL =
+            "INSERT INTO sub_project (project_id, sub_project_title, sub_project_description, sub_project_start_date, " +
+                    "sub_project_deadline, sub_project_duration) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_TASK_SQL =
+            "INSERT INTO task (sub_project_id, employee_id, task_title, task_description, task_status, " +
+                    "task_start_date, task_deadline, task_duration, task_priority, task_note) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_SUB_TASK_SQL =
+            "INSERT INTO sub_task (task_id, sub_task_title, sub_task_description, sub_task_status, " +
+                    "sub_task_start_date, sub_task_deadline, sub_task_duration, sub_task_priority, sub_task_note) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int streamingFetchSize;
+
+    public ProjectTransferRepository(JdbcTemplate jdbcTemplate,
+                                     @Value("${streaming.fetch-size:500}") int streamingFetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.streamingFetchSize = streamingFetchSize;
+    }
+
+    @PrimaryRead
+    public boolean projectExists(long projectId) {
+        Integer found = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM project WHERE project_id = ?",
+                Integer.class, projectId);
+        return found != null && found > 0;
+    }
+
+    @PrimaryRead
+    public boolean employeeExists(long employeeId) {
+        Integer found = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM employee WHERE employee_id = ?",
+                Integer.class, employeeId);
+        return found != null && found > 0;
+    }
+
+    // Fem forward-only forespørgsler i forældre-før-børn-rækkefølge; ingen af dem holdes i hukommelsen.
+    // En stream*-metode, så eksporten må læse fra en replika (se ReplicaRoutingInterceptor)
+    public void streamProject(long projectId, ProjectTransferFormat.Writer writer) throws IOException {
+        try {
+            stream("SELECT p.project_id, e.username, p.project_title, p.project_description, p.project_start_date, " +
+                    "p.project_deadline, p.project_customer FROM project p " +
+                    "JOIN employee e ON e.employee_id = p.employee_id WHERE p.project_id = ?", projectId, rs ->
+                    write(writer, RecordType.PROJECT, rs.getLong("project_id"), rs.getString("username"),
+                            rs.getString("project_title"), rs.getString("project_description"),
+                            date(rs, "project_start_date"), date(rs, "project_deadline"),
+                            rs.getString("project_customer")));
+
+            stream("SELECT e.username FROM project_employee pe JOIN employee e ON e.employee_id = pe.employee_id " +
+                    "WHERE pe.project_id = ? ORDER BY e.username", projectId, rs ->
+                    write(writer, RecordType.MEMBER, rs.getString("username")));
+
+            stream("SELECT sub_project_id, sub_project_title, sub_project_description, sub_project_start_date, " +
+                    "sub_project_deadline, sub_project_duration FROM sub_project WHERE project_id = ? " +
+                    "ORDER BY sub_project_id", projectId, rs ->
+                    write(writer, RecordType.SUB_PROJECT, rs.getLong("sub_project_id"),
+                            rs.getString("sub_project_title"), rs.getString("sub_project_description"),
+                            date(rs, "sub_project_start_date"), date(rs, "sub_project_deadline"),
+                            rs.getObject("sub_project_duration", Integer.class)));
+
+            stream("SELECT t.task_id, t.sub_project_id, e.username, t.task_title, t.task_description, t.task_status, " +
+                    "t.task_start_date, t.task_deadline, t.task_duration, t.task_priority, t.task_note FROM task t " +
+                    "JOIN sub_project sp ON sp.sub_project_id = t.sub_project_id " +
+                    "LEFT JOIN employee e ON e.employee_id = t.employee_id " +
+                    "WHERE sp.project_id = ? ORDER BY t.task_id", projectId, rs ->
+                    write(writer, RecordType.TASK, rs.getLong("task_id"), rs.getLong("sub_project_id"),
+                            rs.getString("username"), rs.getString("task_title"), rs.getString("task_description"),
+                            rs.getString("task_status"), date(rs, "task_start_date"), date(rs, "task_deadline"),
+                            rs.getObject("task_duration", Integer.class), rs.getString("task_priority"),
+                            rs.getString("task_note")));
+
+            stream("SELECT st.sub_task_id, st.task_id, st.sub_task_title, st.sub_task_description, st.sub_task_status, " +
+                    "st.sub_task_start_date, st.sub_task_deadline, st.sub_task_duration, st.sub_task_priority, " +
+                    "st.sub_task_note FROM sub_task st " +
+                    "JOIN task t ON t.task_id = st.task_id " +
+                    "JOIN sub_project sp ON sp.sub_project_id = t.sub_project_id " +
+                    "WHERE sp.project_id = ? ORDER BY st.sub_task_id", projectId, rs ->
+                    write(writer, RecordType.SUB_TASK, rs.getLong("sub_task_id"), rs.getLong("task_id"),
+                            rs.getString("sub_task_title"), rs.getString("sub_task_description"),
+                            rs.getString("sub_task_status"), date(rs, "sub_task_start_date"),
+                            date(rs, "sub_task_deadline"), rs.getObject("sub_task_duration", Integer.class),
+                            rs.getString("sub_task_priority"), rs.getString("sub_task_note")));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.finish();
+    }
+
+    // Posterne læses i bidder af batchSize af samme type og skrives med én batch-sætning pr. bid. Kun de gamle
+    // subprojekt- og task-id'ers nye id'er holdes i hukommelsen, så subtasks kan hænges på de rigtige tasks.
+    public ProjectTransferReport importProject(ProjectTransferFormat.Reader reader, long fallbackOwnerId,
+                                               int batchSize) throws IOException {
+        ProjectTransferReport report = new ProjectTransferReport();
+        Import state = new Import(report, fallbackOwnerId);
+
+        if (reader.next() != RecordType.PROJECT) {
+            throw new IllegalArgumentException("Eksporten begynder ikke med et projekt");
+        }
+        report.setProjectId(state.insertProject(reader.getValues()));
+
+        List<Object[]> pending = new ArrayList<>();
+        RecordType pendingType = null;
+        RecordType type;
+        while ((type = reader.next()) != null) {
+            if (type == RecordType.PROJECT) {
+                throw new IllegalArgumentException("Eksporten indeholder mere end ét projekt");
+            }
+            if (pendingType != null && (type != pendingType || pending.size() >= batchSize)) {
+                state.flush(pendingType, pending);
+                pending = new ArrayList<>();
+            }
+            pending.add(reader.getValues());
+            pendingType = type;
+        }
+        if (pendingType != null) {
+            state.flush(pendingType, pending);
+        }
+        return report;
+    }
+
+    private void stream(String sql, long projectId, RowCallbackHandler handler) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(streamingFetchSize);
+            ps.setLong(1, projectId);
+            return ps;
+        }, handler);
+    }
+
+    private static void write(ProjectTransferFormat.Writer writer, RecordType type, Object... values) {
+        try {
+            writer.write(type, values);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static LocalDate date(ResultSet rs, String column) throws SQLException {
+        return rs.getObject(column, LocalDate.class);
+    }
+
+    // Id'er fra databasen i samme rækkefølge som rækkerne i batchen (H2 og MySQL returnerer dem i den orden)
+    private List<Long> insertReturningKeys(String sql, String idColumn, List<Object[]> rows) {
+        GeneratedKeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(sql, new String[]{idColumn}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        new ArgumentPreparedStatementSetter(rows.get(i)).setValues(ps);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return rows.size();
+                    }
+                }, keyHolder);
+        List<Map<String, Object>> keyList = keyHolder.getKeyList();
+        if (keyList.size() != rows.size()) {
+            throw new IllegalStateException("Forventede " + rows.size() + " nye " + idColumn + ", fik " + keyList.size());
+        }
+        List<Long> keys = new ArrayList<>(keyList.size());
+        for (Map<String, Object> key : keyList) {
+            keys.add(((Number) key.values().iterator().next()).longValue());
+        }
+        return keys;
+    }
+
+    // Tilstanden for én import: id-oversættelser og cache af brugernavne
+    private final class Import {
+
+        private final ProjectTransferReport report;
+        private final long fallbackOwnerId;
+        private final Map<String, Optional<Long>> employeeIds = new HashMap<>();
+        private final Map<Long, Long> subProjectIds = new HashMap<>();
+        private final Map<Long, Long> taskIds = new HashMap<>();
+        private final Set<Long> members = new HashSet<>();
+        private long projectId;
+
+        Import(ProjectTransferReport report, long fallbackOwnerId) {
+            this.report = report;
+            this.fallbackOwnerId = fallbackOwnerId;
+        }
+
+        // Findes projektlederen ikke i databasen, bliver den importerende medarbejder projektleder
+        long insertProject(Object[] values) {
+            Long ownerId = employeeId((String) values[1]);
+            Object[] row = {ownerId != null ? ownerId : fallbackOwnerId, values[2], values[3], values[4], values[5], values[6]};
+            projectId = insertReturningKeys(INSERT_PROJECT_SQL, "project_id", List.<Object[]>of(row)).get(0);
+            return projectId;
+        }
+
+        void flush(RecordType type, List<Object[]> records) {
+            switch (type) {
+                case MEMBER -> insertMembers(records);
+                case SUB_PROJECT -> insertSubProjects(records);
+                case TASK -> insertTasks(records);
+                case SUB_TASK -> insertSubTasks(records);
+                default -> throw new IllegalArgumentException("Uventet " + type + " i eksporten");
+            }
+        }
+
+        private void insertMembers(List<Object[]> records) {
+            List<Object[]> rows = new ArrayList<>();
+            for (Object[] values : records) {
+                Long employeeId = employeeId((String) values[0]);
+                if (employeeId != null && members.add(employeeId)) {
+                    rows.add(new Object[]{projectId, employeeId});
+                }
+            }
+            if (!rows.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_MEMBER_SQL, rows);
+            }
+            report.addRows("project_employee", rows.size());
+        }
+
+        private void insertSubProjects(List<Object[]> records) {
+            List<Object[]> rows = new ArrayList<>(records.size());
+            for (Object[] values : records) {
+                rows.add(new Object[]{projectId, values[1], values[2], values[3], values[4], values[5]});
+            }
+            remember(subProjectIds, records, insertReturningKeys(INSERT_SUB_PROJECT_SQL, "sub_project_id", rows));
+            report.addRows("sub_project", rows.size());
+        }
+
+        private void insertTasks(List<Object[]> records) {
+            List<Object[]> rows = new ArrayList<>(records.size());
+            for (Object[] values : records) {
+                rows.add(new Object[]{mapped(subProjectIds, values[1], "subprojekt"), employeeId((String) values[2]),
+                        values[3], values[4], values[5], values[6], values[7], values[8], values[9], values[10]});
+            }
+            remember(taskIds, records, insertReturningKeys(INSERT_TASK_SQL, "task_id", rows));
+            report.addRows("task", rows.size());
+        }
+
+        private void insertSubTasks(List<Object[]> records) {
+            List<Object[]> rows = new ArrayList<>(records.size());
+            for (Object[] values : records) {
+                rows.add(new Object[]{mapped(taskIds, values[1], "task"),
+                        values[2], values[3], values[4], values[5], values[6], values[7], values[8], values[9]});
+            }
+            jdbcTemplate.batchUpdate(INSERT_SUB_TASK_SQL, rows);
+            report.addRows("sub_task", rows.size());
+        }
+
+        private void remember(Map<Long, Long> ids, List<Object[]> records, List<Long> newIds) {
+            for (int i = 0; i < records.size(); i++) {
+                ids.put((Long) records.get(i)[0], newIds.get(i));
+            }
+        }
+
+        private Long mapped(Map<Long, Long> ids, Object oldId, String parent) {
+            Long newId = ids.get((Long) oldId);
+            if (newId == null) {
+                throw new IllegalArgumentException("Eksporten henviser til ukendt " + parent + " " + oldId);
+            }
+            return newId;
+        }
+
+        private Long employeeId(String username) {
+            if (username == null) {
+                return null;
+            }
+            Optional<Long> id = employeeIds.computeIfAbsent(username, name -> jdbcTemplate.query(
+                    "SELECT employee_id FROM employee WHERE username = ?",
+                    (rs, rowNum) -> rs.getLong("employee_id"), name).stream().findFirst());
+            if (id.isEmpty()) {
+                report.addUnknownEmployee(username);
+            }
+            return id.orElse(null);
+        }
+    }
+}
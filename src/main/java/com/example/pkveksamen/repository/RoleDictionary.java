@@ -0,0 +1,83 @@
+package com.example.pkveksamen.repository;
+
+import com.example.pkveksamen.model.AlphaRole;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// role_name -> role_id holdt i hukommelsen, så oprettelse af medarbejdere ikke skal slå rollen op hver gang.
+// Indlæses ved opstart, hvor manglende AlphaRoles også oprettes. Ukendte navne indsættes i deres egen transaktion
+// (REQUIRES_NEW), så et id i ordbogen altid er committet - også hvis den kaldende transaktion rulles tilbage.
+@Repository
+public class RoleDictionary {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate ownTransaction;
+
+    private volatile Map<String, Integer> roleIds;
+
+    public RoleDictionary(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ownTransaction = new TransactionTemplate(transactionManager);
+        this.ownTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    // Kan databasen ikke nås ved opstart, indlæses ordbogen i stedet ved første opslag
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        try {
+            reload();
+        } catch (DataAccessException | TransactionException e) {
+            System.out.println("Rolleordbogen blev ikke indlæst ved opstart: " + e.getMessage());
+        }
+    }
+
+    // Læser tabellen forfra; bruges også når role-tabellen er tømt eller genskabt udefra (datagenerator, tests)
+    public synchronized void reload() {
+        roleIds = ownTransaction.execute(status -> {
+            for (AlphaRole alphaRole : AlphaRole.values()) {
+                insertIfMissing(alphaRole.getDisplayName());
+            }
+            Map<String, Integer> loaded = new ConcurrentHashMap<>();
+            jdbcTemplate.query("SELECT role_id, role_name FROM role",
+                    rs -> { loaded.put(rs.getString("role_name"), rs.getInt("role_id")); });
+            return loaded;
+        });
+    }
+
+    public int roleIdFor(String roleName) {
+        if (roleIds == null) {
+            reload();
+        }
+        Integer roleId = roleIds.get(roleName);
+        return roleId != null ? roleId : addRole(roleName);
+    }
+
+    private synchronized int addRole(String roleName) {
+        Integer roleId = roleIds.get(roleName);
+        if (roleId == null) {
+            roleId = ownTransaction.execute(status -> {
+                insertIfMissing(roleName);
+                return jdbcTemplate.queryForObject("SELECT role_id FROM role WHERE role_name = ?", Integer.class, roleName);
+            });
+            roleIds.put(roleName, roleId);
+        }
+        return roleId;
+    }
+
+    private void insertIfMissing(String roleName) {
+        Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM role WHERE role_name = ?", Integer.class, roleName);
+        if (count == null || count == 0) {
+            jdbcTemplate.update("INSERT INTO role (role_name, role_description) VALUES (?, ?)", roleName, roleName);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.pkveksamen.repository;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+
+// Låse i scheduler_lock til job der kun må køre på én node ad gangen. Låsen tages med én betinget UPDATE,
+// så to noder aldrig begge får den; rækken oprettes første gang låsen bruges. Kaldes uden for en transaktion.
+@Repository
+public class SchedulerLockRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SchedulerLockRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // true hvis nodeId nu holder låsen i leaseMillis; false hvis en anden node holder den
+    public boolean tryLock(String lockName, String nodeId, long leaseMillis) {
+        long now = System.currentTimeMillis();
+        Timestamp lockedUntil = new Timestamp(now + leaseMillis);
+        int updated = jdbcTemplate.update("UPDATE scheduler_lock SET locked_until = ?, locked_by = ? " +
+                "WHERE lock_name = ? AND locked_until <= ?", lockedUntil, nodeId, lockName, new Timestamp(now));
+        if (updated == 1) {
+            return true;
+        }
+        try {
+            jdbcTemplate.update("INSERT INTO scheduler_lock (lock_name, locked_until, locked_by) VALUES (?, ?, ?)",
+                    lockName, lockedUntil, nodeId);
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    // Frigiver låsen fra releaseAtMillis, men kun hvis nodeId stadig holder den
+    public void unlock(String lockName, String nodeId, long releaseAtMillis) {
+        jdbcTemplate.update("UPDATE scheduler_lock SET locked_until = ? WHERE lock_name = ? AND locked_by = ?",
+                new Timestamp(releaseAtMillis), lockName, nodeId);
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.pkveksamen.repository;
+
+import com.example.pkveksamen.config.PrimaryRead;
+import com.example.pkveksamen.model.ProjectSnapshot;
+import com.example.pkveksamen.model.Status;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+
+// project_snapshot: dagens tal for alle subprojekter skrives med én aggregeret INSERT ... SELECT over task,
+// og projekternes rækker lægges sammen af de netop skrevne subprojekt-rækker. Læsningerne rører kun snapshot-tabellen.
+@Repository
+public class SnapshotRepository {
+
+    private static final String COLUMNS = "project_id, sub_project_id, snapshot_date, task_count, not_started_count, " +
+            "in_progress_count, completed_count, due_count, total_days, in_progress_days, completed_days, due_days";
+
+    // Taskens varighed i dage, mindst én; 0 for den tomme række et subprojekt uden tasks giver i LEFT JOIN'en
+    private static final String DAYS = "CASE WHEN t.task_id IS NULL THEN 0 WHEN t.task_duration > 1 THEN t.task_duration ELSE 1 END";
+    private static final String IN_PROGRESS = "t.task_status IN (?, ?)";
+    private static final String COMPLETED = "t.task_status IN (?, ?)";
+
+    private static final String SUB_PROJECT_ROWS_SQL = "INSERT INTO project_snapshot (" + COLUMNS + ") " +
+            "SELECT sp.project_id, sp.sub_project_id, ?, COUNT(t.task_id), " +
+            "SUM(CASE WHEN t.task_id IS NOT NULL AND NOT " + IN_PROGRESS + " AND NOT " + COMPLETED + " THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN " + IN_PROGRESS + " THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN " + COMPLETED + " THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN t.task_deadline <= ? THEN 1 ELSE 0 END), " +
+            "SUM(" + DAYS + "), " +
+            "SUM(CASE WHEN " + IN_PROGRESS + " THEN " + DAYS + " ELSE 0 END), " +
+            "SUM(CASE WHEN " + COMPLETED + " THEN " + DAYS + " ELSE 0 END), " +
+            "SUM(CASE WHEN t.task_deadline <= ? THEN " + DAYS + " ELSE 0 END) " +
+            "FROM sub_project sp LEFT JOIN task t ON t.sub_project_id = sp.sub_project_id " +
+            "GROUP BY sp.project_id, sp.sub_project_id";
+
+    private static final String PROJECT_ROWS_SQL = "INSERT INTO project_snapshot (" + COLUMNS + ") " +
+            "SELECT p.project_id, 0, ?, COALESCE(SUM(s.task_count), 0), COALESCE(SUM(s.not_started_count), 0), " +
+            "COALESCE(SUM(s.in_progress_count), 0), COALESCE(SUM(s.completed_count), 0), COALESCE(SUM(s.due_count), 0), " +
+            "COALESCE(SUM(s.total_days), 0), COALESCE(SUM(s.in_progress_days), 0), COALESCE(SUM(s.completed_days), 0), " +
+            "COALESCE(SUM(s.due_days), 0) " +
+            "FROM project p LEFT JOIN project_snapshot s " +
+            "ON s.project_id = p.project_id AND s.snapshot_date = ? AND s.sub_project_id <> 0 " +
+            "GROUP BY p.project_id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SnapshotRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Forventes kaldt i én transaktion sammen med deleteSnapshots for samme dag. Returnerer antal skrevne rækker
+    public int insertSnapshots(LocalDate date) {
+        String inProgress = Status.IN_PROGRESS.getDisplayName();
+        String completed = Status.COMPLETED.getDisplayName();
+        int subProjects = jdbcTemplate.update(SUB_PROJECT_ROWS_SQL, date,
+                inProgress, Status.IN_PROGRESS.name(), completed, Status.COMPLETED.name(),
+                inProgress, Status.IN_PROGRESS.name(),
+                completed, Status.COMPLETED.name(),
+                date,
+                inProgress, Status.IN_PROGRESS.name(),
+                completed, Status.COMPLETED.name(),
+                date);
+        return subProjects + jdbcTemplate.update(PROJECT_ROWS_SQL, date, date);
+    }
+
+    public int deleteSnapshots(LocalDate date) {
+        return jdbcTemplate.update("DELETE FROM project_snapshot WHERE snapshot_date = ?", date);
+    }
+
+    @PrimaryRead
+    public boolean isSnapshotTaken(LocalDate date) {
+        Integer rows = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM (SELECT 1 FROM project_snapshot WHERE snapshot_date = ? LIMIT 1) s", Integer.class, date);
+        return rows != null && rows > 0;
+    }
+
+    // Ét range-opslag på primærnøglen; subProjectId 0 er hele projektet
+    public List<ProjectSnapshot> findSnapshots(long projectId, long subProjectId, LocalDate from, LocalDate to) {
+        return jdbcTemplate.query("SELECT " + COLUMNS + " FROM project_snapshot " +
+                        "WHERE project_id = ? AND sub_project_id = ? AND snapshot_date BETWEEN ? AND ? ORDER BY snapshot_date",
+                this::mapSnapshot, projectId, subProjectId, from, to);
+    }
+
+    private ProjectSnapshot mapSnapshot(ResultSet rs, int rowNum) throws SQLException {
+        ProjectSnapshot snapshot = new ProjectSnapshot();
+        snapshot.setProjectId(rs.getLong("project_id"));
+        snapshot.setSubProjectId(rs.getLong("sub_project_id"));
+        snapshot.setSnapshotDate(rs.getObject("snapshot_date", LocalDate.class));
+        snapshot.setTaskCount(rs.getInt("task_count"));
+        snapshot.setNotStartedCount(rs.getInt("not_started_count"));
+        snapshot.setInProgressCount(rs.getInt("in_progress_count"));
+        snapshot.setCompletedCount(rs.getInt("completed_count"));
+        snapshot.setDueCount(rs.getInt("due_count"));
+        snapshot.setTotalDays(rs.getInt("total_days"));
+        snapshot.setInProgressDays(rs.getInt("in_progress_days"));
+        snapshot.setCompletedDays(rs.getInt("completed_days"));
+        snapshot.setDueDays(rs.getInt("due_days"));
+        return snapshot;
+    }
+}
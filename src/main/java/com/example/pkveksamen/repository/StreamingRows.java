@@ -0,0 +1,118 @@
+package com.example.pkveksamen.repository;
+
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+// Rækker der læses én ad gangen fra et forward-only ResultSet, mens templaten itererer over dem.
+// Forbindelsen holdes åben indtil alle rækker er læst eller close() kaldes, så den SKAL lukkes
+// (det gør StreamingSupport i controllerne når requestet er færdigt).
+public class StreamingRows<T> implements Iterable<T>, AutoCloseable {
+
+    private final Stream<T> stream;
+    private Iterator<T> source;
+    private T peeked;
+    private boolean hasPeeked;
+    private boolean iterated;
+    private boolean closed;
+
+    private StreamingRows(Stream<T> stream) {
+        this.stream = stream;
+    }
+
+    public static <T> StreamingRows<T> query(JdbcTemplate jdbcTemplate, int fetchSize, String sql,
+                                             RowMapper<T> rowMapper, Object... args) {
+        Stream<T> stream = jdbcTemplate.queryForStream(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            new ArgumentPreparedStatementSetter(args).setValues(ps);
+            return ps;
+        }, rowMapper);
+        return new StreamingRows<>(stream);
+    }
+
+    public static <T> StreamingRows<T> of(Stream<T> stream) {
+        return new StreamingRows<>(stream);
+    }
+
+    // Berigelse pr. række (fx alphaRoles), udføres først når rækken læses
+    public <R> StreamingRows<R> map(Function<? super T, ? extends R> mapper) {
+        return new StreamingRows<>(stream.map(mapper));
+    }
+
+    public StreamingRows<T> onClose(Runnable closeHandler) {
+        stream.onClose(closeHandler);
+        return this;
+    }
+
+    // Læser højst én række frem, så templaten kan vise "ingen rækker" uden at hente hele listen
+    public boolean isEmpty() {
+        return !sourceHasNext();
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        if (iterated) {
+            throw new IllegalStateException("StreamingRows kan kun itereres én gang");
+        }
+        iterated = true;
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                if (sourceHasNext()) {
+                    return true;
+                }
+                close();
+                return false;
+            }
+
+            @Override
+            public T next() {
+                if (!sourceHasNext()) {
+                    throw new NoSuchElementException();
+                }
+                hasPeeked = false;
+                T next = peeked;
+                peeked = null;
+                return next;
+            }
+        };
+    }
+
+    private boolean sourceHasNext() {
+        if (hasPeeked) {
+            return true;
+        }
+        if (closed) {
+            return false;
+        }
+        if (source == null) {
+            source = stream.iterator();
+        }
+        if (source.hasNext()) {
+            peeked = source.next();
+            hasPeeked = true;
+            return true;
+        }
+        return false;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            stream.close();
+        }
+    }
+}
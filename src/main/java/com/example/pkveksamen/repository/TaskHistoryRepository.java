@@ -0,0 +1,195 @@
+package com.example.pkveksamen.repository;
+
+import com.example.pkveksamen.config.PrimaryRead;
+import com.example.pkveksamen.model.Priority;
+import com.example.pkveksamen.model.Status;
+import com.example.pkveksamen.model.TaskHistoryEntry;
+import com.example.pkveksamen.model.WorkItem;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+// task_history. Rækkerne skrives med INSERT ... SELECT fra task og sub_task for et afgrænset udsnit (én task,
+// ét subprojekt, ét projekt eller det hele), så en ændring af mange tasks bliver én sætning. En række skrives kun
+// når tilstanden afviger fra den seneste for samme task/subtask, så udsnittet gerne må være bredere end ændringen.
+// Skrivemetoderne forventes kaldt i samme transaktion som ændringen de afspejler.
+@Repository
+public class TaskHistoryRepository {
+
+    private static final String COLUMNS = "item_type, item_id, task_id, sub_project_id, project_id, changed_at, " +
+            "change_kind, title, status, priority, employee_id, start_date, deadline";
+
+    private static final String TASK_STATUS = WorkItemRepository.canonical("t.task_status", Status.values());
+    private static final String TASK_PRIORITY = WorkItemRepository.canonical("t.task_priority", Priority.values());
+    private static final String SUB_TASK_STATUS = WorkItemRepository.canonical("st.sub_task_status", Status.values());
+    private static final String SUB_TASK_PRIORITY = WorkItemRepository.canonical("st.sub_task_priority", Priority.values());
+
+    // Seneste række for samme task/subtask; findes via (task_id, changed_at)-indekset
+    private static final String LATEST = "(SELECT MAX(h2.history_id) FROM task_history h2 " +
+            "WHERE h2.task_id = t.task_id AND h2.item_type = %s AND h2.item_id = %s)";
+
+    private static final String TASK_ROWS =
+            "SELECT 'TASK', t.task_id, t.task_id, sp.sub_project_id, sp.project_id, ?, %s, t.task_title, " +
+            TASK_STATUS + ", " + TASK_PRIORITY + ", t.employee_id, t.task_start_date, t.task_deadline " +
+            "FROM task t JOIN sub_project sp ON sp.sub_project_id = t.sub_project_id WHERE ";
+
+    private static final String SUB_TASK_ROWS =
+            "SELECT 'SUB_TASK', st.sub_task_id, t.task_id, sp.sub_project_id, sp.project_id, ?, %s, st.sub_task_title, " +
+            SUB_TASK_STATUS + ", " + SUB_TASK_PRIORITY + ", NULL, st.sub_task_start_date, st.sub_task_deadline " +
+            "FROM sub_task st JOIN task t ON t.task_id = st.task_id " +
+            "JOIN sub_project sp ON sp.sub_project_id = t.sub_project_id WHERE ";
+
+    private static final String TASK_CHANGES = String.format(TASK_ROWS, kind("'TASK'", "t.task_id")) +
+            "NOT EXISTS (SELECT 1 FROM task_history h WHERE h.history_id = " + String.format(LATEST, "'TASK'", "t.task_id") +
+            " AND h.change_kind <> 'DELETED' AND h.sub_project_id = sp.sub_project_id AND h.title = t.task_title" +
+            " AND h.status = " + TASK_STATUS + " AND " + same("h.priority", TASK_PRIORITY, "''") +
+            " AND " + same("h.employee_id", "t.employee_id", "0") +
+            " AND " + same("h.start_date", "t.task_start_date", "DATE '1900-01-01'") +
+            " AND " + same("h.deadline", "t.task_deadline", "DATE '1900-01-01'") + ") AND ";
+
+    private static final String SUB_TASK_CHANGES = String.format(SUB_TASK_ROWS, kind("'SUB_TASK'", "st.sub_task_id")) +
+            "NOT EXISTS (SELECT 1 FROM task_history h WHERE h.history_id = " + String.format(LATEST, "'SUB_TASK'", "st.sub_task_id") +
+            " AND h.change_kind <> 'DELETED' AND h.title = st.sub_task_title" +
+            " AND h.status = " + SUB_TASK_STATUS + " AND " + same("h.priority", SUB_TASK_PRIORITY, "''") +
+            " AND " + same("h.start_date", "st.sub_task_start_date", "DATE '1900-01-01'") +
+            " AND " + same("h.deadline", "st.sub_task_deadline", "DATE '1900-01-01'") + ") AND ";
+
+    private static final String TASK_DELETIONS = String.format(TASK_ROWS, "'DELETED'");
+    private static final String SUB_TASK_DELETIONS = String.format(SUB_TASK_ROWS, "'DELETED'");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TaskHistoryRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Tasken og dens subtasks - dækker også en ny subtask, som kun kendes på sin task
+    public int recordTask(long taskId, LocalDateTime changedAt) {
+        return insert(TASK_CHANGES + "t.task_id = ?", changedAt, taskId)
+                + insert(SUB_TASK_CHANGES + "t.task_id = ?", changedAt, taskId);
+    }
+
+    public int recordSubTask(long subTaskId, LocalDateTime changedAt) {
+        return insert(SUB_TASK_CHANGES + "st.sub_task_id = ?", changedAt, subTaskId);
+    }
+
+    // En ny task kendes kun på sit subprojekt
+    public int recordSubProject(long subProjectId, LocalDateTime changedAt) {
+        return insert(TASK_CHANGES + "sp.sub_project_id = ?", changedAt, subProjectId);
+    }
+
+    // Mange tasks på én gang, fx ressourceudjævning
+    public int recordProject(long projectId, LocalDateTime changedAt) {
+        return insert(TASK_CHANGES + "sp.project_id = ?", changedAt, projectId)
+                + insert(SUB_TASK_CHANGES + "sp.project_id = ?", changedAt, projectId);
+    }
+
+    // Udgangspunkt for tasks uden historik, fx efter første opstart eller datagenerering
+    public int recordAll(LocalDateTime changedAt) {
+        return insert(TASK_CHANGES + "1 = 1", changedAt) + insert(SUB_TASK_CHANGES + "1 = 1", changedAt);
+    }
+
+    // Sletninger skrives før rækkerne forsvinder; en slettet task tager sine subtasks med
+    public int recordTaskDeletion(long taskId, LocalDateTime changedAt) {
+        return insert(SUB_TASK_DELETIONS + "t.task_id = ?", changedAt, taskId)
+                + insert(TASK_DELETIONS + "t.task_id = ?", changedAt, taskId);
+    }
+
+    public int recordSubTaskDeletion(long subTaskId, LocalDateTime changedAt) {
+        return insert(SUB_TASK_DELETIONS + "st.sub_task_id = ?", changedAt, subTaskId);
+    }
+
+    public int recordSubProjectDeletion(long subProjectId, LocalDateTime changedAt) {
+        return insert(SUB_TASK_DELETIONS + "sp.sub_project_id = ?", changedAt, subProjectId)
+                + insert(TASK_DELETIONS + "sp.sub_project_id = ?", changedAt, subProjectId);
+    }
+
+    @PrimaryRead
+    public boolean isMissingRows() {
+        Integer rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM (SELECT 1 FROM task_history LIMIT 1) h", Integer.class);
+        Integer tasks = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM (SELECT 1 FROM task LIMIT 1) t", Integer.class);
+        return rows != null && rows == 0 && tasks != null && tasks > 0;
+    }
+
+    // En tasks forløb inkl. subtasks, ældste først
+    public List<TaskHistoryEntry> findByTaskId(long taskId) {
+        return jdbcTemplate.query("SELECT history_id, " + COLUMNS + " FROM task_history WHERE task_id = ? " +
+                "ORDER BY changed_at, history_id", this::mapEntry, taskId);
+    }
+
+    // Projektets ændringer til og med asOf, kun med de kolonner genafspilningen behøver og uden sortering:
+    // history_id følger rækkefølgen rækkerne blev skrevet i, så den der genafspiller kan selv vælge den seneste.
+    // Rækkerne gives videre én ad gangen, så 100.000 rækker ikke holdes i hukommelsen
+    @PrimaryRead
+    public void replayProject(long projectId, LocalDateTime asOf, RowCallbackHandler handler) {
+        jdbcTemplate.query("SELECT history_id, item_type, item_id, change_kind FROM task_history " +
+                "WHERE project_id = ? AND changed_at <= ?", handler, projectId, Timestamp.valueOf(asOf));
+    }
+
+    // Anden gennemløb af samme udsnit: kun de rækker genafspilningen endte på bliver til objekter.
+    // Billigere end at slå tusindvis af history_id'er op med IN-lister
+    public List<TaskHistoryEntry> findReplayed(long projectId, LocalDateTime asOf, Set<Long> historyIds) {
+        List<TaskHistoryEntry> entries = new ArrayList<>(historyIds.size());
+        jdbcTemplate.query("SELECT history_id, " + COLUMNS + " FROM task_history WHERE project_id = ? AND changed_at <= ?",
+                rs -> {
+                    if (historyIds.contains(rs.getLong(1))) {
+                        entries.add(mapEntry(rs, entries.size()));
+                    }
+                }, projectId, Timestamp.valueOf(asOf));
+        return entries;
+    }
+
+    public LocalDateTime findFirstChange(long projectId) {
+        // Første række i (project_id, changed_at)-indekset
+        List<Timestamp> first = jdbcTemplate.queryForList(
+                "SELECT changed_at FROM task_history WHERE project_id = ? ORDER BY changed_at LIMIT 1", Timestamp.class, projectId);
+        return first.isEmpty() ? null : first.get(0).toLocalDateTime();
+    }
+
+    private TaskHistoryEntry mapEntry(ResultSet rs, int rowNum) throws SQLException {
+        TaskHistoryEntry entry = new TaskHistoryEntry();
+        entry.setType(WorkItem.Type.valueOf(rs.getString("item_type")));
+        entry.setItemId(rs.getLong("item_id"));
+        entry.setTaskId(rs.getLong("task_id"));
+        entry.setSubProjectId(rs.getLong("sub_project_id"));
+        entry.setProjectId(rs.getLong("project_id"));
+        entry.setChangedAt(rs.getTimestamp("changed_at").toLocalDateTime());
+        entry.setChangeKind(TaskHistoryEntry.ChangeKind.valueOf(rs.getString("change_kind")));
+        entry.setTitle(rs.getString("title"));
+        entry.setStatus(Status.valueOf(rs.getString("status")));
+        String priority = rs.getString("priority");
+        if (priority != null) {
+            entry.setPriority(Priority.valueOf(priority));
+        }
+        long employeeId = rs.getLong("employee_id");
+        entry.setEmployeeId(rs.wasNull() ? null : (int) employeeId);
+        entry.setStartDate(rs.getObject("start_date", LocalDate.class));
+        entry.setDeadline(rs.getObject("deadline", LocalDate.class));
+        return entry;
+    }
+
+    private int insert(String select, LocalDateTime changedAt, Object... args) {
+        Object[] params = new Object[args.length + 1];
+        params[0] = Timestamp.valueOf(changedAt);
+        System.arraycopy(args, 0, params, 1, args.length);
+        return jdbcTemplate.update("INSERT INTO task_history (" + COLUMNS + ") " + select, params);
+    }
+
+    private static String kind(String itemType, String itemId) {
+        return "CASE WHEN " + String.format(LATEST, itemType, itemId) + " IS NULL THEN 'CREATED' ELSE 'CHANGED' END";
+    }
+
+    // NULL-sikker sammenligning der virker i både MySQL og H2
+    private static String same(String left, String right, String nullValue) {
+        return "COALESCE(" + left + ", " + nullValue + ") = COALESCE(" + right + ", " + nullValue + ")";
+    }
+}
@@ -4,20 +4,33 @@ import com.example.pkveksamen.model.Employee;
 import com.example.pkveksamen.model.EmployeeRole;
 import com.example.pkveksamen.model.SubTask;
 import com.example.pkveksamen.model.Task;
+import com.example.pkveksamen.model.TaskFilter;
 import com.example.pkveksamen.model.Priority;
 import com.example.pkveksamen.model.Status;
+import com.example.pkveksamen.model.Workload;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
 
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Repository
 public class TaskRepository {
     private final JdbcTemplate jdbcTemplate;
+    private final int streamingFetchSize;
 
-    public TaskRepository(JdbcTemplate jdbcTemplate) {
+    public TaskRepository(JdbcTemplate jdbcTemplate,
+                          @Value("${streaming.fetch-size:500}") int streamingFetchSize) {
         this.jdbcTemplate = jdbcTemplate;
+        this.streamingFetchSize = streamingFetchSize;
     }
 
     public void createTask(Integer employeeId, long subProjectId, String taskName, String taskDescription,
@@ -41,78 +54,176 @@ public class TaskRepository {
         );
     }
 
+    private static final String TASK_WITH_ASSIGNEE_SQL =
+            "SELECT t.task_id, t.employee_id, t.sub_project_id, t.task_title, t.task_description, t.task_status, " +
+            "t.task_start_date, t.task_deadline, t.task_duration, t.task_priority, t.task_note, " +
+            "e.employee_id as assigned_employee_id, e.username, e.email, e.role " +
+            "FROM task t " +
+            "LEFT JOIN employee e ON t.employee_id = e.employee_id ";
+
     public List<Task> showTaskByEmployeeId(int employeeId) {
-        String sql = "SELECT t.task_id, t.employee_id, t.sub_project_id, t.task_title, t.task_description, t.task_status, " +
-                "t.task_start_date, t.task_deadline, t.task_duration, t.task_priority, t.task_note, " +
-                "e.employee_id as assigned_employee_id, e.username, e.email, e.role " +
-                "FROM task t " +
-                "LEFT JOIN employee e ON t.employee_id = e.employee_id " +
-                "WHERE t.employee_id = ?";
-        return jdbcTemplate.query(sql, (rs, rowNum) -> {
-            Task task = new Task();
-            task.setTaskID(rs.getInt("task_id"));
-            task.setTaskName(rs.getString("task_title"));
-            task.setTaskDescription(rs.getString("task_description"));
-            task.setTaskStatus(Status.fromDisplayName(rs.getString("task_status")));
-            task.setTaskNote(rs.getString("task_note"));
-            task.setTaskStartDate(rs.getObject("task_start_date", LocalDate.class));
-            task.setTaskDeadline(rs.getObject("task_deadline", LocalDate.class));
-            task.setTaskDuration(rs.getInt("task_duration"));
-            task.recalculateDuration();
-            
-            if (rs.getObject("assigned_employee_id") != null) {
-                Employee employee = new Employee();
-                employee.setEmployeeId(rs.getInt("assigned_employee_id"));
-                employee.setUsername(rs.getString("username"));
-                employee.setEmail(rs.getString("email"));
-                String roleStr = rs.getString("role");
-                if (roleStr != null) {
-                    employee.setRole(EmployeeRole.fromDisplayName(roleStr));
-                }
-                task.setAssignedEmployee(employee);
-            }
-            
-            return task;
-        }, employeeId);
+        return showTaskByEmployeeId(employeeId, TaskFilter.none());
+    }
+
+    public List<Task> showTaskByEmployeeId(int employeeId, TaskFilter filter) {
+        List<Object> args = new ArrayList<>(List.of(employeeId));
+        return jdbcTemplate.query(filteredSql("WHERE t.employee_id = ?", filter, args), this::mapTaskWithAssignee, args.toArray());
     }
 
     public List<Task> showTasksBySubProjectId(long subProjectId) {
-        String sql = "SELECT t.task_id, t.employee_id, t.sub_project_id, t.task_title, t.task_description, t.task_status, " +
-                "t.task_start_date, t.task_deadline, t.task_duration, t.task_priority, t.task_note, " +
-                "e.employee_id as assigned_employee_id, e.username, e.email, e.role " +
-                "FROM task t " +
-                "LEFT JOIN employee e ON t.employee_id = e.employee_id " +
-                "WHERE t.sub_project_id = ?";
-        return jdbcTemplate.query(sql, (rs, rowNum) -> {
-            Task task = new Task();
-            task.setTaskID(rs.getInt("task_id"));
-            task.setTaskName(rs.getString("task_title"));
-            task.setTaskDescription(rs.getString("task_description"));
-            task.setTaskStatus(Status.fromDisplayName(rs.getString("task_status")));
-            task.setTaskNote(rs.getString("task_note"));
-            task.setTaskStartDate(rs.getObject("task_start_date", LocalDate.class));
-            task.setTaskDeadline(rs.getObject("task_deadline", LocalDate.class));
-            task.setTaskDuration(rs.getInt("task_duration"));
-            String priorityStr = rs.getString("task_priority");
-            if (priorityStr != null) {
-                task.setTaskPriority(Priority.fromDisplayName(priorityStr));
+        return showTasksBySubProjectId(subProjectId, TaskFilter.none());
+    }
+
+    public List<Task> showTasksBySubProjectId(long subProjectId, TaskFilter filter) {
+        List<Object> args = new ArrayList<>(List.of(subProjectId));
+        return jdbcTemplate.query(filteredSql("WHERE t.sub_project_id = ?", filter, args), this::mapTaskWithAssignee, args.toArray());
+    }
+
+    // Samme rækker som ovenfor, men læst lazy så tasklisten kan renderes mens rækkerne hentes
+    public StreamingRows<Task> streamTasksByEmployeeId(int employeeId) {
+        return streamTasksByEmployeeId(employeeId, TaskFilter.none());
+    }
+
+    public StreamingRows<Task> streamTasksByEmployeeId(int employeeId, TaskFilter filter) {
+        List<Object> args = new ArrayList<>(List.of(employeeId));
+        return StreamingRows.query(jdbcTemplate, streamingFetchSize,
+                filteredSql("WHERE t.employee_id = ?", filter, args), this::mapTaskWithAssignee, args.toArray());
+    }
+
+    public StreamingRows<Task> streamTasksBySubProjectId(long subProjectId) {
+        return streamTasksBySubProjectId(subProjectId, TaskFilter.none());
+    }
+
+    public StreamingRows<Task> streamTasksBySubProjectId(long subProjectId, TaskFilter filter) {
+        List<Object> args = new ArrayList<>(List.of(subProjectId));
+        return StreamingRows.query(jdbcTemplate, streamingFetchSize,
+                filteredSql("WHERE t.sub_project_id = ?", filter, args), this::mapTaskWithAssignee, args.toArray());
+    }
+
+    // Belastning for projektets medlemmer i perioden [from, to]: deres åbne tasks på tværs af alle projekter der
+    // overlapper perioden, og hvor mange dage af hver task der ligger i den. Range-opslag på idx_task_employee_deadline.
+    public Map<Integer, Workload> loadWorkloadByProjectMembers(long projectId, LocalDate from, LocalDate to) {
+        String sql = "SELECT t.employee_id, t.task_start_date, t.task_deadline FROM task t " +
+                "WHERE t.employee_id IN (SELECT p.employee_id FROM project p WHERE p.project_id = ? " +
+                "UNION SELECT pe.employee_id FROM project_employee pe WHERE pe.project_id = ?) " +
+                "AND t.task_deadline >= ? AND (t.task_start_date IS NULL OR t.task_start_date <= ?) " +
+                "AND t.task_status NOT IN (?, ?)";
+
+        Map<Integer, Workload> workloads = new HashMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            LocalDate start = rs.getObject("task_start_date", LocalDate.class);
+            LocalDate deadline = rs.getObject("task_deadline", LocalDate.class);
+            LocalDate overlapStart = start == null || start.isBefore(from) ? from : start;
+            LocalDate overlapEnd = deadline.isAfter(to) ? to : deadline;
+            workloads.computeIfAbsent(rs.getInt("employee_id"), id -> new Workload())
+                    .add((int) ChronoUnit.DAYS.between(overlapStart, overlapEnd) + 1);
+        }, projectId, projectId, from, to, Status.COMPLETED.getDisplayName(), Status.COMPLETED.name());
+        return workloads;
+    }
+
+    // Bygger WHERE/ORDER BY ud fra filteret. Alle værdier går som parametre; kun faste kolonnenavne sættes ind i teksten.
+    // Status og prioritet gemmes både som displayName (createTask) og enum-navn (saveTask/editTask), så begge matches.
+    private static String filteredSql(String where, TaskFilter filter, List<Object> args) {
+        StringBuilder sql = new StringBuilder(TASK_WITH_ASSIGNEE_SQL).append(where);
+
+        if (!filter.getStatus().isEmpty()) {
+            sql.append(" AND t.task_status IN (").append(placeholders(filter.getStatus().size() * 2)).append(")");
+            for (Status status : filter.getStatus()) {
+                args.add(status.getDisplayName());
+                args.add(status.name());
             }
-            task.recalculateDuration();
-            
-            if (rs.getObject("assigned_employee_id") != null) {
-                Employee employee = new Employee();
-                employee.setEmployeeId(rs.getInt("assigned_employee_id"));
-                employee.setUsername(rs.getString("username"));
-                employee.setEmail(rs.getString("email"));
-                String roleStr = rs.getString("role");
-                if (roleStr != null) {
-                    employee.setRole(EmployeeRole.fromDisplayName(roleStr));
-                }
-                task.setAssignedEmployee(employee);
+        }
+        if (!filter.getPriority().isEmpty()) {
+            sql.append(" AND t.task_priority IN (").append(placeholders(filter.getPriority().size() * 2)).append(")");
+            for (Priority priority : filter.getPriority()) {
+                args.add(priority.getDisplayName());
+                args.add(priority.name());
             }
-            
-            return task;
-        }, subProjectId);
+        }
+        if (filter.getAssigneeId() != null) {
+            sql.append(" AND t.employee_id = ?");
+            args.add(filter.getAssigneeId());
+        }
+        if (filter.getAlphaRole() != null) {
+            sql.append(" AND EXISTS (SELECT 1 FROM employee_role er JOIN role r ON r.role_id = er.role_id " +
+                    "WHERE er.employee_id = t.employee_id AND r.role_name = ?)");
+            args.add(filter.getAlphaRole().getDisplayName());
+        }
+        if (filter.getDeadlineFrom() != null) {
+            sql.append(" AND t.task_deadline >= ?");
+            args.add(filter.getDeadlineFrom());
+        }
+        if (filter.getDeadlineTo() != null) {
+            sql.append(" AND t.task_deadline <= ?");
+            args.add(filter.getDeadlineTo());
+        }
+        if (filter.isOverdue()) {
+            sql.append(" AND t.task_deadline < ? AND t.task_status NOT IN (?, ?)");
+            args.add(LocalDate.now());
+            args.add(Status.COMPLETED.getDisplayName());
+            args.add(Status.COMPLETED.name());
+        }
+
+        String direction = filter.isDescending() ? " DESC" : " ASC";
+        sql.append(" ORDER BY ");
+        switch (filter.getSort()) {
+            case TITLE -> sql.append("t.task_title").append(direction);
+            case START_DATE -> sql.append("CASE WHEN t.task_start_date IS NULL THEN 1 ELSE 0 END, t.task_start_date").append(direction);
+            case DEADLINE -> sql.append("CASE WHEN t.task_deadline IS NULL THEN 1 ELSE 0 END, t.task_deadline").append(direction);
+            case STATUS -> sql.append(rankSql("t.task_status", Status.values())).append(direction);
+            case PRIORITY -> sql.append(rankSql("t.task_priority", Priority.values())).append(direction);
+            default -> sql.append("t.task_id").append(direction);
+        }
+        if (filter.getSort() != TaskFilter.Sort.ID) {
+            sql.append(", t.task_id");
+        }
+        return sql.toString();
+    }
+
+    // Enum-rækkefølgen som tal (Not started < In progress < Completed, Low < Medium < High)
+    private static String rankSql(String column, Enum<?>[] values) {
+        StringBuilder rank = new StringBuilder("CASE");
+        for (Enum<?> value : values) {
+            String displayName = value instanceof Status status ? status.getDisplayName() : ((Priority) value).getDisplayName();
+            rank.append(" WHEN ").append(column).append(" IN ('").append(displayName).append("', '")
+                    .append(value.name()).append("') THEN ").append(value.ordinal());
+        }
+        return rank.append(" ELSE ").append(values.length).append(" END").toString();
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    private Task mapTaskWithAssignee(ResultSet rs, int rowNum) throws SQLException {
+        Task task = new Task();
+        task.setTaskID(rs.getInt("task_id"));
+        task.setTaskName(rs.getString("task_title"));
+        task.setTaskDescription(rs.getString("task_description"));
+        task.setTaskStatus(Status.fromDisplayName(rs.getString("task_status")));
+        task.setTaskNote(rs.getString("task_note"));
+        task.setTaskStartDate(rs.getObject("task_start_date", LocalDate.class));
+        task.setTaskDeadline(rs.getObject("task_deadline", LocalDate.class));
+        task.setTaskDuration(rs.getInt("task_duration"));
+        String priorityStr = rs.getString("task_priority");
+        if (priorityStr != null) {
+            task.setTaskPriority(Priority.fromDisplayName(priorityStr));
+        }
+        task.recalculateDuration();
+
+        if (rs.getObject("assigned_employee_id") != null) {
+            Employee employee = new Employee();
+            employee.setEmployeeId(rs.getInt("assigned_employee_id"));
+            employee.setUsername(rs.getString("username"));
+            employee.setEmail(rs.getString("email"));
+            String roleStr = rs.getString("role");
+            if (roleStr != null) {
+                employee.setRole(EmployeeRole.fromDisplayName(roleStr));
+            }
+            task.setAssignedEmployee(employee);
+        }
+
+        return task;
     }
 
     public void saveTask(Task task, int employeeId, long projectId, long subProjectId) {
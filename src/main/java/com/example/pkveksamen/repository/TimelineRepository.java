@@ -0,0 +1,81 @@
+package com.example.pkveksamen.repository;
+
+import com.example.pkveksamen.model.Status;
+import com.example.pkveksamen.model.TimelineItem;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+// Hele projekttræet til tidslinjen i én forespørgsel. Rækkerne sorteres så hver knude kommer lige efter
+// sin forælder, og projekt/subprojekt/task - der gentages på hver join-række - medtages kun første gang.
+// Læses fra primæren (load*), da resultatet caches og ellers kunne fastholde en forsinket replika.
+@Repository
+public class TimelineRepository {
+
+    private static final String TREE_SQL =
+            "SELECT p.project_id, p.project_title, p.project_start_date, p.project_deadline, " +
+            "sp.sub_project_id, sp.sub_project_title, sp.sub_project_start_date, sp.sub_project_deadline, " +
+            "t.task_id, t.task_title, t.task_status, t.task_start_date, t.task_deadline, " +
+            "st.sub_task_id, st.sub_task_title, st.sub_task_status, st.sub_task_start_date, st.sub_task_deadline " +
+            "FROM project p " +
+            "LEFT JOIN sub_project sp ON sp.project_id = p.project_id " +
+            "LEFT JOIN task t ON t.sub_project_id = sp.sub_project_id " +
+            "LEFT JOIN sub_task st ON st.task_id = t.task_id " +
+            "WHERE p.project_id = ? " +
+            "ORDER BY sp.sub_project_id, t.task_id, st.sub_task_id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TimelineRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Tom liste hvis projektet ikke findes
+    public List<TimelineItem> loadProjectTree(long projectId) {
+        List<TimelineItem> items = new ArrayList<>();
+        long[] last = {-1, -1};
+        jdbcTemplate.query(TREE_SQL, rs -> {
+            if (items.isEmpty()) {
+                items.add(new TimelineItem(TimelineItem.Kind.PROJECT, rs.getLong("project_id"), rs.getString("project_title"),
+                        null, date(rs, "project_start_date"), date(rs, "project_deadline")));
+            }
+            long subProjectId = rs.getLong("sub_project_id");
+            if (rs.wasNull()) {
+                return;
+            }
+            if (subProjectId != last[0]) {
+                last[0] = subProjectId;
+                items.add(new TimelineItem(TimelineItem.Kind.SUB_PROJECT, subProjectId, rs.getString("sub_project_title"),
+                        null, date(rs, "sub_project_start_date"), date(rs, "sub_project_deadline")));
+            }
+            long taskId = rs.getLong("task_id");
+            if (rs.wasNull()) {
+                return;
+            }
+            if (taskId != last[1]) {
+                last[1] = taskId;
+                items.add(new TimelineItem(TimelineItem.Kind.TASK, taskId, rs.getString("task_title"),
+                        status(rs.getString("task_status")), date(rs, "task_start_date"), date(rs, "task_deadline")));
+            }
+            long subTaskId = rs.getLong("sub_task_id");
+            if (!rs.wasNull()) {
+                items.add(new TimelineItem(TimelineItem.Kind.SUB_TASK, subTaskId, rs.getString("sub_task_title"),
+                        status(rs.getString("sub_task_status")), date(rs, "sub_task_start_date"), date(rs, "sub_task_deadline")));
+            }
+        }, projectId);
+        return items;
+    }
+
+    private static LocalDate date(ResultSet rs, String column) throws SQLException {
+        return rs.getObject(column, LocalDate.class);
+    }
+
+    private static Status status(String status) {
+        return status != null ? Status.fromDisplayName(status) : null;
+    }
+}
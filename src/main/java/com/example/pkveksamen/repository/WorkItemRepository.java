@@ -0,0 +1,152 @@
+package com.example.pkveksamen.repository;
+
+import com.example.pkveksamen.config.PrimaryRead;
+import com.example.pkveksamen.model.Priority;
+import com.example.pkveksamen.model.Status;
+import com.example.pkveksamen.model.WorkItem;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+// work_item-læsemodellen. Rækkerne genberegnes med INSERT ... SELECT fra de rigtige tabeller for et afgrænset
+// udsnit (én task, ét subprojekt, ét projekt eller det hele), så den aldrig kan afvige fra hvad en join ville give.
+// Skrivemetoderne forventes kaldt i samme transaktion som ændringen de afspejler.
+@Repository
+public class WorkItemRepository {
+
+    private static final String COLUMNS = "item_type, item_id, employee_id, project_id, project_title, sub_project_id, " +
+            "sub_project_title, task_id, task_title, sub_task_id, title, status, priority, deadline";
+
+    private static final String TASK_ROWS =
+            "SELECT 'TASK', t.task_id, t.employee_id, p.project_id, p.project_title, sp.sub_project_id, " +
+            "sp.sub_project_title, t.task_id, t.task_title, NULL, t.task_title, " +
+            canonical("t.task_status", Status.values()) + ", " + canonical("t.task_priority", Priority.values()) + ", " +
+            "t.task_deadline " +
+            "FROM task t " +
+            "JOIN sub_project sp ON sp.sub_project_id = t.sub_project_id " +
+            "JOIN project p ON p.project_id = sp.project_id " +
+            "WHERE t.employee_id IS NOT NULL AND ";
+
+    private static final String SUB_TASK_ROWS =
+            "SELECT 'SUB_TASK', st.sub_task_id, t.employee_id, p.project_id, p.project_title, sp.sub_project_id, " +
+            "sp.sub_project_title, t.task_id, t.task_title, st.sub_task_id, st.sub_task_title, " +
+            canonical("st.sub_task_status", Status.values()) + ", " + canonical("st.sub_task_priority", Priority.values()) + ", " +
+            "st.sub_task_deadline " +
+            "FROM sub_task st " +
+            "JOIN task t ON t.task_id = st.task_id " +
+            "JOIN sub_project sp ON sp.sub_project_id = t.sub_project_id " +
+            "JOIN project p ON p.project_id = sp.project_id " +
+            "WHERE t.employee_id IS NOT NULL AND ";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public WorkItemRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Medarbejderens indbakke: ét range-opslag på (employee_id, deadline); uden deadline sidst
+    public List<WorkItem> findWorkItemsByEmployeeId(int employeeId) {
+        return jdbcTemplate.query("SELECT " + COLUMNS + " FROM work_item WHERE employee_id = ? " +
+                "ORDER BY CASE WHEN deadline IS NULL THEN 1 ELSE 0 END, deadline, task_id, item_type, item_id",
+                this::mapWorkItem, employeeId);
+    }
+
+    public Map<Status, Integer> findStatusCountsByEmployeeId(int employeeId) {
+        Map<Status, Integer> counts = new EnumMap<>(Status.class);
+        for (Status status : Status.values()) {
+            counts.put(status, 0);
+        }
+        jdbcTemplate.query("SELECT status, COUNT(*) AS items FROM work_item WHERE employee_id = ? GROUP BY status",
+                rs -> { counts.put(Status.valueOf(rs.getString("status")), rs.getInt("items")); }, employeeId);
+        return counts;
+    }
+
+    // Tasken og dens subtasks skrives forfra - dækker ændret titel, status, deadline og ny tildeling
+    public void refreshTask(long taskId) {
+        jdbcTemplate.update("DELETE FROM work_item WHERE task_id = ?", taskId);
+        insert(TASK_ROWS + "t.task_id = ?", taskId);
+        insert(SUB_TASK_ROWS + "t.task_id = ?", taskId);
+    }
+
+    public void refreshSubTask(long subTaskId) {
+        jdbcTemplate.update("DELETE FROM work_item WHERE item_type = 'SUB_TASK' AND item_id = ?", subTaskId);
+        insert(SUB_TASK_ROWS + "st.sub_task_id = ?", subTaskId);
+    }
+
+    // En ny task kendes kun på sit subprojekt, så de tasks der mangler i læsemodellen tilføjes
+    public void refreshSubProject(long subProjectId) {
+        jdbcTemplate.update("UPDATE work_item SET sub_project_title = " +
+                "(SELECT sub_project_title FROM sub_project WHERE sub_project_id = ?) WHERE sub_project_id = ?",
+                subProjectId, subProjectId);
+        insert(TASK_ROWS + "sp.sub_project_id = ? AND NOT EXISTS " +
+                "(SELECT 1 FROM work_item wi WHERE wi.item_type = 'TASK' AND wi.item_id = t.task_id)", subProjectId);
+    }
+
+    public void renameProject(long projectId) {
+        jdbcTemplate.update("UPDATE work_item SET project_title = " +
+                "(SELECT project_title FROM project WHERE project_id = ?) WHERE project_id = ?", projectId, projectId);
+    }
+
+    // Fx efter gendannelse fra arkivet
+    public void refreshProject(long projectId) {
+        jdbcTemplate.update("DELETE FROM work_item WHERE project_id = ?", projectId);
+        insert(TASK_ROWS + "p.project_id = ?", projectId);
+        insert(SUB_TASK_ROWS + "p.project_id = ?", projectId);
+    }
+
+    public int rebuild() {
+        jdbcTemplate.update("DELETE FROM work_item");
+        return insert(TASK_ROWS + "1 = 1") + insert(SUB_TASK_ROWS + "1 = 1");
+    }
+
+    // Tom læsemodel men tildelte tasks: første opstart efter work_item er tilføjet
+    @PrimaryRead
+    public boolean isMissingRows() {
+        Integer items = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM (SELECT 1 FROM work_item LIMIT 1) w", Integer.class);
+        Integer assigned = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM (SELECT 1 FROM task WHERE employee_id IS NOT NULL LIMIT 1) t", Integer.class);
+        return items != null && items == 0 && assigned != null && assigned > 0;
+    }
+
+    private int insert(String select, Object... args) {
+        return jdbcTemplate.update("INSERT INTO work_item (" + COLUMNS + ") " + select, args);
+    }
+
+    // Status og prioritet findes både som displayName og enum-navn i tabellerne; læsemodellen gemmer enum-navnet
+    static String canonical(String column, Enum<?>[] values) {
+        StringBuilder sql = new StringBuilder("CASE");
+        for (Enum<?> value : values) {
+            String displayName = value instanceof Status status ? status.getDisplayName() : ((Priority) value).getDisplayName();
+            sql.append(" WHEN ").append(column).append(" IN ('").append(displayName).append("', '")
+                    .append(value.name()).append("') THEN '").append(value.name()).append("'");
+        }
+        String fallback = values[0] instanceof Status ? "'" + Status.NOT_STARTED.name() + "'" : "NULL";
+        return sql.append(" ELSE ").append(fallback).append(" END").toString();
+    }
+
+    private WorkItem mapWorkItem(ResultSet rs, int rowNum) throws SQLException {
+        WorkItem item = new WorkItem();
+        item.setType(WorkItem.Type.valueOf(rs.getString("item_type")));
+        item.setItemId(rs.getLong("item_id"));
+        item.setProjectId(rs.getLong("project_id"));
+        item.setProjectTitle(rs.getString("project_title"));
+        item.setSubProjectId(rs.getLong("sub_project_id"));
+        item.setSubProjectTitle(rs.getString("sub_project_title"));
+        item.setTaskId(rs.getLong("task_id"));
+        item.setTaskTitle(rs.getString("task_title"));
+        item.setTitle(rs.getString("title"));
+        item.setStatus(Status.valueOf(rs.getString("status")));
+        String priority = rs.getString("priority");
+        if (priority != null) {
+            item.setPriority(Priority.valueOf(priority));
+        }
+        item.setDeadline(rs.getObject("deadline", LocalDate.class));
+        return item;
+    }
+}
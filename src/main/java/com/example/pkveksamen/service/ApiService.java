@@ -0,0 +1,149 @@
+package com.example.pkveksamen.service;
+
+import com.example.pkveksamen.model.ApiPage;
+import com.example.pkveksamen.repository.ApiRepository;
+import com.example.pkveksamen.repository.ApiResource;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Service
+public class ApiService {
+
+    public static final int DEFAULT_LIMIT = 50;
+    public static final int MAX_LIMIT = 500;
+
+    private final ApiRepository apiRepository;
+
+    public ApiService(ApiRepository apiRepository) {
+        this.apiRepository = apiRepository;
+    }
+
+    public ApiPage getProjectsByEmployeeId(int employeeId, String fields, String cursor, Integer limit) {
+        List<ApiResource.Field> selected = parseFields(ApiResource.PROJECT, fields);
+        int pageSize = pageSize(limit);
+        return toPage(ApiResource.PROJECT,
+                apiRepository.findProjectsByEmployeeId(selected, employeeId, decodeCursor(cursor), pageSize + 1), pageSize);
+    }
+
+    public ApiPage getSubProjectsByProjectId(long projectId, String fields, String cursor, Integer limit) {
+        List<ApiResource.Field> selected = parseFields(ApiResource.SUB_PROJECT, fields);
+        int pageSize = pageSize(limit);
+        return toPage(ApiResource.SUB_PROJECT,
+                apiRepository.findSubProjectsByProjectId(selected, projectId, decodeCursor(cursor), pageSize + 1), pageSize);
+    }
+
+    public ApiPage getTasksBySubProjectId(long subProjectId, String fields, String cursor, Integer limit) {
+        List<ApiResource.Field> selected = parseFields(ApiResource.TASK, fields);
+        int pageSize = pageSize(limit);
+        return toPage(ApiResource.TASK,
+                apiRepository.findTasksBySubProjectId(selected, subProjectId, decodeCursor(cursor), pageSize + 1), pageSize);
+    }
+
+    public ApiPage getTasksByEmployeeId(int employeeId, String fields, String cursor, Integer limit) {
+        List<ApiResource.Field> selected = parseFields(ApiResource.TASK, fields);
+        int pageSize = pageSize(limit);
+        return toPage(ApiResource.TASK,
+                apiRepository.findTasksByEmployeeId(selected, employeeId, decodeCursor(cursor), pageSize + 1), pageSize);
+    }
+
+    public ApiPage getSubTasksByTaskId(long taskId, String fields, String cursor, Integer limit) {
+        List<ApiResource.Field> selected = parseFields(ApiResource.SUB_TASK, fields);
+        int pageSize = pageSize(limit);
+        return toPage(ApiResource.SUB_TASK,
+                apiRepository.findSubTasksByTaskId(selected, taskId, decodeCursor(cursor), pageSize + 1), pageSize);
+    }
+
+    public ApiPage getArchivedProjectsByEmployeeId(int employeeId, String fields, String cursor, Integer limit) {
+        List<ApiResource.Field> selected = parseFields(ApiResource.ARCHIVED_PROJECT, fields);
+        int pageSize = pageSize(limit);
+        return toPage(ApiResource.ARCHIVED_PROJECT, apiRepository.findArchivedProjectsByEmployeeId(
+                selected, employeeId, decodeCursor(cursor), pageSize + 1), pageSize);
+    }
+
+    public ApiPage getArchivedSubProjectsByProjectId(long projectId, String fields, String cursor, Integer limit) {
+        return getArchivedChildren(ApiResource.ARCHIVED_SUB_PROJECT, "project_id", projectId, fields, cursor, limit);
+    }
+
+    public ApiPage getArchivedTasksBySubProjectId(long subProjectId, String fields, String cursor, Integer limit) {
+        return getArchivedChildren(ApiResource.ARCHIVED_TASK, "sub_project_id", subProjectId, fields, cursor, limit);
+    }
+
+    public ApiPage getArchivedSubTasksByTaskId(long taskId, String fields, String cursor, Integer limit) {
+        return getArchivedChildren(ApiResource.ARCHIVED_SUB_TASK, "task_id", taskId, fields, cursor, limit);
+    }
+
+    private ApiPage getArchivedChildren(ApiResource resource, String parentColumn, long parentId,
+                                        String fields, String cursor, Integer limit) {
+        List<ApiResource.Field> selected = parseFields(resource, fields);
+        int pageSize = pageSize(limit);
+        return toPage(resource, apiRepository.findChildren(resource, parentColumn, selected, parentId,
+                decodeCursor(cursor), pageSize + 1), pageSize);
+    }
+
+    public Map<String, Object> getById(ApiResource resource, long id, String fields) {
+        return apiRepository.findById(resource, parseFields(resource, fields), id);
+    }
+
+    // ?fields=taskName,status -> de tilsvarende felter; tom eller manglende parameter giver alle felter
+    public List<ApiResource.Field> parseFields(ApiResource resource, String fields) {
+        if (fields == null || fields.isBlank()) {
+            return new ArrayList<>(resource.getFields().values());
+        }
+        Set<ApiResource.Field> selected = new LinkedHashSet<>();
+        for (String name : fields.split(",")) {
+            String trimmed = name.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            ApiResource.Field field = resource.getField(trimmed);
+            if (field == null) {
+                throw new IllegalArgumentException("Ukendt felt '" + trimmed + "'. Gyldige felter: " + resource.getFields().keySet());
+            }
+            selected.add(field);
+        }
+        return new ArrayList<>(selected);
+    }
+
+    // Cursoren er id'et på sidste række, base64-kodet så klienter behandler den som uigennemsigtig
+    public static String encodeCursor(long lastId) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(Long.toString(lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static long decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Ugyldig cursor: " + cursor);
+        }
+    }
+
+    private static int pageSize(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_LIMIT;
+        }
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("limit skal være mellem 1 og " + MAX_LIMIT);
+        }
+        return limit;
+    }
+
+    // Der hentes én række ekstra; findes den, er der en næste side
+    private static ApiPage toPage(ApiResource resource, List<Map<String, Object>> rows, int pageSize) {
+        if (rows.size() <= pageSize) {
+            return new ApiPage(rows, null);
+        }
+        List<Map<String, Object>> page = new ArrayList<>(rows.subList(0, pageSize));
+        Object lastId = page.get(pageSize - 1).get(resource.getIdField().getName());
+        return new ApiPage(page, encodeCursor(((Number) lastId).longValue()));
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.pkveksamen.service;
+
+import com.example.pkveksamen.repository.ArchiveRepository;
+import com.example.pkveksamen.repository.ProjectDeletionRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Holder de levende tabeller små ved at flytte afsluttede projekter over i archived_*-tabellerne.
+ * Et projekt arkiveres når deadline er mere end archive.min-age-days gammel og alle dets tasks og subtasks er COMPLETED.
+ * Der arkiveres højst archive.batch-size projekter pr. transaktion; et projekt findes altså altid helt ét af stederne.
+ * Arkivering og gendannelse går gennem ChangeOutbox som PROJECT_DELETED og PROJECT_CHANGED, så alle noder rydder
+ * deres caches for projektet.
+ */
+@Service
+public class ArchiveService {
+
+    private static final int MAX_IDS_PER_STATEMENT = 1000;
+
+    private final ArchiveRepository archiveRepository;
+    private final ProjectDeletionRepository projectDeletionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ChangeOutbox changeOutbox;
+    private final int minAgeDays;
+    private final int batchSize;
+
+    public ArchiveService(ArchiveRepository archiveRepository,
+                          ProjectDeletionRepository projectDeletionRepository,
+                          TransactionTemplate transactionTemplate,
+                          ChangeOutbox changeOutbox,
+                          @Value("${archive.min-age-days:365}") int minAgeDays,
+                          @Value("${archive.batch-size:100}") int batchSize) {
+        this.archiveRepository = archiveRepository;
+        this.projectDeletionRepository = projectDeletionRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.changeOutbox = changeOutbox;
+        this.minAgeDays = minAgeDays;
+        this.batchSize = batchSize;
+    }
+
+    // Returnerer antal arkiverede projekter
+    public int archiveCompletedProjects() {
+        long started = System.currentTimeMillis();
+        LocalDate cutoff = LocalDate.now().minusDays(minAgeDays);
+        int archived = 0;
+        while (true) {
+            Integer moved = transactionTemplate.execute(status -> {
+                // ChangeOutbox indgår i den samme transaktion, så projekterne ikke kan ændres mellem søgning og flytning
+                List<Long> projectIds = archiveRepository.findArchivableProjectIds(cutoff, batchSize);
+                changeOutbox.writeDeletedProjects(projectIds, () -> archiveProjects(projectIds));
+                return projectIds.size();
+            });
+            archived += moved == null ? 0 : moved;
+            if (moved == null || moved < batchSize) {
+                break;
+            }
+        }
+        System.out.println("Arkivering: " + archived + " projekter med deadline før " + cutoff +
+                " flyttet på " + (System.currentTimeMillis() - started) + " ms");
+        return archived;
+    }
+
+    // Flytter projektet tilbage til de levende tabeller; false hvis det ikke ligger i arkivet
+    public boolean restoreProject(long projectId) {
+        Boolean restored = transactionTemplate.execute(status -> {
+            List<Long> projectIds = List.of(projectId);
+            List<Long> subProjectIds = archiveRepository.findArchivedSubProjectIds(projectIds);
+            List<Long> taskIds = inChunks(subProjectIds, archiveRepository::findArchivedTaskIds);
+
+            if (archiveRepository.restoreProjects(projectIds) == 0) {
+                return false;
+            }
+            changeOutbox.writeProject(projectId, () -> {
+                archiveRepository.restoreProjectMembers(projectIds);
+                forEachChunk(subProjectIds, archiveRepository::restoreSubProjects);
+                forEachChunk(taskIds, archiveRepository::restoreTasks);
+                forEachChunk(taskIds, archiveRepository::restoreSubTasks);
+
+                forEachChunk(taskIds, archiveRepository::deleteArchivedSubTasks);
+                forEachChunk(taskIds, archiveRepository::deleteArchivedTasks);
+                forEachChunk(subProjectIds, archiveRepository::deleteArchivedSubProjects);
+                archiveRepository.deleteArchivedProjects(projectIds);
+            });
+            return true;
+        });
+        return Boolean.TRUE.equals(restored);
+    }
+
+    // Kopierer først hele træet til arkivet og sletter derefter de levende rækker nedefra
+    private void archiveProjects(List<Long> projectIds) {
+        if (projectIds.isEmpty()) {
+            return;
+        }
+        List<Long> subProjectIds = projectDeletionRepository.findSubProjectIds(projectIds);
+        List<Long> taskIds = inChunks(subProjectIds, projectDeletionRepository::findTaskIds);
+
+        archiveRepository.archiveProjects(projectIds);
+        archiveRepository.archiveProjectMembers(projectIds);
+        forEachChunk(subProjectIds, archiveRepository::archiveSubProjects);
+        forEachChunk(taskIds, archiveRepository::archiveTasks);
+        forEachChunk(taskIds, archiveRepository::archiveSubTasks);
+
+        forEachChunk(taskIds, projectDeletionRepository::deleteSubTasksByTaskIds);
+        forEachChunk(taskIds, projectDeletionRepository::deleteTasksByIds);
+        forEachChunk(subProjectIds, projectDeletionRepository::deleteSubProjectsByIds);
+        projectDeletionRepository.deleteProjectMembers(projectIds);
+        projectDeletionRepository.deleteProjectsByIds(projectIds);
+    }
+
+    private static List<Long> inChunks(List<Long> ids, Function<List<Long>, List<Long>> lookup) {
+        List<Long> result = new ArrayList<>();
+        forEachChunk(ids, chunk -> {
+            result.addAll(lookup.apply(chunk));
+            return 0;
+        });
+        return result;
+    }
+
+    private static void forEachChunk(List<Long> ids, Function<List<Long>, Integer> statement) {
+        for (int i = 0; i < ids.size(); i += MAX_IDS_PER_STATEMENT) {
+            statement.apply(ids.subList(i, Math.min(i + MAX_IDS_PER_STATEMENT, ids.size())));
+        }
+    }
+}
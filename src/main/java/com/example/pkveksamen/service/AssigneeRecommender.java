@@ -0,0 +1,116 @@
+package com.example.pkveksamen.service;
+
+import com.example.pkveksamen.model.AlphaRole;
+import com.example.pkveksamen.model.AssigneeRecommendation;
+import com.example.pkveksamen.model.EmployeeSuggestion;
+import com.example.pkveksamen.model.Workload;
+import com.example.pkveksamen.repository.ProjectRepository;
+import com.example.pkveksamen.repository.TaskRepository;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Foreslår hvem en ny task skal tildeles blandt projektets medlemmer.
+ * <p>
+ * Hver medarbejders AlphaRoles ligger som bitmaske i EmployeeDirectory, så kompetencematch er en AND og en bitCount.
+ * Belastningen er medarbejderens åbne tasks (på tværs af projekter) der overlapper taskens periode, hentet i én
+ * forespørgsel. Scoren er andelen af krævede kompetencer minus en straf pr. parallel task i perioden, og kun de
+ * bedste holdes i en bunke af begrænset størrelse, så rangeringen er lineær i antal kandidater.
+ */
+@Service
+public class AssigneeRecommender {
+
+    public static final int DEFAULT_LIMIT = 5;
+    public static final int MAX_LIMIT = 25;
+    // Periode der vurderes når tasken endnu ikke har datoer
+    public static final int DEFAULT_WINDOW_DAYS = 14;
+
+    // Fuld kompetencedækning giver 100 point; hver task der i gennemsnit kører parallelt i perioden koster 25
+    static final double SKILL_WEIGHT = 100;
+    static final double LOAD_WEIGHT = 25;
+
+    private final EmployeeDirectory employeeDirectory;
+    private final ProjectRepository projectRepository;
+    private final TaskRepository taskRepository;
+
+    public AssigneeRecommender(EmployeeDirectory employeeDirectory, ProjectRepository projectRepository,
+                               TaskRepository taskRepository) {
+        this.employeeDirectory = employeeDirectory;
+        this.projectRepository = projectRepository;
+        this.taskRepository = taskRepository;
+    }
+
+    public List<AssigneeRecommendation> recommend(long projectId, Collection<AlphaRole> requiredSkills,
+                                                  LocalDate startDate, LocalDate deadline, Integer limit) {
+        LocalDate from = startDate != null ? startDate : LocalDate.now();
+        LocalDate to = deadline != null && !deadline.isBefore(from) ? deadline : from.plusDays(DEFAULT_WINDOW_DAYS - 1);
+        int windowDays = (int) ChronoUnit.DAYS.between(from, to) + 1;
+        int max = limit == null ? DEFAULT_LIMIT : Math.max(1, Math.min(limit, MAX_LIMIT));
+
+        Set<Integer> memberIds = projectRepository.loadProjectMemberIds(projectId);
+        List<EmployeeSuggestion> candidates = new ArrayList<>(memberIds.size());
+        for (int memberId : memberIds) {
+            EmployeeSuggestion candidate = employeeDirectory.get(memberId);
+            if (candidate != null) {
+                candidates.add(candidate);
+            }
+        }
+        Map<Integer, Workload> workloads = taskRepository.loadWorkloadByProjectMembers(projectId, from, to);
+        return rank(candidates, AlphaRole.mask(requiredSkills), workloads, windowDays, max);
+    }
+
+    // Ren beregning uden databasen, så den kan testes og måles for sig
+    static List<AssigneeRecommendation> rank(List<EmployeeSuggestion> candidates, int requiredMask,
+                                             Map<Integer, Workload> workloads, int windowDays, int limit) {
+        int required = Integer.bitCount(requiredMask);
+        Workload idle = new Workload();
+
+        // Bunken har den dårligste øverst, så den kan smides ud når en bedre kandidat dukker op
+        Comparator<Scored> best = Comparator.comparingDouble((Scored scored) -> scored.score)
+                .thenComparing(scored -> scored.candidate.getUsername(), Comparator.reverseOrder());
+        PriorityQueue<Scored> top = new PriorityQueue<>(limit + 1, best);
+        for (EmployeeSuggestion candidate : candidates) {
+            int matched = Integer.bitCount(candidate.getSkillMask() & requiredMask);
+            Workload workload = workloads.getOrDefault(candidate.getEmployeeId(), idle);
+            double coverage = required == 0 ? 1 : (double) matched / required;
+            double score = SKILL_WEIGHT * coverage - LOAD_WEIGHT * workload.getOverlapDays() / windowDays;
+
+            top.add(new Scored(candidate, workload, score));
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+
+        List<AssigneeRecommendation> ranked = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            Scored scored = top.poll();
+            int skills = scored.candidate.getSkillMask();
+            ranked.add(0, new AssigneeRecommendation(scored.candidate.getEmployeeId(), scored.candidate.getUsername(),
+                    AlphaRole.fromMask(skills & requiredMask), AlphaRole.fromMask(requiredMask & ~skills),
+                    scored.workload.getOpenTasks(), scored.workload.getOverlapDays(),
+                    Math.round(scored.score * 10) / 10.0));
+        }
+        return ranked;
+    }
+
+    private static final class Scored {
+        final EmployeeSuggestion candidate;
+        final Workload workload;
+        final double score;
+
+        Scored(EmployeeSuggestion candidate, Workload workload, double score) {
+            this.candidate = candidate;
+            this.workload = workload;
+            this.score = score;
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package com.example.pkveksamen.service;
+
+import com.example.pkveksamen.model.ChangeEvent;
+import com.example.pkveksamen.model.JournalRecord;
+import com.example.pkveksamen.repository.JournalCompactor;
+import com.example.pkveksamen.repository.JournalReader;
+import com.example.pkveksamen.repository.JournalSegment;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Valgfri lokal audit-journal over alle ændringer, som et append-only log på nodens egen disk.
+ * <p>
+ * ChangeOutbox skriver en post efter hver committet ændring fra TaskService og ProjectService. Posten lægges i et
+ * hukommelsesmappet segment, så skrivningen koster mikrosekunder og ingen ekstra rundtur til databasen. Når et
+ * segment er fuldt (journal.segment-bytes) fortsættes i et nyt. Hvornår siderne tvinges til disk styres af
+ * journal.fsync: NONE overlader det til operativsystemet, INTERVAL gør det hvert journal.fsync-interval-ms i
+ * baggrunden, og ALWAYS gør det ved hver post. Tvangen til disk sker uden for skrivelåsen, så andre poster kan
+ * skrives imens. Hver post har sin egen CRC, så en afbrudt skrivning i halen opdages og skrives over ved næste opstart.
+ * <p>
+ * Journalen læses med {@link #read} eller følges med {@link #tailer}, og gamle segmenter komprimeres med
+ * {@link #compact} eller offline med JournalCompactor. Slået fra med journal.enabled=false (standard).
+ */
+@Service
+public class AuditJournal implements DisposableBean {
+
+    public enum FsyncPolicy {
+        NONE, INTERVAL, ALWAYS
+    }
+
+    private final boolean enabled;
+    private final Path directory;
+    private final int segmentBytes;
+    private final FsyncPolicy fsyncPolicy;
+    private final long fsyncIntervalMillis;
+    private final long compactKeepAllMillis;
+    private final ReentrantLock compactLock = new ReentrantLock();
+    // Kun én force ad gangen; tages efter skrivelåsen (this), aldrig omvendt
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private JournalSegment active;
+    private long nextSequence;
+    private boolean dirty;
+    private ScheduledExecutorService flusher;
+
+    public AuditJournal(@Value("${journal.enabled:false}") boolean enabled,
+                        @Value("${journal.dir:data/journal}") String directory,
+                        @Value("${journal.segment-bytes:67108864}") int segmentBytes,
+                        @Value("${journal.fsync:INTERVAL}") FsyncPolicy fsyncPolicy,
+                        @Value("${journal.fsync-interval-ms:1000}") long fsyncIntervalMillis,
+                        @Value("${journal.compact-keep-all-days:30}") long compactKeepAllDays) {
+        this.enabled = enabled;
+        this.directory = Paths.get(directory);
+        this.segmentBytes = Math.max(segmentBytes, JournalSegment.HEADER_BYTES + JournalSegment.MAX_RECORD_BYTES + 4);
+        this.fsyncPolicy = fsyncPolicy;
+        this.fsyncIntervalMillis = fsyncIntervalMillis;
+        this.compactKeepAllMillis = compactKeepAllDays * 86_400_000L;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Kaldes efter commit (se ChangeOutbox). En fejl her må ikke gøre en gennemført ændring til en fejl for brugeren
+    public void append(ChangeEvent.Type type, long entityId) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            JournalSegment segment;
+            int upTo;
+            synchronized (this) {
+                write(type.name(), entityId);
+                segment = active;
+                upTo = active.getWritePosition();
+            }
+            if (fsyncPolicy == FsyncPolicy.ALWAYS) {
+                force(segment, upTo);
+            }
+        } catch (IOException | UncheckedIOException e) {
+            System.out.println("Audit-journal kunne ikke skrive " + type + " " + entityId + ": " + e.getMessage());
+        }
+    }
+
+    // Kaldes med skrivelåsen (this)
+    private void write(String type, long entityId) throws IOException {
+        open();
+        long sequence = nextSequence;
+        long now = System.currentTimeMillis();
+        if (!active.append(sequence, now, type, entityId)) {
+            rotate(sequence);
+            active.append(sequence, now, type, entityId);
+        }
+        nextSequence = sequence + 1;
+        dirty = fsyncPolicy != FsyncPolicy.ALWAYS;
+    }
+
+    // Læser fra de samme sider som skriveren, så også poster der endnu ikke er tvunget til disk kommer med
+    public List<JournalRecord> read(long fromSequence, int limit) throws IOException {
+        return JournalReader.read(directory, fromSequence, limit);
+    }
+
+    // Læseren skal lukkes af den der åbner den
+    public JournalReader.Tailer tailer(long fromSequence) {
+        return new JournalReader.Tailer(directory, fromSequence);
+    }
+
+    // Kun forseglede segmenter; det aktive segment skrives der videre i imens. To komprimeringer ad gangen ville
+    // dele de midlertidige .compact-filer, så kører der allerede en, returneres null i stedet for at vente
+    public JournalCompactor.Result compact() throws IOException {
+        if (!compactLock.tryLock()) {
+            return null;
+        }
+        try {
+            long activeFirstSequence;
+            synchronized (this) {
+                open();
+                activeFirstSequence = active.getFirstSequence();
+            }
+            JournalCompactor.Result result = JournalCompactor.compact(directory, activeFirstSequence,
+                    System.currentTimeMillis() - compactKeepAllMillis);
+            System.out.println("Audit-journal komprimeret: " + result);
+            return result;
+        } finally {
+            compactLock.unlock();
+        }
+    }
+
+    public synchronized long getNextSequence() throws IOException {
+        open();
+        return nextSequence;
+    }
+
+    // Fortsætter i det nyeste segment efter dets sidste gyldige post, eller begynder forfra
+    private void open() throws IOException {
+        if (active != null) {
+            return;
+        }
+        Files.createDirectories(directory);
+        List<Path> segments = JournalSegment.list(directory);
+        if (segments.isEmpty()) {
+            active = JournalSegment.createIn(directory, 1, segmentBytes);
+        } else {
+            active = JournalSegment.open(segments.get(segments.size() - 1), true);
+        }
+        nextSequence = active.getLastSequence() + 1;
+        if (fsyncPolicy == FsyncPolicy.INTERVAL && flusher == null) {
+            flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "audit-journal-fsync");
+                thread.setDaemon(true);
+                return thread;
+            });
+            flusher.scheduleWithFixedDelay(this::flushIfOpen, fsyncIntervalMillis, fsyncIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void rotate(long firstSequence) throws IOException {
+        forceAndClose();
+        active = JournalSegment.createIn(directory, firstSequence, segmentBytes);
+    }
+
+    // Skrivelåsen holdes kun mens det aktive segment og dets position aflæses; selve force sker uden
+    private void flushIfOpen() {
+        JournalSegment segment;
+        int upTo;
+        synchronized (this) {
+            if (active == null || !dirty) {
+                return;
+            }
+            segment = active;
+            upTo = active.getWritePosition();
+            dirty = false;
+        }
+        force(segment, upTo);
+    }
+
+    // Et segment der er lukket imens, er allerede tvunget helt til disk af forceAndClose, så force er en no-op
+    private void force(JournalSegment segment, int upTo) {
+        flushLock.lock();
+        try {
+            segment.force(upTo);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void forceAndClose() throws IOException {
+        flushLock.lock();
+        try {
+            active.force();
+            active.close();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @Override
+    public synchronized void destroy() throws IOException {
+        if (flusher != null) {
+            flusher.shutdownNow();
+        }
+        if (active != null) {
+            forceAndClose();
+            active = null;
+        }
+    }
+}
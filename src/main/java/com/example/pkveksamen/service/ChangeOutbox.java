@@ -0,0 +1,97 @@
+package com.example.pkveksamen.service;
+
+import com.example.pkveksamen.model.ChangeEvent;
+import com.example.pkveksamen.repository.OutboxRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+// Skrivningen og outbox-rækken committes i samme transaktion, så en ændring aldrig kan ske
+// uden at de andre noder får besked - og ingen node får besked om en ændring der blev rullet tilbage.
+// Læsemodellen work_item og task_history opdateres i samme transaktion (se WorkItemService og TaskHistoryService).
+// Efter commit skrives ændringen også i den lokale audit-journal, hvis den er slået til (se AuditJournal).
+@Service
+public class ChangeOutbox {
+
+    private final OutboxRepository outboxRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final WorkItemService workItemService;
+    private final TaskHistoryService taskHistoryService;
+    private final AuditJournal auditJournal;
+
+    public ChangeOutbox(OutboxRepository outboxRepository, TransactionTemplate transactionTemplate,
+                        WorkItemService workItemService, TaskHistoryService taskHistoryService,
+                        AuditJournal auditJournal) {
+        this.outboxRepository = outboxRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.workItemService = workItemService;
+        this.taskHistoryService = taskHistoryService;
+        this.auditJournal = auditJournal;
+    }
+
+    public void write(ChangeEvent.Type type, long entityId, Runnable write) {
+        transactionTemplate.executeWithoutResult(status -> {
+            taskHistoryService.recordDeletion(type, entityId);
+            write.run();
+            workItemService.apply(type, entityId);
+            taskHistoryService.apply(type, entityId);
+            outboxRepository.append(type, entityId);
+        });
+        auditJournal.append(type, entityId);
+    }
+
+    // Mange tasks i ét projekt på én gang (fx ressourceudjævning): læsemodellen bygges om for hele projektet,
+    // og én PROJECT_CHANGED rydder projektets caches i stedet for en hændelse pr. task
+    public void writeProject(long projectId, Runnable write) {
+        transactionTemplate.executeWithoutResult(status -> {
+            write.run();
+            applyProject(projectId);
+        });
+        auditJournal.append(ChangeEvent.Type.PROJECT_CHANGED, projectId);
+    }
+
+    // Et nyt projekt: id'et kendes først når rækken er indsat, så write returnerer det
+    public long writeNewProject(LongSupplier write) {
+        return writeNewProject(write::getAsLong, Long::longValue);
+    }
+
+    // Som ovenfor, når skrivningen returnerer mere end id'et (fx en importrapport); projectId finder id'et i resultatet
+    public <T> T writeNewProject(Supplier<T> write, ToLongFunction<T> projectId) {
+        T result = transactionTemplate.execute(status -> {
+            T written = write.get();
+            applyProject(projectId.applyAsLong(written));
+            return written;
+        });
+        auditJournal.append(ChangeEvent.Type.PROJECT_CHANGED, projectId.applyAsLong(result));
+        return result;
+    }
+
+    // Mange projekter slettet eller arkiveret i én transaktion (se ProjectDeletionService og ArchiveService):
+    // én PROJECT_DELETED pr. projekt
+    public void writeDeletedProjects(List<Long> projectIds, Runnable delete) {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (long projectId : projectIds) {
+                taskHistoryService.recordDeletion(ChangeEvent.Type.PROJECT_DELETED, projectId);
+            }
+            delete.run();
+            for (long projectId : projectIds) {
+                workItemService.apply(ChangeEvent.Type.PROJECT_DELETED, projectId);
+                taskHistoryService.apply(ChangeEvent.Type.PROJECT_DELETED, projectId);
+                outboxRepository.append(ChangeEvent.Type.PROJECT_DELETED, projectId);
+            }
+        });
+        for (long projectId : projectIds) {
+            auditJournal.append(ChangeEvent.Type.PROJECT_DELETED, projectId);
+        }
+    }
+
+    private void applyProject(long projectId) {
+        workItemService.refreshProject(projectId);
+        taskHistoryService.recordProject(projectId);
+        outboxRepository.append(ChangeEvent.Type.PROJECT_CHANGED, projectId);
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.pkveksamen.service;
+
+import com.example.pkveksamen.model.ChangeEvent;
+import com.example.pkveksamen.model.ProjectDashboard;
+import com.example.pkveksamen.repository.DashboardRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Forsidens projektliste med task-antal pr. status, forsinkede tasks og næste deadline.
+ * <p>
+ * Alle brugerens projekter tælles op i én grupperet forespørgsel, og resultatet caches pr. medarbejder.
+ * Når outboxen melder en ændring, ryddes kun dashboards der indeholder det berørte projekt; et projekt som intet
+ * dashboard indeholder endnu (fx et nyt), rydder ejerens. Sletninger og medlemsændringer kan ikke føres tilbage
+ * til bestemte brugere og rydder hele cachen.
+ * dashboard.cache-seconds holder levetiden kort for ændringer der ikke går gennem outboxen (datageneratoren).
+ */
+@Service
+public class DashboardService {
+
+    private static final class Cached {
+        final List<ProjectDashboard> projects;
+        final Set<Long> projectIds;
+        final long builtAt;
+
+        Cached(List<ProjectDashboard> projects, long builtAt) {
+            this.projects = projects;
+            this.projectIds = projects.stream().map(row -> row.getProject().getProjectID()).collect(Collectors.toSet());
+            this.builtAt = builtAt;
+        }
+    }
+
+    private final DashboardRepository dashboardRepository;
+    private final long maxAgeMillis;
+    private final int maxEmployees;
+    private final Map<Integer, Cached> cache = new ConcurrentHashMap<>();
+    // Tælles op ved hver ændring, så et dashboard bygget før ændringen ikke lægges i cachen bagefter
+    private final AtomicLong generation = new AtomicLong();
+
+    public DashboardService(DashboardRepository dashboardRepository,
+                            @Value("${dashboard.cache-seconds:30}") long cacheSeconds,
+                            @Value("${dashboard.cache-size:1000}") int maxEmployees) {
+        this.dashboardRepository = dashboardRepository;
+        this.maxAgeMillis = cacheSeconds * 1000;
+        this.maxEmployees = maxEmployees;
+    }
+
+    public List<ProjectDashboard> getDashboard(int employeeId) {
+        Cached cached = cache.get(employeeId);
+        if (cached != null && System.currentTimeMillis() - cached.builtAt < maxAgeMillis) {
+            return cached.projects;
+        }
+
+        long builtFrom = generation.get();
+        List<ProjectDashboard> projects = List.copyOf(dashboardRepository.loadDashboardByEmployeeId(employeeId));
+        if (builtFrom == generation.get()) {
+            if (cache.size() >= maxEmployees && !cache.containsKey(employeeId)) {
+                cache.keySet().stream().findAny().ifPresent(cache::remove);
+            }
+            cache.put(employeeId, new Cached(projects, System.currentTimeMillis()));
+        }
+        return projects;
+    }
+
+    // Fx efter brugeren selv har oprettet et projekt, så det ses med det samme og ikke først når outboxen er nået frem
+    public void evict(int employeeId) {
+        generation.incrementAndGet();
+        cache.remove(employeeId);
+    }
+
+    @EventListener
+    public void onChange(ChangeEvent event) {
+        switch (event.getType()) {
+            // Noter og subtasks indgår ikke i tallene
+            case TASK_NOTE_CHANGED, SUB_TASK_CHANGED, SUB_TASK_NOTE_CHANGED, SUB_TASK_DELETED -> { }
+            case PROJECT_CHANGED -> {
+                if (!evictProject(event.getEntityId())) {
+                    Integer owner = lookup(() -> dashboardRepository.loadOwnerByProjectId(event.getEntityId()));
+                    if (owner != null) {
+                        cache.remove(owner);
+                    }
+                }
+            }
+            case PROJECT_DELETED -> evictProject(event.getEntityId());
+            case SUB_PROJECT_CHANGED -> evictProject(lookup(() -> dashboardRepository.loadProjectIdBySubProjectId(event.getEntityId())));
+            case TASK_CHANGED -> evictProject(lookup(() -> dashboardRepository.loadProjectIdByTaskId(event.getEntityId())));
+            // Rækken kan ikke længere slås op, eller en bruger der ikke har projektet i sit dashboard er kommet til
+            case PROJECT_MEMBERS_CHANGED, SUB_PROJECT_DELETED, TASK_DELETED -> evictProject(null);
+        }
+    }
+
+    // null rydder alle dashboards. Returnerer om et dashboard blev ryddet
+    private boolean evictProject(Long projectId) {
+        generation.incrementAndGet();
+        if (projectId == null) {
+            cache.clear();
+            return true;
+        }
+        return cache.values().removeIf(cached -> cached.projectIds.contains(projectId));
+    }
+
+    private static <T> T lookup(Supplier<T> row) {
+        try {
+            return row.get();
+        } catch (DataAccessException e) {
+            return null;
+        }
+    }
+}
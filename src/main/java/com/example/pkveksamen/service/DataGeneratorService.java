@@ -0,0 +1,346 @@
+package com.example.pkveksamen.service;
+
+import com.example.pkveksamen.model.AlphaRole;
+import com.example.pkveksamen.model.EmployeeRole;
+import com.example.pkveksamen.model.Priority;
+import com.example.pkveksamen.model.Status;
+import com.example.pkveksamen.repository.DataGeneratorRepository;
+import com.example.pkveksamen.repository.RoleDictionary;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Fylder databasen med syntetiske data i produktionsstørrelse (bruges med H2-profilen).
+ * Rækkerne indsættes med eksplicitte id'er i batches, én transaktion pr. batch.
+ */
+@Service
+public class DataGeneratorService {
+
+    private static final String[] CUSTOMERS = {
+            "Acme Corp", "Nordic Retail", "Danske Varer", "Blue Harbor", "Greenfield A/S",
+            "Polar Logistics", "Sund Pharma", "Vestkyst Energi", "Copenhagen Media", "Aarhus Tech"
+    };
+
+    private final DataGeneratorRepository dataGeneratorRepository;
+    private final RoleDictionary roleDictionary;
+    private final TransactionTemplate transactionTemplate;
+    private final WorkItemService workItemService;
+    private final EmployeeDirectory employeeDirectory;
+    private final TaskHistoryService taskHistoryService;
+
+    public DataGeneratorService(DataGeneratorRepository dataGeneratorRepository, RoleDictionary roleDictionary,
+                                TransactionTemplate transactionTemplate, WorkItemService workItemService,
+                                EmployeeDirectory employeeDirectory, TaskHistoryService taskHistoryService) {
+        this.dataGeneratorRepository = dataGeneratorRepository;
+        this.roleDictionary = roleDictionary;
+        this.transactionTemplate = transactionTemplate;
+        this.workItemService = workItemService;
+        this.employeeDirectory = employeeDirectory;
+        this.taskHistoryService = taskHistoryService;
+    }
+
+    public static class Settings {
+        private int employees = 1_000;
+        private int projects = 200;
+        private int subProjectsPerProject = 5;
+        private int membersPerProject = 8;
+        private int tasks = 10_000;
+        private int subTasks = 50_000;
+        private int batchSize = 5_000;
+        private long seed = 42;
+
+        public int getEmployees() {
+            return employees;
+        }
+
+        public void setEmployees(int employees) {
+            this.employees = employees;
+        }
+
+        public int getProjects() {
+            return projects;
+        }
+
+        public void setProjects(int projects) {
+            this.projects = projects;
+        }
+
+        public int getSubProjectsPerProject() {
+            return subProjectsPerProject;
+        }
+
+        public void setSubProjectsPerProject(int subProjectsPerProject) {
+            this.subProjectsPerProject = subProjectsPerProject;
+        }
+
+        public int getMembersPerProject() {
+            return membersPerProject;
+        }
+
+        public void setMembersPerProject(int membersPerProject) {
+            this.membersPerProject = membersPerProject;
+        }
+
+        public int getTasks() {
+            return tasks;
+        }
+
+        public void setTasks(int tasks) {
+            this.tasks = tasks;
+        }
+
+        public int getSubTasks() {
+            return subTasks;
+        }
+
+        public void setSubTasks(int subTasks) {
+            this.subTasks = subTasks;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public long getSeed() {
+            return seed;
+        }
+
+        public void setSeed(long seed) {
+            this.seed = seed;
+        }
+    }
+
+    public void generate(Settings settings) {
+        dataGeneratorRepository.setReferentialIntegrity(false);
+        try {
+            generateRows(settings);
+        } finally {
+            dataGeneratorRepository.setReferentialIntegrity(true);
+        }
+    }
+
+    private void generateRows(Settings settings) {
+        long started = System.currentTimeMillis();
+        SplittableRandom random = new SplittableRandom(settings.getSeed());
+        int today = (int) LocalDate.now().toEpochDay();
+
+        int[] roleIds = ensureAlphaRoles();
+
+        // --- Medarbejdere: ca. 10 % projektledere, resten team members ---
+        long firstEmployeeId = dataGeneratorRepository.nextId("employee", "employee_id");
+        int employeeCount = Math.max(settings.getEmployees(), 1);
+        List<Integer> managerIdx = new ArrayList<>();
+        List<Integer> memberIdx = new ArrayList<>();
+        Batch employees = new Batch(DataGeneratorRepository.INSERT_EMPLOYEE_SQL, settings.getBatchSize(), null);
+        Batch employeeRoles = new Batch(DataGeneratorRepository.INSERT_EMPLOYEE_ROLE_SQL, settings.getBatchSize(), employees);
+        for (int i = 0; i < employeeCount; i++) {
+            long id = firstEmployeeId + i;
+            boolean manager = i % 10 == 0;
+            (manager ? managerIdx : memberIdx).add(i);
+            employees.add(id, "gen.user" + id, "password", "gen.user" + id + "@pct.local",
+                    (manager ? EmployeeRole.PROJECT_MANAGER : EmployeeRole.TEAM_MEMBER).getDisplayName());
+
+            if (manager) {
+                employeeRoles.add(id, roleIds[AlphaRole.ProjectManager.ordinal()]);
+            } else {
+                // 1-3 forskellige AlphaRoles pr. team member
+                int skills = 1 + random.nextInt(3);
+                int first = random.nextInt(roleIds.length);
+                for (int s = 0; s < skills; s++) {
+                    int role = (first + s * 5) % roleIds.length;
+                    if (role == AlphaRole.ProjectManager.ordinal()) {
+                        role = (role + 1) % roleIds.length;
+                    }
+                    employeeRoles.add(id, roleIds[role]);
+                }
+            }
+        }
+        employees.flush();
+        employeeRoles.flush();
+        if (memberIdx.isEmpty()) {
+            memberIdx.addAll(managerIdx);
+        }
+
+        // --- Projekter med medlemmer: start fra 2 år tilbage til 6 måneder frem, 1-12 måneder lange ---
+        long firstProjectId = dataGeneratorRepository.nextId("project", "project_id");
+        int projectCount = Math.max(settings.getProjects(), 1);
+        int[][] projectMembers = new int[projectCount][];
+        int[] projectStart = new int[projectCount];
+        int[] projectEnd = new int[projectCount];
+        Batch projects = new Batch(DataGeneratorRepository.INSERT_PROJECT_SQL, settings.getBatchSize(), null);
+        Batch projectEmployees = new Batch(DataGeneratorRepository.INSERT_PROJECT_EMPLOYEE_SQL, settings.getBatchSize(), projects);
+        for (int p = 0; p < projectCount; p++) {
+            long id = firstProjectId + p;
+            int owner = managerIdx.get(random.nextInt(managerIdx.size()));
+            projectStart[p] = today - 730 + random.nextInt(910);
+            projectEnd[p] = projectStart[p] + 30 + random.nextInt(335);
+            projects.add(id, firstEmployeeId + owner, "Project " + id, "Generated project " + id,
+                    LocalDate.ofEpochDay(projectStart[p]), LocalDate.ofEpochDay(projectEnd[p]),
+                    CUSTOMERS[random.nextInt(CUSTOMERS.length)]);
+
+            int members = Math.min(settings.getMembersPerProject(), memberIdx.size());
+            projectMembers[p] = new int[members];
+            int offset = random.nextInt(memberIdx.size());
+            for (int m = 0; m < members; m++) {
+                int member = memberIdx.get((offset + m) % memberIdx.size());
+                projectMembers[p][m] = member;
+                projectEmployees.add(id, firstEmployeeId + member);
+            }
+        }
+        projects.flush();
+        projectEmployees.flush();
+
+        // --- Subprojekter: projektperioden deles i lige store faser ---
+        long firstSubProjectId = dataGeneratorRepository.nextId("sub_project", "sub_project_id");
+        int perProject = Math.max(settings.getSubProjectsPerProject(), 1);
+        int subProjectCount = projectCount * perProject;
+        int[] subProjectOwner = new int[subProjectCount];
+        int[] subProjectStart = new int[subProjectCount];
+        int[] subProjectEnd = new int[subProjectCount];
+        Batch subProjects = new Batch(DataGeneratorRepository.INSERT_SUB_PROJECT_SQL, settings.getBatchSize(), null);
+        for (int sp = 0; sp < subProjectCount; sp++) {
+            int p = sp / perProject;
+            int phase = sp % perProject;
+            int phaseLength = Math.max((projectEnd[p] - projectStart[p]) / perProject, 1);
+            subProjectOwner[sp] = p;
+            subProjectStart[sp] = projectStart[p] + phase * phaseLength;
+            subProjectEnd[sp] = Math.min(subProjectStart[sp] + phaseLength, projectEnd[p]);
+            long id = firstSubProjectId + sp;
+            subProjects.add(id, firstProjectId + p, "Subproject " + id, "Phase " + (phase + 1),
+                    LocalDate.ofEpochDay(subProjectStart[sp]), LocalDate.ofEpochDay(subProjectEnd[sp]),
+                    subProjectEnd[sp] - subProjectStart[sp]);
+        }
+        subProjects.flush();
+
+        // --- Tasks: tildelt et projektmedlem (10 % er ikke tildelt) ---
+        long firstTaskId = dataGeneratorRepository.nextId("task", "task_id");
+        int taskCount = Math.max(settings.getTasks(), 0);
+        int[] taskStart = new int[taskCount];
+        int[] taskEnd = new int[taskCount];
+        Batch tasks = new Batch(DataGeneratorRepository.INSERT_TASK_SQL, settings.getBatchSize(), null);
+        for (int t = 0; t < taskCount; t++) {
+            int sp = random.nextInt(subProjectCount);
+            int[] window = randomWindow(random, subProjectStart[sp], subProjectEnd[sp], 1, 21);
+            taskStart[t] = window[0];
+            taskEnd[t] = window[1];
+            int[] members = projectMembers[subProjectOwner[sp]];
+            Long assignee = members.length == 0 || random.nextInt(10) == 0
+                    ? null : firstEmployeeId + members[random.nextInt(members.length)];
+            long id = firstTaskId + t;
+            tasks.add(id, assignee, firstSubProjectId + sp, "Task " + id, "Generated task " + id,
+                    randomStatus(random, window[0], window[1], today).getDisplayName(),
+                    LocalDate.ofEpochDay(window[0]), LocalDate.ofEpochDay(window[1]), window[1] - window[0],
+                    randomPriority(random).getDisplayName(), null);
+        }
+        tasks.flush();
+
+        // --- Subtasks: fordelt tilfældigt på tasks, altid inden for taskens periode ---
+        long firstSubTaskId = dataGeneratorRepository.nextId("sub_task", "sub_task_id");
+        int subTaskCount = taskCount == 0 ? 0 : Math.max(settings.getSubTasks(), 0);
+        Batch subTasks = new Batch(DataGeneratorRepository.INSERT_SUB_TASK_SQL, settings.getBatchSize(), null);
+        for (int st = 0; st < subTaskCount; st++) {
+            int t = random.nextInt(taskCount);
+            int[] window = randomWindow(random, taskStart[t], taskEnd[t], 0, 5);
+            long id = firstSubTaskId + st;
+            subTasks.add(id, firstTaskId + t, "Subtask " + id, "Generated subtask " + id,
+                    randomStatus(random, window[0], window[1], today).getDisplayName(),
+                    LocalDate.ofEpochDay(window[0]), LocalDate.ofEpochDay(window[1]), window[1] - window[0],
+                    randomPriority(random).getDisplayName(), null);
+        }
+        subTasks.flush();
+
+        dataGeneratorRepository.restartIdentity("employee", "employee_id", firstEmployeeId + employeeCount);
+        dataGeneratorRepository.restartIdentity("project", "project_id", firstProjectId + projectCount);
+        dataGeneratorRepository.restartIdentity("sub_project", "sub_project_id", firstSubProjectId + subProjectCount);
+        dataGeneratorRepository.restartIdentity("task", "task_id", firstTaskId + taskCount);
+        dataGeneratorRepository.restartIdentity("sub_task", "sub_task_id", firstSubTaskId + subTaskCount);
+        // Rækkerne er indsat uden om services, så "My work"-læsemodellen og medarbejdersøgningen bygges forfra,
+        // og de nye tasks får deres første række i historikken
+        workItemService.rebuild();
+        employeeDirectory.reload();
+        taskHistoryService.recordAll();
+
+        System.out.println("Datagenerator: " + employeeCount + " employees, " + projectCount + " projects, "
+                + subProjectCount + " subprojects, " + taskCount + " tasks, " + subTaskCount + " subtasks på "
+                + (System.currentTimeMillis() - started) + " ms");
+    }
+
+    // Sørger for at alle AlphaRoles findes i role-tabellen og returnerer deres id'er i enum-rækkefølge
+    // Generatoren kører typisk mod en tom eller nyligt tømt database, så rolleordbogen læses forfra
+    private int[] ensureAlphaRoles() {
+        roleDictionary.reload();
+        AlphaRole[] alphaRoles = AlphaRole.values();
+        int[] roleIds = new int[alphaRoles.length];
+        for (AlphaRole alphaRole : alphaRoles) {
+            roleIds[alphaRole.ordinal()] = roleDictionary.roleIdFor(alphaRole.getDisplayName());
+        }
+        return roleIds;
+    }
+
+    private static int[] randomWindow(SplittableRandom random, int from, int to, int minLength, int maxLength) {
+        int span = Math.max(to - from, 0);
+        int length = Math.min(minLength + random.nextInt(maxLength - minLength + 1), span);
+        int start = from + (span - length == 0 ? 0 : random.nextInt(span - length + 1));
+        return new int[]{start, start + length};
+    }
+
+    // Afsluttet arbejde ligger i fortiden, fremtidigt arbejde er oftest ikke startet
+    static Status randomStatus(SplittableRandom random, int start, int deadline, int today) {
+        int roll = random.nextInt(100);
+        if (deadline < today) {
+            return roll < 85 ? Status.COMPLETED : roll < 95 ? Status.IN_PROGRESS : Status.NOT_STARTED;
+        }
+        if (start > today) {
+            return roll < 90 ? Status.NOT_STARTED : roll < 98 ? Status.IN_PROGRESS : Status.COMPLETED;
+        }
+        return roll < 30 ? Status.NOT_STARTED : roll < 80 ? Status.IN_PROGRESS : Status.COMPLETED;
+    }
+
+    static Priority randomPriority(SplittableRandom random) {
+        int roll = random.nextInt(100);
+        return roll < 25 ? Priority.LOW : roll < 75 ? Priority.MEDIUM : Priority.HIGH;
+    }
+
+    // Samler rækker og skriver dem som én batch pr. transaktion når bufferen er fuld.
+    // En parent-batch (fx employee for employee_role) skrives altid først pga. fremmednøglerne.
+    private class Batch {
+        private final String sql;
+        private final int size;
+        private final Batch parent;
+        private final List<Object[]> rows;
+
+        Batch(String sql, int size, Batch parent) {
+            this.sql = sql;
+            this.size = Math.max(size, 1);
+            this.parent = parent;
+            this.rows = new ArrayList<>(this.size);
+        }
+
+        void add(Object... row) {
+            rows.add(row);
+            if (rows.size() >= size) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (rows.isEmpty()) {
+                return;
+            }
+            if (parent != null) {
+                parent.flush();
+            }
+            transactionTemplate.executeWithoutResult(status -> dataGeneratorRepository.batchInsert(sql, rows));
+            rows.clear();
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.example.pkveksamen.service;
+
+import com.example.pkveksamen.model.AlphaRole;
+import com.example.pkveksamen.model.ChangeEvent;
+import com.example.pkveksamen.model.EmployeeSuggestion;
+import com.example.pkveksamen.repository.EmployeeRepository;
+import com.example.pkveksamen.repository.ProjectRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Typeahead til "tilføj medlem": medarbejdere der matcher begyndelsen af brugernavn eller email.
+ * <p>
+ * Alle medarbejdere ligger i to sorterede indeks i hukommelsen (brugernavn og email med små bogstaver), så et
+ * præfiks slås op som et interval uden at spørge databasen. Kun projektets medlemmer hentes pr. kald.
+ * Nye medarbejdere kommer med via outboxen: EMPLOYEE_CREATED bærer det laveste nye id i sin transaktion, og alle
+ * transaktionens rækker er committet når hændelsen når frem, så alt fra og med det id hentes. Identity-id'er kan
+ * committes i en anden rækkefølge end de blev tildelt, så det virker også når et højere id allerede er indekseret.
+ * Mangler indekset alligevel nogen, hentes de fra databasen: enkeltvis i {@link #get}, og på præfiks når en søgning
+ * giver færre end det ønskede antal forslag.
+ */
+@Service
+public class EmployeeDirectory {
+
+    public static final int DEFAULT_LIMIT = 10;
+    public static final int MAX_LIMIT = 25;
+    // Højst så mange medarbejdere hentes fra databasen pr. søgning der ikke kunne fyldes fra indekset
+    private static final int FALLBACK_LIMIT = 200;
+
+    private final EmployeeRepository employeeRepository;
+    private final ProjectRepository projectRepository;
+
+    // Nøglen er "værdi\0id", så to medarbejdere med samme præfiks ikke overskriver hinanden
+    private final NavigableMap<String, EmployeeSuggestion> byUsername = new ConcurrentSkipListMap<>();
+    private final NavigableMap<String, EmployeeSuggestion> byEmail = new ConcurrentSkipListMap<>();
+    private final Map<Integer, EmployeeSuggestion> byId = new ConcurrentHashMap<>();
+    private volatile int highestId;
+    private volatile boolean loaded;
+
+    public EmployeeDirectory(EmployeeRepository employeeRepository, ProjectRepository projectRepository) {
+        this.employeeRepository = employeeRepository;
+        this.projectRepository = projectRepository;
+    }
+
+    // Kan databasen ikke nås ved opstart, indlæses indekset i stedet ved første søgning
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        try {
+            catchUp();
+        } catch (DataAccessException e) {
+            System.out.println("Medarbejderindekset blev ikke indlæst ved opstart: " + e.getMessage());
+        }
+    }
+
+    @EventListener
+    public void onChange(ChangeEvent event) {
+        if (event.getType() != ChangeEvent.Type.EMPLOYEE_CREATED) {
+            return;
+        }
+        // Også selvom id'et allerede er kendt: det kan være hentet enkeltvis, uden resten af sin chunk
+        loadFrom((int) event.getEntityId());
+    }
+
+    // Medarbejdere der ikke allerede er med i projektet; brugernavnsmatch før emailmatch, hver i alfabetisk orden
+    public List<EmployeeSuggestion> suggestAvailableEmployees(long projectId, String query, AlphaRole alphaRole, Integer limit) {
+        String prefix = query == null ? "" : query.trim().toLowerCase(Locale.ROOT);
+        if (prefix.isEmpty()) {
+            return List.of();
+        }
+        if (!loaded) {
+            catchUp();
+        }
+        int max = limit == null ? DEFAULT_LIMIT : Math.max(1, Math.min(limit, MAX_LIMIT));
+        Set<Integer> members = projectRepository.loadProjectMemberIds(projectId);
+
+        Map<Integer, EmployeeSuggestion> matches = suggest(prefix, alphaRole, members, max);
+        if (matches.size() < max) {
+            int before = byId.size();
+            employeeRepository.findSuggestionsByPrefix(prefix, FALLBACK_LIMIT).forEach(this::index);
+            if (byId.size() > before) {
+                matches = suggest(prefix, alphaRole, members, max);
+            }
+        }
+        return new ArrayList<>(matches.values());
+    }
+
+    private Map<Integer, EmployeeSuggestion> suggest(String prefix, AlphaRole alphaRole, Set<Integer> members, int max) {
+        Map<Integer, EmployeeSuggestion> matches = new LinkedHashMap<>();
+        collect(byUsername, prefix, alphaRole, members, max, matches);
+        collect(byEmail, prefix, alphaRole, members, max, matches);
+        return matches;
+    }
+
+    // Opslag pr. id, fx AlphaRole-bitmasken til AssigneeRecommender. null hvis medarbejderen ikke findes
+    public EmployeeSuggestion get(int employeeId) {
+        if (!loaded) {
+            catchUp();
+        }
+        EmployeeSuggestion suggestion = byId.get(employeeId);
+        return suggestion != null ? suggestion : loadOne(employeeId);
+    }
+
+    private EmployeeSuggestion loadOne(int employeeId) {
+        EmployeeSuggestion suggestion = employeeRepository.loadSuggestion(employeeId);
+        if (suggestion != null) {
+            index(suggestion);
+        }
+        return suggestion;
+    }
+
+    private synchronized void loadFrom(int employeeId) {
+        for (EmployeeSuggestion suggestion : employeeRepository.loadSuggestionsAfter(employeeId - 1)) {
+            index(suggestion);
+        }
+    }
+
+    // Indhenter medarbejdere oprettet siden sidst. synchronized, så to samtidige kald ikke læser det samme to gange
+    public synchronized int catchUp() {
+        List<EmployeeSuggestion> created = employeeRepository.loadSuggestionsAfter(highestId);
+        for (EmployeeSuggestion suggestion : created) {
+            index(suggestion);
+        }
+        loaded = true;
+        return created.size();
+    }
+
+    private synchronized void index(EmployeeSuggestion suggestion) {
+        byUsername.put(key(suggestion.getUsername(), suggestion.getEmployeeId()), suggestion);
+        byEmail.put(key(suggestion.getEmail(), suggestion.getEmployeeId()), suggestion);
+        byId.put(suggestion.getEmployeeId(), suggestion);
+        highestId = Math.max(highestId, suggestion.getEmployeeId());
+    }
+
+    // Læser alt forfra; bruges når employee-tabellen er tømt eller genskabt udefra (datagenerator, tests)
+    public synchronized int reload() {
+        byUsername.clear();
+        byEmail.clear();
+        byId.clear();
+        highestId = 0;
+        return catchUp();
+    }
+
+    private static void collect(NavigableMap<String, EmployeeSuggestion> index, String prefix, AlphaRole alphaRole,
+                                Set<Integer> members, int max, Map<Integer, EmployeeSuggestion> matches) {
+        for (EmployeeSuggestion suggestion : index.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+            if (matches.size() >= max) {
+                return;
+            }
+            if (!members.contains(suggestion.getEmployeeId())
+                    && (alphaRole == null || suggestion.getAlphaRoles().contains(alphaRole))) {
+                matches.putIfAbsent(suggestion.getEmployeeId(), suggestion);
+            }
+        }
+    }
+
+    private static String key(String value, int employeeId) {
+        return value.toLowerCase(Locale.ROOT) + '\0' + employeeId;
+    }
+}
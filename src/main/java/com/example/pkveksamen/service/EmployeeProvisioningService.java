@@ -0,0 +1,174 @@
+package com.example.pkveksamen.service;
+
+import com.example.pkveksamen.model.AlphaRole;
+import com.example.pkveksamen.model.ChangeEvent;
+import com.example.pkveksamen.model.Employee;
+import com.example.pkveksamen.model.EmployeeRole;
+import com.example.pkveksamen.model.ProvisioningReport;
+import com.example.pkveksamen.repository.EmployeeRepository;
+import com.example.pkveksamen.repository.OutboxRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Opretter mange medarbejdere på én gang ud fra en CSV-fil med kolonnerne
+ * username,password,email,role,alphaRoles (flere alphaRoles adskilles med ';').
+ * <p>
+ * Linjerne valideres først, og dubletter - i filen eller i databasen - afvises i rapporten i stedet for at fejle.
+ * Resten skrives i chunks af provisioning.chunk-size medarbejdere, én transaktion og tre batch-sætninger pr. chunk.
+ */
+@Service
+public class EmployeeProvisioningService {
+
+    private static final String[] HEADER = {"username", "password", "email", "role", "alpharoles"};
+
+    private final EmployeeRepository employeeRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final OutboxRepository outboxRepository;
+    private final int chunkSize;
+
+    public EmployeeProvisioningService(EmployeeRepository employeeRepository,
+                                       TransactionTemplate transactionTemplate,
+                                       OutboxRepository outboxRepository,
+                                       @Value("${provisioning.chunk-size:500}") int chunkSize) {
+        this.employeeRepository = employeeRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.outboxRepository = outboxRepository;
+        this.chunkSize = chunkSize;
+    }
+
+    public ProvisioningReport provisionCsv(String csv) {
+        long started = System.currentTimeMillis();
+        ProvisioningReport report = new ProvisioningReport();
+
+        List<Employee> employees = new ArrayList<>();
+        List<Integer> lineNumbers = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        String[] lines = csv.split("\\r?\\n");
+        for (int i = 0; i < lines.length; i++) {
+            int line = i + 1;
+            if (lines[i].isBlank() || (i == 0 && isHeader(lines[i]))) {
+                continue;
+            }
+            try {
+                Employee employee = parseLine(lines[i]);
+                if (!seen.add(employee.getUsername().toLowerCase()) | !seen.add(employee.getEmail().toLowerCase())) {
+                    report.skip(line, "brugernavn eller email står flere gange i filen");
+                    continue;
+                }
+                employees.add(employee);
+                lineNumbers.add(line);
+            } catch (IllegalArgumentException e) {
+                report.skip(line, e.getMessage());
+            }
+        }
+
+        for (int from = 0; from < employees.size(); from += chunkSize) {
+            int to = Math.min(from + chunkSize, employees.size());
+            List<Employee> chunk = employees.subList(from, to);
+            List<Integer> chunkLines = lineNumbers.subList(from, to);
+            transactionTemplate.executeWithoutResult(status -> createChunk(chunk, chunkLines, report));
+            report.addChunk();
+        }
+
+        report.setElapsedMillis(System.currentTimeMillis() - started);
+        System.out.println("Masseoprettelse: " + report);
+        return report;
+    }
+
+    private void createChunk(List<Employee> chunk, List<Integer> lineNumbers, ProvisioningReport report) {
+        Set<String> taken = employeeRepository.findTakenUsernamesAndEmails(
+                chunk.stream().map(Employee::getUsername).toList(),
+                chunk.stream().map(Employee::getEmail).toList());
+
+        List<Employee> toCreate = new ArrayList<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            Employee employee = chunk.get(i);
+            if (taken.contains(employee.getUsername().toLowerCase()) || taken.contains(employee.getEmail().toLowerCase())) {
+                report.skip(lineNumbers.get(i), "brugernavn eller email findes allerede");
+            } else {
+                toCreate.add(employee);
+            }
+        }
+        employeeRepository.createEmployees(toCreate);
+        report.addCreated(toCreate.size());
+        // Én besked pr. chunk med det laveste nye id; medarbejdersøgningen indhenter alle id'er fra og med det
+        toCreate.stream().mapToInt(Employee::getEmployeeId).min()
+                .ifPresent(lowestId -> outboxRepository.append(ChangeEvent.Type.EMPLOYEE_CREATED, lowestId));
+    }
+
+    private static boolean isHeader(String line) {
+        List<String> columns = splitCsvLine(line);
+        return !columns.isEmpty() && columns.get(0).trim().equalsIgnoreCase(HEADER[0]);
+    }
+
+    private static Employee parseLine(String line) {
+        List<String> columns = splitCsvLine(line);
+        if (columns.size() != HEADER.length) {
+            throw new IllegalArgumentException("forventede " + HEADER.length + " kolonner, fandt " + columns.size());
+        }
+        String username = required(columns.get(0), "username");
+        String password = required(columns.get(1), "password");
+        String email = required(columns.get(2), "email");
+
+        Employee employee = new Employee(username, password, email, parseRole(required(columns.get(3), "role")));
+        for (String alphaRole : required(columns.get(4), "alphaRoles").split(";")) {
+            if (!alphaRole.isBlank()) {
+                employee.getAlphaRoles().add(AlphaRole.fromDisplayName(alphaRole.trim()));
+            }
+        }
+        return employee;
+    }
+
+    // Rollen må angives som displayName ("Team Member") eller enum-navn ("TEAM_MEMBER")
+    private static EmployeeRole parseRole(String role) {
+        for (EmployeeRole employeeRole : EmployeeRole.values()) {
+            if (employeeRole.name().equalsIgnoreCase(role)) {
+                return employeeRole;
+            }
+        }
+        return EmployeeRole.fromDisplayName(role);
+    }
+
+    private static String required(String value, String column) {
+        if (value.isBlank()) {
+            throw new IllegalArgumentException(column + " mangler");
+        }
+        return value.trim();
+    }
+
+    // Kommaseparerede felter; et felt i anførselstegn må indeholde kommaer, og "" er et anførselstegn
+    static List<String> splitCsvLine(String line) {
+        List<String> columns = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                columns.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        columns.add(current.toString());
+        return columns;
+    }
+}
@@ -1,9 +1,13 @@
 package com.example.pkveksamen.service;
 
+import com.example.pkveksamen.model.ChangeEvent;
 import com.example.pkveksamen.model.Employee;
 import com.example.pkveksamen.repository.EmployeeRepository;
+import com.example.pkveksamen.repository.OutboxRepository;
+import com.example.pkveksamen.repository.StreamingRows;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.List;
 
@@ -11,14 +15,32 @@ import java.util.List;
 public class EmployeeService {
 
     private EmployeeRepository employeeRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final OutboxRepository outboxRepository;
 
-    public EmployeeService(EmployeeRepository employeeRepository) {
+    public EmployeeService(EmployeeRepository employeeRepository, TransactionTemplate transactionTemplate,
+                           OutboxRepository outboxRepository) {
         this.employeeRepository = employeeRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.outboxRepository = outboxRepository;
     }
 
+    // Dubletter findes med et opslag før der skrives; DataIntegrityViolationException fanger kun to samtidige oprettelser
     public boolean createEmployee(String username, String password, String email, String role, String alphaRoleDisplayName) {
         try {
-            employeeRepository.createEmployee(username, password, email, role, alphaRoleDisplayName);
+            Boolean created = transactionTemplate.execute(status -> {
+                if (!employeeRepository.findTakenUsernamesAndEmails(List.of(username), List.of(email)).isEmpty()) {
+                    return false;
+                }
+                int employeeId = employeeRepository.createEmployee(username, password, email, role, alphaRoleDisplayName);
+                // Medarbejdersøgningen (EmployeeDirectory) på alle noder indhenter den nye medarbejder
+                outboxRepository.append(ChangeEvent.Type.EMPLOYEE_CREATED, employeeId);
+                return true;
+            });
+            if (!Boolean.TRUE.equals(created)) {
+                System.out.println("Brugernavn eller email allerede i brug: " + username + " " + email);
+                return false;
+            }
             System.out.println("Bruger oprettet: " + username + " " + email + " med alphaRole: " + alphaRoleDisplayName);
             return true;
         } catch (DataIntegrityViolationException e) {
@@ -47,4 +69,8 @@ public class EmployeeService {
     public List<Employee> getAllEmployees() {
         return employeeRepository.getAllEmployees();
     }
+
+    public StreamingRows<Employee> streamAllEmployees() {
+        return employeeRepository.streamAllEmployees();
+    }
 }
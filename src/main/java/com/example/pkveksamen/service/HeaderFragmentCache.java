@@ -0,0 +1,114 @@
+package com.example.pkveksamen.service;
+
+import com.example.pkveksamen.model.Employee;
+import com.example.pkveksamen.model.EmployeeRole;
+import com.example.pkveksamen.repository.EmployeeRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.ui.Model;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.Context;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Headeren (brugernavn, rolle og logout) er den samme på alle sider for en given medarbejder.
+// Den renderes derfor én gang pr. medarbejder og genbruges, så controllerne ikke skal slå
+// medarbejderen op i databasen ved hvert request bare for at vise headeren.
+@Service
+public class HeaderFragmentCache {
+
+    static final String TEMPLATE = "fragments/user-info";
+
+    private final EmployeeRepository employeeRepository;
+    private final ITemplateEngine templateEngine;
+    private final String logoutUrl;
+    private final Map<Integer, Header> headers = new ConcurrentHashMap<>();
+
+    public HeaderFragmentCache(EmployeeRepository employeeRepository,
+                               ITemplateEngine templateEngine,
+                               @Value("${server.servlet.context-path:}") String contextPath) {
+        this.employeeRepository = employeeRepository;
+        this.templateEngine = templateEngine;
+        this.logoutUrl = contextPath + "/logout";
+    }
+
+    public static class Header {
+        private final int employeeId;
+        private final String username;
+        private final EmployeeRole role;
+        private final String html;
+
+        Header(int employeeId, String username, EmployeeRole role, String html) {
+            this.employeeId = employeeId;
+            this.username = username;
+            this.role = role;
+            this.html = html;
+        }
+
+        public int getEmployeeId() {
+            return employeeId;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public EmployeeRole getRole() {
+            return role;
+        }
+
+        public String getHtml() {
+            return html;
+        }
+    }
+
+    // Lægger username, employeeRole og den færdigrenderede header (headerHtml) på modellen
+    public Header addHeader(Model model, int employeeId) {
+        Header header = getHeader(employeeId);
+        if (header != null) {
+            model.addAttribute("username", header.getUsername());
+            model.addAttribute("employeeRole", header.getRole());
+            model.addAttribute("headerHtml", header.getHtml());
+        }
+        return header;
+    }
+
+    public Header getHeader(int employeeId) {
+        Header cached = headers.get(employeeId);
+        if (cached != null) {
+            return cached;
+        }
+
+        Employee employee = employeeRepository.findEmployeeById(employeeId);
+        if (employee == null) {
+            return null;
+        }
+        Header header = new Header(employeeId, employee.getUsername(), employee.getRole(), render(employee));
+        // Hvis en anden tråd nåede først, bruges dens version
+        Header existing = headers.putIfAbsent(employeeId, header);
+        return existing != null ? existing : header;
+    }
+
+    // Kaldes når en medarbejders navn eller rolle ændres
+    public void evict(int employeeId) {
+        headers.remove(employeeId);
+    }
+
+    // Kaldes når mange medarbejdere ændres på én gang (fx generering af testdata)
+    public void evictAll() {
+        headers.clear();
+    }
+
+    int size() {
+        return headers.size();
+    }
+
+    private String render(Employee employee) {
+        Context context = new Context();
+        context.setVariable("username", employee.getUsername());
+        context.setVariable("employeeRole", employee.getRole());
+        context.setVariable("logoutUrl", logoutUrl);
+        return templateEngine.process(TEMPLATE, context);
+    }
+}
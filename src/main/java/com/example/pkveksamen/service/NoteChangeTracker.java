@@ -0,0 +1,62 @@
+package com.example.pkveksamen.service;
+
+import com.example.pkveksamen.model.ChangeEvent;
+import com.example.pkveksamen.repository.OutboxRepository;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Tasks og subtasks hvis note er ændret siden en projektleder sidst så listen. En note skrevet på denne node
+// markeres med det samme af TaskService; noter fra de andre noder kommer via outboxen (se OutboxPoller).
+// Outboxen leverer også nodens egne hændelser, men dem springes over her - ellers blev en note der allerede
+// er set markeret igen når polleren nåede frem til den.
+@Service
+public class NoteChangeTracker {
+
+    private final String nodeId;
+    private final Set<Long> updatedTaskNotes = ConcurrentHashMap.newKeySet();
+    private final Set<Long> updatedSubTaskNotes = ConcurrentHashMap.newKeySet();
+
+    public NoteChangeTracker(OutboxRepository outboxRepository) {
+        this.nodeId = outboxRepository.getNodeId();
+    }
+
+    public void markTaskNote(long taskId) {
+        updatedTaskNotes.add(taskId);
+    }
+
+    public void markSubTaskNote(long subTaskId) {
+        updatedSubTaskNotes.add(subTaskId);
+    }
+
+    @EventListener
+    public void onChange(ChangeEvent event) {
+        boolean own = nodeId.equals(event.getOriginNodeId());
+        switch (event.getType()) {
+            case TASK_NOTE_CHANGED -> {
+                if (!own) {
+                    updatedTaskNotes.add(event.getEntityId());
+                }
+            }
+            case SUB_TASK_NOTE_CHANGED -> {
+                if (!own) {
+                    updatedSubTaskNotes.add(event.getEntityId());
+                }
+            }
+            case TASK_DELETED -> updatedTaskNotes.remove(event.getEntityId());
+            case SUB_TASK_DELETED -> updatedSubTaskNotes.remove(event.getEntityId());
+            default -> {
+            }
+        }
+    }
+
+    public Set<Long> getUpdatedTaskNotes() {
+        return updatedTaskNotes;
+    }
+
+    public Set<Long> getUpdatedSubTaskNotes() {
+        return updatedSubTaskNotes;
+    }
+}
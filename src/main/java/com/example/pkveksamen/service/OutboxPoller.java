@@ -0,0 +1,157 @@
+package com.example.pkveksamen.service;
+
+import com.example.pkveksamen.model.ChangeEvent;
+import com.example.pkveksamen.repository.OutboxRepository;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Kører på hver app-node og gør nye rækker i change_outbox til lokale {@link ChangeEvent}s, som caches på noden
+ * lytter på med @EventListener. Der læses højst outbox.batch-size rækker ad gangen fra nodens egen markør.
+ * <p>
+ * event_id tildeles ved INSERT men bliver først synlig ved COMMIT, så et lavere id kan dukke op efter et højere.
+ * Markøren flyttes derfor kun hen over sammenhængende id'er; et hul ventes der på i outbox.gap-grace-ms
+ * (det kan også skyldes en rullet-tilbage transaktion). Rækker efter hullet leveres med det samme og huskes,
+ * så de ikke leveres igen. Hændelserne er invalideringer, så en sjælden dobbeltlevering gør ingen skade.
+ * <p>
+ * Hvert outbox.cleanup-ms slettes rækker som alle levende noder har læst, og alt ældre end outbox.retention-minutes.
+ */
+@Service
+@ConditionalOnProperty(name = "outbox.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxPoller implements DisposableBean {
+
+    private final OutboxRepository outboxRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final String nodeId;
+    private final long pollMillis;
+    private final int batchSize;
+    private final long gapGraceMillis;
+    private final long cleanupMillis;
+    private final long nodeTimeoutMillis;
+    private final long retentionMillis;
+
+    private final NavigableSet<Long> deliveredAhead = new TreeSet<>();
+    private ScheduledExecutorService scheduler;
+    private Long cursor;
+    private long gapSince;
+    private long lastCleanup;
+
+    public OutboxPoller(OutboxRepository outboxRepository,
+                        ApplicationEventPublisher eventPublisher,
+                        @Value("${outbox.poll-ms:1000}") long pollMillis,
+                        @Value("${outbox.batch-size:500}") int batchSize,
+                        @Value("${outbox.gap-grace-ms:2000}") long gapGraceMillis,
+                        @Value("${outbox.cleanup-ms:60000}") long cleanupMillis,
+                        @Value("${outbox.node-timeout-ms:60000}") long nodeTimeoutMillis,
+                        @Value("${outbox.retention-minutes:60}") long retentionMinutes) {
+        this.outboxRepository = outboxRepository;
+        this.eventPublisher = eventPublisher;
+        this.nodeId = outboxRepository.getNodeId();
+        this.pollMillis = pollMillis;
+        this.batchSize = batchSize;
+        this.gapGraceMillis = gapGraceMillis;
+        this.cleanupMillis = cleanupMillis;
+        this.nodeTimeoutMillis = nodeTimeoutMillis;
+        this.retentionMillis = retentionMinutes * 60_000;
+        this.lastCleanup = System.currentTimeMillis();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "outbox-poller");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                poll();
+                if (System.currentTimeMillis() - lastCleanup >= cleanupMillis) {
+                    cleanUp();
+                }
+            } catch (DataAccessException e) {
+                System.out.println("Outbox kunne ikke læses: " + e.getMessage());
+            }
+        }, 0, pollMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // Returnerer antal leverede hændelser. En ny node starter ved den nyeste række - dens caches er jo tomme
+    public synchronized int poll() {
+        if (cursor == null) {
+            Long saved = outboxRepository.loadCursor(nodeId);
+            cursor = saved != null ? saved : outboxRepository.loadMaxEventId();
+            outboxRepository.saveCursor(nodeId, cursor);
+            return 0;
+        }
+
+        int delivered = 0;
+        while (true) {
+            List<ChangeEvent> events = outboxRepository.loadEventsAfter(cursor, batchSize);
+            boolean blocked = false;
+            for (ChangeEvent event : events) {
+                if (deliveredAhead.add(event.getEventId())) {
+                    eventPublisher.publishEvent(event);
+                    delivered++;
+                }
+                if (!blocked && (event.getEventId() == cursor + 1 || gapExpired())) {
+                    cursor = event.getEventId();
+                    gapSince = 0;
+                } else if (!blocked) {
+                    blocked = true;
+                    if (gapSince == 0) {
+                        gapSince = System.currentTimeMillis();
+                    }
+                }
+            }
+            deliveredAhead.headSet(cursor, true).clear();
+            if (blocked || events.size() < batchSize) {
+                break;
+            }
+        }
+        outboxRepository.saveCursor(nodeId, cursor);
+        return delivered;
+    }
+
+    public void cleanUp() {
+        long now = System.currentTimeMillis();
+        lastCleanup = now;
+        int deleted = outboxRepository.deleteConsumedEvents(new Timestamp(now - nodeTimeoutMillis),
+                new Timestamp(now - retentionMillis));
+        outboxRepository.deleteStaleCursors(new Timestamp(now - retentionMillis));
+        if (deleted > 0) {
+            System.out.println("Outbox: " + deleted + " læste hændelser slettet");
+        }
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    private boolean gapExpired() {
+        return gapSince != 0 && System.currentTimeMillis() - gapSince >= gapGraceMillis;
+    }
+
+    @Override
+    public synchronized void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+}
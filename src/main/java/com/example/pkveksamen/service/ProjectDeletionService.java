@@ -0,0 +1,156 @@
+package com.example.pkveksamen.service;
+
+import com.example.pkveksamen.model.DeletionReport;
+import com.example.pkveksamen.repository.ProjectDeletionRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.function.IntSupplier;
+
+/**
+ * Sletter projekter og subprojekter med hele deres træ.
+ * <p>
+ * Et enkelt projekt slettes i én transaktion, nedefra og med id-lister, så det enten forsvinder helt eller slet ikke.
+ * Mange projekter på én gang ({@link #deleteProjects}) slettes i stedet i chunks af højst deletion.chunk-size rækker,
+ * hver i sin egen korte transaktion og med deletion.pause-ms imellem, så andre brugere ikke venter på låse imens.
+ * Projektrækkerne slettes sidst og sammen med en PROJECT_DELETED pr. projekt i outboxen (se ChangeOutbox).
+ */
+@Service
+public class ProjectDeletionService {
+
+    private final ProjectDeletionRepository projectDeletionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ChangeOutbox changeOutbox;
+    private final int chunkSize;
+    private final long pauseMillis;
+
+    public ProjectDeletionService(ProjectDeletionRepository projectDeletionRepository,
+                                  TransactionTemplate transactionTemplate,
+                                  ChangeOutbox changeOutbox,
+                                  @Value("${deletion.chunk-size:1000}") int chunkSize,
+                                  @Value("${deletion.pause-ms:50}") long pauseMillis) {
+        this.projectDeletionRepository = projectDeletionRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.changeOutbox = changeOutbox;
+        this.chunkSize = chunkSize;
+        this.pauseMillis = pauseMillis;
+    }
+
+    public DeletionReport deleteProject(long projectId) {
+        long started = System.currentTimeMillis();
+        DeletionReport report = new DeletionReport();
+        List<Long> projectIds = List.of(projectId);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            deleteSubProjectTrees(projectDeletionRepository.findSubProjectIds(projectIds), report);
+            report.addProjectMembers(projectDeletionRepository.deleteProjectMembers(projectIds));
+            projectDeletionRepository.deleteProjectSnapshots(projectIds);
+            projectDeletionRepository.deleteProjectHistory(projectIds);
+            report.addProjects(projectDeletionRepository.deleteProjectsByIds(projectIds));
+        });
+        report.addChunk();
+        report.setElapsedMillis(System.currentTimeMillis() - started);
+        return report;
+    }
+
+    public DeletionReport deleteSubProject(long subProjectId) {
+        long started = System.currentTimeMillis();
+        DeletionReport report = new DeletionReport();
+
+        transactionTemplate.executeWithoutResult(status -> deleteSubProjectTrees(List.of(subProjectId), report));
+        report.addChunk();
+        report.setElapsedMillis(System.currentTimeMillis() - started);
+        return report;
+    }
+
+    public DeletionReport deleteProjects(List<Long> projectIds) {
+        long started = System.currentTimeMillis();
+        DeletionReport report = new DeletionReport();
+
+        for (List<Long> group : chunks(new ArrayList<>(new LinkedHashSet<>(projectIds)))) {
+            deleteInChunks(report, () -> {
+                List<Long> subTaskIds = projectDeletionRepository.findSubTaskIdChunk(group, chunkSize);
+                report.addSubTasks(projectDeletionRepository.deleteSubTasksByIds(subTaskIds));
+                return subTaskIds.size();
+            });
+            deleteInChunks(report, () -> {
+                List<Long> taskIds = projectDeletionRepository.findTaskIdChunk(group, chunkSize);
+                report.addTasks(projectDeletionRepository.deleteTasksByIds(taskIds));
+                return taskIds.size();
+            });
+
+            List<Long> subProjectIds = transactionTemplate.execute(status -> projectDeletionRepository.findSubProjectIds(group));
+            for (List<Long> subProjectChunk : chunks(subProjectIds)) {
+                deleteChunk(report, () -> report.addSubProjects(projectDeletionRepository.deleteSubProjectsByIds(subProjectChunk)));
+            }
+            changeOutbox.writeDeletedProjects(group, () -> {
+                report.addProjectMembers(projectDeletionRepository.deleteProjectMembers(group));
+                projectDeletionRepository.deleteProjectSnapshots(group);
+                projectDeletionRepository.deleteProjectHistory(group);
+                report.addProjects(projectDeletionRepository.deleteProjectsByIds(group));
+            });
+            report.addChunk();
+            pause();
+        }
+
+        report.setElapsedMillis(System.currentTimeMillis() - started);
+        System.out.println("Bulk-sletning af " + projectIds.size() + " projekter: " + report);
+        return report;
+    }
+
+    // Subtasks og tasks slettes før subprojekterne, så FK-cascade ikke har noget at gøre
+    private void deleteSubProjectTrees(List<Long> subProjectIds, DeletionReport report) {
+        List<Long> taskIds = new ArrayList<>();
+        for (List<Long> chunk : chunks(subProjectIds)) {
+            taskIds.addAll(projectDeletionRepository.findTaskIds(chunk));
+        }
+        for (List<Long> chunk : chunks(taskIds)) {
+            report.addSubTasks(projectDeletionRepository.deleteSubTasksByTaskIds(chunk));
+        }
+        for (List<Long> chunk : chunks(subProjectIds)) {
+            report.addTasks(projectDeletionRepository.deleteTasksBySubProjectIds(chunk));
+            report.addSubProjects(projectDeletionRepository.deleteSubProjectsByIds(chunk));
+        }
+    }
+
+    // Kører step i hver sin transaktion indtil det returnerer færre end chunkSize rækker
+    private void deleteInChunks(DeletionReport report, IntSupplier step) {
+        while (true) {
+            Integer rows = transactionTemplate.execute(status -> step.getAsInt());
+            report.addChunk();
+            if (rows == null || rows < chunkSize) {
+                return;
+            }
+            pause();
+        }
+    }
+
+    private void deleteChunk(DeletionReport report, Runnable step) {
+        transactionTemplate.executeWithoutResult(status -> step.run());
+        report.addChunk();
+        pause();
+    }
+
+    private void pause() {
+        if (pauseMillis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(pauseMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private List<List<Long>> chunks(List<Long> ids) {
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i += chunkSize) {
+            chunks.add(ids.subList(i, Math.min(i + chunkSize, ids.size())));
+        }
+        return chunks;
+    }
+}
@@ -1,6 +1,9 @@
 package com.example.pkveksamen.service;
 
+import com.example.pkveksamen.model.AlphaRole;
+import com.example.pkveksamen.model.ChangeEvent;
 import com.example.pkveksamen.model.Employee;
+import com.example.pkveksamen.model.EmployeePage;
 import com.example.pkveksamen.model.Project;
 import com.example.pkveksamen.model.SubProject;
 import com.example.pkveksamen.model.Task;
@@ -13,15 +16,23 @@ import java.util.List;
 @Service
 public class ProjectService {
 
+    public static final int AVAILABLE_EMPLOYEES_PAGE_SIZE = 25;
+
     private ProjectRepository projectRepository;
+    private ProjectDeletionService projectDeletionService;
+    private final ChangeOutbox changeOutbox;
 
-    public ProjectService(ProjectRepository projectRepository) {
+    public ProjectService(ProjectRepository projectRepository, ProjectDeletionService projectDeletionService,
+                          ChangeOutbox changeOutbox) {
         this.projectRepository = projectRepository;
+        this.projectDeletionService = projectDeletionService;
+        this.changeOutbox = changeOutbox;
     }
 
-    public void createProject(String projectTitle, String projectDescription, LocalDate projectStartDate,
+    public long createProject(String projectTitle, String projectDescription, LocalDate projectStartDate,
                               LocalDate projectEndDate, String projectCustomer, Integer employeeId) {
-        projectRepository.createProject(projectTitle, projectDescription, projectStartDate, projectEndDate, projectCustomer, employeeId);
+        return changeOutbox.writeNewProject(() -> projectRepository.createProject(
+                projectTitle, projectDescription, projectStartDate, projectEndDate, projectCustomer, employeeId));
     }
 
     public List<Project> showProjectsByEmployeeId(int employeeId) {
@@ -32,20 +43,20 @@ public class ProjectService {
         return projectRepository.showSubProjectsByProjectId(projectID);
     }
 
-    public void saveProject(Project projectModel, int employeeId) {
-        projectRepository.saveProject(projectModel, employeeId);
+    public long saveProject(Project projectModel, int employeeId) {
+        return changeOutbox.writeNewProject(() -> projectRepository.saveProject(projectModel, employeeId));
     }
 
     public void saveSubProject(SubProject subProject, long projectID) {
-        projectRepository.saveSubProject(subProject, projectID);
+        changeOutbox.write(ChangeEvent.Type.PROJECT_CHANGED, projectID, () -> projectRepository.saveSubProject(subProject, projectID));
     }
 
     public void deleteProject(long projectID) {
-        projectRepository.deleteProject(projectID);
+        changeOutbox.write(ChangeEvent.Type.PROJECT_DELETED, projectID, () -> projectDeletionService.deleteProject(projectID));
     }
 
     public void editProject(Project project) {
-        projectRepository.editProject(project);
+        changeOutbox.write(ChangeEvent.Type.PROJECT_CHANGED, project.getProjectID(), () -> projectRepository.editProject(project));
     }
 
     public Project getProjectById(long projectId) {
@@ -57,25 +68,36 @@ public class ProjectService {
     }
 
     public void editSubProject(SubProject subProject) {
-        projectRepository.editSubProject(subProject);
+        changeOutbox.write(ChangeEvent.Type.SUB_PROJECT_CHANGED, subProject.getSubProjectID(),
+                () -> projectRepository.editSubProject(subProject));
     }
     public void deleteSubProject(long subProjectId) {
-        projectRepository.deleteSubProject(subProjectId);
+        changeOutbox.write(ChangeEvent.Type.SUB_PROJECT_DELETED, subProjectId,
+                () -> projectDeletionService.deleteSubProject(subProjectId));
     }
 
     public List<Employee> getProjectMembers(long projectId) {
         return projectRepository.getProjectMembers(projectId);
     }
 
-    public List<Employee> getAvailableEmployeesToAdd(long projectId) {
-        return projectRepository.getAvailableEmployeesToAdd(projectId);
+    // Én side af de medarbejdere der kan tilføjes; cursor er sidste brugernavn på forrige side
+    public EmployeePage getAvailableEmployeesToAdd(long projectId, String usernamePrefix, AlphaRole alphaRole, String cursor) {
+        List<Employee> employees = projectRepository.showAvailableEmployeesPage(projectId, usernamePrefix, alphaRole,
+                cursor, AVAILABLE_EMPLOYEES_PAGE_SIZE);
+        if (employees.size() <= AVAILABLE_EMPLOYEES_PAGE_SIZE) {
+            return new EmployeePage(employees, null);
+        }
+        List<Employee> page = employees.subList(0, AVAILABLE_EMPLOYEES_PAGE_SIZE);
+        return new EmployeePage(page, page.get(page.size() - 1).getUsername());
     }
 
     public void addEmployeeToProject(int employeeId, long projectId) {
-        projectRepository.addEmployeeToProject(employeeId, projectId);
+        changeOutbox.write(ChangeEvent.Type.PROJECT_MEMBERS_CHANGED, projectId,
+                () -> projectRepository.addEmployeeToProject(employeeId, projectId));
     }
 
     public void removeEmployeeFromProject(int employeeId, long projectId) {
-        projectRepository.removeEmployeeFromProject(employeeId, projectId);
+        changeOutbox.write(ChangeEvent.Type.PROJECT_MEMBERS_CHANGED, projectId,
+                () -> projectRepository.removeEmployeeFromProject(employeeId, projectId));
     }
 }
\ No newline at end of file
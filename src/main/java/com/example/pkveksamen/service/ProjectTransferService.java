@@ -0,0 +1,87 @@
+package com.example.pkveksamen.service;
+
+import com.example.pkveksamen.model.ProjectTransferReport;
+import com.example.pkveksamen.repository.ProjectTransferFormat;
+import com.example.pkveksamen.repository.ProjectTransferRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Eksport og import af et helt projekttræ (projekt, medlemmer, subprojekter, tasks og subtasks) i det binære
+ * ProjectTransferFormat, fx til backup eller til at flytte et projekt fra prod til test.
+ * <p>
+ * Begge retninger streames: eksporten skriver rækkerne direkte fra databasen til svaret i én læsetransaktion,
+ * og importen læser filen post for post og indsætter i batches af transfer.batch-size rækker. En import er
+ * altid ét nyt projekt med nye id'er i én transaktion; work_item, task_history og de andre noder opdateres
+ * i samme transaktion ligesom ved en almindelig ændring (se ChangeOutbox.writeNewProject).
+ */
+@Service
+public class ProjectTransferService {
+
+    private final ProjectTransferRepository projectTransferRepository;
+    private final TransactionTemplate readOnlyTemplate;
+    private final ChangeOutbox changeOutbox;
+    private final int batchSize;
+
+    public ProjectTransferService(ProjectTransferRepository projectTransferRepository,
+                                  TransactionTemplate transactionTemplate,
+                                  ChangeOutbox changeOutbox,
+                                  @Value("${transfer.batch-size:500}") int batchSize) {
+        this.projectTransferRepository = projectTransferRepository;
+        this.changeOutbox = changeOutbox;
+        this.batchSize = Math.max(1, batchSize);
+        // Fem forespørgsler i samme læsetransaktion giver et konsistent træ (og kan gå til en læsereplika)
+        this.readOnlyTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.readOnlyTemplate.setReadOnly(true);
+    }
+
+    public boolean projectExists(long projectId) {
+        return projectTransferRepository.projectExists(projectId);
+    }
+
+    // Strømmen lukkes ikke her; det gør den der ejer den (fx servlet-svaret)
+    public void exportProject(long projectId, OutputStream out) throws IOException {
+        try {
+            readOnlyTemplate.executeWithoutResult(status -> {
+                try {
+                    projectTransferRepository.streamProject(projectId, ProjectTransferFormat.writer(out));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    // employeeId bliver projektleder hvis eksportens projektleder ikke findes i denne database
+    public ProjectTransferReport importProject(InputStream in, long employeeId) throws IOException {
+        if (!projectTransferRepository.employeeExists(employeeId)) {
+            throw new IllegalArgumentException("Ukendt medarbejder " + employeeId);
+        }
+        long started = System.currentTimeMillis();
+        ProjectTransferFormat.Reader reader = ProjectTransferFormat.reader(in);
+        ProjectTransferReport report;
+        try {
+            report = changeOutbox.writeNewProject(() -> {
+                try {
+                    return projectTransferRepository.importProject(reader, employeeId, batchSize);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, ProjectTransferReport::getProjectId);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        report.setElapsedMillis(System.currentTimeMillis() - started);
+        System.out.println("Projektimport: projekt " + report.getProjectId() + " med " + report.getTasks() +
+                " tasks og " + report.getSubTasks() + " subtasks på " + report.getElapsedMillis() + " ms");
+        return report;
+    }
+}
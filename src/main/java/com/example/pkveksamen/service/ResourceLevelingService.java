@@ -0,0 +1,266 @@
+package com.example.pkveksamen.service;
+
+import com.example.pkveksamen.model.LevelingJob;
+import com.example.pkveksamen.model.LevelingTask;
+import com.example.pkveksamen.model.TaskShift;
+import com.example.pkveksamen.repository.LevelingJobRepository;
+import com.example.pkveksamen.repository.LevelingRepository;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Ressourceudjævning: flytter tasks i et projekt, så ingen medarbejder har flere end leveling.max-parallel-tasks
+ * tasks kørende samme dag.
+ * <p>
+ * Kun tasks der ikke er startet og ikke har høj prioritet flyttes, og kun inden for deres subprojekts start og
+ * deadline - og aldrig til før i dag. Resten (også medarbejderens tasks i andre projekter) ligger fast.
+ * For hver medarbejder lægges de flytbare tasks én ad gangen, i rækkefølge efter start, på den plads i vinduet
+ * der giver færrest overbelastede dage og, blandt dem, den mindste flytning. Tasks beholder deres længde.
+ * <p>
+ * Beregningen kører som job på en baggrundstråd, som rapporterer fremdrift pr. medarbejder. Resultatet er et
+ * forslag; først {@link #apply} skriver de accepterede flytninger i én batch. Jobs og forslag gemmes i databasen
+ * (se LevelingJobRepository), så enhver node kan vise og gennemføre dem, og slettes efter leveling.job-minutes.
+ */
+@Service
+public class ResourceLevelingService implements DisposableBean {
+
+    private final LevelingRepository levelingRepository;
+    private final LevelingJobRepository levelingJobRepository;
+    private final ChangeOutbox changeOutbox;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxParallelTasks;
+    private final long jobMillis;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "resource-leveling");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ResourceLevelingService(LevelingRepository levelingRepository, LevelingJobRepository levelingJobRepository,
+                                   ChangeOutbox changeOutbox, TransactionTemplate transactionTemplate,
+                                   @Value("${leveling.max-parallel-tasks:1}") int maxParallelTasks,
+                                   @Value("${leveling.job-minutes:30}") long jobMinutes) {
+        this.levelingRepository = levelingRepository;
+        this.levelingJobRepository = levelingJobRepository;
+        this.changeOutbox = changeOutbox;
+        this.transactionTemplate = transactionTemplate;
+        this.maxParallelTasks = Math.max(1, maxParallelTasks);
+        this.jobMillis = jobMinutes * 60_000;
+    }
+
+    // Kører der allerede et job for projektet, returneres det i stedet for at starte et nyt
+    // Et job der er ældre end leveling.job-minutes regnes for glemt, også hvis noden der kørte det gik ned undervejs
+    public synchronized LevelingJob start(long projectId) {
+        levelingJobRepository.deleteJobsCreatedBefore(new Timestamp(System.currentTimeMillis() - jobMillis));
+        LevelingJob running = levelingJobRepository.loadRunningJob(projectId);
+        if (running != null) {
+            return running;
+        }
+
+        LevelingJob job = new LevelingJob(projectId);
+        levelingJobRepository.createJob(job);
+        executor.execute(() -> run(job));
+        return job;
+    }
+
+    // null hvis jobbet ikke findes (eller er glemt)
+    public LevelingJob getJob(String jobId) {
+        return levelingJobRepository.loadJob(jobId);
+    }
+
+    // Beregner forslaget i den kaldende tråd; start() kører det på baggrundstråden
+    public void run(LevelingJob job) {
+        try {
+            level(levelingRepository.loadLevelingTasks(job.getProjectId()), LocalDate.now(), maxParallelTasks, job);
+            job.setState(LevelingJob.State.READY);
+        } catch (RuntimeException e) {
+            job.setMessage(e.getMessage());
+            job.setState(LevelingJob.State.FAILED);
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> levelingJobRepository.saveResult(job));
+        } catch (DataAccessException e) {
+            System.out.println("Udjævningsjob " + job.getJobId() + " kunne ikke gemmes: " + e.getMessage());
+        }
+    }
+
+    // Gennemfører de accepterede flytninger (alle hvis taskIds er null). Tasks der er ændret siden forslaget springes over
+    public LevelingJob apply(String jobId, Collection<Long> taskIds) {
+        LevelingJob job = levelingJobRepository.loadJob(jobId);
+        if (job == null) {
+            throw new IllegalArgumentException("Udjævningsjobbet findes ikke: " + jobId);
+        }
+        if (job.getState() != LevelingJob.State.READY) {
+            throw new IllegalArgumentException("Udjævningsjobbet kan ikke gennemføres i tilstanden " + job.getState());
+        }
+        List<TaskShift> accepted = new ArrayList<>();
+        for (TaskShift shift : job.getShifts()) {
+            if (taskIds == null || taskIds.contains(shift.getTaskId())) {
+                accepted.add(shift);
+            }
+        }
+
+        // Jobbet markeres i samme transaktion som flytningerne; har en anden allerede gennemført det, rulles de tilbage
+        Set<Long> moved = new HashSet<>();
+        Runnable write = () -> {
+            if (!accepted.isEmpty()) {
+                moved.addAll(levelingRepository.updateTaskDates(accepted));
+            }
+            if (!levelingJobRepository.markApplied(jobId, moved.size(), accepted.size() - moved.size())) {
+                throw new IllegalArgumentException("Udjævningsjobbet er allerede gennemført: " + jobId);
+            }
+        };
+        if (accepted.isEmpty()) {
+            write.run();
+        } else {
+            changeOutbox.writeProject(job.getProjectId(), write);
+        }
+        job.setAppliedCount(moved.size());
+        job.setSkippedCount(accepted.size() - moved.size());
+        job.setState(LevelingJob.State.APPLIED);
+        return job;
+    }
+
+    private void level(List<LevelingTask> tasks, LocalDate today, int maxParallel, LevelingJob job) {
+        Map<Integer, List<LevelingTask>> byEmployee = new TreeMap<>();
+        for (LevelingTask task : tasks) {
+            // En task der slutter før den starter optager ingen dage
+            if (!task.getDeadline().isBefore(task.getStartDate())) {
+                byEmployee.computeIfAbsent(task.getEmployeeId(), id -> new ArrayList<>()).add(task);
+            }
+        }
+        job.setEmployeesTotal(byEmployee.size());
+
+        List<TaskShift> shifts = new ArrayList<>();
+        int overloadBefore = 0;
+        int overloadAfter = 0;
+        int done = 0;
+        for (List<LevelingTask> own : byEmployee.values()) {
+            LocalDate origin = own.get(0).getStartDate();
+            LocalDate end = own.get(0).getDeadline();
+            List<LevelingTask> movable = new ArrayList<>();
+            for (LevelingTask task : own) {
+                origin = min(origin, task.getStartDate());
+                end = max(end, task.getDeadline());
+                if (canMove(task, today)) {
+                    movable.add(task);
+                    origin = min(origin, task.getEarliestStart());
+                    end = max(end, task.getLatestDeadline());
+                }
+            }
+
+            // Antal tasks pr. dag fra origin; først de faste, så de flytbare én ad gangen
+            int[] load = new int[(int) ChronoUnit.DAYS.between(origin, end) + 1];
+            int[] original = new int[load.length];
+            for (LevelingTask task : own) {
+                occupy(original, day(origin, task.getStartDate()), length(task));
+                if (!canMove(task, today)) {
+                    occupy(load, day(origin, task.getStartDate()), length(task));
+                }
+            }
+            overloadBefore += overload(original, maxParallel);
+
+            for (LevelingTask task : movable) {
+                int length = length(task);
+                int from = day(origin, task.getStartDate());
+                int first = day(origin, max(task.getEarliestStart(), today));
+                int last = day(origin, task.getLatestDeadline()) - length + 1;
+                int best = first <= from && from <= last ? bestStart(load, first, last, from, length, maxParallel) : from;
+                occupy(load, best, length);
+                if (best != from) {
+                    shifts.add(new TaskShift(task, origin.plusDays(best), origin.plusDays(best + length - 1)));
+                }
+            }
+            overloadAfter += overload(load, maxParallel);
+            int percent = job.getProgressPercent();
+            job.setEmployeesDone(++done);
+            // Fremdriften gemmes kun når procenten ændrer sig, dvs. højst 100 gange pr. job
+            if (job.getProgressPercent() != percent) {
+                levelingJobRepository.saveProgress(job);
+            }
+        }
+
+        job.setShifts(shifts);
+        job.setOverloadDaysBefore(overloadBefore);
+        job.setOverloadDaysAfter(overloadAfter);
+    }
+
+    // Startdagen i [first, last] hvor færrest af taskens dage allerede er fyldt op; ved lighed den mindste
+    // flytning, og en udskydelse frem for en fremrykning. Fyldte dage tælles med en løbende sum over vinduet
+    private static int bestStart(int[] load, int first, int last, int from, int length, int maxParallel) {
+        int[] full = new int[last + length - first + 1];
+        for (int day = first; day < last + length; day++) {
+            full[day - first + 1] = full[day - first] + (load[day] >= maxParallel ? 1 : 0);
+        }
+
+        int best = from;
+        int bestCost = full[from - first + length] - full[from - first];
+        for (int start = first; start <= last; start++) {
+            int cost = full[start - first + length] - full[start - first];
+            int distance = Math.abs(start - from);
+            int bestDistance = Math.abs(best - from);
+            if (cost < bestCost || cost == bestCost
+                    && (distance < bestDistance || distance == bestDistance && start > best)) {
+                best = start;
+                bestCost = cost;
+            }
+        }
+        return best;
+    }
+
+    private static boolean canMove(LevelingTask task, LocalDate today) {
+        return task.isMovable() && task.getEarliestStart() != null && task.getLatestDeadline() != null
+                && !task.getStartDate().isBefore(today);
+    }
+
+    private static void occupy(int[] load, int start, int length) {
+        for (int day = start; day < start + length; day++) {
+            load[day]++;
+        }
+    }
+
+    private static int overload(int[] load, int maxParallel) {
+        int overload = 0;
+        for (int tasks : load) {
+            overload += Math.max(0, tasks - maxParallel);
+        }
+        return overload;
+    }
+
+    private static int length(LevelingTask task) {
+        return (int) ChronoUnit.DAYS.between(task.getStartDate(), task.getDeadline()) + 1;
+    }
+
+    private static int day(LocalDate origin, LocalDate date) {
+        return (int) ChronoUnit.DAYS.between(origin, date);
+    }
+
+    private static LocalDate min(LocalDate a, LocalDate b) {
+        return b.isBefore(a) ? b : a;
+    }
+
+    private static LocalDate max(LocalDate a, LocalDate b) {
+        return b.isAfter(a) ? b : a;
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
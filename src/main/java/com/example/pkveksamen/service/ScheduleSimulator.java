@@ -0,0 +1,278 @@
+package com.example.pkveksamen.service;
+
+import com.example.pkveksamen.model.ScheduleRisk;
+import com.example.pkveksamen.model.Status;
+import com.example.pkveksamen.model.TimelineItem;
+import com.example.pkveksamen.repository.TimelineRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Monte Carlo-simulering af hvornår et projekt og dets subprojekter bliver færdige.
+ * <p>
+ * Hver task får en trekantfordeling af varigheden: den planlagte længde er den mest sandsynlige, og
+ * simulation.optimistic-factor / simulation.pessimistic-factor gange længden er yderpunkterne. Afsluttede tasks
+ * ligger fast, og en åben task bliver tidligst færdig i dag. Begge dele er konstanter pr. subprojekt og regnes
+ * ud én gang, så gennemløbene kun trækker de åbne tasks. Et subprojekt er færdigt når dets sidste task er,
+ * projektet når det sidste subprojekt er.
+ * <p>
+ * Gennemløbene deles med fork/join over alle kerner. Hvert blad får sin egen SplittableRandom, splittet fra
+ * den forrige i fast rækkefølge, så samme seed giver samme resultat uanset trådene. Bladene tæller færdigdagene
+ * i histogrammer, som lægges sammen; percentilerne læses af det samlede histogram.
+ */
+@Service
+public class ScheduleSimulator {
+
+    // Gennemløb pr. fork/join-blad: nok til at opdeling og sammenlægning af histogrammer ikke fylder
+    static final int LEAF_ITERATIONS = 1000;
+
+    private final TimelineRepository timelineRepository;
+    private final double optimisticFactor;
+    private final double pessimisticFactor;
+    private final int defaultIterations;
+    private final int maxIterations;
+
+    public ScheduleSimulator(TimelineRepository timelineRepository,
+                             @Value("${simulation.optimistic-factor:0.8}") double optimisticFactor,
+                             @Value("${simulation.pessimistic-factor:1.75}") double pessimisticFactor,
+                             @Value("${simulation.default-iterations:10000}") int defaultIterations,
+                             @Value("${simulation.max-iterations:200000}") int maxIterations) {
+        this.timelineRepository = timelineRepository;
+        this.optimisticFactor = Math.min(optimisticFactor, 1);
+        this.pessimisticFactor = Math.max(pessimisticFactor, 1);
+        this.defaultIterations = defaultIterations;
+        this.maxIterations = maxIterations;
+    }
+
+    // null hvis projektet ikke findes. Uden seed bliver hvert kald en ny stikprøve
+    public ScheduleRisk simulate(long projectId, Integer iterations, Long seed) {
+        List<TimelineItem> items = timelineRepository.loadProjectTree(projectId);
+        if (items.isEmpty()) {
+            return null;
+        }
+        int runs = iterations == null ? defaultIterations : Math.max(1, Math.min(iterations, maxIterations));
+        return simulate(items, LocalDate.now(), runs, seed != null ? seed : ThreadLocalRandom.current().nextLong());
+    }
+
+    // Træet i den rækkefølge TimelineRepository.loadProjectTree giver det: projektet først, subprojekt før dets tasks
+    public ScheduleRisk simulate(List<TimelineItem> items, LocalDate today, int iterations, long seed) {
+        long started = System.currentTimeMillis();
+        Plan plan = new Plan(items, today, optimisticFactor, pessimisticFactor);
+        int[][] histograms = ForkJoinPool.commonPool()
+                .invoke(new Simulation(plan, iterations, new SplittableRandom(seed)));
+
+        TimelineItem project = items.get(0);
+        List<ScheduleRisk.Forecast> subProjects = new ArrayList<>(plan.groupCount);
+        for (int group = 0; group < plan.groupCount; group++) {
+            subProjects.add(forecast(plan, histograms[group], iterations, plan.groupIds[group], plan.groupNames[group],
+                    plan.groupTasks[group], plan.groupDeadlines[group]));
+        }
+        ScheduleRisk.Forecast total = forecast(plan, histograms[plan.groupCount], iterations, project.getId(),
+                project.getName(), plan.taskCount, project.getDeadline());
+        return new ScheduleRisk(project.getId(), iterations, System.currentTimeMillis() - started,
+                plan.unscheduledTasks, total, subProjects);
+    }
+
+    private static ScheduleRisk.Forecast forecast(Plan plan, int[] histogram, int iterations, long id, String name,
+                                                  int taskCount, LocalDate deadline) {
+        Double onTime = null;
+        if (deadline != null) {
+            int last = (int) ChronoUnit.DAYS.between(plan.origin, deadline);
+            int finished = 0;
+            for (int day = 0; day <= Math.min(last, histogram.length - 1); day++) {
+                finished += histogram[day];
+            }
+            onTime = taskCount == 0 ? 1.0 : Math.round(finished * 1000.0 / iterations) / 1000.0;
+        }
+        if (taskCount == 0) {
+            return new ScheduleRisk.Forecast(id, name, 0, deadline, null, null, null, onTime);
+        }
+        return new ScheduleRisk.Forecast(id, name, taskCount, deadline, percentile(plan, histogram, iterations, 0.50),
+                percentile(plan, histogram, iterations, 0.80), percentile(plan, histogram, iterations, 0.95), onTime);
+    }
+
+    private static LocalDate percentile(Plan plan, int[] histogram, int iterations, double fraction) {
+        long needed = (long) Math.ceil(fraction * iterations);
+        long seen = 0;
+        for (int day = 0; day < histogram.length; day++) {
+            seen += histogram[day];
+            if (seen >= needed) {
+                return plan.origin.plusDays(day);
+            }
+        }
+        return plan.origin.plusDays(histogram.length - 1);
+    }
+
+    // Åbne tasks som flade arrays, grupperet pr. subprojekt, så den inderste løkke kun læser primitiver.
+    // Dage regnes fra origin, og slutninger er eksklusive (dagen efter sidste arbejdsdag)
+    private static final class Plan {
+        final LocalDate origin;
+        final int taskCount;
+        final int unscheduledTasks;
+        final int groupCount;
+        final int horizon;
+        // Trekantfordelingens top som andel af spændet; den samme for alle åbne tasks, da faktorerne er fælles
+        final double mode;
+
+        // Slutning ved korteste varighed, og spændet op til den længste
+        final double[] earliestEnd;
+        final double[] span;
+        // Åbne tasks for subprojekt g ligger i [groupFrom[g], groupFrom[g + 1])
+        final int[] groupFrom;
+        // Afsluttede tasks ligger fast, og åbne bliver tidligst færdige i dag - så de giver en bund pr. subprojekt
+        final double[] groupFloor;
+
+        final long[] groupIds;
+        final String[] groupNames;
+        final LocalDate[] groupDeadlines;
+        final int[] groupTasks;
+
+        Plan(List<TimelineItem> items, LocalDate today, double optimisticFactor, double pessimisticFactor) {
+            List<TimelineItem> subProjects = new ArrayList<>();
+            List<List<TimelineItem>> tasksBySubProject = new ArrayList<>();
+            int unscheduled = 0;
+            int scheduled = 0;
+            LocalDate first = today;
+            for (TimelineItem item : items) {
+                if (item.getKind() == TimelineItem.Kind.SUB_PROJECT) {
+                    subProjects.add(item);
+                    tasksBySubProject.add(new ArrayList<>());
+                } else if (item.getKind() == TimelineItem.Kind.TASK) {
+                    if (item.getStartDate() == null || item.getDeadline() == null
+                            || item.getDeadline().isBefore(item.getStartDate())) {
+                        unscheduled++;
+                        continue;
+                    }
+                    tasksBySubProject.get(tasksBySubProject.size() - 1).add(item);
+                    scheduled++;
+                    if (item.getStartDate().isBefore(first)) {
+                        first = item.getStartDate();
+                    }
+                }
+            }
+
+            origin = first;
+            taskCount = scheduled;
+            unscheduledTasks = unscheduled;
+            groupCount = subProjects.size();
+            mode = pessimisticFactor > optimisticFactor ? (1 - optimisticFactor) / (pessimisticFactor - optimisticFactor) : 0;
+            groupFrom = new int[groupCount + 1];
+            groupFloor = new double[groupCount];
+            groupIds = new long[groupCount];
+            groupNames = new String[groupCount];
+            groupDeadlines = new LocalDate[groupCount];
+            groupTasks = new int[groupCount];
+
+            int todayOffset = (int) ChronoUnit.DAYS.between(origin, today);
+            double[] ends = new double[scheduled];
+            double[] spans = new double[scheduled];
+            double latest = todayOffset + 1;
+            int open = 0;
+            for (int g = 0; g < groupCount; g++) {
+                groupIds[g] = subProjects.get(g).getId();
+                groupNames[g] = subProjects.get(g).getName();
+                groupDeadlines[g] = subProjects.get(g).getDeadline();
+                groupTasks[g] = tasksBySubProject.get(g).size();
+                groupFrom[g] = open;
+
+                for (TimelineItem task : tasksBySubProject.get(g)) {
+                    double length = ChronoUnit.DAYS.between(task.getStartDate(), task.getDeadline()) + 1;
+                    int startOffset = (int) ChronoUnit.DAYS.between(origin, task.getStartDate());
+                    if (task.getStatus() == Status.COMPLETED) {
+                        groupFloor[g] = Math.max(groupFloor[g], startOffset + length);
+                        continue;
+                    }
+                    // En task der skulle være startet men ikke er, starter tidligst i dag
+                    int start = task.getStatus() == Status.NOT_STARTED ? Math.max(startOffset, todayOffset) : startOffset;
+                    ends[open] = start + length * optimisticFactor;
+                    spans[open] = length * (pessimisticFactor - optimisticFactor);
+                    groupFloor[g] = Math.max(groupFloor[g], todayOffset + 1);
+                    latest = Math.max(latest, ends[open] + spans[open]);
+                    open++;
+                }
+                latest = Math.max(latest, groupFloor[g]);
+            }
+            groupFrom[groupCount] = open;
+            earliestEnd = Arrays.copyOf(ends, open);
+            span = Arrays.copyOf(spans, open);
+            horizon = (int) Math.ceil(latest) + 1;
+        }
+    }
+
+    // Deler gennemløbene i to indtil der højst er LEAF_ITERATIONS tilbage; returnerer et histogram pr. subprojekt
+    // plus et for projektet (sidste række)
+    private static final class Simulation extends RecursiveTask<int[][]> {
+        private final Plan plan;
+        private final int iterations;
+        private final SplittableRandom random;
+
+        Simulation(Plan plan, int iterations, SplittableRandom random) {
+            this.plan = plan;
+            this.iterations = iterations;
+            this.random = random;
+        }
+
+        @Override
+        protected int[][] compute() {
+            if (iterations > LEAF_ITERATIONS) {
+                int half = iterations / 2;
+                Simulation left = new Simulation(plan, half, random.split());
+                Simulation right = new Simulation(plan, iterations - half, random);
+                left.fork();
+                int[][] merged = right.compute();
+                int[][] other = left.join();
+                for (int row = 0; row < merged.length; row++) {
+                    for (int day = 0; day < merged[row].length; day++) {
+                        merged[row][day] += other[row][day];
+                    }
+                }
+                return merged;
+            }
+            return run();
+        }
+
+        private int[][] run() {
+            Plan p = plan;
+            int[][] histograms = new int[p.groupCount + 1][p.horizon];
+            double low = 1 - p.mode;
+            double high = p.mode;
+            for (int iteration = 0; iteration < iterations; iteration++) {
+                double projectEnd = 0;
+                for (int g = 0; g < p.groupCount; g++) {
+                    if (p.groupTasks[g] == 0) {
+                        continue;
+                    }
+                    double groupEnd = p.groupFloor[g];
+                    for (int i = p.groupFrom[g]; i < p.groupFrom[g + 1]; i++) {
+                        // Trekantfordeling på [0, 1] med top i mode, uden kvadratrod: (1 - c) * min + c * max af to uniforme
+                        double u = random.nextDouble();
+                        double v = random.nextDouble();
+                        double end = p.earliestEnd[i] + p.span[i] * (low * Math.min(u, v) + high * Math.max(u, v));
+                        groupEnd = Math.max(groupEnd, end);
+                    }
+                    histograms[g][lastDay(groupEnd, p.horizon)]++;
+                    projectEnd = Math.max(projectEnd, groupEnd);
+                }
+                if (p.taskCount > 0) {
+                    histograms[p.groupCount][lastDay(projectEnd, p.horizon)]++;
+                }
+            }
+            return histograms;
+        }
+
+        // end er eksklusiv (dagen efter sidste arbejdsdag)
+        private static int lastDay(double end, int horizon) {
+            return Math.max(0, Math.min((int) Math.ceil(end) - 1, horizon - 1));
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.pkveksamen.service;
+
+import com.example.pkveksamen.model.EmployeeRole;
+import com.example.pkveksamen.model.SessionToken;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+
+/**
+ * Login uden HttpSession: efter login får browseren et kort token med medarbejder-id, rolle og udløbstid,
+ * signeret med HMAC-SHA256. Tokenet verificeres alene med nøglen - uden database- eller sessionsopslag -
+ * så flere app-noder bag en almindelig round-robin load balancer kan tage imod de samme brugere.
+ * <p>
+ * Format: base64url("employeeId.ROLLE.udløb") + "." + base64url(hmac). Alle noder skal have samme auth.token-secret;
+ * er den tom, laves en tilfældig nøgle ved opstart, og tokens gælder så kun på denne node indtil genstart.
+ */
+@Service
+public class SessionTokenService {
+
+    public static final String COOKIE_NAME = "PCT_AUTH";
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SecretKeySpec key;
+    private final long ttlSeconds;
+    private final boolean secureCookie;
+    private final ThreadLocal<Mac> mac;
+
+    public SessionTokenService(@Value("${auth.token-secret:}") String secret,
+                               @Value("${auth.token-ttl-minutes:480}") long ttlMinutes,
+                               @Value("${auth.cookie-secure:false}") boolean secureCookie) {
+        byte[] keyBytes;
+        if (secret == null || secret.isBlank()) {
+            keyBytes = new byte[32];
+            new SecureRandom().nextBytes(keyBytes);
+            System.out.println("auth.token-secret er ikke sat - login-tokens gælder kun på denne node indtil genstart");
+        } else {
+            keyBytes = secret.getBytes(StandardCharsets.UTF_8);
+        }
+        this.key = new SecretKeySpec(keyBytes, "HmacSHA256");
+        this.ttlSeconds = ttlMinutes * 60;
+        this.secureCookie = secureCookie;
+        this.mac = ThreadLocal.withInitial(() -> {
+            try {
+                Mac instance = Mac.getInstance("HmacSHA256");
+                instance.init(key);
+                return instance;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HmacSHA256 er ikke tilgængelig", e);
+            }
+        });
+    }
+
+    public String issue(int employeeId, EmployeeRole role) {
+        long expiresAt = System.currentTimeMillis() / 1000 + ttlSeconds;
+        String payload = employeeId + "." + (role == null ? "" : role.name()) + "." + expiresAt;
+        byte[] payloadBytes = payload.getBytes(StandardCharsets.UTF_8);
+        return ENCODER.encodeToString(payloadBytes) + "." + ENCODER.encodeToString(sign(payloadBytes));
+    }
+
+    // null hvis tokenet mangler, er forfalsket, ikke kan læses eller er udløbet
+    public SessionToken verify(String token) {
+        if (token == null) {
+            return null;
+        }
+        int dot = token.indexOf('.');
+        if (dot < 0) {
+            return null;
+        }
+        try {
+            byte[] payloadBytes = DECODER.decode(token.substring(0, dot));
+            byte[] signature = DECODER.decode(token.substring(dot + 1));
+            if (!MessageDigest.isEqual(sign(payloadBytes), signature)) {
+                return null;
+            }
+            String[] parts = new String(payloadBytes, StandardCharsets.UTF_8).split("\\.", -1);
+            long expiresAt = Long.parseLong(parts[2]);
+            if (System.currentTimeMillis() / 1000 >= expiresAt) {
+                return null;
+            }
+            EmployeeRole role = parts[1].isEmpty() ? null : EmployeeRole.valueOf(parts[1]);
+            return new SessionToken(Integer.parseInt(parts[0]), role, expiresAt);
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            return null;
+        }
+    }
+
+    // Tokenet fra cookien eller, for API-klienter, fra "Authorization: Bearer ..."
+    public SessionToken verify(HttpServletRequest request) {
+        String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (authorization != null && authorization.startsWith("Bearer ")) {
+            return verify(authorization.substring("Bearer ".length()).trim());
+        }
+        Cookie[] cookies = request.getCookies();
+        if (cookies != null) {
+            for (Cookie cookie : cookies) {
+                if (COOKIE_NAME.equals(cookie.getName())) {
+                    return verify(cookie.getValue());
+                }
+            }
+        }
+        return null;
+    }
+
+    // Mindre end halvdelen af levetiden tilbage: tokenet fornyes, så aktive brugere ikke bliver logget ud
+    public boolean shouldRenew(SessionToken token) {
+        return token.getExpiresAt() - System.currentTimeMillis() / 1000 < ttlSeconds / 2;
+    }
+
+    public void writeCookie(HttpServletResponse response, int employeeId, EmployeeRole role) {
+        addCookie(response, issue(employeeId, role), Duration.ofSeconds(ttlSeconds));
+    }
+
+    public void clearCookie(HttpServletResponse response) {
+        addCookie(response, "", Duration.ZERO);
+    }
+
+    private void addCookie(HttpServletResponse response, String value, Duration maxAge) {
+        ResponseCookie cookie = ResponseCookie.from(COOKIE_NAME, value)
+                .httpOnly(true)
+                .secure(secureCookie)
+                .sameSite("Lax")
+                .path("/")
+                .maxAge(maxAge)
+                .build();
+        response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+    }
+
+    private byte[] sign(byte[] payload) {
+        return mac.get().doFinal(payload);
+    }
+}
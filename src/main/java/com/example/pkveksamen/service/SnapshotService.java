@@ -0,0 +1,96 @@
+package com.example.pkveksamen.service;
+
+import com.example.pkveksamen.model.BurndownPoint;
+import com.example.pkveksamen.model.EarnedValuePoint;
+import com.example.pkveksamen.model.ProjectSnapshot;
+import com.example.pkveksamen.repository.SnapshotRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Daglige snapshots af projekternes fremdrift til burndown- og earned value-grafer.
+ * <p>
+ * Hver dag skrives én række pr. subprojekt og én pr. projekt (sub_project_id 0) med antal tasks og task-dage
+ * pr. status, og hvor meget der efter deadlines skulle være færdigt. Graferne læser kun project_snapshot,
+ * så de koster det samme uanset hvor store task-tabellerne er. Tages samme dag igen, erstattes dens rækker.
+ */
+@Service
+public class SnapshotService {
+
+    static final int DEFAULT_DAYS = 90;
+    static final int MAX_DAYS = 731;
+
+    private final SnapshotRepository snapshotRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public SnapshotService(SnapshotRepository snapshotRepository, TransactionTemplate transactionTemplate) {
+        this.snapshotRepository = snapshotRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    // Returnerer antal skrevne rækker; 0 hvis en anden node nåede at skrive dagen samtidig
+    public int takeSnapshot(LocalDate date) {
+        try {
+            Integer rows = transactionTemplate.execute(status -> {
+                snapshotRepository.deleteSnapshots(date);
+                return snapshotRepository.insertSnapshots(date);
+            });
+            return rows == null ? 0 : rows;
+        } catch (DuplicateKeyException e) {
+            System.out.println("Snapshot for " + date + " blev skrevet af en anden node");
+            return 0;
+        }
+    }
+
+    // Starter appen efter aftenens kørsel (eller første gang), tages dagens snapshot med det samme
+    @EventListener(ApplicationReadyEvent.class)
+    public void takeMissingSnapshot() {
+        try {
+            LocalDate today = LocalDate.now();
+            if (!snapshotRepository.isSnapshotTaken(today)) {
+                System.out.println("Snapshot for " + today + " skrev " + takeSnapshot(today) + " rækker");
+            }
+        } catch (DataAccessException | TransactionException e) {
+            System.out.println("Snapshot blev ikke taget ved opstart: " + e.getMessage());
+        }
+    }
+
+    public List<BurndownPoint> getBurndown(long projectId, Long subProjectId, LocalDate from, LocalDate to) {
+        List<BurndownPoint> points = new ArrayList<>();
+        for (ProjectSnapshot snapshot : findSnapshots(projectId, subProjectId, from, to)) {
+            points.add(new BurndownPoint(snapshot));
+        }
+        return points;
+    }
+
+    public List<EarnedValuePoint> getEarnedValue(long projectId, Long subProjectId, LocalDate from, LocalDate to) {
+        List<EarnedValuePoint> points = new ArrayList<>();
+        for (ProjectSnapshot snapshot : findSnapshots(projectId, subProjectId, from, to)) {
+            points.add(new EarnedValuePoint(snapshot));
+        }
+        return points;
+    }
+
+    // Uden interval vises de sidste 90 dage; højst to år pr. kald
+    private List<ProjectSnapshot> findSnapshots(long projectId, Long subProjectId, LocalDate from, LocalDate to) {
+        LocalDate end = to == null ? LocalDate.now() : to;
+        LocalDate start = from == null ? end.minusDays(DEFAULT_DAYS - 1) : from;
+        if (start.isAfter(end)) {
+            throw new IllegalArgumentException("'from' skal ligge før 'to'");
+        }
+        if (ChronoUnit.DAYS.between(start, end) >= MAX_DAYS) {
+            throw new IllegalArgumentException("Intervallet må højst være " + MAX_DAYS + " dage");
+        }
+        return snapshotRepository.findSnapshots(projectId, subProjectId == null ? 0 : subProjectId, start, end);
+    }
+}
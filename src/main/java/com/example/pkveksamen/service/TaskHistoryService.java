@@ -0,0 +1,162 @@
+package com.example.pkveksamen.service;
+
+import com.example.pkveksamen.model.ChangeEvent;
+import com.example.pkveksamen.model.EmployeeSuggestion;
+import com.example.pkveksamen.model.ProjectHistory;
+import com.example.pkveksamen.model.SubProject;
+import com.example.pkveksamen.model.TaskHistoryEntry;
+import com.example.pkveksamen.model.WorkItem;
+import com.example.pkveksamen.repository.ProjectRepository;
+import com.example.pkveksamen.repository.TaskHistoryRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Historik over tasks og subtasks, og projektet som det så ud på et givent tidspunkt.
+ * <p>
+ * ChangeOutbox kalder {@link #recordDeletion} før og {@link #apply} efter hver skrivning, i samme transaktion,
+ * så task_history altid svarer til det der blev committet. Historikken er append-only: en ændring skrives som
+ * en ny række med hele tilstanden, og {@link #getProjectAsOf} genafspiller rækkerne op til tidspunktet og
+ * beholder den seneste tilstand pr. task og subtask.
+ */
+@Service
+public class TaskHistoryService {
+
+    private final TaskHistoryRepository taskHistoryRepository;
+    private final ProjectRepository projectRepository;
+    private final EmployeeDirectory employeeDirectory;
+    private final TransactionTemplate transactionTemplate;
+
+    public TaskHistoryService(TaskHistoryRepository taskHistoryRepository, ProjectRepository projectRepository,
+                              EmployeeDirectory employeeDirectory, TransactionTemplate transactionTemplate) {
+        this.taskHistoryRepository = taskHistoryRepository;
+        this.projectRepository = projectRepository;
+        this.employeeDirectory = employeeDirectory;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    // Kaldes inde i skrivningens transaktion før ændringen, mens de slettede rækker stadig kan læses
+    public void recordDeletion(ChangeEvent.Type type, long entityId) {
+        LocalDateTime now = now();
+        switch (type) {
+            case TASK_DELETED -> taskHistoryRepository.recordTaskDeletion(entityId, now);
+            case SUB_TASK_DELETED -> taskHistoryRepository.recordSubTaskDeletion(entityId, now);
+            case SUB_PROJECT_DELETED -> taskHistoryRepository.recordSubProjectDeletion(entityId, now);
+            default -> {
+                // Et slettet projekt tager sin historik med (se ProjectDeletionService)
+            }
+        }
+    }
+
+    // Kaldes inde i skrivningens transaktion efter ændringen (se ChangeOutbox.write)
+    public void apply(ChangeEvent.Type type, long entityId) {
+        LocalDateTime now = now();
+        switch (type) {
+            case SUB_PROJECT_CHANGED -> taskHistoryRepository.recordSubProject(entityId, now);
+            case TASK_CHANGED -> taskHistoryRepository.recordTask(entityId, now);
+            case SUB_TASK_CHANGED -> taskHistoryRepository.recordSubTask(entityId, now);
+            default -> {
+                // Projekter, medlemmer og noter indgår ikke i historikken
+            }
+        }
+    }
+
+    public void recordProject(long projectId) {
+        taskHistoryRepository.recordProject(projectId, now());
+    }
+
+    // Udgangspunkt for tasks der er skrevet uden om ChangeOutbox, fx af datageneratoren
+    public int recordAll() {
+        Integer rows = transactionTemplate.execute(status -> taskHistoryRepository.recordAll(now()));
+        return rows == null ? 0 : rows;
+    }
+
+    // Første opstart efter task_history er tilføjet. Kan databasen ikke nås, springes det over
+    @EventListener(ApplicationReadyEvent.class)
+    public void fillIfEmpty() {
+        try {
+            if (taskHistoryRepository.isMissingRows()) {
+                System.out.println("task_history startet med " + recordAll() + " rækker");
+            }
+        } catch (DataAccessException | TransactionException e) {
+            System.out.println("task_history blev ikke kontrolleret ved opstart: " + e.getMessage());
+        }
+    }
+
+    public List<TaskHistoryEntry> getTaskHistory(long taskId) {
+        List<TaskHistoryEntry> entries = taskHistoryRepository.findByTaskId(taskId);
+        addUsernames(entries);
+        return entries;
+    }
+
+    public ProjectHistory getProjectAsOf(long projectId, LocalDateTime asOf) {
+        long started = System.currentTimeMillis();
+        // Genafspilningen husker kun den seneste række pr. task og subtask (højeste history_id, negativ hvis den
+        // var en sletning); de rækker der overlever hentes bagefter
+        Map<Long, Long> tasks = new HashMap<>();
+        Map<Long, Long> subTasks = new HashMap<>();
+        int[] replayed = {0};
+
+        taskHistoryRepository.replayProject(projectId, asOf, rs -> {
+            replayed[0]++;
+            long historyId = rs.getLong(1);
+            Map<Long, Long> latest = "SUB_TASK".equals(rs.getString(2)) ? subTasks : tasks;
+            long state = "DELETED".equals(rs.getString(4)) ? -historyId : historyId;
+            latest.merge(rs.getLong(3), state, (current, next) -> Math.abs(next) > Math.abs(current) ? next : current);
+        });
+
+        Set<Long> historyIds = new HashSet<>();
+        for (Map<Long, Long> latest : List.of(tasks, subTasks)) {
+            for (long state : latest.values()) {
+                if (state > 0) {
+                    historyIds.add(state);
+                }
+            }
+        }
+        List<TaskHistoryEntry> items = taskHistoryRepository.findReplayed(projectId, asOf, historyIds);
+        // Pr. subprojekt, hver task efterfulgt af sine subtasks
+        items.sort(Comparator.comparingLong(TaskHistoryEntry::getSubProjectId)
+                .thenComparingLong(TaskHistoryEntry::getTaskId)
+                .thenComparing(TaskHistoryEntry::getType)
+                .thenComparingLong(TaskHistoryEntry::getItemId));
+
+        Map<Long, String> subProjectTitles = new HashMap<>();
+        for (SubProject subProject : projectRepository.showSubProjectsByProjectId(projectId)) {
+            subProjectTitles.put(subProject.getSubProjectID(), subProject.getSubProjectName());
+        }
+        for (TaskHistoryEntry item : items) {
+            item.setSubProjectTitle(subProjectTitles.getOrDefault(item.getSubProjectId(), "#" + item.getSubProjectId()));
+        }
+        addUsernames(items);
+
+        return new ProjectHistory(projectId, asOf, taskHistoryRepository.findFirstChange(projectId), replayed[0],
+                System.currentTimeMillis() - started, items);
+    }
+
+    // Hele sekunder, så tidspunkterne er de samme i MySQL (TIMESTAMP uden brøkdele) og H2
+    private static LocalDateTime now() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+    }
+
+    private void addUsernames(List<TaskHistoryEntry> entries) {
+        for (TaskHistoryEntry entry : entries) {
+            if (entry.getEmployeeId() != null && entry.getType() == WorkItem.Type.TASK) {
+                EmployeeSuggestion employee = employeeDirectory.get(entry.getEmployeeId());
+                entry.setUsername(employee == null ? null : employee.getUsername());
+            }
+        }
+    }
+}
@@ -1,36 +1,48 @@
 
 package com.example.pkveksamen.service;
 
+import com.example.pkveksamen.model.AlphaRole;
+import com.example.pkveksamen.model.ChangeEvent;
 import com.example.pkveksamen.model.Priority;
 import com.example.pkveksamen.model.Status;
 import com.example.pkveksamen.model.SubTask;
 import com.example.pkveksamen.model.Task;
+import com.example.pkveksamen.model.TaskFilter;
 import com.example.pkveksamen.repository.EmployeeRepository;
+import com.example.pkveksamen.repository.StreamingRows;
 import com.example.pkveksamen.repository.TaskRepository;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class TaskService {
 
     private final TaskRepository taskRepository;
     private final EmployeeRepository employeeRepository;
+    private final ChangeOutbox changeOutbox;
+    private final NoteChangeTracker noteChangeTracker;
 
-    public TaskService(TaskRepository taskRepository, EmployeeRepository employeeRepository) {
+    public TaskService(TaskRepository taskRepository, EmployeeRepository employeeRepository, ChangeOutbox changeOutbox,
+                       NoteChangeTracker noteChangeTracker) {
         this.taskRepository = taskRepository;
         this.employeeRepository = employeeRepository;
+        this.changeOutbox = changeOutbox;
+        this.noteChangeTracker = noteChangeTracker;
     }
 
+    // Alle skrivninger går gennem changeOutbox, så de andre app-noder får besked om ændringen
     public void createTask(Integer employeeId, long subProjectId, String taskName, String taskDescription
             , Status status, LocalDate startDate, LocalDate endDate, int taskDuration, Priority priority, String taskNote) {
-        taskRepository.createTask( employeeId, subProjectId, taskName, taskDescription, status,
-                startDate, endDate, taskDuration, priority, taskNote);
+        changeOutbox.write(ChangeEvent.Type.SUB_PROJECT_CHANGED, subProjectId, () ->
+                taskRepository.createTask( employeeId, subProjectId, taskName, taskDescription, status,
+                        startDate, endDate, taskDuration, priority, taskNote));
     }
 
-    public List<Task> showTaskByEmployeeId(int employeeId) {
-        List<Task> tasks = taskRepository.showTaskByEmployeeId(employeeId);
+    public List<Task> showTaskByEmployeeId(int employeeId, TaskFilter filter) {
+        List<Task> tasks = taskRepository.showTaskByEmployeeId(employeeId, filter);
         for (Task task : tasks) {
             if (task.getAssignedEmployee() != null) {
                 task.getAssignedEmployee().setAlphaRoles(employeeRepository.findAlphaRolesByEmployeeId(task.getAssignedEmployee().getEmployeeId()));
@@ -39,8 +51,8 @@ public class TaskService {
         return tasks;
     }
 
-    public List<Task> showTasksBySubProjectId(long subProjectId) {
-        List<Task> tasks = taskRepository.showTasksBySubProjectId(subProjectId);
+    public List<Task> showTasksBySubProjectId(long subProjectId, TaskFilter filter) {
+        List<Task> tasks = taskRepository.showTasksBySubProjectId(subProjectId, filter);
         for (Task task : tasks) {
             if (task.getAssignedEmployee() != null) {
                 task.getAssignedEmployee().setAlphaRoles(employeeRepository.findAlphaRolesByEmployeeId(task.getAssignedEmployee().getEmployeeId()));
@@ -49,18 +61,42 @@ public class TaskService {
         return tasks;
     }
 
+    // Medarbejderens egne tasks: alle har samme assignee, så dens alphaRoles hentes én gang
+    public StreamingRows<Task> streamTasksByEmployeeId(int employeeId, TaskFilter filter) {
+        Map<Integer, List<AlphaRole>> alphaRoles = Map.of(employeeId, employeeRepository.findAlphaRolesByEmployeeId(employeeId));
+        return withAlphaRoles(taskRepository.streamTasksByEmployeeId(employeeId, filter), alphaRoles);
+    }
+
+    public StreamingRows<Task> streamTasksBySubProjectId(long subProjectId, TaskFilter filter) {
+        Map<Integer, List<AlphaRole>> alphaRoles = employeeRepository.findAlphaRolesForSubProjectAssignees(subProjectId);
+        return withAlphaRoles(taskRepository.streamTasksBySubProjectId(subProjectId, filter), alphaRoles);
+    }
+
+    // alphaRoles er hentet før strømmen åbnes: et opslag undervejs skulle bruge en forbindelse mere mens den
+    // streamende ResultSet holder sin, og ved mange samtidige lister ville puljen løbe tør
+    private static StreamingRows<Task> withAlphaRoles(StreamingRows<Task> tasks, Map<Integer, List<AlphaRole>> alphaRoles) {
+        return tasks.map(task -> {
+            if (task.getAssignedEmployee() != null) {
+                task.getAssignedEmployee().setAlphaRoles(
+                        alphaRoles.getOrDefault(task.getAssignedEmployee().getEmployeeId(), List.of()));
+            }
+            return task;
+        });
+    }
+
     public void saveTask(Task task, int employeeId, long projectId, long subProjectId) {
         task.setTaskDuration(task.getTaskDuration()); // bare for sikkerhed
         task.recalculateDuration();
-        taskRepository.saveTask(task, employeeId, projectId, subProjectId);
+        changeOutbox.write(ChangeEvent.Type.SUB_PROJECT_CHANGED, subProjectId,
+                () -> taskRepository.saveTask(task, employeeId, projectId, subProjectId));
     }
 
     public void deleteTask(long taskId) {
-        taskRepository.deleteTask(taskId);
+        changeOutbox.write(ChangeEvent.Type.TASK_DELETED, taskId, () -> taskRepository.deleteTask(taskId));
     }
 
     public void editTask(Task task) {
-        taskRepository.editTask(task);
+        changeOutbox.write(ChangeEvent.Type.TASK_CHANGED, task.getTaskID(), () -> taskRepository.editTask(task));
     }
 
     public Task getTaskById(long taskId) {
@@ -71,12 +107,13 @@ public class TaskService {
     public void createSubTask(long taskId, String subTaskName, String subTaskDescription,
                               String subTaskStatus, LocalDate subTaskStartDate, LocalDate subTaskEndDate,
                               int subTaskDuration, String subTaskPriority, String subTaskNote) {
-        taskRepository.createSubTask(taskId, subTaskName, subTaskDescription, subTaskStatus,
-                subTaskStartDate, subTaskEndDate, subTaskDuration, subTaskPriority, subTaskNote);
+        changeOutbox.write(ChangeEvent.Type.TASK_CHANGED, taskId, () ->
+                taskRepository.createSubTask(taskId, subTaskName, subTaskDescription, subTaskStatus,
+                        subTaskStartDate, subTaskEndDate, subTaskDuration, subTaskPriority, subTaskNote));
     }
 
     public void saveSubTask(SubTask subTask, long subTaskId) {
-        taskRepository.saveSubTask(subTask, subTaskId);
+        changeOutbox.write(ChangeEvent.Type.SUB_TASK_CHANGED, subTaskId, () -> taskRepository.saveSubTask(subTask, subTaskId));
     }
 
     public List<SubTask> showSubTasksByTaskId(long taskId) {
@@ -84,35 +121,43 @@ public class TaskService {
     }
 
     public void deleteSubTask(long subTaskId) {
-        taskRepository.deleteSubTask(subTaskId);
+        changeOutbox.write(ChangeEvent.Type.SUB_TASK_DELETED, subTaskId, () -> taskRepository.deleteSubTask(subTaskId));
     }
 
+    // Noten markeres med det samme på denne node; de andre noder får den via outboxen
     public void updateTaskNote(long taskId, String taskNote) {
-        taskRepository.updateTaskNote(taskId, taskNote);
+        changeOutbox.write(ChangeEvent.Type.TASK_NOTE_CHANGED, taskId, () -> taskRepository.updateTaskNote(taskId, taskNote));
+        noteChangeTracker.markTaskNote(taskId);
     }
 
     public void updateTaskStatus(long taskId, Status status) {
-        taskRepository.updateTaskStatus(taskId, status.getDisplayName());
+        changeOutbox.write(ChangeEvent.Type.TASK_CHANGED, taskId,
+                () -> taskRepository.updateTaskStatus(taskId, status.getDisplayName()));
     }
 
     public void updateTaskPriority(long taskId, Priority priority) {
-        taskRepository.updateTaskPriority(taskId, priority.getDisplayName());
+        changeOutbox.write(ChangeEvent.Type.TASK_CHANGED, taskId,
+                () -> taskRepository.updateTaskPriority(taskId, priority.getDisplayName()));
     }
 
     public void updateSubTaskStatus(long subTaskId, Status status) {
-        taskRepository.updateSubTaskStatus(subTaskId, status.getDisplayName());
+        changeOutbox.write(ChangeEvent.Type.SUB_TASK_CHANGED, subTaskId,
+                () -> taskRepository.updateSubTaskStatus(subTaskId, status.getDisplayName()));
     }
 
     public void updateSubTaskNote(long subTaskId, String subTaskNote) {
-        taskRepository.updateSubTaskNote(subTaskId, subTaskNote);
+        changeOutbox.write(ChangeEvent.Type.SUB_TASK_NOTE_CHANGED, subTaskId,
+                () -> taskRepository.updateSubTaskNote(subTaskId, subTaskNote));
+        noteChangeTracker.markSubTaskNote(subTaskId);
     }
 
     public void updateSubTaskPriority(long subTaskId, Priority priority) {
-        taskRepository.updateSubTaskPriority(subTaskId, priority.getDisplayName());
+        changeOutbox.write(ChangeEvent.Type.SUB_TASK_CHANGED, subTaskId,
+                () -> taskRepository.updateSubTaskPriority(subTaskId, priority.getDisplayName()));
     }
 
     public void editSubTask(SubTask subTask) {
-        taskRepository.editSubTask(subTask);
+        changeOutbox.write(ChangeEvent.Type.SUB_TASK_CHANGED, subTask.getSubTaskId(), () -> taskRepository.editSubTask(subTask));
     }
 
     public SubTask getSubTaskById(long subTaskId) {
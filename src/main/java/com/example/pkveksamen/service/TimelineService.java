@@ -0,0 +1,183 @@
+package com.example.pkveksamen.service;
+
+import com.example.pkveksamen.model.ChangeEvent;
+import com.example.pkveksamen.model.TimelineItem;
+import com.example.pkveksamen.model.TimelineLayout;
+import com.example.pkveksamen.repository.TimelineRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bygger Gantt-layoutet for et projekt på serveren, så klienten kun skal tegne bjælkerne.
+ * <p>
+ * Træet læses med én forespørgsel og lægges ud i ét gennemløb: hver bjælke får start og længde i dage
+ * fra projektets start, og søskende pakkes i så få baner som muligt. Layoutet caches pr. projekt og smides
+ * ud når outboxen melder en ændring i en af dets rækker (se ChangeEvent), så alle noder følger med.
+ * timeline.cache-seconds er et sikkerhedsnet for ændringer der ikke går gennem outboxen (datageneratoren).
+ */
+@Service
+public class TimelineService {
+
+    private static final class Cached {
+        final TimelineLayout layout;
+        final long builtAt;
+
+        Cached(TimelineLayout layout, long builtAt) {
+            this.layout = layout;
+            this.builtAt = builtAt;
+        }
+    }
+
+    private final TimelineRepository timelineRepository;
+    private final long maxAgeMillis;
+    private final int maxProjects;
+    private final Map<Long, Cached> cache = new ConcurrentHashMap<>();
+    // Tælles op ved hver ændring, så et layout bygget før ændringen ikke lægges i cachen bagefter
+    private final AtomicLong generation = new AtomicLong();
+
+    public TimelineService(TimelineRepository timelineRepository,
+                           @Value("${timeline.cache-seconds:300}") long cacheSeconds,
+                           @Value("${timeline.cache-size:200}") int maxProjects) {
+        this.timelineRepository = timelineRepository;
+        this.maxAgeMillis = cacheSeconds * 1000;
+        this.maxProjects = maxProjects;
+    }
+
+    // null hvis projektet ikke findes
+    public TimelineLayout getTimeline(long projectId) {
+        Cached cached = cache.get(projectId);
+        if (cached != null && System.currentTimeMillis() - cached.builtAt < maxAgeMillis) {
+            return cached.layout;
+        }
+
+        long builtFrom = generation.get();
+        List<TimelineItem> items = timelineRepository.loadProjectTree(projectId);
+        if (items.isEmpty()) {
+            cache.remove(projectId);
+            return null;
+        }
+        TimelineLayout layout = layout(projectId, items);
+        if (builtFrom == generation.get()) {
+            if (cache.size() >= maxProjects && !cache.containsKey(projectId)) {
+                cache.keySet().stream().findAny().ifPresent(cache::remove);
+            }
+            cache.put(projectId, new Cached(layout, System.currentTimeMillis()));
+        }
+        return layout;
+    }
+
+    @EventListener
+    public void onChange(ChangeEvent event) {
+        generation.incrementAndGet();
+        cache.values().removeIf(cached -> cached.layout.isAffectedBy(event));
+    }
+
+    static TimelineLayout layout(long projectId, List<TimelineItem> items) {
+        LocalDate origin = items.get(0).getStartDate();
+        if (origin == null) {
+            origin = items.stream().map(TimelineItem::getStartDate).filter(date -> date != null)
+                    .min(Comparator.naturalOrder()).orElse(null);
+        }
+
+        List<TimelineLayout.Bar> rows = new ArrayList<>(items.size());
+        Map<Integer, List<Integer>> children = new HashMap<>();
+        int[] parentAtDepth = new int[TimelineItem.Kind.values().length];
+        Set<Long> subProjectIds = new HashSet<>();
+        Set<Long> taskIds = new HashSet<>();
+        Set<Long> subTaskIds = new HashSet<>();
+        int totalDays = 0;
+
+        for (TimelineItem item : items) {
+            int depth = item.getKind().ordinal();
+            int parent = depth == 0 ? -1 : parentAtDepth[depth - 1];
+            Integer start = null;
+            Integer days = null;
+            if (origin != null && item.getStartDate() != null) {
+                start = (int) ChronoUnit.DAYS.between(origin, item.getStartDate());
+                days = item.getDeadline() == null || item.getDeadline().isBefore(item.getStartDate())
+                        ? 1 : (int) ChronoUnit.DAYS.between(item.getStartDate(), item.getDeadline()) + 1;
+                totalDays = Math.max(totalDays, start + days);
+            }
+
+            int row = rows.size();
+            rows.add(new TimelineLayout.Bar(item.getKind(), item.getId(), parent, depth, item.getName(),
+                    item.getStatus(), start, days));
+            parentAtDepth[depth] = row;
+            if (parent >= 0) {
+                children.computeIfAbsent(parent, key -> new ArrayList<>()).add(row);
+            }
+            switch (item.getKind()) {
+                case SUB_PROJECT -> subProjectIds.add(item.getId());
+                case TASK -> taskIds.add(item.getId());
+                case SUB_TASK -> subTaskIds.add(item.getId());
+                default -> {
+                }
+            }
+        }
+
+        children.forEach((parent, siblings) -> rows.get(parent).setLanes(assignLanes(rows, siblings)));
+        return new TimelineLayout(projectId, origin, totalDays, rows, version(origin, rows),
+                subProjectIds, taskIds, subTaskIds);
+    }
+
+    // Grådig intervalpakning: tidligste start først, i den laveste bane der er blevet fri.
+    // Bjælker uden datoer får hver deres bane til sidst. Returnerer antal baner.
+    private static int assignLanes(List<TimelineLayout.Bar> rows, List<Integer> siblings) {
+        List<TimelineLayout.Bar> scheduled = new ArrayList<>();
+        List<TimelineLayout.Bar> unscheduled = new ArrayList<>();
+        for (int row : siblings) {
+            TimelineLayout.Bar bar = rows.get(row);
+            (bar.getStart() != null ? scheduled : unscheduled).add(bar);
+        }
+        scheduled.sort(Comparator.comparingInt(TimelineLayout.Bar::getStart).thenComparingLong(TimelineLayout.Bar::getId));
+
+        PriorityQueue<int[]> busy = new PriorityQueue<>(Comparator.comparingInt((int[] laneEnd) -> laneEnd[0]));
+        PriorityQueue<Integer> free = new PriorityQueue<>();
+        int lanes = 0;
+        for (TimelineLayout.Bar bar : scheduled) {
+            while (!busy.isEmpty() && busy.peek()[0] <= bar.getStart()) {
+                free.add(busy.poll()[1]);
+            }
+            int lane = free.isEmpty() ? lanes++ : free.poll();
+            bar.setLane(lane);
+            busy.add(new int[]{bar.getStart() + bar.getDays(), lane});
+        }
+        for (TimelineLayout.Bar bar : unscheduled) {
+            bar.setLane(lanes++);
+        }
+        return lanes;
+    }
+
+    private static String version(LocalDate origin, List<TimelineLayout.Bar> rows) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(String.valueOf(origin).getBytes(StandardCharsets.UTF_8));
+            for (TimelineLayout.Bar bar : rows) {
+                String line = bar.getKind() + "|" + bar.getId() + "|" + bar.getParent() + "|" + bar.getName() + "|" +
+                        bar.getStatus() + "|" + bar.getStart() + "|" + bar.getDays() + "|" + bar.getLane() + "\n";
+                digest.update(line.getBytes(StandardCharsets.UTF_8));
+            }
+            return HexFormat.of().formatHex(digest.digest(), 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 mangler", e);
+        }
+    }
+}
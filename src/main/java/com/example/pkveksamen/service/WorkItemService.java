@@ -0,0 +1,76 @@
+package com.example.pkveksamen.service;
+
+import com.example.pkveksamen.model.ChangeEvent;
+import com.example.pkveksamen.model.Status;
+import com.example.pkveksamen.model.WorkItem;
+import com.example.pkveksamen.repository.WorkItemRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * "My work": alle tasks og subtasks en medarbejder står for, på tværs af projekter.
+ * <p>
+ * Listen læses fra læsemodellen work_item med ét indekseret opslag i stedet for at joine task, subprojekt
+ * og projekt og slå alphaRoles op pr. task. Modellen holdes ajour af ChangeOutbox, som kalder
+ * {@link #apply} i samme transaktion som hver skrivning; sletninger rydder op via fremmednøglerne.
+ */
+@Service
+public class WorkItemService {
+
+    private final WorkItemRepository workItemRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public WorkItemService(WorkItemRepository workItemRepository, TransactionTemplate transactionTemplate) {
+        this.workItemRepository = workItemRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    public List<WorkItem> getWorkItems(int employeeId) {
+        return workItemRepository.findWorkItemsByEmployeeId(employeeId);
+    }
+
+    public Map<Status, Integer> getStatusCounts(int employeeId) {
+        return workItemRepository.findStatusCountsByEmployeeId(employeeId);
+    }
+
+    // Kaldes inde i skrivningens transaktion (se ChangeOutbox.write)
+    public void apply(ChangeEvent.Type type, long entityId) {
+        switch (type) {
+            case PROJECT_CHANGED -> workItemRepository.renameProject(entityId);
+            case SUB_PROJECT_CHANGED -> workItemRepository.refreshSubProject(entityId);
+            case TASK_CHANGED -> workItemRepository.refreshTask(entityId);
+            case SUB_TASK_CHANGED -> workItemRepository.refreshSubTask(entityId);
+            default -> {
+                // Sletninger fjernes af ON DELETE CASCADE; noter og medlemmer indgår ikke i læsemodellen
+            }
+        }
+    }
+
+    public void refreshProject(long projectId) {
+        workItemRepository.refreshProject(projectId);
+    }
+
+    public int rebuild() {
+        Integer rows = transactionTemplate.execute(status -> workItemRepository.rebuild());
+        return rows == null ? 0 : rows;
+    }
+
+    // Første opstart mod en database med data men uden læsemodel. Kan databasen ikke nås, springes det over
+    @EventListener(ApplicationReadyEvent.class)
+    public void fillIfEmpty() {
+        try {
+            if (workItemRepository.isMissingRows()) {
+                System.out.println("work_item genopbygget med " + rebuild() + " rækker");
+            }
+        } catch (DataAccessException | TransactionException e) {
+            System.out.println("work_item blev ikke kontrolleret ved opstart: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.pkveksamen.Service;
+
+import com.example.pkveksamen.model.ApiPage;
+import com.example.pkveksamen.repository.ApiRepository;
+import com.example.pkveksamen.repository.ApiResource;
+import com.example.pkveksamen.service.ApiService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ApiServiceTest {
+
+    private ApiRepository repo;
+    private ApiService service;
+
+    @BeforeEach
+    void setUp() {
+        repo = mock(ApiRepository.class);
+        service = new ApiService(repo);
+    }
+
+    @Test
+    void parseFields_keepsRequestedOrder_andRejectsUnknownFields() {
+        List<ApiResource.Field> fields = service.parseFields(ApiResource.TASK, "status, taskName");
+
+        assertEquals(2, fields.size());
+        assertEquals("status", fields.get(0).getName());
+        assertEquals("taskName", fields.get(1).getName());
+        assertEquals(ApiResource.TASK.getFields().size(), service.parseFields(ApiResource.TASK, null).size());
+        assertThrows(IllegalArgumentException.class, () -> service.parseFields(ApiResource.TASK, "task_title"));
+    }
+
+    @Test
+    void cursor_roundTrips_andRejectsGarbage() {
+        assertEquals(42L, ApiService.decodeCursor(ApiService.encodeCursor(42L)));
+        assertEquals(0L, ApiService.decodeCursor(null));
+        assertThrows(IllegalArgumentException.class, () -> ApiService.decodeCursor("ikke-en-cursor!"));
+    }
+
+    @Test
+    void getTasksBySubProjectId_returnsNextCursor_onlyWhenMoreRowsExist() {
+        when(repo.findTasksBySubProjectId(anyList(), eq(7L), eq(0L), eq(3))).thenReturn(rows(1, 2, 3));
+        when(repo.findTasksBySubProjectId(anyList(), eq(7L), eq(2L), eq(3))).thenReturn(rows(3));
+
+        ApiPage first = service.getTasksBySubProjectId(7L, "taskName", null, 2);
+        assertEquals(2, first.getData().size());
+        assertNotNull(first.getNextCursor());
+
+        ApiPage second = service.getTasksBySubProjectId(7L, "taskName", first.getNextCursor(), 2);
+        assertEquals(1, second.getData().size());
+        assertEquals(3L, second.getData().get(0).get("taskId"));
+        assertNull(second.getNextCursor());
+    }
+
+    @Test
+    void limitOutsideRange_isRejected() {
+        assertThrows(IllegalArgumentException.class, () -> service.getTasksByEmployeeId(1, null, null, 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> service.getTasksByEmployeeId(1, null, null, ApiService.MAX_LIMIT + 1));
+        verifyNoInteractions(repo);
+    }
+
+    private static List<Map<String, Object>> rows(long... ids) {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (long id : ids) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("taskId", id);
+            row.put("taskName", "Task " + id);
+            rows.add(row);
+        }
+        return rows;
+    }
+}
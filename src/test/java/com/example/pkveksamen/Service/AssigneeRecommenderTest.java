@@ -0,0 +1,131 @@
+package com.example.pkveksamen.Service;
+
+import com.example.pkveksamen.model.AlphaRole;
+import com.example.pkveksamen.model.AssigneeRecommendation;
+import com.example.pkveksamen.model.EmployeeSuggestion;
+import com.example.pkveksamen.model.Workload;
+import com.example.pkveksamen.repository.ProjectRepository;
+import com.example.pkveksamen.repository.TaskRepository;
+import com.example.pkveksamen.service.AssigneeRecommender;
+import com.example.pkveksamen.service.EmployeeDirectory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class AssigneeRecommenderTest {
+
+    private static final LocalDate START = LocalDate.of(2025, 3, 3);
+    private static final LocalDate DEADLINE = LocalDate.of(2025, 3, 12);
+
+    private EmployeeDirectory employeeDirectory;
+    private ProjectRepository projectRepository;
+    private TaskRepository taskRepository;
+    private AssigneeRecommender recommender;
+    private Map<Integer, Workload> workloads;
+
+    @BeforeEach
+    void setUp() {
+        employeeDirectory = mock(EmployeeDirectory.class);
+        projectRepository = mock(ProjectRepository.class);
+        taskRepository = mock(TaskRepository.class);
+        recommender = new AssigneeRecommender(employeeDirectory, projectRepository, taskRepository);
+
+        workloads = new HashMap<>();
+        when(taskRepository.loadWorkloadByProjectMembers(eq(1L), any(), any())).thenReturn(workloads);
+    }
+
+    @Test
+    void alphaRoleMask_roundTrips() {
+        List<AlphaRole> roles = List.of(AlphaRole.Tester, AlphaRole.UXDesigner);
+
+        assertEquals(roles, AlphaRole.fromMask(AlphaRole.mask(roles)));
+        assertEquals(0, AlphaRole.mask(null));
+    }
+
+    @Test
+    void recommend_ranksBySkillCoverageThenLoad() {
+        members(employee(1, "anna", AlphaRole.Tester, AlphaRole.Developer),
+                employee(2, "bo", AlphaRole.Tester, AlphaRole.Developer),
+                employee(3, "carl", AlphaRole.Tester));
+        // bo har to tasks der kører i halvdelen af perioden
+        workloads.put(2, workload(2, 5));
+
+        List<AssigneeRecommendation> result = recommender.recommend(1L,
+                List.of(AlphaRole.Tester, AlphaRole.Developer), START, DEADLINE, null);
+
+        assertEquals(List.of("anna", "bo", "carl"), result.stream().map(AssigneeRecommendation::getUsername).toList());
+        assertEquals(100.0, result.get(0).getScore());
+        assertEquals(87.5, result.get(1).getScore());
+        assertEquals(List.of(AlphaRole.Tester), result.get(2).getMatchedSkills());
+        assertEquals(List.of(AlphaRole.Developer), result.get(2).getMissingSkills());
+        verify(taskRepository).loadWorkloadByProjectMembers(1L, START, DEADLINE);
+    }
+
+    @Test
+    void recommend_withoutSkills_prefersLeastLoaded_andBreaksTiesOnUsername() {
+        members(employee(1, "carl"), employee(2, "anna"), employee(3, "bo"));
+        workloads.put(2, workload(1, 3));
+
+        List<AssigneeRecommendation> result = recommender.recommend(1L, null, null, null, 2);
+
+        assertEquals(List.of("bo", "carl"), result.stream().map(AssigneeRecommendation::getUsername).toList());
+    }
+
+    @Test
+    void recommend_keepsOnlyTheBestOfManyCandidates() {
+        EmployeeSuggestion[] candidates = new EmployeeSuggestion[10_000];
+        for (int id = 1; id <= candidates.length; id++) {
+            candidates[id - 1] = id % 1000 == 0
+                    ? employee(id, "expert" + id, AlphaRole.Tester, AlphaRole.SolutionArchitect)
+                    : employee(id, "user" + id, AlphaRole.values()[id % AlphaRole.values().length]);
+            workloads.put(id, workload(1, id % 7));
+        }
+        members(candidates);
+
+        List<AssigneeRecommendation> result = recommender.recommend(1L,
+                List.of(AlphaRole.Tester, AlphaRole.SolutionArchitect), START, DEADLINE, 100);
+
+        assertEquals(AssigneeRecommender.MAX_LIMIT, result.size());
+        assertTrue(result.stream().limit(10).allMatch(recommendation -> recommendation.getMissingSkills().isEmpty()));
+        for (int i = 1; i < result.size(); i++) {
+            assertTrue(result.get(i - 1).getScore() >= result.get(i).getScore());
+        }
+    }
+
+    // Én stub med et opslag i stedet for en stub pr. medarbejder, som er langsom ved mange medlemmer
+    private void members(EmployeeSuggestion... employees) {
+        Map<Integer, EmployeeSuggestion> byId = new HashMap<>();
+        for (EmployeeSuggestion employee : employees) {
+            byId.put(employee.getEmployeeId(), employee);
+        }
+        when(employeeDirectory.get(anyInt())).thenAnswer(invocation -> byId.get(invocation.<Integer>getArgument(0)));
+        when(projectRepository.loadProjectMemberIds(1L)).thenReturn(new TreeSet<>(byId.keySet()));
+    }
+
+    private static EmployeeSuggestion employee(int id, String username, AlphaRole... roles) {
+        EmployeeSuggestion employee = new EmployeeSuggestion(id, username, username + "@firma.dk");
+        for (AlphaRole role : roles) {
+            employee.addAlphaRole(role);
+        }
+        return employee;
+    }
+
+    private static Workload workload(int openTasks, int overlapDays) {
+        Workload workload = new Workload();
+        for (int i = 0; i < openTasks; i++) {
+            workload.add(i == 0 ? overlapDays : 0);
+        }
+        return workload;
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.pkveksamen.Service;
+
+import com.example.pkveksamen.model.ChangeEvent;
+import com.example.pkveksamen.model.JournalRecord;
+import com.example.pkveksamen.repository.JournalCompactor;
+import com.example.pkveksamen.repository.JournalReader;
+import com.example.pkveksamen.repository.JournalSegment;
+import com.example.pkveksamen.service.AuditJournal;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuditJournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void append_rotatesSegments_andReadsBackInOrder() throws IOException {
+        AuditJournal journal = journal(AuditJournal.FsyncPolicy.NONE);
+        for (int i = 1; i <= 50; i++) {
+            journal.append(ChangeEvent.Type.TASK_CHANGED, i);
+        }
+
+        List<JournalRecord> records = journal.read(1, 1000);
+        assertEquals(50, records.size());
+        for (int i = 0; i < records.size(); i++) {
+            assertEquals(i + 1, records.get(i).getSequence());
+            assertEquals(i + 1, records.get(i).getEntityId());
+            assertEquals("TASK_CHANGED", records.get(i).getType());
+        }
+        assertTrue(JournalSegment.list(directory).size() > 1);
+        assertEquals(List.of(21L, 22L), journal.read(21, 2).stream().map(JournalRecord::getSequence).toList());
+        journal.destroy();
+    }
+
+    @Test
+    void reopen_afterTornWrite_continuesAfterLastValidRecord() throws IOException {
+        AuditJournal journal = journal(AuditJournal.FsyncPolicy.ALWAYS);
+        journal.append(ChangeEvent.Type.TASK_CHANGED, 1);
+        journal.append(ChangeEvent.Type.TASK_CHANGED, 2);
+        journal.append(ChangeEvent.Type.TASK_DELETED, 3);
+        journal.destroy();
+
+        // Ødelæg den sidste post, som hvis strømmen gik midt i skrivningen
+        Path segment = JournalSegment.list(directory).get(0);
+        int lastRecord = JournalSegment.HEADER_BYTES + 2 * JournalSegment.sizeOf(new JournalRecord(0, 0, "TASK_CHANGED", 0));
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{42}), lastRecord + 20);
+        }
+
+        AuditJournal reopened = journal(AuditJournal.FsyncPolicy.ALWAYS);
+        assertEquals(3, reopened.getNextSequence());
+        reopened.append(ChangeEvent.Type.SUB_TASK_CHANGED, 4);
+        List<JournalRecord> records = reopened.read(1, 10);
+        assertEquals(List.of(1L, 2L, 4L), records.stream().map(JournalRecord::getEntityId).toList());
+        reopened.destroy();
+    }
+
+    @Test
+    void tailer_followsNewRecordsAcrossSegments() throws IOException {
+        AuditJournal journal = journal(AuditJournal.FsyncPolicy.INTERVAL);
+        try (JournalReader.Tailer tailer = journal.tailer(1)) {
+            assertTrue(tailer.poll(100).isEmpty());
+            for (int i = 1; i <= 7; i++) {
+                journal.append(ChangeEvent.Type.PROJECT_CHANGED, i);
+            }
+            assertEquals(5, tailer.poll(5).size());
+            for (int i = 8; i <= 30; i++) {
+                journal.append(ChangeEvent.Type.PROJECT_CHANGED, i);
+            }
+            List<JournalRecord> rest = tailer.poll(100);
+            assertEquals(25, rest.size());
+            assertEquals(6, rest.get(0).getSequence());
+            assertEquals(31, tailer.getNextSequence());
+        }
+        journal.destroy();
+    }
+
+    @Test
+    void compact_keepsLatestPerEntity_andLeavesActiveSegment() throws IOException {
+        AuditJournal journal = journal(AuditJournal.FsyncPolicy.NONE);
+        for (int i = 1; i <= 60; i++) {
+            journal.append(ChangeEvent.Type.TASK_CHANGED, i % 3);
+        }
+        int segmentsBefore = JournalSegment.list(directory).size();
+        long activeFirst = JournalSegment.firstSequenceOf(JournalSegment.list(directory).get(segmentsBefore - 1));
+
+        // Alle poster er "gamle", så hver entitet i de forseglede segmenter beholder kun sin seneste
+        JournalCompactor.Result result = JournalCompactor.compact(directory, activeFirst, Long.MAX_VALUE);
+
+        assertEquals(segmentsBefore - 1, result.getSegmentsBefore());
+        assertEquals(3, result.getRecordsAfter());
+        assertEquals(2, JournalSegment.list(directory).size());
+        List<JournalRecord> records = journal.read(1, 1000);
+        assertEquals(3 + (60 - activeFirst + 1), records.size());
+        for (int i = 1; i < records.size(); i++) {
+            assertTrue(records.get(i).getSequence() > records.get(i - 1).getSequence());
+        }
+        journal.append(ChangeEvent.Type.TASK_CHANGED, 99);
+        assertEquals(99, journal.read(61, 10).get(0).getEntityId());
+        journal.destroy();
+    }
+
+    @Test
+    void compact_concurrentCalls_runOneAtATime() throws Exception {
+        AuditJournal journal = journal(AuditJournal.FsyncPolicy.NONE);
+        for (int i = 1; i <= 60; i++) {
+            journal.append(ChangeEvent.Type.TASK_CHANGED, i);
+        }
+        int segmentsBefore = JournalSegment.list(directory).size();
+
+        // Mange samtidige kald: de der ikke får låsen får null i stedet for at dele .compact-filerne
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<JournalCompactor.Result>> results = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                return journal.compact();
+            }));
+        }
+        start.countDown();
+        int ran = 0;
+        for (Future<JournalCompactor.Result> result : results) {
+            if (result.get(10, TimeUnit.SECONDS) != null) {
+                ran++;
+            }
+        }
+        executor.shutdown();
+
+        assertTrue(ran >= 1);
+        // Alle poster er nye nok til at blive beholdt, så intet er tabt og ingen midlertidig fil er efterladt
+        assertEquals(60, journal.read(1, 1000).size());
+        assertEquals(2, JournalSegment.list(directory).size());
+        assertTrue(segmentsBefore > 2);
+        try (Stream<Path> files = Files.list(directory)) {
+            assertTrue(files.noneMatch(file -> file.getFileName().toString().endsWith(".compact")));
+        }
+        journal.destroy();
+    }
+
+    // Små segmenter, så rotation sker efter få poster
+    private AuditJournal journal(AuditJournal.FsyncPolicy fsyncPolicy) {
+        return new AuditJournal(true, directory.toString(), 256, fsyncPolicy, 10, 30);
+    }
+}
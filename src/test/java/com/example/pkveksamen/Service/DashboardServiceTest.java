@@ -0,0 +1,105 @@
+package com.example.pkveksamen.Service;
+
+import com.example.pkveksamen.model.ChangeEvent;
+import com.example.pkveksamen.model.Project;
+import com.example.pkveksamen.model.ProjectDashboard;
+import com.example.pkveksamen.model.Status;
+import com.example.pkveksamen.repository.DashboardRepository;
+import com.example.pkveksamen.service.DashboardService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class DashboardServiceTest {
+
+    private DashboardRepository repo;
+    private DashboardService dashboardService;
+
+    @BeforeEach
+    void setUp() {
+        repo = mock(DashboardRepository.class);
+        dashboardService = new DashboardService(repo, 300, 10);
+
+        when(repo.loadDashboardByEmployeeId(1)).thenReturn(List.of(row(10), row(11)));
+        when(repo.loadDashboardByEmployeeId(2)).thenReturn(List.of(row(20)));
+    }
+
+    @Test
+    void getDashboard_isCachedPerEmployee() {
+        dashboardService.getDashboard(1);
+        dashboardService.getDashboard(1);
+        dashboardService.getDashboard(2);
+
+        verify(repo, times(1)).loadDashboardByEmployeeId(1);
+        verify(repo, times(1)).loadDashboardByEmployeeId(2);
+    }
+
+    @Test
+    void onChange_evictsOnlyDashboardsContainingTheProject() {
+        dashboardService.getDashboard(1);
+        dashboardService.getDashboard(2);
+        when(repo.loadProjectIdByTaskId(500L)).thenReturn(11L);
+
+        dashboardService.onChange(new ChangeEvent(1, ChangeEvent.Type.TASK_CHANGED, 500L));
+        dashboardService.getDashboard(1);
+        dashboardService.getDashboard(2);
+
+        verify(repo, times(2)).loadDashboardByEmployeeId(1);
+        verify(repo, times(1)).loadDashboardByEmployeeId(2);
+
+        // Noter påvirker ikke tallene; en slettet task kan ikke slås op og rydder alt
+        dashboardService.onChange(new ChangeEvent(2, ChangeEvent.Type.TASK_NOTE_CHANGED, 500L));
+        dashboardService.getDashboard(2);
+        verify(repo, times(1)).loadDashboardByEmployeeId(2);
+
+        dashboardService.onChange(new ChangeEvent(3, ChangeEvent.Type.TASK_DELETED, 500L));
+        dashboardService.getDashboard(2);
+        verify(repo, times(2)).loadDashboardByEmployeeId(2);
+    }
+
+    @Test
+    void onChange_newProjectEvictsOnlyTheOwnersDashboard() {
+        dashboardService.getDashboard(1);
+        dashboardService.getDashboard(2);
+        when(repo.loadOwnerByProjectId(30L)).thenReturn(2);
+
+        dashboardService.onChange(new ChangeEvent(1, ChangeEvent.Type.PROJECT_CHANGED, 30L));
+        dashboardService.getDashboard(1);
+        dashboardService.getDashboard(2);
+
+        verify(repo, times(1)).loadDashboardByEmployeeId(1);
+        verify(repo, times(2)).loadDashboardByEmployeeId(2);
+    }
+
+    @Test
+    void health_followsOverdueDoneAndNextDeadline() {
+        ProjectDashboard dashboard = row(1);
+        assertEquals(ProjectDashboard.Health.ON_TRACK, dashboard.getHealth());
+
+        dashboard.setTaskCount(3);
+        dashboard.setStatusCount(Status.COMPLETED, 1);
+        dashboard.setNextDeadline(LocalDate.now().plusDays(2));
+        assertEquals(ProjectDashboard.Health.DUE_SOON, dashboard.getHealth());
+        assertEquals(2, dashboard.getOpenCount());
+
+        dashboard.setOverdueCount(1);
+        assertEquals(ProjectDashboard.Health.OVERDUE, dashboard.getHealth());
+
+        dashboard.setOverdueCount(0);
+        dashboard.setStatusCount(Status.COMPLETED, 3);
+        assertEquals(ProjectDashboard.Health.DONE, dashboard.getHealth());
+    }
+
+    private static ProjectDashboard row(long projectId) {
+        Project project = new Project();
+        project.setProjectID(projectId);
+        ProjectDashboard dashboard = new ProjectDashboard();
+        dashboard.setProject(project);
+        return dashboard;
+    }
+}
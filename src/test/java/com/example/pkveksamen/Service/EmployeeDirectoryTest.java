@@ -0,0 +1,118 @@
+package com.example.pkveksamen.Service;
+
+import com.example.pkveksamen.model.AlphaRole;
+import com.example.pkveksamen.model.ChangeEvent;
+import com.example.pkveksamen.model.EmployeeSuggestion;
+import com.example.pkveksamen.repository.EmployeeRepository;
+import com.example.pkveksamen.repository.ProjectRepository;
+import com.example.pkveksamen.service.EmployeeDirectory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class EmployeeDirectoryTest {
+
+    private EmployeeRepository employeeRepository;
+    private ProjectRepository projectRepository;
+    private EmployeeDirectory directory;
+
+    @BeforeEach
+    void setUp() {
+        employeeRepository = mock(EmployeeRepository.class);
+        projectRepository = mock(ProjectRepository.class);
+        directory = new EmployeeDirectory(employeeRepository, projectRepository);
+
+        when(employeeRepository.loadSuggestionsAfter(0)).thenReturn(List.of(
+                suggestion(1, "anna", "anna@firma.dk", AlphaRole.Tester),
+                suggestion(2, "anders", "a.hansen@firma.dk", AlphaRole.Developer),
+                suggestion(3, "bo", "anne.bo@firma.dk", AlphaRole.Tester),
+                suggestion(4, "Annika", "annika@firma.dk", AlphaRole.UXDesigner)));
+        when(projectRepository.loadProjectMemberIds(7L)).thenReturn(Set.of(4));
+        directory.catchUp();
+    }
+
+    @Test
+    void suggest_matchesUsernameThenEmail_excludingMembers() {
+        List<EmployeeSuggestion> matches = directory.suggestAvailableEmployees(7L, " AN", null, null);
+
+        // anders og anna på brugernavn, bo på email; Annika er allerede medlem
+        assertEquals(List.of(2, 1, 3), matches.stream().map(EmployeeSuggestion::getEmployeeId).toList());
+    }
+
+    @Test
+    void suggest_filtersOnAlphaRole_andRespectsLimit() {
+        assertEquals(List.of(1, 3), directory.suggestAvailableEmployees(7L, "an", AlphaRole.Tester, null)
+                .stream().map(EmployeeSuggestion::getEmployeeId).toList());
+        assertEquals(1, directory.suggestAvailableEmployees(7L, "an", null, 1).size());
+        assertTrue(directory.suggestAvailableEmployees(7L, "  ", null, null).isEmpty());
+    }
+
+    @Test
+    void onChange_loadsFromTheEventsId() {
+        when(employeeRepository.loadSuggestionsAfter(4)).thenReturn(List.of(
+                suggestion(5, "annette", "annette@firma.dk", AlphaRole.Tester)));
+
+        directory.onChange(new ChangeEvent(1, ChangeEvent.Type.TASK_CHANGED, 5));
+        directory.onChange(new ChangeEvent(2, ChangeEvent.Type.EMPLOYEE_CREATED, 5));
+
+        verify(employeeRepository, times(1)).loadSuggestionsAfter(4);
+        verify(employeeRepository, never()).loadSuggestion(5);
+        assertTrue(directory.suggestAvailableEmployees(7L, "annet", null, null).stream()
+                .anyMatch(match -> match.getEmployeeId() == 5));
+    }
+
+    @Test
+    void chunkCommittedAfterAHigherId_isIndexedInFull() {
+        // En enkelt oprettelse (id 8) committes og indekseres før masseoprettelsens chunk med id 5-7
+        when(employeeRepository.loadSuggestionsAfter(7)).thenReturn(List.of(
+                suggestion(8, "annelise", "annelise@firma.dk", AlphaRole.Tester)));
+        directory.onChange(new ChangeEvent(1, ChangeEvent.Type.EMPLOYEE_CREATED, 8));
+        when(employeeRepository.loadSuggestionsAfter(4)).thenReturn(List.of(
+                suggestion(5, "annette", "annette@firma.dk", AlphaRole.Tester),
+                suggestion(6, "annemette", "annemette@firma.dk", AlphaRole.Tester),
+                suggestion(7, "anneli", "anneli@firma.dk", AlphaRole.Tester),
+                suggestion(8, "annelise", "annelise@firma.dk", AlphaRole.Tester)));
+
+        // Chunkens hændelse bærer dens laveste id
+        directory.onChange(new ChangeEvent(2, ChangeEvent.Type.EMPLOYEE_CREATED, 5));
+
+        assertEquals(List.of(7, 8, 6, 5, 3), directory.suggestAvailableEmployees(7L, "anne", null, null).stream()
+                .map(EmployeeSuggestion::getEmployeeId).toList());
+    }
+
+    @Test
+    void suggest_fallsBackToTheDatabase_whenTheIndexHasTooFewMatches() {
+        // bent er oprettet, men hændelsen er aldrig nået frem
+        when(employeeRepository.findSuggestionsByPrefix("be", 200)).thenReturn(List.of(
+                suggestion(9, "bent", "bent@firma.dk", AlphaRole.Developer)));
+
+        assertEquals(List.of(9), directory.suggestAvailableEmployees(7L, "be", null, null).stream()
+                .map(EmployeeSuggestion::getEmployeeId).toList());
+        // Nu er bent i indekset; en fyldt side spørger ikke databasen
+        assertEquals(List.of(9), directory.suggestAvailableEmployees(7L, "be", null, 1).stream()
+                .map(EmployeeSuggestion::getEmployeeId).toList());
+        verify(employeeRepository, times(1)).findSuggestionsByPrefix(anyString(), anyInt());
+    }
+
+    @Test
+    void get_missLoadsTheSingleEmployee() {
+        when(employeeRepository.loadSuggestion(3)).thenReturn(null);
+        when(employeeRepository.loadSuggestion(9)).thenReturn(suggestion(9, "bent", "bent@firma.dk", AlphaRole.Developer));
+
+        // 9 kendes ikke endnu (fx hændelsen er ikke nået frem); 3 findes allerede i indekset
+        assertEquals("bent", directory.get(9).getUsername());
+        assertEquals("bo", directory.get(3).getUsername());
+        verify(employeeRepository, never()).loadSuggestion(3);
+    }
+
+    private static EmployeeSuggestion suggestion(int id, String username, String email, AlphaRole alphaRole) {
+        EmployeeSuggestion suggestion = new EmployeeSuggestion(id, username, email);
+        suggestion.addAlphaRole(alphaRole);
+        return suggestion;
+    }
+}
@@ -1,10 +1,15 @@
 package com.example.pkveksamen.Service;
 
 import com.example.pkveksamen.repository.EmployeeRepository;
+import com.example.pkveksamen.repository.OutboxRepository;
 import com.example.pkveksamen.service.EmployeeService;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -14,7 +19,8 @@ class EmployeeServiceTest {
     @Test
     void createEmployee_returnsTrue_whenSuccess() {
         EmployeeRepository repo = mock(EmployeeRepository.class);
-        EmployeeService service = new EmployeeService(repo);
+        EmployeeService service = new EmployeeService(repo, new TransactionTemplate(mock(PlatformTransactionManager.class)),
+                mock(OutboxRepository.class));
 
         boolean result = service.createEmployee("a", "b", "c", "d", "e");
 
@@ -25,7 +31,8 @@ class EmployeeServiceTest {
     @Test
     void createEmployee_returnsFalse_whenEmailExists() {
         EmployeeRepository repo = mock(EmployeeRepository.class);
-        EmployeeService service = new EmployeeService(repo);
+        EmployeeService service = new EmployeeService(repo, new TransactionTemplate(mock(PlatformTransactionManager.class)),
+                mock(OutboxRepository.class));
 
         doThrow(new DataIntegrityViolationException("duplicate"))
                 .when(repo).createEmployee(any(), any(), any(), any(), any());
@@ -34,4 +41,18 @@ class EmployeeServiceTest {
 
         assertFalse(result);
     }
+
+    @Test
+    void createEmployee_returnsFalse_withoutInsert_whenUsernameOrEmailTaken() {
+        EmployeeRepository repo = mock(EmployeeRepository.class);
+        EmployeeService service = new EmployeeService(repo, new TransactionTemplate(mock(PlatformTransactionManager.class)),
+                mock(OutboxRepository.class));
+
+        when(repo.findTakenUsernamesAndEmails(any(), any())).thenReturn(Set.of("c"));
+
+        boolean result = service.createEmployee("a", "b", "c", "d", "e");
+
+        assertFalse(result);
+        verify(repo, never()).createEmployee(any(), any(), any(), any(), any());
+    }
 }
@@ -0,0 +1,69 @@
+package com.example.pkveksamen.Service;
+
+import com.example.pkveksamen.model.Employee;
+import com.example.pkveksamen.model.EmployeeRole;
+import com.example.pkveksamen.repository.EmployeeRepository;
+import com.example.pkveksamen.service.HeaderFragmentCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ui.ExtendedModelMap;
+import org.springframework.ui.Model;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.IContext;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class HeaderFragmentCacheTest {
+
+    private EmployeeRepository repo;
+    private ITemplateEngine templateEngine;
+    private HeaderFragmentCache cache;
+
+    @BeforeEach
+    void setUp() {
+        repo = mock(EmployeeRepository.class);
+        templateEngine = mock(ITemplateEngine.class);
+        cache = new HeaderFragmentCache(repo, templateEngine, "");
+
+        Employee employee = new Employee();
+        employee.setEmployeeId(1);
+        employee.setUsername("projektleder");
+        employee.setRole(EmployeeRole.PROJECT_MANAGER);
+        when(repo.findEmployeeById(1)).thenReturn(employee);
+        when(templateEngine.process(anyString(), any(IContext.class))).thenReturn("<div>header</div>");
+    }
+
+    @Test
+    void addHeader_rendersOnce_andReusesForLaterRequests() {
+        Model first = new ExtendedModelMap();
+        Model second = new ExtendedModelMap();
+
+        cache.addHeader(first, 1);
+        cache.addHeader(second, 1);
+
+        assertEquals("projektleder", second.getAttribute("username"));
+        assertEquals(EmployeeRole.PROJECT_MANAGER, second.getAttribute("employeeRole"));
+        assertEquals("<div>header</div>", second.getAttribute("headerHtml"));
+        verify(repo, times(1)).findEmployeeById(1);
+        verify(templateEngine, times(1)).process(anyString(), any(IContext.class));
+    }
+
+    @Test
+    void evict_forcesNewLookup() {
+        cache.addHeader(new ExtendedModelMap(), 1);
+        cache.evict(1);
+        cache.addHeader(new ExtendedModelMap(), 1);
+
+        verify(repo, times(2)).findEmployeeById(1);
+    }
+
+    @Test
+    void addHeader_unknownEmployee_addsNothing() {
+        Model model = new ExtendedModelMap();
+
+        assertNull(cache.addHeader(model, 99));
+        assertFalse(model.containsAttribute("headerHtml"));
+    }
+}
@@ -1,34 +1,58 @@
 package com.example.pkveksamen.Service;
 
+import com.example.pkveksamen.model.ChangeEvent;
+import com.example.pkveksamen.repository.OutboxRepository;
 import com.example.pkveksamen.repository.ProjectRepository;
+import com.example.pkveksamen.service.AuditJournal;
+import com.example.pkveksamen.service.ChangeOutbox;
+import com.example.pkveksamen.service.ProjectDeletionService;
 import com.example.pkveksamen.service.ProjectService;
+import com.example.pkveksamen.service.TaskHistoryService;
+import com.example.pkveksamen.service.WorkItemService;
 import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
 
 class ProjectServiceTest {
 
     @Test
-    void createProject_callsRepository() {
+    void createProject_appendsTheNewIdToTheOutbox() {
         ProjectRepository repo = mock(ProjectRepository.class);
-        ProjectService service = new ProjectService(repo);
+        OutboxRepository outboxRepository = mock(OutboxRepository.class);
+        when(repo.createProject(any(), any(), any(), any(), any(), any())).thenReturn(42L);
+        ProjectService service = new ProjectService(repo, mock(ProjectDeletionService.class), changeOutbox(outboxRepository));
 
-        service.createProject("t", "d",
+        long projectId = service.createProject("t", "d",
                 LocalDate.now(), LocalDate.now().plusDays(1),
                 "c", 1);
 
-        verify(repo).createProject(any(), any(), any(), any(), any(), any());
+        assertThat(projectId).isEqualTo(42L);
+        verify(outboxRepository).append(ChangeEvent.Type.PROJECT_CHANGED, 42L);
     }
 
     @Test
-    void deleteProject_callsRepository() {
+    void deleteProject_callsDeletionService() {
         ProjectRepository repo = mock(ProjectRepository.class);
-        ProjectService service = new ProjectService(repo);
+        ProjectDeletionService deletionService = mock(ProjectDeletionService.class);
+        ProjectService service = new ProjectService(repo, deletionService, changeOutbox());
 
         service.deleteProject(5L);
 
-        verify(repo).deleteProject(5L);
+        verify(deletionService).deleteProject(5L);
+        verifyNoInteractions(repo);
+    }
+
+    private static ChangeOutbox changeOutbox() {
+        return changeOutbox(mock(OutboxRepository.class));
+    }
+
+    private static ChangeOutbox changeOutbox(OutboxRepository outboxRepository) {
+        return new ChangeOutbox(outboxRepository, new TransactionTemplate(mock(PlatformTransactionManager.class)),
+                mock(WorkItemService.class), mock(TaskHistoryService.class), mock(AuditJournal.class));
     }
 }
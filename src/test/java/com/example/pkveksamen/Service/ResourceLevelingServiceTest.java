@@ -0,0 +1,149 @@
+package com.example.pkveksamen.Service;
+
+import com.example.pkveksamen.model.LevelingJob;
+import com.example.pkveksamen.model.LevelingTask;
+import com.example.pkveksamen.model.TaskShift;
+import com.example.pkveksamen.repository.LevelingJobRepository;
+import com.example.pkveksamen.repository.LevelingRepository;
+import com.example.pkveksamen.service.ChangeOutbox;
+import com.example.pkveksamen.service.ResourceLevelingService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ResourceLevelingServiceTest {
+
+    // Langt ude i fremtiden, så "aldrig før i dag" ikke spiller ind
+    private static final LocalDate DAY_0 = LocalDate.now().plusYears(1);
+
+    private LevelingRepository repo;
+    private LevelingJobRepository jobRepo;
+    private ChangeOutbox changeOutbox;
+    private ResourceLevelingService service;
+
+    @BeforeEach
+    void setUp() {
+        repo = mock(LevelingRepository.class);
+        jobRepo = mock(LevelingJobRepository.class);
+        changeOutbox = mock(ChangeOutbox.class);
+        service = new ResourceLevelingService(repo, jobRepo, changeOutbox,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), 1, 30);
+
+        // ChangeOutbox kører bare skrivningen
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(1).run();
+            return null;
+        }).when(changeOutbox).writeProject(anyLong(), any());
+    }
+
+    @Test
+    void run_shiftsMovableTasksAroundFixedOnes_withinSubProjectBounds() {
+        when(repo.loadLevelingTasks(1L)).thenReturn(List.of(
+                // Fast: i gang (eller i et andet projekt), dag 0-4
+                task(10, 7, 0, 4, false, 0, 30),
+                // Flytbar, overlapper dag 2-5: rykkes til dag 5-8
+                task(11, 7, 2, 5, true, 0, 30),
+                // Subprojektet slutter dag 5, så den kan kun komme delvist fri: dag 3-5
+                task(12, 8, 0, 3, false, 0, 30),
+                task(13, 8, 1, 3, true, 0, 5),
+                // Ingen konflikt: bliver hvor den er
+                task(14, 9, 0, 9, true, 0, 30)));
+        LevelingJob job = new LevelingJob(1L);
+
+        service.run(job);
+
+        assertEquals(LevelingJob.State.READY, job.getState());
+        assertEquals(3, job.getEmployeesDone());
+        assertEquals(100, job.getProgressPercent());
+        assertEquals(2, job.getShifts().size());
+        TaskShift shift = job.getShifts().get(0);
+        assertEquals(11, shift.getTaskId());
+        assertEquals(DAY_0.plusDays(5), shift.getNewStartDate());
+        assertEquals(DAY_0.plusDays(8), shift.getNewDeadline());
+        assertEquals(3, shift.getShiftDays());
+        TaskShift partial = job.getShifts().get(1);
+        assertEquals(13, partial.getTaskId());
+        assertEquals(DAY_0.plusDays(5), partial.getNewDeadline());
+        // Før: 3 dage for 7 (dag 2-4) og 3 for 8 (dag 1-3); efter: kun dag 3 for 8
+        assertEquals(6, job.getOverloadDaysBefore());
+        assertEquals(1, job.getOverloadDaysAfter());
+        // Fremdriften gemmes undervejs, forslaget til sidst
+        verify(jobRepo, times(3)).saveProgress(job);
+        verify(jobRepo).saveResult(job);
+    }
+
+    @Test
+    void run_failedLoad_marksJobFailed() {
+        when(repo.loadLevelingTasks(1L)).thenThrow(new IllegalStateException("databasen er nede"));
+        LevelingJob job = new LevelingJob(1L);
+
+        service.run(job);
+
+        assertEquals(LevelingJob.State.FAILED, job.getState());
+        assertEquals("databasen er nede", job.getMessage());
+    }
+
+    @Test
+    void apply_writesOnlyAcceptedShifts_andCountsStaleOnes() {
+        when(repo.loadLevelingTasks(1L)).thenReturn(List.of(
+                task(10, 7, 0, 1, true, 0, 30),
+                task(11, 7, 0, 1, true, 0, 30),
+                task(12, 7, 0, 1, true, 0, 30)));
+        when(repo.updateTaskDates(anyList())).thenReturn(Set.of(11L));
+        LevelingJob job = new LevelingJob(1L);
+        service.run(job);
+        assertEquals(2, job.getShifts().size());
+        // Gennemføres på en node der kun kender jobbet fra databasen
+        when(jobRepo.loadJob(job.getJobId())).thenReturn(job);
+        when(jobRepo.markApplied(job.getJobId(), 1, 1)).thenReturn(true);
+
+        LevelingJob applied = service.apply(job.getJobId(), List.of(11L, 12L));
+
+        verify(changeOutbox).writeProject(eq(1L), any());
+        verify(repo).updateTaskDates(argThat(shifts -> shifts.size() == 2));
+        assertEquals(LevelingJob.State.APPLIED, applied.getState());
+        assertEquals(1, applied.getAppliedCount());
+        assertEquals(1, applied.getSkippedCount());
+        assertThrows(IllegalArgumentException.class, () -> service.apply(job.getJobId(), null));
+        assertThrows(IllegalArgumentException.class, () -> service.apply("ukendt", null));
+    }
+
+    @Test
+    void apply_alreadyAppliedElsewhere_rollsBackAndFails() {
+        LevelingJob job = new LevelingJob(1L);
+        job.setShifts(List.of(new TaskShift(task(10, 7, 0, 1, true, 0, 30), DAY_0.plusDays(2), DAY_0.plusDays(3))));
+        job.setState(LevelingJob.State.READY);
+        when(jobRepo.loadJob(job.getJobId())).thenReturn(job);
+        when(repo.updateTaskDates(anyList())).thenReturn(Set.of(10L));
+        when(jobRepo.markApplied(anyString(), anyInt(), anyInt())).thenReturn(false);
+
+        assertThrows(IllegalArgumentException.class, () -> service.apply(job.getJobId(), null));
+        assertEquals(LevelingJob.State.READY, job.getState());
+    }
+
+    @Test
+    void start_returnsTheRunningJobForTheProject_andRemovesExpiredOnes() {
+        LevelingJob running = new LevelingJob(1L);
+        when(jobRepo.loadRunningJob(1L)).thenReturn(running);
+
+        assertSame(running, service.start(1L));
+        verify(jobRepo).deleteJobsCreatedBefore(any());
+        verify(jobRepo, never()).createJob(any());
+    }
+
+    private static LevelingTask task(long taskId, int employeeId, int startDay, int endDay, boolean movable,
+                                     int earliestDay, int latestDay) {
+        return new LevelingTask(taskId, "Task " + taskId, employeeId, "user" + employeeId,
+                DAY_0.plusDays(startDay), DAY_0.plusDays(endDay),
+                DAY_0.plusDays(earliestDay), DAY_0.plusDays(latestDay), movable);
+    }
+}
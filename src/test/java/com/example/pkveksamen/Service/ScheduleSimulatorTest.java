@@ -0,0 +1,121 @@
+package com.example.pkveksamen.Service;
+
+import com.example.pkveksamen.model.ScheduleRisk;
+import com.example.pkveksamen.model.Status;
+import com.example.pkveksamen.model.TimelineItem;
+import com.example.pkveksamen.repository.TimelineRepository;
+import com.example.pkveksamen.service.ScheduleSimulator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ScheduleSimulatorTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2025, 1, 1);
+
+    private TimelineRepository repo;
+    private ScheduleSimulator simulator;
+
+    @BeforeEach
+    void setUp() {
+        repo = mock(TimelineRepository.class);
+        simulator = new ScheduleSimulator(repo, 0.8, 1.75, 10_000, 200_000);
+    }
+
+    @Test
+    void simulate_triangularDuration_givesExpectedOnTimeChance() {
+        // 10 dage planlagt: varighed fra 8 over 10 til 17,5 dage, så P(færdig til tiden) = 2 / 9,5
+        List<TimelineItem> items = List.of(
+                project(day(100)),
+                subProject(10, day(100)),
+                task(100, Status.NOT_STARTED, day(91), day(100)));
+
+        ScheduleRisk risk = simulator.simulate(items, TODAY, 100_000, 42);
+
+        ScheduleRisk.Forecast forecast = risk.getSubProjects().get(0);
+        assertEquals(2 / 9.5, forecast.getOnTimeProbability(), 0.01);
+        assertFalse(forecast.getP50().isAfter(forecast.getP80()));
+        assertFalse(forecast.getP80().isAfter(forecast.getP95()));
+        assertTrue(forecast.getP50().isAfter(day(100)));
+        assertFalse(forecast.getP95().isAfter(day(108)));
+    }
+
+    @Test
+    void simulate_completedTasksAreFixed_andOpenTasksFinishNoEarlierThanToday() {
+        List<TimelineItem> items = List.of(
+                project(TODAY.plusDays(5)),
+                subProject(10, TODAY.minusDays(1)),
+                task(100, Status.COMPLETED, TODAY.minusDays(20), TODAY.minusDays(11)),
+                subProject(11, TODAY.minusDays(1)),
+                task(101, Status.IN_PROGRESS, TODAY.minusDays(20), TODAY.minusDays(11)),
+                subProject(12, null));
+
+        ScheduleRisk risk = simulator.simulate(items, TODAY, 1_000, 7);
+
+        ScheduleRisk.Forecast completed = risk.getSubProjects().get(0);
+        assertEquals(TODAY.minusDays(11), completed.getP50());
+        assertEquals(TODAY.minusDays(11), completed.getP95());
+        assertEquals(1.0, completed.getOnTimeProbability());
+
+        ScheduleRisk.Forecast overdue = risk.getSubProjects().get(1);
+        assertFalse(overdue.getP50().isBefore(TODAY));
+        assertEquals(0.0, overdue.getOnTimeProbability());
+
+        ScheduleRisk.Forecast empty = risk.getSubProjects().get(2);
+        assertEquals(0, empty.getTaskCount());
+        assertNull(empty.getP50());
+        assertNull(empty.getOnTimeProbability());
+        assertEquals(2, risk.getProject().getTaskCount());
+    }
+
+    @Test
+    void simulate_sameSeedGivesSameResult_andProjectIsLatestSubProject() {
+        List<TimelineItem> items = List.of(
+                project(day(60)),
+                subProject(10, day(30)),
+                task(100, Status.NOT_STARTED, day(1), day(20)),
+                task(101, Status.NOT_STARTED, day(5), day(30)),
+                subProject(11, day(60)),
+                task(102, Status.NOT_STARTED, day(31), day(60)),
+                new TimelineItem(TimelineItem.Kind.TASK, 103, "Uden datoer", Status.NOT_STARTED, null, null));
+
+        ScheduleRisk first = simulator.simulate(items, TODAY, 20_000, 99);
+        ScheduleRisk second = simulator.simulate(items, TODAY, 20_000, 99);
+
+        assertEquals(first.getProject().getP80(), second.getProject().getP80());
+        assertEquals(first.getProject().getOnTimeProbability(), second.getProject().getOnTimeProbability());
+        assertEquals(first.getSubProjects().get(1).getP95(), first.getProject().getP95());
+        assertEquals(1, first.getUnscheduledTasks());
+    }
+
+    @Test
+    void simulate_unknownProject_returnsNull_andIterationsAreCapped() {
+        when(repo.loadProjectTree(1L)).thenReturn(List.of());
+        when(repo.loadProjectTree(2L)).thenReturn(List.of(project(null)));
+
+        assertNull(simulator.simulate(1L, null, null));
+        assertEquals(200_000, simulator.simulate(2L, 5_000_000, 1L).getIterations());
+        assertEquals(10_000, simulator.simulate(2L, null, 1L).getIterations());
+    }
+
+    private static LocalDate day(int offset) {
+        return TODAY.plusDays(offset);
+    }
+
+    private static TimelineItem project(LocalDate deadline) {
+        return new TimelineItem(TimelineItem.Kind.PROJECT, 1, "Projekt", null, TODAY, deadline);
+    }
+
+    private static TimelineItem subProject(long id, LocalDate deadline) {
+        return new TimelineItem(TimelineItem.Kind.SUB_PROJECT, id, "Sub " + id, null, TODAY, deadline);
+    }
+
+    private static TimelineItem task(long id, Status status, LocalDate start, LocalDate deadline) {
+        return new TimelineItem(TimelineItem.Kind.TASK, id, "Task " + id, status, start, deadline);
+    }
+}
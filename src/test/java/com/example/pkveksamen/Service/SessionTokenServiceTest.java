@@ -0,0 +1,56 @@
+package com.example.pkveksamen.Service;
+
+import com.example.pkveksamen.model.EmployeeRole;
+import com.example.pkveksamen.model.SessionToken;
+import com.example.pkveksamen.service.SessionTokenService;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionTokenServiceTest {
+
+    private final SessionTokenService service = new SessionTokenService("test-hemmelighed", 60, false);
+
+    @Test
+    void issuedToken_verifiesWithoutLookup() {
+        SessionToken token = service.verify(service.issue(7, EmployeeRole.PROJECT_MANAGER));
+
+        assertNotNull(token);
+        assertEquals(7, token.getEmployeeId());
+        assertEquals(EmployeeRole.PROJECT_MANAGER, token.getRole());
+        assertFalse(service.shouldRenew(token));
+    }
+
+    @Test
+    void token_fromOtherNodeWithSameSecret_isAccepted() {
+        SessionTokenService otherNode = new SessionTokenService("test-hemmelighed", 60, false);
+
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setCookies(new Cookie(SessionTokenService.COOKIE_NAME, service.issue(3, EmployeeRole.TEAM_MEMBER)));
+
+        SessionToken token = otherNode.verify(request);
+        assertNotNull(token);
+        assertEquals(3, token.getEmployeeId());
+    }
+
+    @Test
+    void tamperedOrForeignToken_isRejected() {
+        String token = service.issue(7, EmployeeRole.TEAM_MEMBER);
+        String forgedPayload = java.util.Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("1.PROJECT_MANAGER.9999999999".getBytes());
+
+        assertNull(service.verify(forgedPayload + token.substring(token.indexOf('.'))));
+        assertNull(new SessionTokenService("anden-hemmelighed", 60, false).verify(token));
+        assertNull(service.verify("ikke-et-token"));
+        assertNull(service.verify((String) null));
+    }
+
+    @Test
+    void expiredToken_isRejected() {
+        SessionTokenService noLifetime = new SessionTokenService("test-hemmelighed", 0, false);
+
+        assertNull(noLifetime.verify(noLifetime.issue(7, EmployeeRole.TEAM_MEMBER)));
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.pkveksamen.Service;
+
+import com.example.pkveksamen.model.BurndownPoint;
+import com.example.pkveksamen.model.EarnedValuePoint;
+import com.example.pkveksamen.model.ProjectSnapshot;
+import com.example.pkveksamen.repository.SnapshotRepository;
+import com.example.pkveksamen.service.SnapshotService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SnapshotServiceTest {
+
+    private SnapshotRepository repo;
+    private SnapshotService service;
+
+    @BeforeEach
+    void setUp() {
+        repo = mock(SnapshotRepository.class);
+        service = new SnapshotService(repo, new TransactionTemplate(mock(PlatformTransactionManager.class)));
+    }
+
+    @Test
+    void getBurndownAndEarnedValue_deriveFromSnapshot() {
+        LocalDate day = LocalDate.of(2025, 3, 1);
+        when(repo.findSnapshots(7L, 0L, day, day)).thenReturn(List.of(snapshot(day)));
+
+        BurndownPoint burndown = service.getBurndown(7L, null, day, day).get(0);
+        assertEquals(6, burndown.getRemainingTasks());
+        assertEquals(30, burndown.getRemainingDays());
+        assertEquals(20, burndown.getPlannedRemainingDays());
+
+        // EV = 10 afsluttede dage + halvdelen af 8 igangværende
+        EarnedValuePoint ev = service.getEarnedValue(7L, null, day, day).get(0);
+        assertEquals(40, ev.getBudgetAtCompletion());
+        assertEquals(20, ev.getPlannedValue());
+        assertEquals(14.0, ev.getEarnedValue());
+        assertEquals(-6.0, ev.getScheduleVariance());
+        assertEquals(0.7, ev.getSchedulePerformanceIndex());
+    }
+
+    @Test
+    void getBurndown_defaultsToLast90Days_andRejectsBadRanges() {
+        LocalDate today = LocalDate.now();
+        service.getBurndown(7L, 3L, null, null);
+        verify(repo).findSnapshots(7L, 3L, today.minusDays(89), today);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> service.getBurndown(7L, null, today, today.minusDays(1)));
+        assertThrows(IllegalArgumentException.class,
+                () -> service.getEarnedValue(7L, null, today.minusYears(3), today));
+    }
+
+    @Test
+    void takeSnapshot_replacesDay_andToleratesConcurrentWriter() {
+        LocalDate day = LocalDate.of(2025, 3, 1);
+        when(repo.insertSnapshots(day)).thenReturn(12).thenThrow(new DuplicateKeyException("PK"));
+
+        assertEquals(12, service.takeSnapshot(day));
+        assertEquals(0, service.takeSnapshot(day));
+        verify(repo, times(2)).deleteSnapshots(day);
+    }
+
+    private ProjectSnapshot snapshot(LocalDate day) {
+        ProjectSnapshot snapshot = new ProjectSnapshot();
+        snapshot.setProjectId(7);
+        snapshot.setSnapshotDate(day);
+        snapshot.setTaskCount(10);
+        snapshot.setCompletedCount(4);
+        snapshot.setInProgressCount(3);
+        snapshot.setNotStartedCount(3);
+        snapshot.setTotalDays(40);
+        snapshot.setCompletedDays(10);
+        snapshot.setInProgressDays(8);
+        snapshot.setDueDays(20);
+        return snapshot;
+    }
+}
@@ -1,11 +1,21 @@
 package com.example.pkveksamen.Service;
 
+import com.example.pkveksamen.model.ChangeEvent;
 import com.example.pkveksamen.model.Status;
 import com.example.pkveksamen.repository.EmployeeRepository;
+import com.example.pkveksamen.repository.OutboxRepository;
 import com.example.pkveksamen.repository.TaskRepository;
+import com.example.pkveksamen.service.AuditJournal;
+import com.example.pkveksamen.service.ChangeOutbox;
+import com.example.pkveksamen.service.NoteChangeTracker;
 import com.example.pkveksamen.service.TaskService;
+import com.example.pkveksamen.service.TaskHistoryService;
+import com.example.pkveksamen.service.WorkItemService;
 import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.*;
 
 class TaskServiceTest {
@@ -14,7 +24,7 @@ class TaskServiceTest {
     void deleteTask_callsRepository() {
         TaskRepository taskRepo = mock(TaskRepository.class);
         EmployeeRepository empRepo = mock(EmployeeRepository.class);
-        TaskService service = new TaskService(taskRepo, empRepo);
+        TaskService service = new TaskService(taskRepo, empRepo, changeOutbox(mock(OutboxRepository.class)), mock(NoteChangeTracker.class));
 
         service.deleteTask(10L);
 
@@ -25,11 +35,29 @@ class TaskServiceTest {
     void updateTaskStatus_callsRepository() {
         TaskRepository taskRepo = mock(TaskRepository.class);
         EmployeeRepository empRepo = mock(EmployeeRepository.class);
-        TaskService service = new TaskService(taskRepo, empRepo);
+        OutboxRepository outboxRepo = mock(OutboxRepository.class);
+        TaskService service = new TaskService(taskRepo, empRepo, changeOutbox(outboxRepo), mock(NoteChangeTracker.class));
 
         service.updateTaskStatus(5L, Status.IN_PROGRESS);
 
         verify(taskRepo).updateTaskStatus(5L, Status.IN_PROGRESS.getDisplayName());
+        verify(outboxRepo).append(ChangeEvent.Type.TASK_CHANGED, 5L);
+    }
+
+    @Test
+    void failedWrite_isNotAnnouncedInOutbox() {
+        TaskRepository taskRepo = mock(TaskRepository.class);
+        OutboxRepository outboxRepo = mock(OutboxRepository.class);
+        TaskService service = new TaskService(taskRepo, mock(EmployeeRepository.class), changeOutbox(outboxRepo), mock(NoteChangeTracker.class));
+        doThrow(new IllegalStateException("fejl")).when(taskRepo).updateTaskNote(7L, "note");
+
+        assertThrows(IllegalStateException.class, () -> service.updateTaskNote(7L, "note"));
+
+        verifyNoInteractions(outboxRepo);
+    }
 
+    private static ChangeOutbox changeOutbox(OutboxRepository outboxRepo) {
+        return new ChangeOutbox(outboxRepo, new TransactionTemplate(mock(PlatformTransactionManager.class)),
+                mock(WorkItemService.class), mock(TaskHistoryService.class), mock(AuditJournal.class));
     }
 }
@@ -0,0 +1,90 @@
+package com.example.pkveksamen.Service;
+
+import com.example.pkveksamen.model.ChangeEvent;
+import com.example.pkveksamen.model.Status;
+import com.example.pkveksamen.model.TimelineItem;
+import com.example.pkveksamen.model.TimelineLayout;
+import com.example.pkveksamen.repository.TimelineRepository;
+import com.example.pkveksamen.service.TimelineService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TimelineServiceTest {
+
+    private static final LocalDate START = LocalDate.of(2025, 1, 1);
+
+    private TimelineRepository repo;
+    private TimelineService timelineService;
+
+    @BeforeEach
+    void setUp() {
+        repo = mock(TimelineRepository.class);
+        timelineService = new TimelineService(repo, 300, 10);
+
+        when(repo.loadProjectTree(1L)).thenReturn(List.of(
+                item(TimelineItem.Kind.PROJECT, 1, null, 0, 30),
+                item(TimelineItem.Kind.SUB_PROJECT, 10, null, 0, 20),
+                item(TimelineItem.Kind.TASK, 100, Status.IN_PROGRESS, 0, 4),
+                item(TimelineItem.Kind.SUB_TASK, 1000, Status.COMPLETED, 1, 2),
+                item(TimelineItem.Kind.TASK, 101, Status.NOT_STARTED, 3, 6),
+                item(TimelineItem.Kind.TASK, 102, Status.NOT_STARTED, 5, 9),
+                new TimelineItem(TimelineItem.Kind.TASK, 103, "Uden datoer", Status.NOT_STARTED, null, null)));
+    }
+
+    @Test
+    void getTimeline_computesOffsetsParentsAndLanes() {
+        TimelineLayout layout = timelineService.getTimeline(1L);
+
+        assertEquals(START, layout.getOrigin());
+        assertEquals(31, layout.getTotalDays());
+        List<TimelineLayout.Bar> rows = layout.getRows();
+        assertEquals(7, rows.size());
+
+        TimelineLayout.Bar subTask = rows.get(3);
+        assertEquals(2, subTask.getParent());
+        assertEquals(3, subTask.getDepth());
+        assertEquals(1, subTask.getStart());
+        assertEquals(2, subTask.getDays());
+
+        // Task 100 (dag 0-4) og 101 (dag 3-6) overlapper; 102 (dag 5-9) kan genbruge bane 0
+        assertEquals(0, rows.get(2).getLane());
+        assertEquals(1, rows.get(4).getLane());
+        assertEquals(0, rows.get(5).getLane());
+        assertNull(rows.get(6).getStart());
+        assertEquals(2, rows.get(6).getLane());
+        assertEquals(3, rows.get(1).getLanes());
+    }
+
+    @Test
+    void getTimeline_isCachedUntilChangeInProject() {
+        TimelineLayout first = timelineService.getTimeline(1L);
+        assertSame(first, timelineService.getTimeline(1L));
+        verify(repo, times(1)).loadProjectTree(1L);
+
+        // Ændring i et andet projekt rører ikke cachen
+        timelineService.onChange(new ChangeEvent(1, ChangeEvent.Type.TASK_CHANGED, 999));
+        assertSame(first, timelineService.getTimeline(1L));
+
+        timelineService.onChange(new ChangeEvent(2, ChangeEvent.Type.SUB_TASK_CHANGED, 1000));
+        TimelineLayout rebuilt = timelineService.getTimeline(1L);
+        assertNotSame(first, rebuilt);
+        assertEquals(first.getVersion(), rebuilt.getVersion());
+        verify(repo, times(2)).loadProjectTree(1L);
+    }
+
+    @Test
+    void getTimeline_returnsNullForUnknownProject() {
+        when(repo.loadProjectTree(2L)).thenReturn(List.of());
+        assertNull(timelineService.getTimeline(2L));
+    }
+
+    private static TimelineItem item(TimelineItem.Kind kind, long id, Status status, int startDay, int endDay) {
+        return new TimelineItem(kind, id, kind + " " + id, status, START.plusDays(startDay), START.plusDays(endDay));
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.pkveksamen.benchmark;
+
+import com.example.pkveksamen.model.ChangeEvent;
+import com.example.pkveksamen.service.AuditJournal;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Hvad en post i audit-journalen koster på request-stien, pr. fsync-politik. NONE og INTERVAL skal ligge
+ * i mikrosekunder; ALWAYS viser prisen for at tvinge hver post til disk.
+ * Køres med: mvn -Pbenchmark test-compile exec:exec -Dbenchmark=AuditJournalBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class AuditJournalBenchmark {
+
+    @Param({"NONE", "INTERVAL", "ALWAYS"})
+    private AuditJournal.FsyncPolicy fsync;
+
+    private Path directory;
+    private AuditJournal journal;
+    private long entityId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("audit-journal-bench");
+        journal = new AuditJournal(true, directory.toString(), 64 * 1024 * 1024, fsync, 1000, 30);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        journal.destroy();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public void append() {
+        journal.append(ChangeEvent.Type.TASK_CHANGED, ++entityId);
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.pkveksamen.benchmark;
+
+import com.example.pkveksamen.PkvEksamenApplication;
+import com.example.pkveksamen.model.ProjectHistory;
+import com.example.pkveksamen.service.DataGeneratorService;
+import com.example.pkveksamen.service.TaskHistoryService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * "Projektet som det så ud" (TaskHistoryService.getProjectAsOf) på ét projekt med 100.000 rækker i task_history:
+ * 20.000 tasks og subtasks oprettet af datageneratoren og fire ændringer af hver, en dag imellem.
+ * "latest" genafspiller hele historikken, "middle" stopper efter anden ændring. Målet er under 200 ms.
+ * Kører appen mod en H2-database i hukommelsen.
+ * Køres med: mvn -Pbenchmark test-compile exec:exec -Dbenchmark=ProjectHistoryBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ProjectHistoryBenchmark {
+
+    private static final int CHANGES_PER_ITEM = 4;
+
+    @Param({"latest", "middle"})
+    private String asOf;
+
+    private ConfigurableApplicationContext context;
+    private TaskHistoryService taskHistoryService;
+    private long projectId;
+    private LocalDateTime when;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(PkvEksamenApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.profiles.active=test",
+                        "--spring.datasource.url=jdbc:h2:mem:history-benchmark;DB_CLOSE_DELAY=-1",
+                        "--logging.level.org.springframework.jdbc.core=INFO",
+                        "--outbox.enabled=false",
+                        "--archive.enabled=false");
+        taskHistoryService = context.getBean(TaskHistoryService.class);
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+        DataGeneratorService.Settings settings = new DataGeneratorService.Settings();
+        settings.setEmployees(50);
+        settings.setProjects(1);
+        settings.setSubProjectsPerProject(20);
+        settings.setMembersPerProject(20);
+        settings.setTasks(10_000);
+        settings.setSubTasks(10_000);
+        context.getBean(DataGeneratorService.class).generate(settings);
+        projectId = jdbcTemplate.queryForObject("SELECT MIN(project_id) FROM project", Long.class);
+
+        // Hver ændring er en hel tilstand som ChangeOutbox skriver den; her med skiftende status
+        String[] statuses = {"IN_PROGRESS", "COMPLETED", "IN_PROGRESS", "COMPLETED"};
+        for (int change = 1; change <= CHANGES_PER_ITEM; change++) {
+            jdbcTemplate.update("INSERT INTO task_history (item_type, item_id, task_id, sub_project_id, project_id, " +
+                    "changed_at, change_kind, title, status, priority, employee_id, start_date, deadline) " +
+                    "SELECT item_type, item_id, task_id, sub_project_id, project_id, DATEADD(DAY, ?, changed_at), " +
+                    "'CHANGED', title, ?, priority, employee_id, start_date, deadline FROM task_history " +
+                    "WHERE change_kind = 'CREATED'", change, statuses[change - 1]);
+        }
+        LocalDateTime created = jdbcTemplate.queryForObject("SELECT MIN(changed_at) FROM task_history", LocalDateTime.class);
+        when = asOf.equals("middle") ? created.plusDays(2).plusHours(12) : created.plusDays(CHANGES_PER_ITEM + 1);
+        System.out.printf("%ntask_history: %,d rækker%n",
+                jdbcTemplate.queryForObject("SELECT COUNT(*) FROM task_history WHERE project_id = ?", Integer.class, projectId));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ProjectHistory projectAsOf() {
+        return taskHistoryService.getProjectAsOf(projectId, when);
+    }
+}
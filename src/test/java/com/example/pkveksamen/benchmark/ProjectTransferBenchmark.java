@@ -0,0 +1,204 @@
+package com.example.pkveksamen.benchmark;
+
+import com.example.pkveksamen.repository.ProjectTransferFormat;
+import com.example.pkveksamen.repository.ProjectTransferFormat.Field;
+import com.example.pkveksamen.repository.ProjectTransferFormat.RecordType;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Det binære ProjectTransferFormat mod den tilsvarende JSON (samme poster med feltnavne og ISO-datoer, skrevet og
+ * læst med Jacksons streaming-API). Måler skrivning og læsning af ét projekt med tasks og tre gange så mange subtasks;
+ * filstørrelserne, også gzip'et, skrives ud ved opstart.
+ * Køres med: mvn -Pbenchmark test-compile exec:exec -Dbenchmark=ProjectTransferBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ProjectTransferBenchmark {
+
+    private static final Map<RecordType, String[]> JSON_FIELDS = Map.of(
+            RecordType.PROJECT, new String[]{"projectId", "owner", "title", "description", "startDate", "deadline", "customer"},
+            RecordType.MEMBER, new String[]{"username"},
+            RecordType.SUB_PROJECT, new String[]{"subProjectId", "title", "description", "startDate", "deadline", "duration"},
+            RecordType.TASK, new String[]{"taskId", "subProjectId", "assignee", "title", "description", "status",
+                    "startDate", "deadline", "duration", "priority", "note"},
+            RecordType.SUB_TASK, new String[]{"subTaskId", "taskId", "title", "description", "status", "startDate",
+                    "deadline", "duration", "priority", "note"});
+
+    private static final String[] STATUSES = {"Not started", "In progress", "Completed", "NOT_STARTED", "COMPLETED"};
+    private static final String[] PRIORITIES = {"Low", "Medium", "High", "HIGH", null};
+
+    @Param({"10000"})
+    private int tasks;
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private List<RecordType> types;
+    private List<Object[]> rows;
+    private byte[] binary;
+    private byte[] json;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        generate();
+        binary = writeBinary();
+        json = writeJson();
+        System.out.printf("%n%d poster: binær %,d bytes (gzip %,d), JSON %,d bytes (gzip %,d)%n",
+                rows.size(), binary.length, gzipped(binary), json.length, gzipped(json));
+    }
+
+    @Benchmark
+    public byte[] writeBinary() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(binary == null ? 1 << 20 : binary.length);
+        ProjectTransferFormat.Writer writer = ProjectTransferFormat.writer(out);
+        for (int i = 0; i < rows.size(); i++) {
+            writer.write(types.get(i), rows.get(i));
+        }
+        writer.finish();
+        return out.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] writeJson() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json == null ? 1 << 20 : json.length);
+        try (JsonGenerator generator = jsonFactory.createGenerator(out)) {
+            generator.writeStartArray();
+            for (int i = 0; i < rows.size(); i++) {
+                RecordType type = types.get(i);
+                Object[] values = rows.get(i);
+                String[] names = JSON_FIELDS.get(type);
+                generator.writeStartObject();
+                generator.writeStringField("type", type.name());
+                for (int f = 0; f < values.length; f++) {
+                    Object value = values[f];
+                    if (value == null) {
+                        generator.writeNullField(names[f]);
+                    } else if (value instanceof Number number) {
+                        generator.writeNumberField(names[f], number.longValue());
+                    } else {
+                        generator.writeStringField(names[f], value.toString());
+                    }
+                }
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+        }
+        return out.toByteArray();
+    }
+
+    @Benchmark
+    public int readBinary() throws IOException {
+        ProjectTransferFormat.Reader reader = ProjectTransferFormat.reader(new ByteArrayInputStream(binary));
+        int records = 0;
+        while (reader.next() != null) {
+            records += reader.getValues().length > 0 ? 1 : 0;
+        }
+        return records;
+    }
+
+    // Samme arbejde som binærlæseren: hver post bliver til et Object[] med Long, Integer, LocalDate og String
+    @Benchmark
+    public int readJson() throws IOException {
+        int records = 0;
+        try (JsonParser parser = jsonFactory.createParser(json)) {
+            parser.nextToken();
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                parser.nextToken();
+                parser.nextToken();
+                RecordType type = RecordType.valueOf(parser.getText());
+                Field[] fields = type.getFields();
+                Object[] values = new Object[fields.length];
+                for (int f = 0; f < fields.length; f++) {
+                    parser.nextToken();
+                    JsonToken token = parser.nextToken();
+                    if (token == JsonToken.VALUE_NULL) {
+                        continue;
+                    }
+                    values[f] = switch (fields[f]) {
+                        case ID -> parser.getLongValue();
+                        case NUMBER -> parser.getIntValue();
+                        case DATE -> LocalDate.parse(parser.getText());
+                        case TEXT -> parser.getText();
+                    };
+                }
+                parser.nextToken();
+                records += values.length > 0 ? 1 : 0;
+            }
+        }
+        return records;
+    }
+
+    // Et projekt som datageneratorens: få brugernavne, statusser og prioriteter går igen, titler og noter varierer
+    private void generate() {
+        Random random = new Random(42);
+        types = new ArrayList<>();
+        rows = new ArrayList<>();
+        LocalDate start = LocalDate.of(2026, 1, 5);
+        add(RecordType.PROJECT, 1L, "projectlead", "Customer portal", "Rebuild of the customer portal",
+                start, start.plusDays(365), "Acme A/S");
+        for (int m = 0; m < 12; m++) {
+            add(RecordType.MEMBER, "employee" + m);
+        }
+        int subProjects = Math.max(1, tasks / 500);
+        for (int s = 0; s < subProjects; s++) {
+            add(RecordType.SUB_PROJECT, 100L + s, "Subproject " + s, "Phase " + s + " of the portal",
+                    start.plusDays(s * 30L), start.plusDays(s * 30L + 60), 60);
+        }
+        for (int t = 0; t < tasks; t++) {
+            LocalDate taskStart = start.plusDays(random.nextInt(300));
+            add(RecordType.TASK, 10_000L + t, 100L + t % subProjects, "employee" + random.nextInt(12),
+                    "Task " + t + " - implement feature " + random.nextInt(1000), "Description of task " + t,
+                    STATUSES[random.nextInt(STATUSES.length)], taskStart, taskStart.plusDays(1 + random.nextInt(20)),
+                    1 + random.nextInt(40), PRIORITIES[random.nextInt(PRIORITIES.length)],
+                    random.nextInt(4) == 0 ? "Waiting for review" : null);
+        }
+        for (int st = 0; st < tasks * 3; st++) {
+            LocalDate subStart = start.plusDays(random.nextInt(300));
+            add(RecordType.SUB_TASK, 1_000_000L + st, 10_000L + random.nextInt(tasks), "Subtask " + st,
+                    random.nextBoolean() ? "Step " + st : null, STATUSES[random.nextInt(STATUSES.length)], subStart,
+                    subStart.plusDays(1 + random.nextInt(5)), 1 + random.nextInt(8),
+                    PRIORITIES[random.nextInt(PRIORITIES.length)], null);
+        }
+    }
+
+    private void add(RecordType type, Object... values) {
+        types.add(type);
+        rows.add(values);
+    }
+
+    private static int gzipped(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.size();
+    }
+}
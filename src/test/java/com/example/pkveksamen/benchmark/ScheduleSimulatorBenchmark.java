@@ -0,0 +1,77 @@
+package com.example.pkveksamen.benchmark;
+
+import com.example.pkveksamen.model.ScheduleRisk;
+import com.example.pkveksamen.model.Status;
+import com.example.pkveksamen.model.TimelineItem;
+import com.example.pkveksamen.service.ScheduleSimulator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Monte Carlo-simuleringen på et syntetisk projekt. Målet er 100.000 gennemløb over 2.000 tasks på få sekunder.
+ * Køres med: mvn -Pbenchmark test-compile exec:exec -Dbenchmark=ScheduleSimulatorBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ScheduleSimulatorBenchmark {
+
+    private static final LocalDate TODAY = LocalDate.of(2025, 1, 1);
+
+    @Param({"10000", "100000"})
+    private int iterations;
+
+    @Param({"2000"})
+    private int tasks;
+
+    @Param({"20"})
+    private int subProjects;
+
+    private ScheduleSimulator simulator;
+    private List<TimelineItem> items;
+
+    @Setup
+    public void setUp() {
+        simulator = new ScheduleSimulator(null, 0.8, 1.75, iterations, iterations);
+
+        // Subprojekter efter hinanden over et år; tasks på 1-21 dage spredt inden for deres subprojekt
+        SplittableRandom random = new SplittableRandom(1);
+        items = new ArrayList<>(1 + subProjects + tasks);
+        items.add(new TimelineItem(TimelineItem.Kind.PROJECT, 1, "Benchmark", null, TODAY, TODAY.plusDays(365)));
+        int span = 365 / subProjects;
+        for (int s = 0; s < subProjects; s++) {
+            LocalDate start = TODAY.plusDays((long) s * span);
+            items.add(new TimelineItem(TimelineItem.Kind.SUB_PROJECT, s + 1, "Sub " + s, null,
+                    start, start.plusDays(span - 1)));
+            for (int t = s * tasks / subProjects; t < (s + 1) * tasks / subProjects; t++) {
+                LocalDate taskStart = start.plusDays(random.nextInt(span));
+                Status status = Status.values()[random.nextInt(Status.values().length)];
+                items.add(new TimelineItem(TimelineItem.Kind.TASK, t + 1, "Task " + t, status,
+                        taskStart, taskStart.plusDays(random.nextInt(21))));
+            }
+        }
+    }
+
+    @Benchmark
+    public ScheduleRisk simulate() {
+        return simulator.simulate(items, TODAY, iterations, 42);
+    }
+}
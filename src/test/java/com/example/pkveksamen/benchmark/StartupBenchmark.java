@@ -0,0 +1,143 @@
+package com.example.pkveksamen.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Opstartstid for den pakkede app: fra java-processen startes til første 200 på /login, med H2-profilen så
+ * schema.sql og data.sql køres ved hver opstart. "default" er den almindelige JAR; "aot" og "cds" slår hver
+ * optimering til for sig, og "fast-startup" er begge dele som i profilen fast-startup.
+ * Kræver en app bygget med samme profil: mvn -Pfast-startup -DskipTests package -Daot.profile=h2
+ * Køres med: mvn -Pbenchmark test-compile exec:exec -Dbenchmark=StartupBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(1)
+public class StartupBenchmark {
+
+    private static final String JAR = "PKV-Eksamen-0.0.1-SNAPSHOT.jar";
+    private static final Duration TIMEOUT = Duration.ofSeconds(120);
+    private static final String PROFILE = "h2";
+    private static final String BUILD = "mvn -Pfast-startup -DskipTests package -Daot.profile=" + PROFILE;
+
+    @Param({"default", "aot", "cds", "fast-startup"})
+    private String mode;
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+    private Path target;
+    private Process process;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        target = Path.of(System.getProperty("startup.target", "target")).toAbsolutePath();
+        Path fastStartup = target.resolve("fast-startup");
+        if (!Files.exists(fastStartup.resolve("application.jsa")) || !Files.exists(fastStartup.resolve("aot.properties"))) {
+            throw new IllegalStateException("Byg først appen med: " + BUILD);
+        }
+        // AOT og arkivet skal være bygget med den profil der måles med, ellers måles en app der ikke passer til dem
+        Properties built = new Properties();
+        try (Reader reader = Files.newBufferedReader(fastStartup.resolve("aot.properties"))) {
+            built.load(reader);
+        }
+        if (!PROFILE.equals(built.getProperty("aot.profile"))) {
+            throw new IllegalStateException("Appen er bygget med aot.profile=" + built.getProperty("aot.profile")
+                    + ", men måles med " + PROFILE + ". Byg den med: " + BUILD);
+        }
+    }
+
+    @TearDown(Level.Invocation)
+    public void stop() throws InterruptedException {
+        if (process != null) {
+            process.destroy();
+            if (!process.waitFor(10, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+            process = null;
+        }
+    }
+
+    @Benchmark
+    public int timeToLogin() throws Exception {
+        int port = freePort();
+        process = start(port);
+        HttpRequest login = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/login")).GET().build();
+        long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException(mode + ": appen stoppede med exit code " + process.exitValue());
+            }
+            try {
+                HttpResponse<Void> response = client.send(login, HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() == 200) {
+                    return response.statusCode();
+                }
+            } catch (ConnectException e) {
+                // Porten er ikke åben endnu
+            }
+            Thread.sleep(10);
+        }
+        throw new IllegalStateException(mode + ": /login svarede ikke inden for " + TIMEOUT);
+    }
+
+    private Process start(int port) throws IOException {
+        boolean aot = mode.equals("aot") || mode.equals("fast-startup");
+        boolean cds = mode.equals("cds") || mode.equals("fast-startup");
+        // CDS kræver den udpakkede app (app-JAR + lib/); uden CDS bruges den almindelige fat JAR
+        File directory = cds ? target.resolve("fast-startup").toFile() : target.toFile();
+
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        if (cds) {
+            command.add("-XX:SharedArchiveFile=application.jsa");
+        }
+        if (aot) {
+            command.add("-Dspring.aot.enabled=true");
+        }
+        command.add("-jar");
+        command.add(JAR);
+        command.add("--spring.profiles.active=" + PROFILE);
+        command.add("--server.port=" + port);
+        return new ProcessBuilder(command)
+                .directory(directory)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.pkveksamen.config;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AssetPipelineTest {
+
+    @Test
+    void minifyCss_stripsCommentsAndWhitespace_butKeepsStringsAndDescendantPseudoSelectors() {
+        String css = "/* header */\n.a :hover,\n.b > .c {\n    color: red;\n    font-family: \"Segoe  UI\", sans-serif;\n}\n"
+                + "@media (max-width: 600px) {\n  .d { margin: 0 auto; }\n}\n";
+
+        String minified = AssetPipeline.minifyCss(css);
+
+        assertEquals(".a :hover,.b>.c{color:red;font-family:\"Segoe  UI\",sans-serif}"
+                + "@media (max-width:600px){.d{margin:0 auto}}", minified);
+        assertEquals(minified, AssetPipeline.minifyCss(minified));
+    }
+
+    @Test
+    void process_writesMinifiedCssAndGzipVariant(@TempDir Path dir) throws IOException {
+        Path css = dir.resolve("task.css");
+        Files.writeString(css, "body {\n    margin: 0;\n}\n");
+
+        assertEquals(1, AssetPipeline.process(dir));
+
+        assertEquals("body{margin:0}", Files.readString(css));
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(dir.resolve("task.css.gz")))) {
+            assertEquals("body{margin:0}", new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.pkveksamen.config;
+
+import com.example.pkveksamen.model.EmployeeRole;
+import com.example.pkveksamen.service.SessionTokenService;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrl;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Den rigtige registrering i SessionTokenConfig med auth.token.required=true, som i prod
+@SpringBootTest(properties = "auth.token.required=true")
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+@ActiveProfiles("test")
+class SessionTokenInterceptorTest {
+
+    private final MockMvc mockMvc;
+    private final SessionTokenService sessionTokenService;
+
+    @Autowired
+    SessionTokenInterceptorTest(MockMvc mockMvc, SessionTokenService sessionTokenService) {
+        this.mockMvc = mockMvc;
+        this.sessionTokenService = sessionTokenService;
+    }
+
+    @Test
+    void withoutToken_apiGets401_andPagesRedirectToLogin() throws Exception {
+        mockMvc.perform(get("/api/v1/projects/1")).andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/project/list/1")).andExpect(redirectedUrl("/login"));
+        // TaskControllers skriveruter ligger uden for /project
+        mockMvc.perform(post("/save/1/1/1")).andExpect(redirectedUrl("/login"));
+        mockMvc.perform(post("/task/delete/1/1/1/1")).andExpect(redirectedUrl("/login"));
+        mockMvc.perform(post("/subtask/delete/1/1/1/1/1")).andExpect(redirectedUrl("/login"));
+    }
+
+    @Test
+    void openPages_needNoToken() throws Exception {
+        mockMvc.perform(get("/login")).andExpect(status().isOk());
+        mockMvc.perform(get("/create-employee")).andExpect(status().isOk());
+    }
+
+    @Test
+    void tokenForAnotherEmployee_gets403() throws Exception {
+        Cookie cookie = new Cookie(SessionTokenService.COOKIE_NAME, sessionTokenService.issue(7, EmployeeRole.TEAM_MEMBER));
+
+        mockMvc.perform(get("/project/list/8").cookie(cookie)).andExpect(status().isForbidden());
+        mockMvc.perform(post("/task/delete/8/1/1/1").cookie(cookie)).andExpect(status().isForbidden());
+        mockMvc.perform(post("/subtask/delete/8/1/1/1/1").cookie(cookie)).andExpect(status().isForbidden());
+    }
+}
@@ -4,12 +4,15 @@ import com.example.pkveksamen.model.AlphaRole;
 import com.example.pkveksamen.model.Employee;
 import com.example.pkveksamen.model.EmployeeRole;
 import com.example.pkveksamen.service.EmployeeService;
-import jakarta.servlet.http.HttpSession;
+import com.example.pkveksamen.service.SessionTokenService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockHttpSession;
 import org.springframework.ui.Model;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -25,7 +28,7 @@ class EmployeeControllerTest {
     private Model model;
 
     @Mock
-    private HttpSession session;
+    private SessionTokenService sessionTokenService;
 
     @InjectMocks
     private EmployeeController employeeController;
@@ -88,11 +91,14 @@ class EmployeeControllerTest {
     @Test
     void validateLogin_Success_ShouldRedirectToProjectList() {
         when(employeeService.validateLogin("testuser", "password123")).thenReturn(1);
+        when(employeeService.getEmployeeById(1)).thenReturn(testEmployee);
+        MockHttpServletResponse response = new MockHttpServletResponse();
 
-        String viewName = employeeController.validateLogin("testuser", "password123", model);
+        String viewName = employeeController.validateLogin("testuser", "password123", model, response);
 
         assertEquals("redirect:/project/list/1", viewName);
         verify(employeeService).validateLogin("testuser", "password123");
+        verify(sessionTokenService).writeCookie(response, 1, EmployeeRole.PROJECT_MANAGER);
         verify(model, never()).addAttribute(anyString(), anyString());
     }
 
@@ -102,17 +108,24 @@ class EmployeeControllerTest {
     void validateLogin_IdIsZero_ShouldReturnLoginViewWithError() {
         when(employeeService.validateLogin("testuser", "wrongpass")).thenReturn(0);
 
-        String viewName = employeeController.validateLogin("testuser", "wrongpass", model);
+        String viewName = employeeController.validateLogin("testuser", "wrongpass", model, new MockHttpServletResponse());
 
         assertEquals("login", viewName);
+        verify(sessionTokenService, never()).writeCookie(any(), anyInt(), any());
         verify(model).addAttribute("error", "Brugernavn eller adgangskoden er forkert. Prøv igen!");
     }
 
     @Test
-    void logout_ShouldInvalidateSessionAndRedirectToLogin() {
-        String viewName = employeeController.logout(session);
+    void logout_ShouldClearTokenInvalidateSessionAndRedirectToLogin() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        MockHttpSession session = new MockHttpSession();
+        request.setSession(session);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        String viewName = employeeController.logout(request, response);
 
         assertEquals("redirect:/login", viewName);
-        verify(session).invalidate();
+        assertTrue(session.isInvalid());
+        verify(sessionTokenService).clearCookie(response);
     }
 }
\ No newline at end of file
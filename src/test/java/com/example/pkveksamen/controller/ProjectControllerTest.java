@@ -1,21 +1,33 @@
 package com.example.pkveksamen.controller;
 
+import com.example.pkveksamen.model.AlphaRole;
 import com.example.pkveksamen.model.Employee;
+import com.example.pkveksamen.model.EmployeePage;
 import com.example.pkveksamen.model.EmployeeRole;
+import com.example.pkveksamen.model.LevelingJob;
 import com.example.pkveksamen.model.Project;
+import com.example.pkveksamen.model.ProjectDashboard;
+import com.example.pkveksamen.model.Status;
 import com.example.pkveksamen.model.SubProject;
+import com.example.pkveksamen.service.DashboardService;
 import com.example.pkveksamen.service.EmployeeService;
+import com.example.pkveksamen.service.HeaderFragmentCache;
 import com.example.pkveksamen.service.ProjectService;
+import com.example.pkveksamen.service.ResourceLevelingService;
+import com.example.pkveksamen.service.TaskHistoryService;
+import com.example.pkveksamen.service.WorkItemService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.ui.Model;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -29,6 +41,21 @@ class ProjectControllerTest {
     @Mock
     private EmployeeService employeeService;
 
+    @Mock
+    private HeaderFragmentCache headerFragmentCache;
+
+    @Mock
+    private WorkItemService workItemService;
+
+    @Mock
+    private DashboardService dashboardService;
+
+    @Mock
+    private ResourceLevelingService resourceLevelingService;
+
+    @Mock
+    private TaskHistoryService taskHistoryService;
+
     @Mock
     private Model model;
 
@@ -69,19 +96,21 @@ class ProjectControllerTest {
 
     @Test
     void showProjectsByEmployeeId_ShouldReturnProjectView() {
-        List<Project> projects = new ArrayList<>();
-        projects.add(testProject);
+        ProjectDashboard row = new ProjectDashboard();
+        row.setProject(testProject);
+        List<ProjectDashboard> dashboard = List.of(row);
 
-        when(projectService.showProjectsByEmployeeId(1)).thenReturn(projects);
-        when(employeeService.getEmployeeById(1)).thenReturn(projectManager);
+        when(dashboardService.getDashboard(1)).thenReturn(dashboard);
+        when(workItemService.getStatusCounts(1)).thenReturn(
+                Map.of(Status.NOT_STARTED, 2, Status.IN_PROGRESS, 3, Status.COMPLETED, 7));
 
         String viewName = projectController.showProjectsByEmployeeId(1, model);
 
         assertEquals("project", viewName);
-        verify(model).addAttribute("projectList", projects);
+        verify(model).addAttribute("dashboard", dashboard);
         verify(model).addAttribute("currentEmployeeId", 1);
-        verify(model).addAttribute("username", "projektleder");
-        verify(model).addAttribute("employeeRole", EmployeeRole.PROJECT_MANAGER);
+        verify(model).addAttribute("openWorkItems", 5);
+        verify(headerFragmentCache).addHeader(model, 1);
     }
 
     @Test
@@ -90,7 +119,6 @@ class ProjectControllerTest {
         subProjects.add(testSubProject);
 
         when(projectService.showSubProjectsByProjectId(1L)).thenReturn(subProjects);
-        when(employeeService.getEmployeeById(1)).thenReturn(projectManager);
 
         String viewName = projectController.showSubprojectByProjectId(1, 1L, model);
 
@@ -119,7 +147,6 @@ class ProjectControllerTest {
     @Test
     void showEditForm_ShouldReturnEditProjectView() {
         when(projectService.getProjectById(1L)).thenReturn(testProject);
-        when(employeeService.getEmployeeById(1)).thenReturn(projectManager);
 
         String viewName = projectController.showEditForm(1, 1L, model);
 
@@ -134,18 +161,20 @@ class ProjectControllerTest {
         List<Employee> projectMembers = new ArrayList<>();
         projectMembers.add(teamMember);
         List<Employee> availableEmployees = new ArrayList<>();
+        availableEmployees.add(projectManager);
 
         when(projectService.getProjectById(1L)).thenReturn(testProject);
         when(projectService.getProjectMembers(1L)).thenReturn(projectMembers);
-        when(projectService.getAvailableEmployeesToAdd(1L)).thenReturn(availableEmployees);
-        when(employeeService.getEmployeeById(1)).thenReturn(projectManager);
+        when(projectService.getAvailableEmployeesToAdd(1L, "pro", AlphaRole.Tester, null))
+                .thenReturn(new EmployeePage(availableEmployees, "projektleder"));
 
-        String viewName = projectController.showProjectMembers(1, 1L, model);
+        String viewName = projectController.showProjectMembers(1, 1L, "pro", AlphaRole.Tester, null, model);
 
         assertEquals("view-project-members", viewName);
         verify(model).addAttribute("project", testProject);
         verify(model).addAttribute("projectMembers", projectMembers);
         verify(model).addAttribute("availableEmployees", availableEmployees);
+        verify(model).addAttribute("nextCursor", "projektleder");
     }
 
     @Test
@@ -202,4 +231,27 @@ class ProjectControllerTest {
                 1
         );
     }
-}
\ No newline at end of file
+
+    @Test
+    void applyLeveling_withoutCheckedShifts_appliesNone() {
+        when(resourceLevelingService.getJob("job")).thenReturn(new LevelingJob(1L));
+
+        String view = projectController.applyLeveling(2, 1L, "job", null, model, new MockHttpServletResponse());
+
+        assertEquals("redirect:/project/leveling/2/1/job", view);
+        verify(resourceLevelingService).apply("job", List.of());
+    }
+
+    @Test
+    void leveling_jobNotOnThisNode_shows404Page_insteadOfRedirectOr500() {
+        MockHttpServletResponse showResponse = new MockHttpServletResponse();
+        MockHttpServletResponse applyResponse = new MockHttpServletResponse();
+
+        assertEquals("leveling", projectController.showLeveling(2, 1L, "job", model, showResponse));
+        assertEquals("leveling", projectController.applyLeveling(2, 1L, "job", List.of(5L), model, applyResponse));
+
+        assertEquals(404, showResponse.getStatus());
+        assertEquals(404, applyResponse.getStatus());
+        verify(resourceLevelingService, never()).apply(anyString(), any());
+    }
+}
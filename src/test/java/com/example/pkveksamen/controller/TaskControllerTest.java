@@ -2,10 +2,13 @@ package com.example.pkveksamen.controller;
 
 import com.example.pkveksamen.model.*;
 import com.example.pkveksamen.repository.TaskRepository;
+import com.example.pkveksamen.service.AssigneeRecommender;
 import com.example.pkveksamen.service.EmployeeService;
+import com.example.pkveksamen.service.HeaderFragmentCache;
+import com.example.pkveksamen.service.NoteChangeTracker;
 import com.example.pkveksamen.service.ProjectService;
 import com.example.pkveksamen.service.TaskService;
-import jakarta.servlet.http.HttpSession;
+import com.example.pkveksamen.service.WorkItemService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -35,6 +38,18 @@ class TaskControllerTest {
     @Mock
     private TaskRepository taskRepository;
 
+    @Mock
+    private HeaderFragmentCache headerFragmentCache;
+
+    @Mock
+    private NoteChangeTracker noteChangeTracker;
+
+    @Mock
+    private WorkItemService workItemService;
+
+    @Mock
+    private AssigneeRecommender assigneeRecommender;
+
     @Mock
     private Model model;
 
@@ -90,21 +105,21 @@ class TaskControllerTest {
         tasks.add(testTask);
 
         when(employeeService.getEmployeeById(2)).thenReturn(teamMember);
-        when(taskService.showTaskByEmployeeId(2)).thenReturn(tasks);
-        HttpSession session = mock(HttpSession.class);
-
-        String viewName = taskController.showTaskByEmployeeId(2, 1L, 1L, model, session);
+        TaskFilter filter = TaskFilter.none();
+        when(taskService.showTaskByEmployeeId(2, filter)).thenReturn(tasks);
+        String viewName = taskController.showTaskByEmployeeId(2, 1L, 1L, filter, model);
 
         assertEquals("task", viewName);
 
-        verify(taskService).showTaskByEmployeeId(2);
+        verify(taskService).showTaskByEmployeeId(2, filter);
 
-        verify(taskService, never()).showTasksBySubProjectId(anyLong());
+        verify(taskService, never()).showTasksBySubProjectId(anyLong(), any(TaskFilter.class));
 
         verify(model).addAttribute("taskList", tasks);
         verify(model).addAttribute("currentProjectId", 1L);
         verify(model).addAttribute("currentSubProjectId", 1L);
         verify(model).addAttribute("currentEmployeeId", 2);
+        verify(headerFragmentCache).addHeader(model, 2);
     }
 
 
@@ -112,7 +127,7 @@ class TaskControllerTest {
     void showTaskCreateForm_AsTeamMember_ShouldRedirect() {
         when(employeeService.getEmployeeById(2)).thenReturn(teamMember);
 
-        String viewName = taskController.showTaskCreateForm(2, 1L, 1L, model);
+        String viewName = taskController.showTaskCreateForm(2, 1L, 1L, null, model);
 
         assertEquals("redirect:/project/task/liste/1/1/2", viewName);
         verify(projectService, never()).getProjectMembers(anyLong());
@@ -8,6 +8,7 @@ import com.example.pkveksamen.model.SubProject;
 import com.example.pkveksamen.model.Task;
 import com.example.pkveksamen.repository.EmployeeRepository;
 import com.example.pkveksamen.repository.ProjectRepository;
+import com.example.pkveksamen.repository.RoleDictionary;
 import com.example.pkveksamen.repository.TaskRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -50,6 +51,7 @@ class ProjectFlowE2ETest {
     private final EmployeeRepository employeeRepository;
     private final ProjectRepository projectRepository;
     private final TaskRepository taskRepository;
+    private final RoleDictionary roleDictionary;
 
     /**
      * Constructor injection i test (bedste praksis)
@@ -59,12 +61,14 @@ class ProjectFlowE2ETest {
                               JdbcTemplate jdbcTemplate,
                               EmployeeRepository employeeRepository,
                               ProjectRepository projectRepository,
-                              TaskRepository taskRepository) {
+                              TaskRepository taskRepository,
+                              RoleDictionary roleDictionary) {
         this.restTemplate = restTemplate;
         this.jdbcTemplate = jdbcTemplate;
         this.employeeRepository = employeeRepository;
         this.projectRepository = projectRepository;
         this.taskRepository = taskRepository;
+        this.roleDictionary = roleDictionary;
     }
 
     @BeforeEach
@@ -87,6 +91,8 @@ class ProjectFlowE2ETest {
         jdbcTemplate.execute("ALTER TABLE sub_project ALTER COLUMN sub_project_id RESTART WITH 1");
         jdbcTemplate.execute("ALTER TABLE task ALTER COLUMN task_id RESTART WITH 1");
         jdbcTemplate.execute("ALTER TABLE sub_task ALTER COLUMN sub_task_id RESTART WITH 1");
+        // role er tømt, så rolleordbogen skal læses forfra
+        roleDictionary.reload();
     }
 
     @Test
@@ -0,0 +1,63 @@
+package com.example.pkveksamen.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Opsamler svartider (i mikrosekunder) for ét trin i load-testen og beregner percentiler.
+ */
+class LatencyRecorder {
+
+    private final String step;
+    private long[] samples = new long[1024];
+    private int count;
+    private int errors;
+
+    LatencyRecorder(String step) {
+        this.step = step;
+    }
+
+    synchronized void record(long micros, boolean ok) {
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, samples.length * 2);
+        }
+        samples[count++] = micros;
+        if (!ok) {
+            errors++;
+        }
+    }
+
+    synchronized Snapshot snapshot() {
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        return new Snapshot(step, sorted, errors);
+    }
+
+    static class Snapshot {
+        final String step;
+        final long[] sorted;
+        final int errors;
+
+        Snapshot(String step, long[] sorted, int errors) {
+            this.step = step;
+            this.sorted = sorted;
+            this.errors = errors;
+        }
+
+        int count() {
+            return sorted.length;
+        }
+
+        // Nearest-rank percentil, fx percentile(0.99) for p99
+        long percentile(double quantile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int rank = (int) Math.ceil(quantile * sorted.length);
+            return sorted[Math.min(Math.max(rank, 1), sorted.length) - 1];
+        }
+
+        long max() {
+            return sorted.length == 0 ? 0 : sorted[sorted.length - 1];
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.pkveksamen.loadtest;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Kort load-test mod hele app'en med et lille syntetisk datasæt.
+ * Køres kun eksplicit: mvn test -Dtest=LoadTest -Dloadtest=true
+ */
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:loadtest",
+        "logging.level.org.springframework.jdbc.core=INFO",
+        "datagen.employees=200",
+        "datagen.projects=20",
+        "datagen.members-per-project=10",
+        "datagen.tasks=1000",
+        "datagen.sub-tasks=2000"
+})
+@ActiveProfiles({"h2", "datagen"})
+class LoadTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void closedLoopFlowCompletes() throws InterruptedException {
+        LoadTestHarness harness = new LoadTestHarness(settings(LoadTestHarness.Mode.CLOSED));
+        harness.run();
+        System.out.println(harness.report());
+
+        assertTrue(harness.completedFlows() > 0);
+    }
+
+    @Test
+    void openLoopFlowCompletes() throws InterruptedException {
+        LoadTestHarness harness = new LoadTestHarness(settings(LoadTestHarness.Mode.OPEN));
+        harness.run();
+        System.out.println(harness.report());
+
+        assertTrue(harness.completedFlows() > 0);
+    }
+
+    private LoadTestHarness.Settings settings(LoadTestHarness.Mode mode) {
+        Long firstId = jdbcTemplate.queryForObject(
+                "SELECT MIN(employee_id) FROM employee WHERE username LIKE 'gen.user%'", Long.class);
+        Long userCount = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM employee WHERE username LIKE 'gen.user%'", Long.class);
+
+        LoadTestHarness.Settings settings = new LoadTestHarness.Settings();
+        settings.baseUrl = "http://localhost:" + port;
+        settings.firstUserId = firstId;
+        settings.userCount = userCount.intValue();
+        settings.mode = mode;
+        settings.virtualUsers = 10;
+        settings.flowsPerSecond = 10;
+        settings.duration = Duration.ofSeconds(10);
+        settings.thinkTime = Duration.ofMillis(50);
+        return settings;
+    }
+}
@@ -0,0 +1,336 @@
+package com.example.pkveksamen.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Selvstændig HTTP load-generator for hovedflowet:
+ * login → projektliste → subprojektliste → taskliste → statusopdatering (kun team members).
+ *
+ * Hver virtuel bruger har sin egen cookie-session og venter "think time" mellem trinene.
+ * I closed-loop starter en bruger først et nyt flow når det forrige er færdigt.
+ * I open-loop startes flows med en fast rate uanset svartider, og svartiden måles fra det
+ * planlagte starttidspunkt, så kø-tid ikke skjules (coordinated omission).
+ *
+ * Kør mod en app på localhost (H2 + datagen-profilen), fx:
+ * <pre>
+ * LoadTestHarness --base-url=http://localhost:8080 --first-user-id=3 --user-count=1000 --mode=open --rate=50 --duration=60
+ * </pre>
+ */
+public class LoadTestHarness {
+
+    enum Step {
+        LOGIN, PROJECT_LIST, SUBPROJECT_LIST, TASK_LIST, STATUS_UPDATE
+    }
+
+    enum Mode {
+        CLOSED, OPEN
+    }
+
+    private static final Pattern LIST_REDIRECT = Pattern.compile("/project/list/(\\d+)");
+    private static final Pattern SUBPROJECT_LINK = Pattern.compile("/project/subproject/list/(\\d+)\\?employeeId=");
+    private static final Pattern TASK_LIST_LINK = Pattern.compile("/project/task/liste/(\\d+)/(\\d+)/(\\d+)");
+    private static final Pattern STATUS_FORM = Pattern.compile("/project/task/updatestatus/(\\d+)");
+    private static final String MANAGER_MARKER = "/project/createproject/";
+    private static final String[] STATUSES = {"NOT_STARTED", "IN_PROGRESS", "COMPLETED"};
+
+    private final Settings settings;
+    private final HttpClient client;
+    private final Map<Step, LatencyRecorder> recorders = new EnumMap<>(Step.class);
+    private final AtomicLong completedFlows = new AtomicLong();
+    private final AtomicLong managerFlows = new AtomicLong();
+
+    public LoadTestHarness(Settings settings) {
+        this.settings = settings;
+        this.client = HttpClient.newBuilder()
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        for (Step step : Step.values()) {
+            recorders.put(step, new LatencyRecorder(step.name()));
+        }
+    }
+
+    public static class Settings {
+        String baseUrl = "http://localhost:8080";
+        String password = "password";
+        long firstUserId = 3;
+        int userCount = 100;
+        Mode mode = Mode.CLOSED;
+        int virtualUsers = 20;
+        double flowsPerSecond = 20;
+        int maxConcurrency = 200;
+        Duration duration = Duration.ofSeconds(30);
+        Duration thinkTime = Duration.ofMillis(500);
+
+        static Settings fromArgs(String[] args) {
+            Settings settings = new Settings();
+            for (String arg : args) {
+                String[] kv = arg.replaceFirst("^--", "").split("=", 2);
+                String value = kv.length > 1 ? kv[1] : "";
+                switch (kv[0]) {
+                    case "base-url" -> settings.baseUrl = value;
+                    case "password" -> settings.password = value;
+                    case "first-user-id" -> settings.firstUserId = Long.parseLong(value);
+                    case "user-count" -> settings.userCount = Integer.parseInt(value);
+                    case "mode" -> settings.mode = Mode.valueOf(value.toUpperCase());
+                    case "users" -> settings.virtualUsers = Integer.parseInt(value);
+                    case "rate" -> settings.flowsPerSecond = Double.parseDouble(value);
+                    case "max-concurrency" -> settings.maxConcurrency = Integer.parseInt(value);
+                    case "duration" -> settings.duration = Duration.ofSeconds(Long.parseLong(value));
+                    case "think-ms" -> settings.thinkTime = Duration.ofMillis(Long.parseLong(value));
+                    default -> throw new IllegalArgumentException("Ukendt argument: " + arg);
+                }
+            }
+            return settings;
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        LoadTestHarness harness = new LoadTestHarness(Settings.fromArgs(args));
+        harness.run();
+        System.out.println(harness.report());
+    }
+
+    public void run() throws InterruptedException {
+        long deadline = System.nanoTime() + settings.duration.toNanos();
+        if (settings.mode == Mode.CLOSED) {
+            runClosedLoop(deadline);
+        } else {
+            runOpenLoop(deadline);
+        }
+    }
+
+    // Et fast antal brugere, der hver især gentager flowet indtil tiden er gået
+    private void runClosedLoop(long deadline) throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(settings.virtualUsers);
+        for (int i = 0; i < settings.virtualUsers; i++) {
+            pool.execute(() -> {
+                while (System.nanoTime() < deadline) {
+                    runFlow(System.nanoTime());
+                }
+            });
+        }
+        pool.shutdown();
+        pool.awaitTermination(settings.duration.toSeconds() + 60, TimeUnit.SECONDS);
+    }
+
+    // Flows startes efter en fast plan; ventetid i køen tæller med i første trins svartid
+    private void runOpenLoop(long deadline) throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(settings.maxConcurrency);
+        long interval = (long) (TimeUnit.SECONDS.toNanos(1) / settings.flowsPerSecond);
+        long intended = System.nanoTime();
+        while (intended < deadline) {
+            long sleep = intended - System.nanoTime();
+            if (sleep > 0) {
+                TimeUnit.NANOSECONDS.sleep(sleep);
+            }
+            long scheduledAt = intended;
+            pool.execute(() -> runFlow(scheduledAt));
+            intended += interval;
+        }
+        pool.shutdown();
+        pool.awaitTermination(60, TimeUnit.SECONDS);
+    }
+
+    private void runFlow(long intendedStart) {
+        Session session = new Session();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long userId = settings.firstUserId + random.nextInt(Math.max(settings.userCount, 1));
+
+        try {
+            // 1) Login - et forkert login er en 200 med loginsiden, så kun en 302 til projektlisten tæller som succes
+            Timed login = send(session, Step.LOGIN, intendedStart, post("/validate-login",
+                    "username=" + encode("gen.user" + userId) + "&password=" + encode(settings.password)),
+                    response -> response.statusCode() == 302 && listRedirect(response).find());
+            Matcher listRedirect = listRedirect(login.response);
+            if (login.response.statusCode() != 302 || !listRedirect.find()) {
+                return;
+            }
+            String employeeId = listRedirect.group(1);
+
+            // 2) Projektliste
+            Timed projects = send(session, Step.PROJECT_LIST, think(login.finishedAt), get("/project/list/" + employeeId));
+            boolean manager = projects.response.body().contains(MANAGER_MARKER);
+            List<String> projectIds = matches(SUBPROJECT_LINK, projects.response.body(), 1);
+            if (projectIds.isEmpty()) {
+                return;
+            }
+            String projectId = pick(projectIds);
+
+            // 3) Subprojektliste
+            Timed subProjects = send(session, Step.SUBPROJECT_LIST, think(projects.finishedAt),
+                    get("/project/subproject/list/" + projectId + "?employeeId=" + employeeId));
+            List<String> subProjectIds = matches(TASK_LIST_LINK, subProjects.response.body(), 2);
+            if (subProjectIds.isEmpty()) {
+                return;
+            }
+            String subProjectId = pick(subProjectIds);
+
+            // 4) Taskliste
+            Timed tasks = send(session, Step.TASK_LIST, think(subProjects.finishedAt),
+                    get("/project/task/liste/" + projectId + "/" + subProjectId + "/" + employeeId));
+
+            // 5) Statusopdatering - kun team members kan ændre status
+            List<String> taskIds = matches(STATUS_FORM, tasks.response.body(), 1);
+            if (manager) {
+                managerFlows.incrementAndGet();
+            } else if (!taskIds.isEmpty()) {
+                send(session, Step.STATUS_UPDATE, think(tasks.finishedAt),
+                        post("/project/task/updatestatus/" + pick(taskIds),
+                                "taskStatus=" + STATUSES[random.nextInt(STATUSES.length)]
+                                        + "&employeeId=" + employeeId
+                                        + "&projectId=" + projectId
+                                        + "&subProjectId=" + subProjectId));
+            }
+            completedFlows.incrementAndGet();
+        } catch (IOException e) {
+            // Fejlen er allerede registreret på trinnet
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Timed send(Session session, Step step, long intendedStart, HttpRequest.Builder request)
+            throws IOException, InterruptedException {
+        return send(session, step, intendedStart, request, response -> response.statusCode() < 400);
+    }
+
+    private Timed send(Session session, Step step, long intendedStart, HttpRequest.Builder request,
+                       Predicate<HttpResponse<String>> succeeded) throws IOException, InterruptedException {
+        long wait = intendedStart - System.nanoTime();
+        if (wait > 0) {
+            TimeUnit.NANOSECONDS.sleep(wait);
+        }
+        if (!session.cookies.isEmpty()) {
+            request.header("Cookie", session.cookieHeader());
+        }
+        try {
+            HttpResponse<String> response = client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+            long finishedAt = System.nanoTime();
+            session.store(response.headers().allValues("Set-Cookie"));
+            recorders.get(step).record(TimeUnit.NANOSECONDS.toMicros(finishedAt - intendedStart), succeeded.test(response));
+            return new Timed(response, finishedAt);
+        } catch (IOException e) {
+            recorders.get(step).record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intendedStart), false);
+            throw e;
+        }
+    }
+
+    private static Matcher listRedirect(HttpResponse<String> response) {
+        return LIST_REDIRECT.matcher(response.headers().firstValue("Location").orElse(""));
+    }
+
+    private long think(long previousFinishedAt) {
+        long base = settings.thinkTime.toNanos();
+        // +/- 50 % variation så brugerne ikke går i takt
+        long jitter = base == 0 ? 0 : ThreadLocalRandom.current().nextLong(-base / 2, base / 2 + 1);
+        return previousFinishedAt + base + jitter;
+    }
+
+    private HttpRequest.Builder get(String path) {
+        return HttpRequest.newBuilder(URI.create(settings.baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .GET();
+    }
+
+    private HttpRequest.Builder post(String path, String form) {
+        return HttpRequest.newBuilder(URI.create(settings.baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form));
+    }
+
+    private static List<String> matches(Pattern pattern, String body, int group) {
+        List<String> values = new ArrayList<>();
+        Matcher matcher = pattern.matcher(body);
+        while (matcher.find()) {
+            values.add(matcher.group(group));
+        }
+        return values;
+    }
+
+    private static String pick(List<String> values) {
+        return values.get(ThreadLocalRandom.current().nextInt(values.size()));
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    public Map<Step, LatencyRecorder.Snapshot> snapshots() {
+        Map<Step, LatencyRecorder.Snapshot> result = new EnumMap<>(Step.class);
+        recorders.forEach((step, recorder) -> result.put(step, recorder.snapshot()));
+        return result;
+    }
+
+    public long completedFlows() {
+        return completedFlows.get();
+    }
+
+    public String report() {
+        double seconds = settings.duration.toMillis() / 1000.0;
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Mode=%s, varighed=%.0fs, flows=%d (heraf managers=%d)%n",
+                settings.mode, seconds, completedFlows.get(), managerFlows.get()));
+        sb.append(String.format("%-16s %8s %7s %9s %9s %9s %9s %9s%n",
+                "step", "count", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms"));
+        for (LatencyRecorder.Snapshot s : snapshots().values()) {
+            sb.append(String.format("%-16s %8d %7d %9.1f %9.1f %9.1f %9.1f %9.1f%n",
+                    s.step, s.count(), s.errors, s.count() / seconds,
+                    s.percentile(0.50) / 1000.0, s.percentile(0.95) / 1000.0,
+                    s.percentile(0.99) / 1000.0, s.max() / 1000.0));
+        }
+        return sb.toString();
+    }
+
+    // Cookies for én virtuel brugers session (fx JSESSIONID)
+    private static class Session {
+        final Map<String, String> cookies = new LinkedHashMap<>();
+
+        void store(List<String> setCookieHeaders) {
+            for (String header : setCookieHeaders) {
+                String pair = header.split(";", 2)[0];
+                int eq = pair.indexOf('=');
+                if (eq > 0) {
+                    cookies.put(pair.substring(0, eq).trim(), pair.substring(eq + 1).trim());
+                }
+            }
+        }
+
+        String cookieHeader() {
+            StringBuilder sb = new StringBuilder();
+            cookies.forEach((name, value) -> sb.append(sb.length() == 0 ? "" : "; ").append(name).append('=').append(value));
+            return sb.toString();
+        }
+    }
+
+    private static class Timed {
+        final HttpResponse<String> response;
+        final long finishedAt;
+
+        Timed(HttpResponse<String> response, long finishedAt) {
+            this.response = response;
+            this.finishedAt = finishedAt;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.pkveksamen.repository;
+
+import com.example.pkveksamen.model.ApiPage;
+import com.example.pkveksamen.service.ApiService;
+import com.example.pkveksamen.service.ArchiveService;
+import com.example.pkveksamen.service.DataGeneratorService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {"archive.min-age-days=30", "archive.batch-size=1"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+@ActiveProfiles("test")
+class ArchiveIntegrationTest {
+
+    private static final String[] TABLES = {
+            "sub_task", "task", "sub_project", "project_employee", "project", "employee_role", "employee", "role",
+            "archived_sub_task", "archived_task", "archived_sub_project", "archived_project_employee", "archived_project",
+            "change_outbox", "scheduler_lock"
+    };
+
+    private final DataGeneratorService dataGeneratorService;
+    private final ArchiveService archiveService;
+    private final ApiService apiService;
+    private final SchedulerLockRepository schedulerLockRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    ArchiveIntegrationTest(DataGeneratorService dataGeneratorService,
+                           ArchiveService archiveService,
+                           ApiService apiService,
+                           SchedulerLockRepository schedulerLockRepository,
+                           JdbcTemplate jdbcTemplate) {
+        this.dataGeneratorService = dataGeneratorService;
+        this.archiveService = archiveService;
+        this.apiService = apiService;
+        this.schedulerLockRepository = schedulerLockRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @BeforeEach
+    void generateData() {
+        jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY FALSE");
+        for (String table : TABLES) {
+            jdbcTemplate.execute("TRUNCATE TABLE " + table);
+        }
+        jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY TRUE");
+
+        DataGeneratorService.Settings settings = new DataGeneratorService.Settings();
+        settings.setEmployees(40);
+        settings.setProjects(4);
+        settings.setSubProjectsPerProject(2);
+        settings.setMembersPerProject(5);
+        settings.setTasks(200);
+        settings.setSubTasks(400);
+        dataGeneratorService.generate(settings);
+
+        // To gamle projekter hvor alt er færdigt (det ene med displayName, det andet med enum-navn); resten er aktive
+        List<Long> projectIds = projectIds("project");
+        jdbcTemplate.update("UPDATE project SET project_deadline = CURRENT_DATE + 30");
+        completeProject(projectIds.get(0), "Completed");
+        completeProject(projectIds.get(1), "COMPLETED");
+        jdbcTemplate.execute("TRUNCATE TABLE change_outbox");
+    }
+
+    @Test
+    void archiveCompletedProjects_movesOnlyOldCompletedProjects_inBatches() {
+        List<Long> projectIds = projectIds("project");
+        int liveSubTasks = count("sub_task");
+
+        int archived = archiveService.archiveCompletedProjects();
+
+        assertThat(archived).isEqualTo(2);
+        assertThat(projectIds("project")).containsExactly(projectIds.get(2), projectIds.get(3));
+        assertThat(projectIds("archived_project")).containsExactly(projectIds.get(0), projectIds.get(1));
+        assertThat(count("sub_task") + count("archived_sub_task")).isEqualTo(liveSubTasks);
+        assertThat(count("archived_project_employee")).isEqualTo(10);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM sub_project WHERE project_id IN (?, ?)",
+                Integer.class, projectIds.get(0), projectIds.get(1))).isZero();
+        assertThat(outboxEvents("PROJECT_DELETED")).containsExactly(projectIds.get(0), projectIds.get(1));
+    }
+
+    @Test
+    void archivedProject_canBeReadThroughApi_andRestored() {
+        long projectId = projectIds("project").get(0);
+        Long ownerId = jdbcTemplate.queryForObject("SELECT employee_id FROM project WHERE project_id = ?", Long.class, projectId);
+        int tasksBefore = count("task");
+        archiveService.archiveCompletedProjects();
+
+        ApiPage archivedProjects = apiService.getArchivedProjectsByEmployeeId(ownerId.intValue(), "projectName", null, null);
+        assertThat(archivedProjects.getData()).extracting(row -> row.get("projectId")).contains(projectId);
+        ApiPage subProjects = apiService.getArchivedSubProjectsByProjectId(projectId, null, null, null);
+        assertThat(subProjects.getData()).hasSize(2);
+        Long subProjectId = (Long) subProjects.getData().get(0).get("subProjectId");
+        ApiPage tasks = apiService.getArchivedTasksBySubProjectId(subProjectId, "status", null, null);
+        assertThat(tasks.getData()).allSatisfy(row -> assertThat(row.get("status")).isEqualTo("COMPLETED"));
+
+        assertThat(archiveService.restoreProject(projectId)).isTrue();
+        assertThat(outboxEvents("PROJECT_CHANGED")).containsExactly(projectId);
+
+        assertThat(projectIds("project")).contains(projectId);
+        assertThat(projectIds("archived_project")).doesNotContain(projectId);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM sub_project WHERE project_id = ?", Integer.class, projectId)).isEqualTo(2);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM archived_sub_project WHERE project_id = ?", Integer.class, projectId)).isZero();
+        assertThat(archiveService.restoreProject(projectId)).isFalse();
+        assertThat(count("task")).isEqualTo(tasksBefore - count("archived_task"));
+    }
+
+    @Test
+    void schedulerLock_isHeldByOneNode_untilReleasedOrExpired() {
+        assertThat(schedulerLockRepository.tryLock("archive", "node-a", 60_000)).isTrue();
+        assertThat(schedulerLockRepository.tryLock("archive", "node-b", 60_000)).isFalse();
+
+        schedulerLockRepository.unlock("archive", "node-b", System.currentTimeMillis());
+        assertThat(schedulerLockRepository.tryLock("archive", "node-b", 60_000)).isFalse();
+
+        schedulerLockRepository.unlock("archive", "node-a", System.currentTimeMillis());
+        assertThat(schedulerLockRepository.tryLock("archive", "node-b", 60_000)).isTrue();
+
+        jdbcTemplate.update("UPDATE scheduler_lock SET locked_until = CURRENT_TIMESTAMP - 1 WHERE lock_name = 'archive'");
+        assertThat(schedulerLockRepository.tryLock("archive", "node-a", 60_000)).isTrue();
+    }
+
+    private List<Long> outboxEvents(String type) {
+        return jdbcTemplate.queryForList("SELECT entity_id FROM change_outbox WHERE change_type = ? ORDER BY event_id",
+                Long.class, type);
+    }
+
+    private void completeProject(long projectId, String status) {
+        jdbcTemplate.update("UPDATE project SET project_deadline = CURRENT_DATE - 90 WHERE project_id = ?", projectId);
+        jdbcTemplate.update("UPDATE task SET task_status = ? WHERE sub_project_id IN " +
+                "(SELECT sub_project_id FROM sub_project WHERE project_id = ?)", status, projectId);
+        jdbcTemplate.update("UPDATE sub_task SET sub_task_status = ? WHERE task_id IN (SELECT t.task_id FROM task t " +
+                "JOIN sub_project sp ON sp.sub_project_id = t.sub_project_id WHERE sp.project_id = ?)", status, projectId);
+    }
+
+    private List<Long> projectIds(String table) {
+        return jdbcTemplate.queryForList("SELECT project_id FROM " + table + " ORDER BY project_id", Long.class);
+    }
+
+    private int count(String table) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Integer.class);
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.pkveksamen.repository;
+
+import com.example.pkveksamen.model.AlphaRole;
+import com.example.pkveksamen.model.Employee;
+import com.example.pkveksamen.model.EmployeePage;
+import com.example.pkveksamen.model.EmployeeSuggestion;
+import com.example.pkveksamen.service.DataGeneratorService;
+import com.example.pkveksamen.service.EmployeeDirectory;
+import com.example.pkveksamen.service.ProjectService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+@ActiveProfiles("test")
+class AvailableEmployeesIntegrationTest {
+
+    private final DataGeneratorService dataGeneratorService;
+    private final ProjectService projectService;
+    private final EmployeeDirectory employeeDirectory;
+    private final JdbcTemplate jdbcTemplate;
+
+    private long projectId;
+
+    @Autowired
+    AvailableEmployeesIntegrationTest(DataGeneratorService dataGeneratorService,
+                                      ProjectService projectService,
+                                      EmployeeDirectory employeeDirectory,
+                                      JdbcTemplate jdbcTemplate) {
+        this.dataGeneratorService = dataGeneratorService;
+        this.projectService = projectService;
+        this.employeeDirectory = employeeDirectory;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @BeforeEach
+    void generateData() {
+        jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY FALSE");
+        jdbcTemplate.execute("TRUNCATE TABLE work_item");
+        jdbcTemplate.execute("TRUNCATE TABLE sub_task");
+        jdbcTemplate.execute("TRUNCATE TABLE task");
+        jdbcTemplate.execute("TRUNCATE TABLE sub_project");
+        jdbcTemplate.execute("TRUNCATE TABLE project_employee");
+        jdbcTemplate.execute("TRUNCATE TABLE project");
+        jdbcTemplate.execute("TRUNCATE TABLE employee_role");
+        jdbcTemplate.execute("TRUNCATE TABLE employee");
+        jdbcTemplate.execute("TRUNCATE TABLE role");
+        jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY TRUE");
+
+        DataGeneratorService.Settings settings = new DataGeneratorService.Settings();
+        settings.setEmployees(120);
+        settings.setProjects(2);
+        settings.setSubProjectsPerProject(1);
+        settings.setMembersPerProject(10);
+        settings.setTasks(10);
+        settings.setSubTasks(0);
+        dataGeneratorService.generate(settings);
+        projectId = jdbcTemplate.queryForObject("SELECT MIN(project_id) FROM project", Long.class);
+    }
+
+    @Test
+    void getAvailableEmployeesToAdd_pagesThroughEveryNonMemberOnce() {
+        List<String> expected = jdbcTemplate.queryForList("SELECT username FROM employee WHERE employee_id NOT IN " +
+                "(SELECT employee_id FROM project WHERE project_id = ? " +
+                "UNION SELECT employee_id FROM project_employee WHERE project_id = ?) ORDER BY username",
+                String.class, projectId, projectId);
+
+        List<String> paged = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            EmployeePage page = projectService.getAvailableEmployeesToAdd(projectId, null, null, cursor);
+            assertThat(page.getEmployees()).hasSizeLessThanOrEqualTo(ProjectService.AVAILABLE_EMPLOYEES_PAGE_SIZE);
+            page.getEmployees().stream().map(Employee::getUsername).forEach(paged::add);
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertThat(paged).isEqualTo(expected);
+        assertThat(pages).isGreaterThan(1);
+    }
+
+    @Test
+    void suggestions_followFiltersAndNewMembers() {
+        String role = jdbcTemplate.queryForObject("SELECT MIN(r.role_name) FROM role r " +
+                "JOIN employee_role er ON er.role_id = r.role_id", String.class);
+        AlphaRole alphaRole = AlphaRole.fromDisplayName(role);
+
+        List<EmployeeSuggestion> suggestions = employeeDirectory.suggestAvailableEmployees(projectId, "gen.user", alphaRole, 25);
+        assertThat(suggestions).isNotEmpty().allSatisfy(suggestion -> {
+            assertThat(suggestion.getUsername()).startsWith("gen.user");
+            assertThat(suggestion.getAlphaRoles()).contains(alphaRole);
+        });
+        assertThat(projectService.getAvailableEmployeesToAdd(projectId, "gen.user", alphaRole, null).getEmployees())
+                .allSatisfy(employee -> assertThat(employee.getUsername()).startsWith("gen.user"));
+
+        int added = suggestions.get(0).getEmployeeId();
+        projectService.addEmployeeToProject(added, projectId);
+        assertThat(employeeDirectory.suggestAvailableEmployees(projectId, "gen.user", alphaRole, 25))
+                .noneMatch(suggestion -> suggestion.getEmployeeId() == added);
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.pkveksamen.repository;
+
+import com.example.pkveksamen.model.Project;
+import com.example.pkveksamen.model.ProjectDashboard;
+import com.example.pkveksamen.model.Status;
+import com.example.pkveksamen.service.DataGeneratorService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+@ActiveProfiles("test")
+class DashboardIntegrationTest {
+
+    private final DataGeneratorService dataGeneratorService;
+    private final DashboardRepository dashboardRepository;
+    private final ProjectRepository projectRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    private int employeeId;
+
+    @Autowired
+    DashboardIntegrationTest(DataGeneratorService dataGeneratorService,
+                             DashboardRepository dashboardRepository,
+                             ProjectRepository projectRepository,
+                             JdbcTemplate jdbcTemplate) {
+        this.dataGeneratorService = dataGeneratorService;
+        this.dashboardRepository = dashboardRepository;
+        this.projectRepository = projectRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @BeforeEach
+    void generateData() {
+        jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY FALSE");
+        jdbcTemplate.execute("TRUNCATE TABLE work_item");
+        jdbcTemplate.execute("TRUNCATE TABLE sub_task");
+        jdbcTemplate.execute("TRUNCATE TABLE task");
+        jdbcTemplate.execute("TRUNCATE TABLE sub_project");
+        jdbcTemplate.execute("TRUNCATE TABLE project_employee");
+        jdbcTemplate.execute("TRUNCATE TABLE project");
+        jdbcTemplate.execute("TRUNCATE TABLE employee_role");
+        jdbcTemplate.execute("TRUNCATE TABLE employee");
+        jdbcTemplate.execute("TRUNCATE TABLE role");
+        jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY TRUE");
+
+        DataGeneratorService.Settings settings = new DataGeneratorService.Settings();
+        settings.setEmployees(20);
+        settings.setProjects(4);
+        settings.setSubProjectsPerProject(3);
+        settings.setMembersPerProject(6);
+        settings.setTasks(200);
+        settings.setSubTasks(100);
+        dataGeneratorService.generate(settings);
+        employeeId = jdbcTemplate.queryForObject(
+                "SELECT employee_id FROM project_employee GROUP BY employee_id " +
+                        "ORDER BY COUNT(*) DESC, employee_id LIMIT 1", Integer.class);
+    }
+
+    @Test
+    void loadDashboard_coversSameProjectsAsProjectList() {
+        List<Long> expected = projectRepository.showProjectsByEmployeeId(employeeId).stream()
+                .map(Project::getProjectID).sorted().toList();
+        List<Long> actual = dashboardRepository.loadDashboardByEmployeeId(employeeId).stream()
+                .map(row -> row.getProject().getProjectID()).toList();
+
+        assertThat(actual).isEqualTo(expected);
+        assertThat(dashboardRepository.loadDashboardByEmployeeId(-1)).isEmpty();
+    }
+
+    @Test
+    void loadDashboard_countsMatchPerProjectQueries() {
+        LocalDate today = LocalDate.now();
+        for (ProjectDashboard row : dashboardRepository.loadDashboardByEmployeeId(employeeId)) {
+            long projectId = row.getProject().getProjectID();
+            String tasks = "FROM task t JOIN sub_project sp ON sp.sub_project_id = t.sub_project_id WHERE sp.project_id = ? ";
+
+            assertThat(row.getTaskCount()).isEqualTo(
+                    jdbcTemplate.queryForObject("SELECT COUNT(*) " + tasks, Integer.class, projectId));
+            for (Status status : Status.values()) {
+                assertThat(row.getStatusCount(status)).isEqualTo(jdbcTemplate.queryForObject(
+                        "SELECT COUNT(*) " + tasks + "AND t.task_status IN (?, ?)", Integer.class,
+                        projectId, status.getDisplayName(), status.name()));
+            }
+            assertThat(row.getOverdueCount()).isEqualTo(jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) " + tasks + "AND t.task_deadline < ? AND t.task_status NOT IN (?, ?)", Integer.class,
+                    projectId, today, Status.COMPLETED.getDisplayName(), Status.COMPLETED.name()));
+            assertThat(row.getNextDeadline()).isEqualTo(jdbcTemplate.queryForObject(
+                    "SELECT MIN(t.task_deadline) " + tasks + "AND t.task_deadline >= ? AND t.task_status NOT IN (?, ?)",
+                    LocalDate.class, projectId, today, Status.COMPLETED.getDisplayName(), Status.COMPLETED.name()));
+        }
+    }
+}
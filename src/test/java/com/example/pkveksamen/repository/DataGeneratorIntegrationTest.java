@@ -0,0 +1,83 @@
+package com.example.pkveksamen.repository;
+
+import com.example.pkveksamen.model.AlphaRole;
+import com.example.pkveksamen.model.EmployeeRole;
+import com.example.pkveksamen.service.DataGeneratorService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+@ActiveProfiles("test")
+class DataGeneratorIntegrationTest {
+
+    private final DataGeneratorService dataGeneratorService;
+    private final DataGeneratorRepository dataGeneratorRepository;
+    private final EmployeeRepository employeeRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    DataGeneratorIntegrationTest(DataGeneratorService dataGeneratorService,
+                                 DataGeneratorRepository dataGeneratorRepository,
+                                 EmployeeRepository employeeRepository,
+                                 JdbcTemplate jdbcTemplate) {
+        this.dataGeneratorService = dataGeneratorService;
+        this.dataGeneratorRepository = dataGeneratorRepository;
+        this.employeeRepository = employeeRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @BeforeEach
+    void cleanDatabase() {
+        jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY FALSE");
+        jdbcTemplate.execute("TRUNCATE TABLE sub_task");
+        jdbcTemplate.execute("TRUNCATE TABLE task");
+        jdbcTemplate.execute("TRUNCATE TABLE sub_project");
+        jdbcTemplate.execute("TRUNCATE TABLE project_employee");
+        jdbcTemplate.execute("TRUNCATE TABLE project");
+        jdbcTemplate.execute("TRUNCATE TABLE employee_role");
+        jdbcTemplate.execute("TRUNCATE TABLE employee");
+        jdbcTemplate.execute("TRUNCATE TABLE role");
+        jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY TRUE");
+    }
+
+    @Test
+    void generate_createsRequestedVolumeWithValidReferences() {
+        DataGeneratorService.Settings settings = new DataGeneratorService.Settings();
+        settings.setEmployees(50);
+        settings.setProjects(10);
+        settings.setSubProjectsPerProject(3);
+        settings.setMembersPerProject(4);
+        settings.setTasks(300);
+        settings.setSubTasks(900);
+        settings.setBatchSize(64);
+
+        dataGeneratorService.generate(settings);
+
+        assertThat(dataGeneratorRepository.count("employee")).isEqualTo(50);
+        assertThat(dataGeneratorRepository.count("project")).isEqualTo(10);
+        assertThat(dataGeneratorRepository.count("project_employee")).isEqualTo(40);
+        assertThat(dataGeneratorRepository.count("sub_project")).isEqualTo(30);
+        assertThat(dataGeneratorRepository.count("task")).isEqualTo(300);
+        assertThat(dataGeneratorRepository.count("sub_task")).isEqualTo(900);
+
+        // Subtasks ligger altid inden for deres tasks periode
+        Long outside = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM sub_task st JOIN task t ON st.task_id = t.task_id " +
+                        "WHERE st.sub_task_start_date < t.task_start_date OR st.sub_task_deadline > t.task_deadline",
+                Long.class);
+        assertThat(outside).isZero();
+
+        // Identity er sat frem, så almindelig oprettelse virker bagefter
+        employeeRepository.createEmployee("after.generation", "pw", "after@test.dk",
+                EmployeeRole.TEAM_MEMBER.getDisplayName(), AlphaRole.Tester.getDisplayName());
+        assertThat(dataGeneratorRepository.count("employee")).isEqualTo(51);
+    }
+}
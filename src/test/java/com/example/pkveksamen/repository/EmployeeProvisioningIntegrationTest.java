@@ -0,0 +1,117 @@
+package com.example.pkveksamen.repository;
+
+import com.example.pkveksamen.model.AlphaRole;
+import com.example.pkveksamen.model.Employee;
+import com.example.pkveksamen.model.EmployeeRole;
+import com.example.pkveksamen.model.EmployeeSuggestion;
+import com.example.pkveksamen.model.ProvisioningReport;
+import com.example.pkveksamen.service.EmployeeProvisioningService;
+import com.example.pkveksamen.service.EmployeeService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "provisioning.chunk-size=2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+@ActiveProfiles("test")
+class EmployeeProvisioningIntegrationTest {
+
+    private final EmployeeProvisioningService employeeProvisioningService;
+    private final EmployeeService employeeService;
+    private final EmployeeRepository employeeRepository;
+    private final RoleDictionary roleDictionary;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    EmployeeProvisioningIntegrationTest(EmployeeProvisioningService employeeProvisioningService,
+                                        EmployeeService employeeService,
+                                        EmployeeRepository employeeRepository,
+                                        RoleDictionary roleDictionary,
+                                        JdbcTemplate jdbcTemplate) {
+        this.employeeProvisioningService = employeeProvisioningService;
+        this.employeeService = employeeService;
+        this.employeeRepository = employeeRepository;
+        this.roleDictionary = roleDictionary;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @BeforeEach
+    void cleanDatabase() {
+        jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY FALSE");
+        jdbcTemplate.execute("TRUNCATE TABLE project_employee");
+        jdbcTemplate.execute("TRUNCATE TABLE employee_role");
+        jdbcTemplate.execute("TRUNCATE TABLE employee");
+        jdbcTemplate.execute("TRUNCATE TABLE role");
+        jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY TRUE");
+        roleDictionary.reload();
+    }
+
+    @Test
+    void createEmployee_writesEmployeeAndRole_andRejectsDuplicate() {
+        assertThat(employeeService.createEmployee("anna", "pw", "anna@test.dk",
+                EmployeeRole.TEAM_MEMBER.getDisplayName(), AlphaRole.Developer.getDisplayName())).isTrue();
+        assertThat(employeeService.createEmployee("anna2", "pw", "anna@test.dk",
+                EmployeeRole.TEAM_MEMBER.getDisplayName(), AlphaRole.Developer.getDisplayName())).isFalse();
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM employee", Integer.class)).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM employee_role", Integer.class)).isEqualTo(1);
+    }
+
+    @Test
+    void provisionCsv_createsValidRows_andReportsRejectedLines() {
+        employeeService.createEmployee("findes", "pw", "findes@test.dk",
+                EmployeeRole.TEAM_MEMBER.getDisplayName(), AlphaRole.Tester.getDisplayName());
+
+        String csv = "username,password,email,role,alphaRoles\n" +
+                "bo,pw,bo@test.dk,Team Member,Developer;Tester\n" +
+                "\"carl, jr\",pw,carl@test.dk,PROJECT_MANAGER,Project Manager\n" +
+                "dina,pw,dina@test.dk,Team Member,Developer\n" +
+                "bo,pw,bo2@test.dk,Team Member,Developer\n" +
+                "findes,pw,ny@test.dk,Team Member,Developer\n" +
+                "erik,pw,erik@test.dk,Chef,Developer\n" +
+                "frida,pw,frida@test.dk,Team Member\n";
+
+        ProvisioningReport report = employeeProvisioningService.provisionCsv(csv);
+
+        assertThat(report.getCreated()).isEqualTo(3);
+        assertThat(report.getSkipped()).hasSize(4);
+        assertThat(report.getChunks()).isEqualTo(2);
+        assertThat(report.getSkipped()).anyMatch(reason -> reason.startsWith("Linje 5:"));
+        assertThat(report.getSkipped()).anyMatch(reason -> reason.startsWith("Linje 6:"));
+
+        Integer boId = jdbcTemplate.queryForObject("SELECT employee_id FROM employee WHERE username = 'bo'", Integer.class);
+        Employee bo = employeeRepository.findEmployeeById(boId);
+        assertThat(bo.getAlphaRoles()).containsExactlyInAnyOrder(AlphaRole.Developer, AlphaRole.Tester);
+
+        Integer carlId = jdbcTemplate.queryForObject("SELECT employee_id FROM employee WHERE username = 'carl, jr'", Integer.class);
+        assertThat(employeeRepository.findEmployeeById(carlId).getRole()).isEqualTo(EmployeeRole.PROJECT_MANAGER);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM employee", Integer.class)).isEqualTo(4);
+        // Hver chunk melder sit laveste id, så medarbejdersøgningen henter hele chunken
+        assertThat(jdbcTemplate.queryForList("SELECT entity_id FROM change_outbox WHERE change_type = 'EMPLOYEE_CREATED'",
+                Integer.class)).contains(boId).doesNotContain(carlId);
+    }
+
+    @Test
+    void findSuggestionsByPrefix_matchesUsernameOrEmail_caseInsensitive() {
+        employeeProvisioningService.provisionCsv("username,password,email,role,alphaRoles\n" +
+                "Bo,pw,bo@test.dk,Team Member,Developer;Tester\n" +
+                "carl,pw,c_b@test.dk,Team Member,Developer\n" +
+                "dina,pw,boss@test.dk,Team Member,Developer\n");
+
+        assertThat(employeeRepository.findSuggestionsByPrefix("bo", 10)).extracting(EmployeeSuggestion::getUsername)
+                .containsExactly("Bo", "dina");
+        assertThat(employeeRepository.findSuggestionsByPrefix("bo", 1)).hasSize(1);
+        assertThat(employeeRepository.findSuggestionsByPrefix("bo", 10).get(0).getAlphaRoles())
+                .containsExactlyInAnyOrder(AlphaRole.Developer, AlphaRole.Tester);
+        // _ er et almindeligt tegn, ikke et jokertegn
+        assertThat(employeeRepository.findSuggestionsByPrefix("c_", 10)).extracting(EmployeeSuggestion::getUsername)
+                .containsExactly("carl");
+        assertThat(employeeRepository.findSuggestionsByPrefix("b_", 10)).isEmpty();
+    }
+}
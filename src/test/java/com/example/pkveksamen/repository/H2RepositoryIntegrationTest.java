@@ -22,16 +22,19 @@ class H2RepositoryIntegrationTest {
     private final EmployeeRepository employeeRepository;
     private final ProjectRepository projectRepository;
     private final TaskRepository taskRepository;
+    private final RoleDictionary roleDictionary;
     private final JdbcTemplate jdbcTemplate;
 
     @Autowired
     H2RepositoryIntegrationTest(EmployeeRepository employeeRepository,
                                 ProjectRepository projectRepository,
                                 TaskRepository taskRepository,
+                                RoleDictionary roleDictionary,
                                 JdbcTemplate jdbcTemplate) {
         this.employeeRepository = employeeRepository;
         this.projectRepository = projectRepository;
         this.taskRepository = taskRepository;
+        this.roleDictionary = roleDictionary;
         this.jdbcTemplate = jdbcTemplate;
     }
 
@@ -54,6 +57,7 @@ class H2RepositoryIntegrationTest {
         jdbcTemplate.execute("ALTER TABLE sub_project ALTER COLUMN sub_project_id RESTART WITH 1");
         jdbcTemplate.execute("ALTER TABLE task ALTER COLUMN task_id RESTART WITH 1");
         jdbcTemplate.execute("ALTER TABLE sub_task ALTER COLUMN sub_task_id RESTART WITH 1");
+        roleDictionary.reload();
     }
 
     @Nested
@@ -107,7 +111,7 @@ class H2RepositoryIntegrationTest {
             void shouldCreateProject() {
                 Integer employeeId = createTestEmployee();
 
-                projectRepository.createProject(
+                long projectId = projectRepository.createProject(
                         "E-commerce Platform",
                         "Build online shop",
                         LocalDate.of(2024, 1, 1),
@@ -119,6 +123,7 @@ class H2RepositoryIntegrationTest {
                 List<Project> projects = projectRepository.showProjectsByEmployeeId(employeeId);
                 assertThat(projects).hasSize(1);
                 assertThat(projects.get(0).getProjectName()).isEqualTo("E-commerce Platform");
+                assertThat(projects.get(0).getProjectID()).isEqualTo(projectId);
             }
 
             @Test
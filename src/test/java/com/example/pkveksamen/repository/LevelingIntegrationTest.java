@@ -0,0 +1,175 @@
+package com.example.pkveksamen.repository;
+
+import com.example.pkveksamen.model.LevelingJob;
+import com.example.pkveksamen.model.LevelingTask;
+import com.example.pkveksamen.model.Priority;
+import com.example.pkveksamen.model.Status;
+import com.example.pkveksamen.model.TaskShift;
+import com.example.pkveksamen.service.DataGeneratorService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+@ActiveProfiles("test")
+class LevelingIntegrationTest {
+
+    private final DataGeneratorService dataGeneratorService;
+    private final LevelingRepository levelingRepository;
+    private final LevelingJobRepository levelingJobRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    private long projectId;
+
+    @Autowired
+    LevelingIntegrationTest(DataGeneratorService dataGeneratorService,
+                            LevelingRepository levelingRepository,
+                            LevelingJobRepository levelingJobRepository,
+                            JdbcTemplate jdbcTemplate) {
+        this.dataGeneratorService = dataGeneratorService;
+        this.levelingRepository = levelingRepository;
+        this.levelingJobRepository = levelingJobRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @BeforeEach
+    void generateData() {
+        jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY FALSE");
+        jdbcTemplate.execute("TRUNCATE TABLE leveling_shift");
+        jdbcTemplate.execute("TRUNCATE TABLE leveling_job");
+        jdbcTemplate.execute("TRUNCATE TABLE work_item");
+        jdbcTemplate.execute("TRUNCATE TABLE sub_task");
+        jdbcTemplate.execute("TRUNCATE TABLE task");
+        jdbcTemplate.execute("TRUNCATE TABLE sub_project");
+        jdbcTemplate.execute("TRUNCATE TABLE project_employee");
+        jdbcTemplate.execute("TRUNCATE TABLE project");
+        jdbcTemplate.execute("TRUNCATE TABLE employee_role");
+        jdbcTemplate.execute("TRUNCATE TABLE employee");
+        jdbcTemplate.execute("TRUNCATE TABLE role");
+        jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY TRUE");
+
+        DataGeneratorService.Settings settings = new DataGeneratorService.Settings();
+        settings.setEmployees(10);
+        settings.setProjects(4);
+        settings.setSubProjectsPerProject(3);
+        settings.setMembersPerProject(6);
+        settings.setTasks(200);
+        settings.setSubTasks(0);
+        dataGeneratorService.generate(settings);
+        projectId = jdbcTemplate.queryForObject("SELECT MIN(project_id) FROM project", Long.class);
+    }
+
+    @Test
+    void loadLevelingTasks_includesAssigneesOtherProjects_butOnlyMovesOpenTasksInProject() {
+        List<LevelingTask> tasks = levelingRepository.loadLevelingTasks(projectId);
+
+        assertThat(tasks).isNotEmpty();
+        assertThat(tasks).allSatisfy(task -> {
+            assertThat(task.getStartDate()).isNotNull();
+            assertThat(task.getDeadline()).isNotNull();
+        });
+        for (LevelingTask task : tasks) {
+            String row = "SELECT %s FROM task t JOIN sub_project sp ON sp.sub_project_id = t.sub_project_id WHERE t.task_id = ?";
+            long taskProjectId = jdbcTemplate.queryForObject(String.format(row, "sp.project_id"), Long.class, task.getTaskId());
+            String status = jdbcTemplate.queryForObject(String.format(row, "t.task_status"), String.class, task.getTaskId());
+            String priority = jdbcTemplate.queryForObject(String.format(row, "t.task_priority"), String.class, task.getTaskId());
+
+            assertThat(status).isNotIn(Status.COMPLETED.getDisplayName(), Status.COMPLETED.name());
+            assertThat(task.isMovable()).isEqualTo(taskProjectId == projectId
+                    && List.of(Status.NOT_STARTED.getDisplayName(), Status.NOT_STARTED.name()).contains(status)
+                    && !List.of(Priority.HIGH.getDisplayName(), Priority.HIGH.name()).contains(priority));
+        }
+        assertThat(tasks).anyMatch(task -> task.getEarliestStart() != null);
+    }
+
+    @Test
+    void updateTaskDates_movesOnlyTasksThatStillHaveTheProposedFromDates() {
+        LevelingTask task = levelingRepository.loadLevelingTasks(projectId).get(0);
+        TaskShift shift = new TaskShift(task, task.getStartDate().plusDays(2), task.getDeadline().plusDays(2));
+
+        assertThat(levelingRepository.updateTaskDates(List.of(shift))).containsExactly(task.getTaskId());
+        assertThat(jdbcTemplate.queryForObject("SELECT task_start_date FROM task WHERE task_id = ?",
+                LocalDate.class, task.getTaskId())).isEqualTo(task.getStartDate().plusDays(2));
+
+        // Samme forslag igen: tasken har ikke længere de gamle datoer
+        assertThat(levelingRepository.updateTaskDates(List.of(shift))).isEmpty();
+    }
+
+    @Test
+    void updateTaskDates_checksTheTasksAgain_whenTheDriverReportsNoCounts() {
+        // Som MySQL med rewriteBatchedStatements: batchen gennemføres, men hver sætning melder SUCCESS_NO_INFO
+        LevelingRepository rewritten = new LevelingRepository(new JdbcTemplate(jdbcTemplate.getDataSource()) {
+            @Override
+            public <T> int[][] batchUpdate(String sql, Collection<T> batchArgs, int batchSize,
+                                           ParameterizedPreparedStatementSetter<T> pss) {
+                int[][] counts = super.batchUpdate(sql, batchArgs, batchSize, pss);
+                for (int[] batch : counts) {
+                    Arrays.fill(batch, Statement.SUCCESS_NO_INFO);
+                }
+                return counts;
+            }
+        });
+        List<LevelingTask> tasks = levelingRepository.loadLevelingTasks(projectId);
+        TaskShift moved = new TaskShift(tasks.get(0), tasks.get(0).getStartDate().plusDays(2), tasks.get(0).getDeadline().plusDays(2));
+        // Forkerte gamle datoer: rammer ingen række
+        TaskShift stale = new TaskShift(tasks.get(1), tasks.get(1).getStartDate().plusDays(2), tasks.get(1).getDeadline().plusDays(2));
+        jdbcTemplate.update("UPDATE task SET task_start_date = ? WHERE task_id = ?",
+                tasks.get(1).getStartDate().minusDays(1), tasks.get(1).getTaskId());
+
+        assertThat(rewritten.updateTaskDates(List.of(moved, stale))).containsExactly(tasks.get(0).getTaskId());
+    }
+
+    @Test
+    void levelingJob_roundTripsThroughTheDatabase_andIsAppliedOnlyOnce() {
+        List<LevelingTask> tasks = levelingRepository.loadLevelingTasks(projectId);
+        LevelingJob job = new LevelingJob(projectId);
+        levelingJobRepository.createJob(job);
+        assertThat(levelingJobRepository.loadRunningJob(projectId).getJobId()).isEqualTo(job.getJobId());
+
+        job.setEmployeesTotal(4);
+        job.setEmployeesDone(4);
+        job.setOverloadDaysBefore(7);
+        job.setOverloadDaysAfter(2);
+        job.setShifts(List.of(
+                new TaskShift(tasks.get(0), tasks.get(0).getStartDate().plusDays(2), tasks.get(0).getDeadline().plusDays(2)),
+                new TaskShift(tasks.get(1), tasks.get(1).getStartDate().plusDays(1), tasks.get(1).getDeadline().plusDays(1))));
+        job.setState(LevelingJob.State.READY);
+        levelingJobRepository.saveResult(job);
+
+        // Som en anden node ser det
+        LevelingJob loaded = levelingJobRepository.loadJob(job.getJobId());
+        assertThat(loaded.getState()).isEqualTo(LevelingJob.State.READY);
+        assertThat(loaded.getProjectId()).isEqualTo(projectId);
+        assertThat(loaded.getOverloadDaysBefore()).isEqualTo(7);
+        assertThat(loaded.getOverloadDaysAfter()).isEqualTo(2);
+        assertThat(loaded.getShifts()).extracting(TaskShift::getTaskId, TaskShift::getNewStartDate)
+                .containsExactly(tuple(tasks.get(0).getTaskId(), tasks.get(0).getStartDate().plusDays(2)),
+                        tuple(tasks.get(1).getTaskId(), tasks.get(1).getStartDate().plusDays(1)));
+        assertThat(levelingJobRepository.loadRunningJob(projectId)).isNull();
+
+        assertThat(levelingJobRepository.markApplied(job.getJobId(), 2, 0)).isTrue();
+        assertThat(levelingJobRepository.markApplied(job.getJobId(), 2, 0)).isFalse();
+        assertThat(levelingJobRepository.loadJob(job.getJobId()).getAppliedCount()).isEqualTo(2);
+
+        // Udløbne jobs slettes med deres forslag
+        assertThat(levelingJobRepository.deleteJobsCreatedBefore(new Timestamp(System.currentTimeMillis() + 1000))).isEqualTo(1);
+        assertThat(levelingJobRepository.loadJob(job.getJobId())).isNull();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM leveling_shift", Integer.class)).isZero();
+    }
+}
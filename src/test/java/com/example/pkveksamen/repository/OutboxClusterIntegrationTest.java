@@ -0,0 +1,162 @@
+package com.example.pkveksamen.repository;
+
+import com.example.pkveksamen.PkvEksamenApplication;
+import com.example.pkveksamen.model.Status;
+import com.example.pkveksamen.service.NoteChangeTracker;
+import com.example.pkveksamen.service.OutboxPoller;
+import com.example.pkveksamen.service.TaskService;
+import org.h2.tools.Server;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.SQLException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// To app-instanser i samme JVM deler én H2-database via en TCP-server, ligesom to noder bag en load balancer.
+// Pollerne kører med en lang periode, så testen selv bestemmer hvornår hver node læser outboxen.
+// Hul-testen indsætter event_id'er manuelt og kører derfor til sidst.
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class OutboxClusterIntegrationTest {
+
+    private static Server h2Server;
+    private static ConfigurableApplicationContext nodeA;
+    private static ConfigurableApplicationContext nodeB;
+
+    @BeforeAll
+    static void startNodes() throws SQLException {
+        h2Server = Server.createTcpServer("-tcpPort", "0", "-ifNotExists").start();
+        String url = "jdbc:h2:tcp://localhost:" + h2Server.getPort() + "/mem:outbox-cluster;DB_CLOSE_DELAY=-1";
+        nodeA = startNode(url, "node-a", "always");
+        nodeB = startNode(url, "node-b", "never");
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        nodeB.close();
+        nodeA.close();
+        h2Server.stop();
+    }
+
+    private static ConfigurableApplicationContext startNode(String url, String nodeId, String sqlInit) {
+        return new SpringApplicationBuilder(PkvEksamenApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.profiles.active=test",
+                        "--spring.datasource.url=" + url,
+                        "--spring.sql.init.mode=" + sqlInit,
+                        "--outbox.node-id=" + nodeId,
+                        "--outbox.poll-ms=3600000",
+                        "--outbox.batch-size=2",
+                        "--outbox.gap-grace-ms=3600000",
+                        "--archive.enabled=false");
+    }
+
+    @Test
+    @Order(1)
+    void writeOnOneNode_reachesOtherNode_inBatches_andIsCleanedUp() {
+        JdbcTemplate jdbc = nodeA.getBean(JdbcTemplate.class);
+        long taskId = createTask(jdbc);
+        poller(nodeA).poll();
+        poller(nodeB).poll();
+
+        TaskService taskServiceOnA = nodeA.getBean(TaskService.class);
+        taskServiceOnA.updateTaskNote(taskId, "Ny note fra node A");
+        for (int i = 0; i < 4; i++) {
+            taskServiceOnA.updateTaskStatus(taskId, i % 2 == 0 ? Status.IN_PROGRESS : Status.COMPLETED);
+        }
+
+        // 5 hændelser med batch-size 2: node B læser videre til den er helt ajour
+        assertThat(poller(nodeB).poll()).isEqualTo(5);
+        assertThat(nodeB.getBean(NoteChangeTracker.class).getUpdatedTaskNotes()).contains(taskId);
+        assertThat(poller(nodeB).poll()).isZero();
+
+        long newest = jdbc.queryForObject("SELECT MAX(event_id) FROM change_outbox", Long.class);
+        assertThat(cursor(jdbc, "node-b")).isEqualTo(newest);
+        assertThat(cursor(jdbc, "node-a")).isLessThan(newest);
+
+        // Node A har ikke læst endnu, så intet må slettes
+        poller(nodeB).cleanUp();
+        assertThat(count(jdbc)).isEqualTo(5);
+
+        assertThat(poller(nodeA).poll()).isEqualTo(5);
+        poller(nodeA).cleanUp();
+        assertThat(count(jdbc)).isZero();
+    }
+
+    @Test
+    @Order(2)
+    void ownNoteChange_isNotFlaggedAgain_whenThePollerReachesIt() {
+        JdbcTemplate jdbc = nodeA.getBean(JdbcTemplate.class);
+        long taskId = jdbc.queryForObject("SELECT MAX(task_id) FROM task", Long.class);
+        poller(nodeA).poll();
+        poller(nodeB).poll();
+        NoteChangeTracker trackerOnA = nodeA.getBean(NoteChangeTracker.class);
+        NoteChangeTracker trackerOnB = nodeB.getBean(NoteChangeTracker.class);
+        trackerOnB.getUpdatedTaskNotes().remove(taskId);
+
+        nodeA.getBean(TaskService.class).updateTaskNote(taskId, "Endnu en note fra node A");
+        assertThat(trackerOnA.getUpdatedTaskNotes()).contains(taskId);
+        // Projektlederen på node A ser noten, før polleren når frem til hændelsen
+        trackerOnA.getUpdatedTaskNotes().remove(taskId);
+
+        assertThat(poller(nodeA).poll()).isEqualTo(1);
+        assertThat(trackerOnA.getUpdatedTaskNotes()).doesNotContain(taskId);
+        assertThat(poller(nodeB).poll()).isEqualTo(1);
+        assertThat(trackerOnB.getUpdatedTaskNotes()).contains(taskId);
+    }
+
+    @Test
+    @Order(3)
+    void laterCommittedLowerId_isDeliveredBeforeCursorMovesOn() {
+        JdbcTemplate jdbc = nodeA.getBean(JdbcTemplate.class);
+        poller(nodeB).poll();
+        Long max = jdbc.queryForObject("SELECT MAX(event_id) FROM change_outbox", Long.class);
+        long cursor = Math.max(max == null ? 0 : max, cursor(jdbc, "node-b"));
+
+        // event cursor+2 er committet før cursor+1 - fx to samtidige transaktioner
+        insertEvent(jdbc, cursor + 2, 900);
+        assertThat(poller(nodeB).poll()).isEqualTo(1);
+        assertThat(cursor(jdbc, "node-b")).isEqualTo(cursor);
+
+        insertEvent(jdbc, cursor + 1, 901);
+        assertThat(poller(nodeB).poll()).isEqualTo(1);
+        assertThat(cursor(jdbc, "node-b")).isEqualTo(cursor + 2);
+        assertThat(nodeB.getBean(NoteChangeTracker.class).getUpdatedTaskNotes()).contains(900L, 901L);
+    }
+
+    private static OutboxPoller poller(ConfigurableApplicationContext node) {
+        return node.getBean(OutboxPoller.class);
+    }
+
+    private static long cursor(JdbcTemplate jdbc, String nodeId) {
+        return jdbc.queryForObject("SELECT last_event_id FROM outbox_cursor WHERE node_id = ?", Long.class, nodeId);
+    }
+
+    private static int count(JdbcTemplate jdbc) {
+        return jdbc.queryForObject("SELECT COUNT(*) FROM change_outbox", Integer.class);
+    }
+
+    private static void insertEvent(JdbcTemplate jdbc, long eventId, long taskId) {
+        jdbc.update("INSERT INTO change_outbox (event_id, change_type, entity_id) VALUES (?, 'TASK_NOTE_CHANGED', ?)",
+                eventId, taskId);
+    }
+
+    private static long createTask(JdbcTemplate jdbc) {
+        jdbc.update("INSERT INTO employee (username, password, email, role) VALUES ('pl', 'pw', 'pl@test.dk', 'Project Manager')");
+        long employeeId = jdbc.queryForObject("SELECT employee_id FROM employee WHERE username = 'pl'", Long.class);
+        jdbc.update("INSERT INTO project (employee_id, project_title) VALUES (?, 'Cluster')", employeeId);
+        long projectId = jdbc.queryForObject("SELECT MAX(project_id) FROM project", Long.class);
+        jdbc.update("INSERT INTO sub_project (project_id, sub_project_title) VALUES (?, 'Del')", projectId);
+        long subProjectId = jdbc.queryForObject("SELECT MAX(sub_project_id) FROM sub_project", Long.class);
+        jdbc.update("INSERT INTO task (sub_project_id, task_title, task_status) VALUES (?, 'Opgave', 'Not started')", subProjectId);
+        return jdbc.queryForObject("SELECT MAX(task_id) FROM task", Long.class);
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.pkveksamen.repository;
+
+import com.example.pkveksamen.model.DeletionReport;
+import com.example.pkveksamen.service.DataGeneratorService;
+import com.example.pkveksamen.service.ProjectDeletionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {"deletion.chunk-size=50", "deletion.pause-ms=0"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+@ActiveProfiles("test")
+class ProjectDeletionIntegrationTest {
+
+    private final DataGeneratorService dataGeneratorService;
+    private final ProjectDeletionService projectDeletionService;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    ProjectDeletionIntegrationTest(DataGeneratorService dataGeneratorService,
+                                   ProjectDeletionService projectDeletionService,
+                                   JdbcTemplate jdbcTemplate) {
+        this.dataGeneratorService = dataGeneratorService;
+        this.projectDeletionService = projectDeletionService;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @BeforeEach
+    void generateData() {
+        jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY FALSE");
+        jdbcTemplate.execute("TRUNCATE TABLE change_outbox");
+        jdbcTemplate.execute("TRUNCATE TABLE sub_task");
+        jdbcTemplate.execute("TRUNCATE TABLE task");
+        jdbcTemplate.execute("TRUNCATE TABLE sub_project");
+        jdbcTemplate.execute("TRUNCATE TABLE project_employee");
+        jdbcTemplate.execute("TRUNCATE TABLE project");
+        jdbcTemplate.execute("TRUNCATE TABLE employee_role");
+        jdbcTemplate.execute("TRUNCATE TABLE employee");
+        jdbcTemplate.execute("TRUNCATE TABLE role");
+        jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY TRUE");
+
+        DataGeneratorService.Settings settings = new DataGeneratorService.Settings();
+        settings.setEmployees(40);
+        settings.setProjects(4);
+        settings.setSubProjectsPerProject(2);
+        settings.setMembersPerProject(5);
+        settings.setTasks(200);
+        settings.setSubTasks(600);
+        dataGeneratorService.generate(settings);
+    }
+
+    @Test
+    void deleteProject_removesWholeTree_andLeavesOtherProjects() {
+        List<Long> projectIds = projectIds();
+        long projectId = projectIds.get(0);
+        int subTasksInProject = countSubTasks(List.of(projectId));
+        int otherSubTasks = countSubTasks(projectIds.subList(1, projectIds.size()));
+
+        DeletionReport report = projectDeletionService.deleteProject(projectId);
+
+        assertThat(report.getProjects()).isEqualTo(1);
+        assertThat(report.getSubProjects()).isEqualTo(2);
+        assertThat(report.getSubTasks()).isEqualTo(subTasksInProject);
+        assertThat(report.getChunks()).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM sub_project WHERE project_id = ?", Integer.class, projectId)).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM project_employee WHERE project_id = ?", Integer.class, projectId)).isZero();
+        assertThat(countSubTasks(projectIds.subList(1, projectIds.size()))).isEqualTo(otherSubTasks);
+    }
+
+    @Test
+    void deleteSubProject_removesTasksAndSubTasksExplicitly() {
+        Long subProjectId = jdbcTemplate.queryForObject("SELECT MIN(sub_project_id) FROM task", Long.class);
+        Integer tasks = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM task WHERE sub_project_id = ?", Integer.class, subProjectId);
+
+        DeletionReport report = projectDeletionService.deleteSubProject(subProjectId);
+
+        assertThat(report.getSubProjects()).isEqualTo(1);
+        assertThat(report.getTasks()).isEqualTo(tasks);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM task WHERE sub_project_id = ?", Integer.class, subProjectId)).isZero();
+    }
+
+    @Test
+    void deleteProjects_deletesInBoundedChunks_andReportsAllRows() {
+        List<Long> projectIds = projectIds();
+        int rowsBefore = totalRows();
+
+        DeletionReport report = projectDeletionService.deleteProjects(projectIds);
+
+        assertThat(report.getProjects()).isEqualTo(4);
+        assertThat(report.getSubTasks()).isEqualTo(600);
+        assertThat(report.getTasks()).isEqualTo(200);
+        // 600 subtasks og 200 tasks i chunks af 50 giver mange små transaktioner
+        assertThat(report.getChunks()).isGreaterThanOrEqualTo(16);
+        assertThat(report.getRowsDeleted()).isEqualTo(rowsBefore);
+        assertThat(report.getRowsPerSecond()).isPositive();
+        assertThat(totalRows()).isZero();
+        assertThat(jdbcTemplate.queryForList("SELECT entity_id FROM change_outbox WHERE change_type = 'PROJECT_DELETED' " +
+                "ORDER BY entity_id", Long.class)).isEqualTo(projectIds);
+    }
+
+    private List<Long> projectIds() {
+        return jdbcTemplate.queryForList("SELECT project_id FROM project ORDER BY project_id", Long.class);
+    }
+
+    private int countSubTasks(List<Long> projectIds) {
+        int count = 0;
+        for (Long projectId : projectIds) {
+            count += jdbcTemplate.queryForObject("SELECT COUNT(*) FROM sub_task st JOIN task t ON t.task_id = st.task_id " +
+                    "JOIN sub_project sp ON sp.sub_project_id = t.sub_project_id WHERE sp.project_id = ?", Integer.class, projectId);
+        }
+        return count;
+    }
+
+    private int totalRows() {
+        return jdbcTemplate.queryForObject("SELECT (SELECT COUNT(*) FROM project) + (SELECT COUNT(*) FROM sub_project) + " +
+                "(SELECT COUNT(*) FROM task) + (SELECT COUNT(*) FROM sub_task) + (SELECT COUNT(*) FROM project_employee)", Integer.class);
+    }
+}
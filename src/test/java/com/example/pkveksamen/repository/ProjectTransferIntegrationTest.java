@@ -0,0 +1,165 @@
+package com.example.pkveksamen.repository;
+
+import com.example.pkveksamen.model.ProjectTransferReport;
+import com.example.pkveksamen.service.DataGeneratorService;
+import com.example.pkveksamen.service.ProjectTransferService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = "transfer.batch-size=7")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+@ActiveProfiles("test")
+class ProjectTransferIntegrationTest {
+
+    private final DataGeneratorService dataGeneratorService;
+    private final ProjectTransferService projectTransferService;
+    private final JdbcTemplate jdbcTemplate;
+
+    private long projectId;
+    private long ownerId;
+
+    @Autowired
+    ProjectTransferIntegrationTest(DataGeneratorService dataGeneratorService,
+                                   ProjectTransferService projectTransferService,
+                                   JdbcTemplate jdbcTemplate) {
+        this.dataGeneratorService = dataGeneratorService;
+        this.projectTransferService = projectTransferService;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @BeforeEach
+    void generateData() {
+        jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY FALSE");
+        jdbcTemplate.execute("TRUNCATE TABLE change_outbox");
+        jdbcTemplate.execute("TRUNCATE TABLE task_history");
+        jdbcTemplate.execute("TRUNCATE TABLE work_item");
+        jdbcTemplate.execute("TRUNCATE TABLE sub_task");
+        jdbcTemplate.execute("TRUNCATE TABLE task");
+        jdbcTemplate.execute("TRUNCATE TABLE sub_project");
+        jdbcTemplate.execute("TRUNCATE TABLE project_employee");
+        jdbcTemplate.execute("TRUNCATE TABLE project");
+        jdbcTemplate.execute("TRUNCATE TABLE employee_role");
+        jdbcTemplate.execute("TRUNCATE TABLE employee");
+        jdbcTemplate.execute("TRUNCATE TABLE role");
+        jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY TRUE");
+
+        DataGeneratorService.Settings settings = new DataGeneratorService.Settings();
+        settings.setEmployees(10);
+        settings.setProjects(2);
+        settings.setSubProjectsPerProject(3);
+        settings.setMembersPerProject(5);
+        settings.setTasks(60);
+        settings.setSubTasks(120);
+        dataGeneratorService.generate(settings);
+        projectId = jdbcTemplate.queryForObject("SELECT MIN(project_id) FROM project", Long.class);
+        ownerId = jdbcTemplate.queryForObject("SELECT employee_id FROM project WHERE project_id = ?", Long.class, projectId);
+    }
+
+    @Test
+    void importProject_recreatesTheSameTree_withNewIds() throws IOException {
+        byte[] exported = export(projectId);
+
+        ProjectTransferReport report = projectTransferService.importProject(new ByteArrayInputStream(exported), ownerId);
+
+        assertThat(report.getProjectId()).isNotEqualTo(projectId);
+        assertThat(report.getUnknownEmployees()).isEmpty();
+        assertThat(report.getSubProjects()).isEqualTo(count("sub_project", projectId));
+        assertThat(report.getTasks()).isEqualTo(count("task", projectId));
+        assertThat(report.getSubTasks()).isEqualTo(count("sub_task", projectId));
+        assertThat(report.getMembers()).isEqualTo(
+                jdbcTemplate.queryForObject("SELECT COUNT(*) FROM project_employee WHERE project_id = ?", Integer.class, projectId));
+        // Samme træ når id'erne erstattes med deres plads i filen - også subtasks hænger på de rigtige tasks
+        assertThat(decode(export(report.getProjectId()))).isEqualTo(decode(exported));
+        assertThat(workItems(report.getProjectId())).isEqualTo(workItems(projectId));
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM change_outbox WHERE change_type = 'PROJECT_CHANGED' " +
+                "AND entity_id = ?", Integer.class, report.getProjectId())).isEqualTo(1);
+    }
+
+    @Test
+    void importProject_skipsUnknownEmployees_andRejectsOtherFiles() throws IOException {
+        String username = jdbcTemplate.queryForObject("SELECT MIN(e.username) FROM task t " +
+                "JOIN sub_project sp ON sp.sub_project_id = t.sub_project_id " +
+                "JOIN employee e ON e.employee_id = t.employee_id WHERE sp.project_id = ?", String.class, projectId);
+        byte[] exported = export(projectId);
+        jdbcTemplate.update("UPDATE employee SET username = 'renamed' WHERE username = ?", username);
+
+        ProjectTransferReport report = projectTransferService.importProject(new ByteArrayInputStream(exported), ownerId);
+
+        assertThat(report.getUnknownEmployees()).contains(username);
+        assertThat(report.getTasks()).isEqualTo(count("task", projectId));
+        assertThatThrownBy(() -> projectTransferService.importProject(new ByteArrayInputStream("{\"project\":1}".getBytes()), ownerId))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> projectTransferService.importProject(
+                new ByteArrayInputStream(Arrays.copyOf(exported, exported.length / 2)), ownerId))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private byte[] export(long id) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        projectTransferService.exportProject(id, out);
+        return out.toByteArray();
+    }
+
+    private List<String> decode(byte[] bytes) throws IOException {
+        ProjectTransferFormat.Reader reader = ProjectTransferFormat.reader(new ByteArrayInputStream(bytes));
+        Map<Long, Integer> subProjects = new HashMap<>();
+        Map<Long, Integer> tasks = new HashMap<>();
+        List<String> records = new ArrayList<>();
+        ProjectTransferFormat.RecordType type;
+        while ((type = reader.next()) != null) {
+            Object[] values = reader.getValues();
+            switch (type) {
+                case PROJECT -> values[0] = 0;
+                case SUB_PROJECT -> values[0] = position(subProjects, values[0]);
+                case TASK -> {
+                    values[0] = position(tasks, values[0]);
+                    values[1] = subProjects.get((Long) values[1]);
+                }
+                case SUB_TASK -> {
+                    values[0] = 0;
+                    values[1] = tasks.get((Long) values[1]);
+                }
+                default -> {
+                }
+            }
+            records.add(type + Arrays.toString(values));
+        }
+        return records;
+    }
+
+    private static int position(Map<Long, Integer> positions, Object id) {
+        return positions.computeIfAbsent((Long) id, key -> positions.size());
+    }
+
+    private int count(String table, long id) {
+        String join = switch (table) {
+            case "sub_project" -> "sub_project sp";
+            case "task" -> "task t JOIN sub_project sp ON sp.sub_project_id = t.sub_project_id";
+            default -> "sub_task st JOIN task t ON t.task_id = st.task_id " +
+                    "JOIN sub_project sp ON sp.sub_project_id = t.sub_project_id";
+        };
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + join + " WHERE sp.project_id = ?", Integer.class, id);
+    }
+
+    private List<String> workItems(long id) {
+        return jdbcTemplate.queryForList("SELECT item_type || ':' || employee_id || ':' || title FROM work_item " +
+                "WHERE project_id = ? ORDER BY item_type, item_id", String.class, id);
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.pkveksamen.repository;
+
+import com.example.pkveksamen.config.ReplicaLagMonitor;
+import com.example.pkveksamen.config.ReplicaRoutingInterceptor;
+import com.example.pkveksamen.model.AlphaRole;
+import com.example.pkveksamen.model.Employee;
+import com.example.pkveksamen.model.EmployeeRole;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// To H2-databaser står for primær og replika. Der er ingen rigtig replikering, så testen skriver selv
+// rækker og heartbeat direkte i replikaen for at se hvilken database en læsning rammer.
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:rr-primary;DB_CLOSE_DELAY=-1",
+        "datasource.replicas.urls=jdbc:h2:mem:rr-replica;DB_CLOSE_DELAY=-1",
+        "datasource.replicas.heartbeat-ms=3600000",
+        "datasource.replicas.max-lag-ms=2000",
+        "datasource.replicas.sticky-ms=60000"
+})
+@ActiveProfiles("test")
+class ReadReplicaRoutingIntegrationTest {
+
+    private static final String REPLICA_URL = "jdbc:h2:mem:rr-replica;DB_CLOSE_DELAY=-1";
+
+    private final EmployeeRepository employeeRepository;
+    private final ReplicaLagMonitor replicaLagMonitor;
+    private final RoleDictionary roleDictionary;
+    private final JdbcTemplate primary;
+    private final JdbcTemplate replica;
+
+    @Autowired
+    ReadReplicaRoutingIntegrationTest(EmployeeRepository employeeRepository,
+                                      ReplicaLagMonitor replicaLagMonitor,
+                                      RoleDictionary roleDictionary,
+                                      JdbcTemplate jdbcTemplate) {
+        this.employeeRepository = employeeRepository;
+        this.replicaLagMonitor = replicaLagMonitor;
+        this.roleDictionary = roleDictionary;
+        this.primary = jdbcTemplate;
+        this.replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+    }
+
+    @BeforeEach
+    void setUp() {
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(primary.getDataSource());
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(replica.getDataSource());
+        roleDictionary.reload();
+        setReplicaHeartbeat(System.currentTimeMillis());
+        replicaLagMonitor.check();
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void readsGoToReplica_writesGoToPrimary() {
+        createEmployee("skrevet.paa.primaer");
+        insertDirectly(replica, "kun.paa.replika");
+
+        // Testrammen binder en mock-request pr. test; læsningen sker fra en anden brugers request
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        assertThat(replicaLagMonitor.isHealthy(0)).isTrue();
+        assertThat(usernames(employeeRepository.getAllEmployees())).containsExactly("kun.paa.replika");
+        assertThat(primary.queryForList("SELECT username FROM employee", String.class)).containsExactly("skrevet.paa.primaer");
+    }
+
+    @Test
+    void userThatJustWrote_readsFromPrimary_afterRedirect() {
+        insertDirectly(replica, "kun.paa.replika");
+        MockHttpServletRequest post = new MockHttpServletRequest("POST", "/project/saveproject/1");
+        MockHttpServletResponse redirect = new MockHttpServletResponse();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(post, redirect));
+
+        createEmployee("skrevet.paa.primaer");
+
+        // GET efter redirect: ingen HttpSession, kun cookien fra svaret på POST'en
+        Cookie stamp = redirect.getCookie(ReplicaRoutingInterceptor.PRIMARY_UNTIL_COOKIE);
+        assertThat(stamp).isNotNull();
+        MockHttpServletRequest get = new MockHttpServletRequest("GET", "/project/list/1");
+        get.setCookies(stamp);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(get, new MockHttpServletResponse()));
+        assertThat(usernames(employeeRepository.getAllEmployees())).containsExactly("skrevet.paa.primaer");
+
+        // En anden bruger uden cookien læser stadig fra replikaen
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        assertThat(usernames(employeeRepository.getAllEmployees())).containsExactly("kun.paa.replika");
+
+        // Et forfalsket tidspunkt langt ude i fremtiden sender ikke læsningerne til primæren
+        MockHttpServletRequest forged = new MockHttpServletRequest();
+        forged.setCookies(new Cookie(ReplicaRoutingInterceptor.PRIMARY_UNTIL_COOKIE, String.valueOf(Long.MAX_VALUE)));
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(forged));
+        assertThat(usernames(employeeRepository.getAllEmployees())).containsExactly("kun.paa.replika");
+    }
+
+    @Test
+    void primaryReads_readFromPrimary_withoutMarkingAWrite() {
+        insertDirectly(primary, "paa.primaer");
+        insertDirectly(replica, "kun.paa.replika");
+        MockHttpServletRequest login = new MockHttpServletRequest("POST", "/login");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(login, response));
+
+        // @PrimaryRead og load* ser primærens rækker
+        Integer employeeId = employeeRepository.validateLogin("paa.primaer", "password");
+        assertThat(employeeId).isPositive();
+        assertThat(employeeRepository.loadSuggestion(employeeId)).isNotNull();
+
+        // men sætter ingen cookie, og brugerens næste almindelige læsning går stadig til replikaen
+        assertThat(response.getCookie(ReplicaRoutingInterceptor.PRIMARY_UNTIL_COOKIE)).isNull();
+        assertThat(usernames(employeeRepository.getAllEmployees())).containsExactly("kun.paa.replika");
+    }
+
+    @Test
+    void laggingReplica_fallsBackToPrimary() {
+        createEmployee("skrevet.paa.primaer");
+        insertDirectly(replica, "kun.paa.replika");
+        setReplicaHeartbeat(System.currentTimeMillis() - 60_000);
+
+        replicaLagMonitor.check();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+
+        assertThat(replicaLagMonitor.isHealthy(0)).isFalse();
+        assertThat(usernames(employeeRepository.getAllEmployees())).containsExactly("skrevet.paa.primaer");
+    }
+
+    private void createEmployee(String username) {
+        employeeRepository.createEmployee(username, "password", username + "@alphasolutions.dk",
+                EmployeeRole.TEAM_MEMBER.getDisplayName(), AlphaRole.Developer.getDisplayName());
+    }
+
+    private static void insertDirectly(JdbcTemplate jdbcTemplate, String username) {
+        jdbcTemplate.update("INSERT INTO employee (username, password, email, role) VALUES (?, 'password', ?, ?)",
+                username, username + "@alphasolutions.dk", EmployeeRole.TEAM_MEMBER.getDisplayName());
+    }
+
+    private void setReplicaHeartbeat(long millis) {
+        replica.update("DELETE FROM replica_heartbeat");
+        replica.update("INSERT INTO replica_heartbeat (heartbeat_id, beat_at) VALUES (1, ?)", new Timestamp(millis));
+    }
+
+    private static List<String> usernames(List<Employee> employees) {
+        return employees.stream().map(Employee::getUsername).toList();
+    }
+}
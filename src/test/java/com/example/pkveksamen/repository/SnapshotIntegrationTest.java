@@ -0,0 +1,110 @@
+package com.example.pkveksamen.repository;
+
+import com.example.pkveksamen.model.ProjectSnapshot;
+import com.example.pkveksamen.model.Status;
+import com.example.pkveksamen.service.DataGeneratorService;
+import com.example.pkveksamen.service.SnapshotService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+@ActiveProfiles("test")
+class SnapshotIntegrationTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 6, 1);
+
+    private final DataGeneratorService dataGeneratorService;
+    private final SnapshotService snapshotService;
+    private final SnapshotRepository snapshotRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    SnapshotIntegrationTest(DataGeneratorService dataGeneratorService,
+                            SnapshotService snapshotService,
+                            SnapshotRepository snapshotRepository,
+                            JdbcTemplate jdbcTemplate) {
+        this.dataGeneratorService = dataGeneratorService;
+        this.snapshotService = snapshotService;
+        this.snapshotRepository = snapshotRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @BeforeEach
+    void generateData() {
+        jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY FALSE");
+        jdbcTemplate.execute("TRUNCATE TABLE project_snapshot");
+        jdbcTemplate.execute("TRUNCATE TABLE work_item");
+        jdbcTemplate.execute("TRUNCATE TABLE sub_task");
+        jdbcTemplate.execute("TRUNCATE TABLE task");
+        jdbcTemplate.execute("TRUNCATE TABLE sub_project");
+        jdbcTemplate.execute("TRUNCATE TABLE project_employee");
+        jdbcTemplate.execute("TRUNCATE TABLE project");
+        jdbcTemplate.execute("TRUNCATE TABLE employee_role");
+        jdbcTemplate.execute("TRUNCATE TABLE employee");
+        jdbcTemplate.execute("TRUNCATE TABLE role");
+        jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY TRUE");
+
+        DataGeneratorService.Settings settings = new DataGeneratorService.Settings();
+        settings.setEmployees(10);
+        settings.setProjects(3);
+        settings.setSubProjectsPerProject(3);
+        settings.setMembersPerProject(5);
+        settings.setTasks(150);
+        settings.setSubTasks(0);
+        dataGeneratorService.generate(settings);
+    }
+
+    @Test
+    void takeSnapshot_matchesTaskTable_andProjectRowSumsSubProjects() {
+        int rows = snapshotService.takeSnapshot(DAY);
+
+        assertThat(rows).isEqualTo(3 * 3 + 3);
+        long projectId = jdbcTemplate.queryForObject("SELECT MIN(project_id) FROM project", Long.class);
+        long subProjectId = jdbcTemplate.queryForObject(
+                "SELECT MIN(sub_project_id) FROM sub_project WHERE project_id = ?", Long.class, projectId);
+
+        ProjectSnapshot sub = snapshotRepository.findSnapshots(projectId, subProjectId, DAY, DAY).get(0);
+        String where = " FROM task WHERE sub_project_id = ?";
+        assertThat(sub.getTaskCount()).isEqualTo(count("SELECT COUNT(*)" + where, subProjectId));
+        assertThat(sub.getCompletedCount()).isEqualTo(count("SELECT COUNT(*)" + where + " AND task_status IN (?, ?)",
+                subProjectId, Status.COMPLETED.getDisplayName(), Status.COMPLETED.name()));
+        assertThat(sub.getDueCount()).isEqualTo(count("SELECT COUNT(*)" + where + " AND task_deadline <= ?", subProjectId, DAY));
+        assertThat(sub.getTotalDays()).isEqualTo(count("SELECT COALESCE(SUM(GREATEST(COALESCE(task_duration, 1), 1)), 0)" + where, subProjectId));
+        assertThat(sub.getNotStartedCount() + sub.getInProgressCount() + sub.getCompletedCount()).isEqualTo(sub.getTaskCount());
+
+        ProjectSnapshot project = snapshotRepository.findSnapshots(projectId, 0, DAY, DAY).get(0);
+        assertThat(project.getTaskCount()).isEqualTo(count("SELECT SUM(task_count) FROM project_snapshot " +
+                "WHERE project_id = ? AND snapshot_date = ? AND sub_project_id <> 0", projectId, DAY));
+        assertThat(project.getCompletedDays()).isEqualTo(count("SELECT SUM(completed_days) FROM project_snapshot " +
+                "WHERE project_id = ? AND snapshot_date = ? AND sub_project_id <> 0", projectId, DAY));
+    }
+
+    @Test
+    void takeSnapshot_sameDayTwice_replacesRows() {
+        snapshotService.takeSnapshot(DAY);
+        snapshotService.takeSnapshot(DAY.plusDays(1));
+        jdbcTemplate.update("DELETE FROM task");
+        snapshotService.takeSnapshot(DAY);
+
+        assertThat(count("SELECT COUNT(*) FROM project_snapshot WHERE snapshot_date = ?", DAY)).isEqualTo(12);
+        assertThat(count("SELECT SUM(task_count) FROM project_snapshot WHERE snapshot_date = ?", DAY)).isZero();
+        assertThat(count("SELECT SUM(task_count) FROM project_snapshot WHERE snapshot_date = ?", DAY.plusDays(1))).isPositive();
+        assertThat(snapshotRepository.isSnapshotTaken(DAY.plusDays(2))).isFalse();
+    }
+
+    private int count(String sql, Object... args) {
+        Integer value = jdbcTemplate.queryForObject(sql, Integer.class, args);
+        return value == null ? 0 : value;
+    }
+}
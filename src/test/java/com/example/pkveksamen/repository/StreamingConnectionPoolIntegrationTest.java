@@ -0,0 +1,84 @@
+package com.example.pkveksamen.repository;
+
+import com.example.pkveksamen.model.Task;
+import com.example.pkveksamen.model.TaskFilter;
+import com.example.pkveksamen.service.DataGeneratorService;
+import com.example.pkveksamen.service.TaskService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// En rigtig Hikari-pulje med to forbindelser (uden @AutoConfigureTestDatabase, der ikke bruger en pulje).
+// To tasklister streames samtidig og holder hver sin forbindelse; alt de skal bruge undervejs må ikke kræve en tredje.
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:streaming-pool;DB_CLOSE_DELAY=-1",
+        "spring.datasource.hikari.maximum-pool-size=2",
+        "spring.datasource.hikari.connection-timeout=250",
+        "outbox.enabled=false",
+        "archive.enabled=false"
+})
+@ActiveProfiles("test")
+class StreamingConnectionPoolIntegrationTest {
+
+    private final DataGeneratorService dataGeneratorService;
+    private final TaskService taskService;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    StreamingConnectionPoolIntegrationTest(DataGeneratorService dataGeneratorService,
+                                           TaskService taskService,
+                                           JdbcTemplate jdbcTemplate) {
+        this.dataGeneratorService = dataGeneratorService;
+        this.taskService = taskService;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Test
+    void concurrentTaskStreams_withManyAssignees_needNoExtraConnection() {
+        DataGeneratorService.Settings settings = new DataGeneratorService.Settings();
+        settings.setEmployees(40);
+        settings.setProjects(2);
+        settings.setSubProjectsPerProject(1);
+        settings.setMembersPerProject(10);
+        settings.setTasks(200);
+        settings.setSubTasks(0);
+        dataGeneratorService.generate(settings);
+        List<Long> subProjectIds = jdbcTemplate.queryForList(
+                "SELECT DISTINCT sub_project_id FROM task ORDER BY sub_project_id", Long.class);
+        long first = subProjectIds.get(0);
+        long second = subProjectIds.get(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(DISTINCT employee_id) FROM task WHERE sub_project_id = ?",
+                Integer.class, first)).isGreaterThan(2);
+
+        List<Task> streamed = new ArrayList<>();
+        try (var a = taskService.streamTasksBySubProjectId(first, TaskFilter.none());
+             var b = taskService.streamTasksBySubProjectId(second, TaskFilter.none())) {
+            // Begge strømme er åbne og holder nu hver sin af puljens to forbindelser
+            assertThat(a.isEmpty()).isFalse();
+            assertThat(b.isEmpty()).isFalse();
+            Iterator<Task> rowsA = a.iterator();
+            Iterator<Task> rowsB = b.iterator();
+            while (rowsA.hasNext() || rowsB.hasNext()) {
+                if (rowsA.hasNext()) {
+                    streamed.add(rowsA.next());
+                }
+                if (rowsB.hasNext()) {
+                    streamed.add(rowsB.next());
+                }
+            }
+        }
+
+        assertThat(streamed).hasSize(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM task WHERE sub_project_id IN (?, ?)", Integer.class, first, second));
+        assertThat(streamed).filteredOn(task -> task.getAssignedEmployee() != null)
+                .anyMatch(task -> !task.getAssignedEmployee().getAlphaRoles().isEmpty());
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.pkveksamen.repository;
+
+import com.example.pkveksamen.model.Employee;
+import com.example.pkveksamen.model.Task;
+import com.example.pkveksamen.service.DataGeneratorService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+@ActiveProfiles("test")
+class StreamingRowsIntegrationTest {
+
+    private final DataGeneratorService dataGeneratorService;
+    private final EmployeeRepository employeeRepository;
+    private final TaskRepository taskRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    StreamingRowsIntegrationTest(DataGeneratorService dataGeneratorService,
+                                 EmployeeRepository employeeRepository,
+                                 TaskRepository taskRepository,
+                                 JdbcTemplate jdbcTemplate) {
+        this.dataGeneratorService = dataGeneratorService;
+        this.employeeRepository = employeeRepository;
+        this.taskRepository = taskRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @BeforeEach
+    void generateData() {
+        jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY FALSE");
+        jdbcTemplate.execute("TRUNCATE TABLE sub_task");
+        jdbcTemplate.execute("TRUNCATE TABLE task");
+        jdbcTemplate.execute("TRUNCATE TABLE sub_project");
+        jdbcTemplate.execute("TRUNCATE TABLE project_employee");
+        jdbcTemplate.execute("TRUNCATE TABLE project");
+        jdbcTemplate.execute("TRUNCATE TABLE employee_role");
+        jdbcTemplate.execute("TRUNCATE TABLE employee");
+        jdbcTemplate.execute("TRUNCATE TABLE role");
+        jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY TRUE");
+
+        DataGeneratorService.Settings settings = new DataGeneratorService.Settings();
+        settings.setEmployees(40);
+        settings.setProjects(4);
+        settings.setSubProjectsPerProject(2);
+        settings.setMembersPerProject(5);
+        settings.setTasks(200);
+        settings.setSubTasks(0);
+        dataGeneratorService.generate(settings);
+    }
+
+    @Test
+    void streamTasksBySubProjectId_returnsSameRowsAsList() {
+        Long subProjectId = jdbcTemplate.queryForObject("SELECT MIN(sub_project_id) FROM task", Long.class);
+        List<Task> expected = taskRepository.showTasksBySubProjectId(subProjectId);
+        expected.sort(Comparator.comparingInt(Task::getTaskID));
+
+        List<Task> streamed = new ArrayList<>();
+        try (StreamingRows<Task> rows = taskRepository.streamTasksBySubProjectId(subProjectId)) {
+            assertThat(rows.isEmpty()).isFalse();
+            rows.forEach(streamed::add);
+            // Forbindelsen frigives så snart sidste række er læst
+            assertThat(rows.isClosed()).isTrue();
+        }
+
+        assertThat(streamed).extracting(Task::getTaskID)
+                .containsExactlyElementsOf(expected.stream().map(Task::getTaskID).toList());
+        assertThat(streamed).extracting(Task::getTaskPriority).doesNotContainNull();
+    }
+
+    @Test
+    void streamAllEmployees_groupsAlphaRolesPerEmployee() {
+        List<Employee> expected = employeeRepository.getAllEmployees();
+
+        List<Employee> streamed = new ArrayList<>();
+        try (StreamingRows<Employee> rows = employeeRepository.streamAllEmployees()) {
+            rows.forEach(streamed::add);
+        }
+
+        assertThat(streamed).hasSameSizeAs(expected);
+        for (int i = 0; i < expected.size(); i++) {
+            assertThat(streamed.get(i).getEmployeeId()).isEqualTo(expected.get(i).getEmployeeId());
+            assertThat(streamed.get(i).getAlphaRoles()).containsExactlyInAnyOrderElementsOf(expected.get(i).getAlphaRoles());
+        }
+    }
+
+    @Test
+    void streamingRows_canOnlyBeIteratedOnce_andCloseStopsIteration() {
+        Long subProjectId = jdbcTemplate.queryForObject("SELECT MIN(sub_project_id) FROM task", Long.class);
+        StreamingRows<Task> rows = taskRepository.streamTasksBySubProjectId(subProjectId);
+
+        Iterator<Task> iterator = rows.iterator();
+        assertThat(iterator.hasNext()).isTrue();
+        iterator.next();
+        rows.close();
+
+        assertThat(iterator.hasNext()).isFalse();
+        assertThatThrownBy(rows::iterator).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void streamTasksByEmployeeId_emptyResult() {
+        try (StreamingRows<Task> rows = taskRepository.streamTasksByEmployeeId(-1)) {
+            assertThat(rows.isEmpty()).isTrue();
+            assertThat(rows.iterator().hasNext()).isFalse();
+        }
+    }
+}
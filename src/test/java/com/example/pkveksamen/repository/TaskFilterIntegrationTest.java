@@ -0,0 +1,160 @@
+package com.example.pkveksamen.repository;
+
+import com.example.pkveksamen.model.AlphaRole;
+import com.example.pkveksamen.model.Priority;
+import com.example.pkveksamen.model.Status;
+import com.example.pkveksamen.model.Task;
+import com.example.pkveksamen.model.TaskFilter;
+import com.example.pkveksamen.service.DataGeneratorService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Filtrene køres i databasen og sammenlignes med den samme filtrering lavet i Java på den ufiltrerede liste
+@SpringBootTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+@ActiveProfiles("test")
+class TaskFilterIntegrationTest {
+
+    private final DataGeneratorService dataGeneratorService;
+    private final EmployeeRepository employeeRepository;
+    private final TaskRepository taskRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    private long subProjectId;
+    private List<Task> allTasks;
+
+    @Autowired
+    TaskFilterIntegrationTest(DataGeneratorService dataGeneratorService,
+                              EmployeeRepository employeeRepository,
+                              TaskRepository taskRepository,
+                              JdbcTemplate jdbcTemplate) {
+        this.dataGeneratorService = dataGeneratorService;
+        this.employeeRepository = employeeRepository;
+        this.taskRepository = taskRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @BeforeEach
+    void generateData() {
+        jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY FALSE");
+        jdbcTemplate.execute("TRUNCATE TABLE sub_task");
+        jdbcTemplate.execute("TRUNCATE TABLE task");
+        jdbcTemplate.execute("TRUNCATE TABLE sub_project");
+        jdbcTemplate.execute("TRUNCATE TABLE project_employee");
+        jdbcTemplate.execute("TRUNCATE TABLE project");
+        jdbcTemplate.execute("TRUNCATE TABLE employee_role");
+        jdbcTemplate.execute("TRUNCATE TABLE employee");
+        jdbcTemplate.execute("TRUNCATE TABLE role");
+        jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY TRUE");
+
+        DataGeneratorService.Settings settings = new DataGeneratorService.Settings();
+        settings.setEmployees(30);
+        settings.setProjects(2);
+        settings.setSubProjectsPerProject(1);
+        settings.setMembersPerProject(6);
+        settings.setTasks(300);
+        settings.setSubTasks(0);
+        dataGeneratorService.generate(settings);
+
+        subProjectId = jdbcTemplate.queryForObject(
+                "SELECT sub_project_id FROM task GROUP BY sub_project_id ORDER BY COUNT(*) DESC, sub_project_id LIMIT 1", Long.class);
+        // Halvdelen skrives som enum-navne, ligesom saveTask/editTask gør, så begge former skal matches
+        jdbcTemplate.update("UPDATE task SET task_status = UPPER(REPLACE(task_status, ' ', '_')), " +
+                "task_priority = UPPER(task_priority) WHERE MOD(task_id, 2) = 0");
+        allTasks = taskRepository.showTasksBySubProjectId(subProjectId);
+    }
+
+    @Test
+    void statusAndPriority_matchBothStoredForms() {
+        TaskFilter filter = new TaskFilter();
+        filter.setStatus(List.of(Status.IN_PROGRESS, Status.NOT_STARTED));
+        filter.setPriority(List.of(Priority.HIGH));
+
+        assertMatches(filter, task -> (task.getTaskStatus() == Status.IN_PROGRESS || task.getTaskStatus() == Status.NOT_STARTED)
+                && task.getTaskPriority() == Priority.HIGH);
+    }
+
+    @Test
+    void assigneeAndAlphaRole_filterOnAssignedEmployee() {
+        Task assigned = allTasks.stream().filter(task -> task.getAssignedEmployee() != null).findFirst().orElseThrow();
+        int assigneeId = assigned.getAssignedEmployee().getEmployeeId();
+        AlphaRole alphaRole = employeeRepository.findAlphaRolesByEmployeeId(assigneeId).get(0);
+
+        TaskFilter byAssignee = new TaskFilter();
+        byAssignee.setAssigneeId(assigneeId);
+        assertMatches(byAssignee, task -> task.getAssignedEmployee() != null
+                && task.getAssignedEmployee().getEmployeeId() == assigneeId);
+
+        TaskFilter byAlphaRole = new TaskFilter();
+        byAlphaRole.setAlphaRole(alphaRole);
+        assertMatches(byAlphaRole, task -> task.getAssignedEmployee() != null
+                && employeeRepository.findAlphaRolesByEmployeeId(task.getAssignedEmployee().getEmployeeId()).contains(alphaRole));
+    }
+
+    @Test
+    void deadlineRangeAndOverdue_areInclusiveAndSkipCompleted() {
+        List<LocalDate> deadlines = allTasks.stream().map(Task::getTaskDeadline).filter(d -> d != null).sorted().toList();
+        LocalDate from = deadlines.get(deadlines.size() / 4);
+        LocalDate to = deadlines.get(deadlines.size() * 3 / 4);
+
+        TaskFilter range = new TaskFilter();
+        range.setDeadlineFrom(from);
+        range.setDeadlineTo(to);
+        assertMatches(range, task -> task.getTaskDeadline() != null
+                && !task.getTaskDeadline().isBefore(from) && !task.getTaskDeadline().isAfter(to));
+
+        TaskFilter overdue = new TaskFilter();
+        overdue.setOverdue(true);
+        LocalDate today = LocalDate.now();
+        assertMatches(overdue, task -> task.getTaskDeadline() != null
+                && task.getTaskDeadline().isBefore(today) && task.getTaskStatus() != Status.COMPLETED);
+    }
+
+    @Test
+    void sortByPriorityDescending_thenTaskId() {
+        TaskFilter filter = new TaskFilter();
+        filter.setSort(TaskFilter.Sort.PRIORITY);
+        filter.setDescending(true);
+
+        List<Task> sorted = taskRepository.showTasksBySubProjectId(subProjectId, filter);
+
+        List<Task> expected = new ArrayList<>(allTasks);
+        expected.sort(Comparator.comparing((Task task) -> task.getTaskPriority().ordinal()).reversed()
+                .thenComparing(Task::getTaskID));
+        assertThat(sorted).extracting(Task::getTaskID).containsExactlyElementsOf(expected.stream().map(Task::getTaskID).toList());
+    }
+
+    @Test
+    void streamingVariant_returnsSameRowsAsList() {
+        TaskFilter filter = new TaskFilter();
+        filter.setStatus(List.of(Status.COMPLETED));
+        filter.setSort(TaskFilter.Sort.DEADLINE);
+
+        List<Integer> streamed = new ArrayList<>();
+        try (StreamingRows<Task> rows = taskRepository.streamTasksBySubProjectId(subProjectId, filter)) {
+            rows.forEach(task -> streamed.add(task.getTaskID()));
+        }
+        assertThat(streamed).containsExactlyElementsOf(
+                taskRepository.showTasksBySubProjectId(subProjectId, filter).stream().map(Task::getTaskID).toList());
+    }
+
+    private void assertMatches(TaskFilter filter, Predicate<Task> expected) {
+        List<Integer> filtered = taskRepository.showTasksBySubProjectId(subProjectId, filter).stream().map(Task::getTaskID).toList();
+        List<Integer> wanted = allTasks.stream().filter(expected).map(Task::getTaskID).toList();
+        assertThat(wanted).isNotEmpty();
+        assertThat(filtered).containsExactlyElementsOf(wanted);
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.pkveksamen.repository;
+
+import com.example.pkveksamen.model.Priority;
+import com.example.pkveksamen.model.ProjectHistory;
+import com.example.pkveksamen.model.Status;
+import com.example.pkveksamen.model.Task;
+import com.example.pkveksamen.model.TaskHistoryEntry;
+import com.example.pkveksamen.service.DataGeneratorService;
+import com.example.pkveksamen.service.TaskHistoryService;
+import com.example.pkveksamen.service.TaskService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+@ActiveProfiles("test")
+class TaskHistoryIntegrationTest {
+
+    private final DataGeneratorService dataGeneratorService;
+    private final TaskService taskService;
+    private final TaskHistoryService taskHistoryService;
+    private final JdbcTemplate jdbcTemplate;
+
+    private long projectId;
+    private long taskId;
+
+    @Autowired
+    TaskHistoryIntegrationTest(DataGeneratorService dataGeneratorService,
+                               TaskService taskService,
+                               TaskHistoryService taskHistoryService,
+                               JdbcTemplate jdbcTemplate) {
+        this.dataGeneratorService = dataGeneratorService;
+        this.taskService = taskService;
+        this.taskHistoryService = taskHistoryService;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @BeforeEach
+    void generateData() {
+        jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY FALSE");
+        jdbcTemplate.execute("TRUNCATE TABLE task_history");
+        jdbcTemplate.execute("TRUNCATE TABLE work_item");
+        jdbcTemplate.execute("TRUNCATE TABLE sub_task");
+        jdbcTemplate.execute("TRUNCATE TABLE task");
+        jdbcTemplate.execute("TRUNCATE TABLE sub_project");
+        jdbcTemplate.execute("TRUNCATE TABLE project_employee");
+        jdbcTemplate.execute("TRUNCATE TABLE project");
+        jdbcTemplate.execute("TRUNCATE TABLE employee_role");
+        jdbcTemplate.execute("TRUNCATE TABLE employee");
+        jdbcTemplate.execute("TRUNCATE TABLE role");
+        jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY TRUE");
+
+        DataGeneratorService.Settings settings = new DataGeneratorService.Settings();
+        settings.setEmployees(10);
+        settings.setProjects(2);
+        settings.setSubProjectsPerProject(2);
+        settings.setMembersPerProject(5);
+        settings.setTasks(40);
+        settings.setSubTasks(40);
+        dataGeneratorService.generate(settings);
+        projectId = jdbcTemplate.queryForObject("SELECT MIN(project_id) FROM project", Long.class);
+        taskId = jdbcTemplate.queryForObject("SELECT MIN(t.task_id) FROM task t " +
+                "JOIN sub_project sp ON sp.sub_project_id = t.sub_project_id WHERE sp.project_id = ?", Long.class, projectId);
+    }
+
+    @Test
+    void changes_areAppended_onlyWhenStateDiffers() {
+        int generated = count("SELECT COUNT(*) FROM task_history");
+        assertThat(generated).isEqualTo(count("SELECT COUNT(*) FROM task") + count("SELECT COUNT(*) FROM sub_task"));
+
+        // Kendt udgangspunkt: tasken er ikke startet og har lav prioritet, og historikken begynder forfra
+        jdbcTemplate.update("UPDATE task SET task_status = ?, task_priority = ? WHERE task_id = ?",
+                Status.NOT_STARTED.getDisplayName(), Priority.LOW.getDisplayName(), taskId);
+        jdbcTemplate.execute("TRUNCATE TABLE task_history");
+        taskHistoryService.recordAll();
+
+        taskService.updateTaskStatus(taskId, Status.COMPLETED);
+        taskService.updateTaskStatus(taskId, Status.COMPLETED);
+        taskService.updateTaskPriority(taskId, Priority.HIGH);
+        Task task = taskService.getTaskById(taskId);
+        taskService.updateTaskNote(taskId, "kun en note");
+
+        // Oprettelse, status og prioritet; den gentagne status og noten giver ingen rækker
+        List<TaskHistoryEntry> taskRows = taskHistoryService.getTaskHistory(taskId).stream()
+                .filter(entry -> !entry.isSubTask()).toList();
+        assertThat(taskRows).extracting(TaskHistoryEntry::getChangeKind, TaskHistoryEntry::getStatus, TaskHistoryEntry::getPriority)
+                .containsExactly(
+                        tuple(TaskHistoryEntry.ChangeKind.CREATED, Status.NOT_STARTED, Priority.LOW),
+                        tuple(TaskHistoryEntry.ChangeKind.CHANGED, Status.COMPLETED, Priority.LOW),
+                        tuple(TaskHistoryEntry.ChangeKind.CHANGED, Status.COMPLETED, Priority.HIGH));
+        assertThat(taskRows).allMatch(entry -> entry.getTitle().equals(task.getTaskName()));
+    }
+
+    @Test
+    void getProjectAsOf_replaysToEarlierState_andDropsDeletedTasks() throws InterruptedException {
+        LocalDateTime generated = LocalDateTime.now();
+        Thread.sleep(1100);
+        String statusBefore = jdbcTemplate.queryForObject(
+                "SELECT status FROM task_history WHERE item_type = 'TASK' AND item_id = ?", String.class, taskId);
+        Status changed = Status.valueOf(statusBefore) == Status.IN_PROGRESS ? Status.COMPLETED : Status.IN_PROGRESS;
+        taskService.updateTaskStatus(taskId, changed);
+        long deletedTaskId = jdbcTemplate.queryForObject("SELECT MAX(t.task_id) FROM task t " +
+                "JOIN sub_project sp ON sp.sub_project_id = t.sub_project_id WHERE sp.project_id = ?", Long.class, projectId);
+        taskService.deleteTask(deletedTaskId);
+
+        ProjectHistory before = taskHistoryService.getProjectAsOf(projectId, generated);
+        ProjectHistory now = taskHistoryService.getProjectAsOf(projectId, LocalDateTime.now());
+
+        assertThat(status(before, taskId)).isEqualTo(Status.valueOf(statusBefore));
+        assertThat(status(now, taskId)).isEqualTo(changed);
+        assertThat(before.getItems()).anyMatch(item -> !item.isSubTask() && item.getItemId() == deletedTaskId);
+        assertThat(now.getItems()).noneMatch(item -> item.getTaskId() == deletedTaskId);
+        assertThat(now.getItems()).filteredOn(item -> !item.isSubTask()).hasSize(count(
+                "SELECT COUNT(*) FROM task t JOIN sub_project sp ON sp.sub_project_id = t.sub_project_id WHERE sp.project_id = ?", projectId));
+    }
+
+    private Status status(ProjectHistory history, long id) {
+        return history.getItems().stream()
+                .filter(item -> !item.isSubTask() && item.getItemId() == id)
+                .findFirst().orElseThrow().getStatus();
+    }
+
+    private int count(String sql, Object... args) {
+        Integer value = jdbcTemplate.queryForObject(sql, Integer.class, args);
+        return value == null ? 0 : value;
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.pkveksamen.repository;
+
+import com.example.pkveksamen.model.ChangeEvent;
+import com.example.pkveksamen.model.TimelineItem;
+import com.example.pkveksamen.model.TimelineLayout;
+import com.example.pkveksamen.service.DataGeneratorService;
+import com.example.pkveksamen.service.TimelineService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+@ActiveProfiles("test")
+class TimelineIntegrationTest {
+
+    private final DataGeneratorService dataGeneratorService;
+    private final TimelineRepository timelineRepository;
+    private final TimelineService timelineService;
+    private final JdbcTemplate jdbcTemplate;
+
+    private long projectId;
+
+    @Autowired
+    TimelineIntegrationTest(DataGeneratorService dataGeneratorService,
+                            TimelineRepository timelineRepository,
+                            TimelineService timelineService,
+                            JdbcTemplate jdbcTemplate) {
+        this.dataGeneratorService = dataGeneratorService;
+        this.timelineRepository = timelineRepository;
+        this.timelineService = timelineService;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @BeforeEach
+    void generateData() {
+        jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY FALSE");
+        jdbcTemplate.execute("TRUNCATE TABLE sub_task");
+        jdbcTemplate.execute("TRUNCATE TABLE task");
+        jdbcTemplate.execute("TRUNCATE TABLE sub_project");
+        jdbcTemplate.execute("TRUNCATE TABLE project_employee");
+        jdbcTemplate.execute("TRUNCATE TABLE project");
+        jdbcTemplate.execute("TRUNCATE TABLE employee_role");
+        jdbcTemplate.execute("TRUNCATE TABLE employee");
+        jdbcTemplate.execute("TRUNCATE TABLE role");
+        jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY TRUE");
+
+        DataGeneratorService.Settings settings = new DataGeneratorService.Settings();
+        settings.setEmployees(20);
+        settings.setProjects(2);
+        settings.setSubProjectsPerProject(3);
+        settings.setMembersPerProject(4);
+        settings.setTasks(120);
+        settings.setSubTasks(400);
+        dataGeneratorService.generate(settings);
+        projectId = jdbcTemplate.queryForObject("SELECT MIN(project_id) FROM project", Long.class);
+    }
+
+    @Test
+    void loadProjectTree_returnsEveryNodeOnce_parentsFirst() {
+        List<TimelineItem> items = timelineRepository.loadProjectTree(projectId);
+
+        assertThat(items.get(0).getKind()).isEqualTo(TimelineItem.Kind.PROJECT);
+        assertThat(count(items, TimelineItem.Kind.SUB_PROJECT)).isEqualTo(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM sub_project WHERE project_id = ?", Long.class, projectId));
+        assertThat(count(items, TimelineItem.Kind.TASK)).isEqualTo(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM task t JOIN sub_project sp ON sp.sub_project_id = t.sub_project_id " +
+                        "WHERE sp.project_id = ?", Long.class, projectId));
+        assertThat(count(items, TimelineItem.Kind.SUB_TASK)).isEqualTo(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM sub_task st JOIN task t ON t.task_id = st.task_id " +
+                        "JOIN sub_project sp ON sp.sub_project_id = t.sub_project_id WHERE sp.project_id = ?", Long.class, projectId));
+
+        // Hver knude er højst ét niveau dybere end den foregående
+        for (int i = 1; i < items.size(); i++) {
+            assertThat(items.get(i).getKind().ordinal()).isLessThanOrEqualTo(items.get(i - 1).getKind().ordinal() + 1);
+        }
+        assertThat(timelineRepository.loadProjectTree(-1)).isEmpty();
+    }
+
+    @Test
+    void getTimeline_layoutCoversTree_andVersionFollowsData() {
+        TimelineLayout layout = timelineService.getTimeline(projectId);
+        assertThat(layout.getRows()).hasSize(timelineRepository.loadProjectTree(projectId).size());
+        assertThat(layout.getRows()).allSatisfy(bar -> {
+            if (bar.getParent() >= 0) {
+                assertThat(layout.getRows().get(bar.getParent()).getDepth()).isEqualTo(bar.getDepth() - 1);
+                assertThat(bar.getLane()).isLessThan(layout.getRows().get(bar.getParent()).getLanes());
+            }
+        });
+
+        long taskId = layout.getRows().stream()
+                .filter(bar -> bar.getKind() == TimelineItem.Kind.TASK).findFirst().orElseThrow().getId();
+        jdbcTemplate.update("UPDATE task SET task_title = 'Omdøbt' WHERE task_id = ?", taskId);
+        timelineService.onChange(new ChangeEvent(1, ChangeEvent.Type.TASK_CHANGED, taskId));
+
+        assertThat(timelineService.getTimeline(projectId).getVersion()).isNotEqualTo(layout.getVersion());
+    }
+
+    private static long count(List<TimelineItem> items, TimelineItem.Kind kind) {
+        return items.stream().filter(item -> item.getKind() == kind).count();
+    }
+}
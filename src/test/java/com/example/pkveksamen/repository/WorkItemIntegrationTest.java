@@ -0,0 +1,131 @@
+package com.example.pkveksamen.repository;
+
+import com.example.pkveksamen.model.Priority;
+import com.example.pkveksamen.model.Status;
+import com.example.pkveksamen.model.WorkItem;
+import com.example.pkveksamen.service.DataGeneratorService;
+import com.example.pkveksamen.service.TaskService;
+import com.example.pkveksamen.service.WorkItemService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+@ActiveProfiles("test")
+class WorkItemIntegrationTest {
+
+    private final DataGeneratorService dataGeneratorService;
+    private final WorkItemService workItemService;
+    private final TaskService taskService;
+    private final JdbcTemplate jdbcTemplate;
+
+    private int employeeId;
+
+    @Autowired
+    WorkItemIntegrationTest(DataGeneratorService dataGeneratorService,
+                            WorkItemService workItemService,
+                            TaskService taskService,
+                            JdbcTemplate jdbcTemplate) {
+        this.dataGeneratorService = dataGeneratorService;
+        this.workItemService = workItemService;
+        this.taskService = taskService;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @BeforeEach
+    void generateData() {
+        jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY FALSE");
+        jdbcTemplate.execute("TRUNCATE TABLE work_item");
+        jdbcTemplate.execute("TRUNCATE TABLE sub_task");
+        jdbcTemplate.execute("TRUNCATE TABLE task");
+        jdbcTemplate.execute("TRUNCATE TABLE sub_project");
+        jdbcTemplate.execute("TRUNCATE TABLE project_employee");
+        jdbcTemplate.execute("TRUNCATE TABLE project");
+        jdbcTemplate.execute("TRUNCATE TABLE employee_role");
+        jdbcTemplate.execute("TRUNCATE TABLE employee");
+        jdbcTemplate.execute("TRUNCATE TABLE role");
+        jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY TRUE");
+
+        DataGeneratorService.Settings settings = new DataGeneratorService.Settings();
+        settings.setEmployees(20);
+        settings.setProjects(2);
+        settings.setSubProjectsPerProject(3);
+        settings.setMembersPerProject(4);
+        settings.setTasks(120);
+        settings.setSubTasks(400);
+        dataGeneratorService.generate(settings);
+        employeeId = jdbcTemplate.queryForObject(
+                "SELECT employee_id FROM task WHERE employee_id IS NOT NULL GROUP BY employee_id " +
+                        "ORDER BY COUNT(*) DESC, employee_id LIMIT 1", Integer.class);
+    }
+
+    @Test
+    void rebuild_matchesJoinOverTasksAndSubTasks() {
+        Integer tasks = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM task WHERE employee_id = ?", Integer.class, employeeId);
+        Integer subTasks = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM sub_task st JOIN task t ON t.task_id = st.task_id WHERE t.employee_id = ?",
+                Integer.class, employeeId);
+
+        List<WorkItem> items = workItemService.getWorkItems(employeeId);
+        assertThat(items).hasSize(tasks + subTasks);
+        assertThat(items.stream().filter(WorkItem::isSubTask).count()).isEqualTo(subTasks.longValue());
+
+        Map<Status, Integer> counts = workItemService.getStatusCounts(employeeId);
+        assertThat(counts.values().stream().mapToInt(Integer::intValue).sum()).isEqualTo(items.size());
+
+        // Tidligste deadline først, uden deadline sidst
+        for (int i = 1; i < items.size(); i++) {
+            LocalDate previous = items.get(i - 1).getDeadline();
+            LocalDate current = items.get(i).getDeadline();
+            if (previous == null) {
+                assertThat(current).isNull();
+            } else if (current != null) {
+                assertThat(current).isAfterOrEqualTo(previous);
+            }
+        }
+    }
+
+    @Test
+    void serviceWrites_updateReadModelInSameTransaction() {
+        long subProjectId = jdbcTemplate.queryForObject(
+                "SELECT MIN(sub_project_id) FROM sub_project", Long.class);
+        taskService.createTask(employeeId, subProjectId, "Ny opgave", "", Status.NOT_STARTED,
+                LocalDate.now(), LocalDate.now().plusDays(3), 3, Priority.HIGH, "");
+        long taskId = jdbcTemplate.queryForObject("SELECT MAX(task_id) FROM task", Long.class);
+
+        WorkItem created = find(employeeId, WorkItem.Type.TASK, taskId);
+        assertThat(created.getTitle()).isEqualTo("Ny opgave");
+        assertThat(created.getPriority()).isEqualTo(Priority.HIGH);
+
+        taskService.updateTaskStatus(taskId, Status.IN_PROGRESS);
+        assertThat(find(employeeId, WorkItem.Type.TASK, taskId).getStatus()).isEqualTo(Status.IN_PROGRESS);
+
+        taskService.createSubTask(taskId, "Delopgave", "", Status.NOT_STARTED.getDisplayName(),
+                LocalDate.now(), LocalDate.now().plusDays(1), 1, Priority.LOW.getDisplayName(), "");
+        long subTaskId = jdbcTemplate.queryForObject("SELECT MAX(sub_task_id) FROM sub_task", Long.class);
+        assertThat(find(employeeId, WorkItem.Type.SUB_TASK, subTaskId).getTaskTitle()).isEqualTo("Ny opgave");
+
+        // Sletning af tasken fjerner også subtaskens række via fremmednøglerne
+        taskService.deleteTask(taskId);
+        assertThat(workItemService.getWorkItems(employeeId))
+                .noneMatch(item -> item.getTaskId() == taskId);
+    }
+
+    private WorkItem find(int employeeId, WorkItem.Type type, long itemId) {
+        return workItemService.getWorkItems(employeeId).stream()
+                .filter(item -> item.getType() == type && item.getItemId() == itemId)
+                .findFirst().orElseThrow();
+    }
+}
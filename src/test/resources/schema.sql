@@ -1,4 +1,18 @@
 
+DROP TABLE IF EXISTS leveling_shift;
+DROP TABLE IF EXISTS leveling_job;
+DROP TABLE IF EXISTS archived_sub_task;
+DROP TABLE IF EXISTS archived_task;
+DROP TABLE IF EXISTS archived_sub_project;
+DROP TABLE IF EXISTS archived_project_employee;
+DROP TABLE IF EXISTS archived_project;
+DROP TABLE IF EXISTS replica_heartbeat;
+DROP TABLE IF EXISTS scheduler_lock;
+DROP TABLE IF EXISTS change_outbox;
+DROP TABLE IF EXISTS outbox_cursor;
+DROP TABLE IF EXISTS work_item;
+DROP TABLE IF EXISTS project_snapshot;
+DROP TABLE IF EXISTS task_history;
 DROP TABLE IF EXISTS sub_task;
 DROP TABLE IF EXISTS task;
 DROP TABLE IF EXISTS sub_project;
@@ -80,6 +94,12 @@ CREATE TABLE task (
                       FOREIGN KEY (sub_project_id) REFERENCES sub_project(sub_project_id) ON DELETE CASCADE
 );
 
+-- Tasklistens filtre (se TaskFilter): altid inden for én underprojekt eller én medarbejder
+CREATE INDEX idx_task_sub_project_status ON task(sub_project_id, task_status);
+CREATE INDEX idx_task_sub_project_priority ON task(sub_project_id, task_priority);
+CREATE INDEX idx_task_sub_project_deadline ON task(sub_project_id, task_deadline);
+CREATE INDEX idx_task_employee_deadline ON task(employee_id, task_deadline);
+
 CREATE TABLE sub_task (
                           sub_task_id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
                           task_id BIGINT NOT NULL,
@@ -92,4 +112,204 @@ CREATE TABLE sub_task (
                           sub_task_priority VARCHAR(50),
                           sub_task_note VARCHAR(1000),
                           FOREIGN KEY (task_id) REFERENCES task(task_id) ON DELETE CASCADE
-);
\ No newline at end of file
+);
+
+-- Heartbeat til måling af replika-forsinkelse (se ReplicaLagMonitor)
+CREATE TABLE replica_heartbeat (
+                                   heartbeat_id INT PRIMARY KEY,
+                                   beat_at TIMESTAMP NOT NULL
+);
+
+-- Arkiv til afsluttede projekter (se ArchiveService). Samme kolonner som de levende tabeller, men uden
+-- fremmednøgler, så et projekt kan flyttes frem og tilbage med sine oprindelige id'er
+CREATE TABLE archived_project (
+                                  project_id BIGINT PRIMARY KEY,
+                                  employee_id BIGINT NOT NULL,
+                                  project_title VARCHAR(255) NOT NULL,
+                                  project_description VARCHAR(1000),
+                                  project_start_date DATE,
+                                  project_deadline DATE,
+                                  project_customer VARCHAR(255),
+                                  archived_at TIMESTAMP NOT NULL
+);
+CREATE INDEX idx_archived_project_employee_id ON archived_project(employee_id);
+
+CREATE TABLE archived_project_employee (
+                                           project_id BIGINT NOT NULL,
+                                           employee_id BIGINT NOT NULL,
+                                           PRIMARY KEY (project_id, employee_id)
+);
+CREATE INDEX idx_archived_project_employee_employee_id ON archived_project_employee(employee_id);
+
+CREATE TABLE archived_sub_project (
+                                      sub_project_id BIGINT PRIMARY KEY,
+                                      project_id BIGINT NOT NULL,
+                                      sub_project_title VARCHAR(255) NOT NULL,
+                                      sub_project_description VARCHAR(1000),
+                                      sub_project_start_date DATE,
+                                      sub_project_deadline DATE,
+                                      sub_project_duration INT
+);
+CREATE INDEX idx_archived_sub_project_project_id ON archived_sub_project(project_id);
+
+CREATE TABLE archived_task (
+                               task_id BIGINT PRIMARY KEY,
+                               employee_id BIGINT,
+                               sub_project_id BIGINT NOT NULL,
+                               task_title VARCHAR(255) NOT NULL,
+                               task_description VARCHAR(1000),
+                               task_status VARCHAR(50) NOT NULL,
+                               task_start_date DATE,
+                               task_deadline DATE,
+                               task_duration INT,
+                               task_priority VARCHAR(50),
+                               task_note VARCHAR(1000)
+);
+CREATE INDEX idx_archived_task_sub_project_id ON archived_task(sub_project_id);
+
+CREATE TABLE archived_sub_task (
+                                   sub_task_id BIGINT PRIMARY KEY,
+                                   task_id BIGINT NOT NULL,
+                                   sub_task_title VARCHAR(255) NOT NULL,
+                                   sub_task_description VARCHAR(1000),
+                                   sub_task_status VARCHAR(50) NOT NULL,
+                                   sub_task_start_date DATE,
+                                   sub_task_deadline DATE,
+                                   sub_task_duration INT,
+                                   sub_task_priority VARCHAR(50),
+                                   sub_task_note VARCHAR(1000)
+);
+CREATE INDEX idx_archived_sub_task_task_id ON archived_sub_task(task_id);
+
+-- Ændringer der skal ud til alle app-noder (se ChangeOutbox og OutboxPoller). Rækken skrives i samme
+-- transaktion som ændringen; hver node læser videre fra sin egen markør i outbox_cursor
+CREATE TABLE change_outbox (
+                               event_id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+                               change_type VARCHAR(40) NOT NULL,
+                               entity_id BIGINT NOT NULL,
+                               origin_node VARCHAR(100),
+                               created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+CREATE INDEX idx_change_outbox_created_at ON change_outbox(created_at);
+
+CREATE TABLE outbox_cursor (
+                               node_id VARCHAR(100) PRIMARY KEY,
+                               last_event_id BIGINT NOT NULL,
+                               seen_at TIMESTAMP NOT NULL
+);
+
+-- Natlige job der kun må køre på én node ad gangen (se SchedulerLockRepository og ArchiveScheduler).
+-- Den node der får rækken, holder den til locked_until; går noden ned, udløber låsen af sig selv
+CREATE TABLE scheduler_lock (
+                                lock_name VARCHAR(50) PRIMARY KEY,
+                                locked_until TIMESTAMP NOT NULL,
+                                locked_by VARCHAR(100)
+);
+
+-- Læsemodel til "My work": én række pr. task og subtask tildelt en medarbejder, med projekt- og subprojektnavn
+-- kopieret ind. Vedligeholdes i samme transaktion som skrivningen (se WorkItemService); status og prioritet
+-- gemmes som enum-navne. Sletninger og arkivering rydder op via ON DELETE CASCADE.
+CREATE TABLE work_item (
+                           item_type VARCHAR(10) NOT NULL,
+                           item_id BIGINT NOT NULL,
+                           employee_id BIGINT NOT NULL,
+                           project_id BIGINT NOT NULL,
+                           project_title VARCHAR(255),
+                           sub_project_id BIGINT NOT NULL,
+                           sub_project_title VARCHAR(255),
+                           task_id BIGINT NOT NULL,
+                           task_title VARCHAR(255),
+                           sub_task_id BIGINT,
+                           title VARCHAR(255) NOT NULL,
+                           status VARCHAR(20) NOT NULL,
+                           priority VARCHAR(20),
+                           deadline DATE,
+                           PRIMARY KEY (item_type, item_id),
+                           FOREIGN KEY (employee_id) REFERENCES employee(employee_id) ON DELETE CASCADE,
+                           FOREIGN KEY (task_id) REFERENCES task(task_id) ON DELETE CASCADE,
+                           FOREIGN KEY (sub_task_id) REFERENCES sub_task(sub_task_id) ON DELETE CASCADE
+);
+CREATE INDEX idx_work_item_employee_deadline ON work_item(employee_id, deadline);
+CREATE INDEX idx_work_item_employee_status ON work_item(employee_id, status);
+CREATE INDEX idx_work_item_project_id ON work_item(project_id);
+CREATE INDEX idx_work_item_sub_project_id ON work_item(sub_project_id);
+CREATE INDEX idx_work_item_task_id ON work_item(task_id);
+CREATE INDEX idx_work_item_sub_task_id ON work_item(sub_task_id);
+
+-- Dagligt øjebliksbillede til burndown og earned value: én række pr. subprojekt og én pr. projekt (sub_project_id = 0)
+-- pr. dag. Skrives af SnapshotService med én aggregeret forespørgsel og læses alene, så graferne ikke rører task-tabellen.
+-- Dage er taskens varighed, mindst én pr. task; "due" er tasks med deadline senest på dagen.
+-- Ingen fremmednøgle, så historikken overlever arkivering; sletning af projektet fjerner den (se ProjectDeletionService).
+CREATE TABLE project_snapshot (
+                                  project_id BIGINT NOT NULL,
+                                  sub_project_id BIGINT NOT NULL,
+                                  snapshot_date DATE NOT NULL,
+                                  task_count INT NOT NULL,
+                                  not_started_count INT NOT NULL,
+                                  in_progress_count INT NOT NULL,
+                                  completed_count INT NOT NULL,
+                                  due_count INT NOT NULL,
+                                  total_days INT NOT NULL,
+                                  in_progress_days INT NOT NULL,
+                                  completed_days INT NOT NULL,
+                                  due_days INT NOT NULL,
+                                  PRIMARY KEY (project_id, sub_project_id, snapshot_date)
+);
+CREATE INDEX idx_project_snapshot_date ON project_snapshot(snapshot_date);
+
+-- Append-only historik over tasks og subtasks: én række med hele tilstanden efter hver ændring (se TaskHistoryService).
+-- Skrives i samme transaktion som ændringen og kun når tilstanden faktisk er ændret; status og prioritet som enum-navne.
+-- task_id er forældretasken for subtasks, så (task_id, changed_at) giver en tasks samlede forløb.
+-- Ingen fremmednøgler, så slettede og arkiverede tasks beholder deres historik.
+CREATE TABLE task_history (
+                              history_id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+                              item_type VARCHAR(10) NOT NULL,
+                              item_id BIGINT NOT NULL,
+                              task_id BIGINT NOT NULL,
+                              sub_project_id BIGINT NOT NULL,
+                              project_id BIGINT NOT NULL,
+                              changed_at TIMESTAMP NOT NULL,
+                              change_kind VARCHAR(10) NOT NULL,
+                              title VARCHAR(255) NOT NULL,
+                              status VARCHAR(20) NOT NULL,
+                              priority VARCHAR(20),
+                              employee_id BIGINT,
+                              start_date DATE,
+                              deadline DATE
+);
+CREATE INDEX idx_task_history_task_changed ON task_history(task_id, changed_at);
+CREATE INDEX idx_task_history_project_changed ON task_history(project_id, changed_at);
+
+-- Ressourceudjævningens jobs og forslag (se ResourceLevelingService), så alle noder kan vise og gennemføre et job
+-- uanset hvilken node der beregnede det. Ingen fremmednøgle til project; jobs slettes efter leveling.job-minutes.
+-- Status som enum-navn; employees_done skrives løbende mens jobbet kører.
+CREATE TABLE leveling_job (
+                              job_id VARCHAR(36) PRIMARY KEY,
+                              project_id BIGINT NOT NULL,
+                              state VARCHAR(10) NOT NULL,
+                              employees_done INT NOT NULL DEFAULT 0,
+                              employees_total INT NOT NULL DEFAULT 0,
+                              overload_days_before INT NOT NULL DEFAULT 0,
+                              overload_days_after INT NOT NULL DEFAULT 0,
+                              applied_count INT NOT NULL DEFAULT 0,
+                              skipped_count INT NOT NULL DEFAULT 0,
+                              message VARCHAR(255),
+                              created_at TIMESTAMP NOT NULL
+);
+CREATE INDEX idx_leveling_job_project_state ON leveling_job(project_id, state);
+CREATE INDEX idx_leveling_job_created_at ON leveling_job(created_at);
+
+CREATE TABLE leveling_shift (
+                                job_id VARCHAR(36) NOT NULL,
+                                shift_no INT NOT NULL,
+                                task_id BIGINT NOT NULL,
+                                task_title VARCHAR(255),
+                                employee_id BIGINT NOT NULL,
+                                username VARCHAR(100),
+                                old_start_date DATE NOT NULL,
+                                old_deadline DATE NOT NULL,
+                                new_start_date DATE NOT NULL,
+                                new_deadline DATE NOT NULL,
+                                PRIMARY KEY (job_id, shift_no),
+                                FOREIGN KEY (job_id) REFERENCES leveling_job(job_id) ON DELETE CASCADE
+);